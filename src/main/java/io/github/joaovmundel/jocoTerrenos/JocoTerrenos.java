@@ -5,45 +5,195 @@ import io.github.joaovmundel.jocoTerrenos.commands.RemoverCercaCommand;
 import io.github.joaovmundel.jocoTerrenos.commands.ResizeCercaCommand;
 import io.github.joaovmundel.jocoTerrenos.commands.TerrenoCommand;
 import io.github.joaovmundel.jocoTerrenos.database.DatabaseManager;
+import io.github.joaovmundel.jocoTerrenos.infrastructure.Settings;
+import io.github.joaovmundel.jocoTerrenos.listeners.FlagListener;
+import io.github.joaovmundel.jocoTerrenos.listeners.LandVisualizerListener;
+import io.github.joaovmundel.jocoTerrenos.listeners.ListagemListener;
+import io.github.joaovmundel.jocoTerrenos.listeners.MobSpawnListener;
+import io.github.joaovmundel.jocoTerrenos.listeners.PlayerSeenListener;
+import io.github.joaovmundel.jocoTerrenos.listeners.PlayerLandListener;
+import io.github.joaovmundel.jocoTerrenos.listeners.ProtectionListener;
+import io.github.joaovmundel.jocoTerrenos.listeners.PvpListener;
+import io.github.joaovmundel.jocoTerrenos.listeners.TaxListener;
+import io.github.joaovmundel.jocoTerrenos.listeners.TeleportCacheListener;
+import io.github.joaovmundel.jocoTerrenos.repositories.AnalyticsRepository;
+import io.github.joaovmundel.jocoTerrenos.repositories.AuditRepository;
+import io.github.joaovmundel.jocoTerrenos.repositories.FenceLedgerRepository;
+import io.github.joaovmundel.jocoTerrenos.repositories.FileTerrenoRepository;
+import io.github.joaovmundel.jocoTerrenos.repositories.PlayerSeenRepository;
+import io.github.joaovmundel.jocoTerrenos.repositories.SnapshotRepository;
+import io.github.joaovmundel.jocoTerrenos.repositories.SqlTerrenoRepository;
+import io.github.joaovmundel.jocoTerrenos.repositories.TaxRepository;
+import io.github.joaovmundel.jocoTerrenos.repositories.TeleportRepository;
 import io.github.joaovmundel.jocoTerrenos.repositories.TerrenoRepository;
+import io.github.joaovmundel.jocoTerrenos.service.AnalyticsService;
+import io.github.joaovmundel.jocoTerrenos.service.AuditService;
+import io.github.joaovmundel.jocoTerrenos.service.EconomyService;
+import io.github.joaovmundel.jocoTerrenos.service.FenceLedgerService;
+import io.github.joaovmundel.jocoTerrenos.service.LandVisualizer;
 import io.github.joaovmundel.jocoTerrenos.service.MessageService;
+import io.github.joaovmundel.jocoTerrenos.service.MobSpawnIndex;
+import io.github.joaovmundel.jocoTerrenos.service.NameSearchIndex;
+import io.github.joaovmundel.jocoTerrenos.service.PlayerLandCache;
+import io.github.joaovmundel.jocoTerrenos.service.QuotaService;
+import io.github.joaovmundel.jocoTerrenos.service.RateLimiter;
+import io.github.joaovmundel.jocoTerrenos.service.ReclaimService;
+import io.github.joaovmundel.jocoTerrenos.service.SnapshotService;
+import io.github.joaovmundel.jocoTerrenos.service.TaxService;
+import io.github.joaovmundel.jocoTerrenos.service.TeleportCache;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex;
 import io.github.joaovmundel.jocoTerrenos.service.TerrenoService;
+import io.github.joaovmundel.jocoTerrenos.service.TrustService;
+import io.github.joaovmundel.jocoTerrenos.tasks.RefenceJob;
+import io.github.joaovmundel.jocoTerrenos.tasks.TickBudgetScheduler;
+import io.github.joaovmundel.jocoTerrenos.utils.FenceUtils;
 import lombok.Getter;
 import net.milkbowl.vault.economy.Economy;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.RegisteredServiceProvider;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.logging.Level;
 
 @Getter
 public final class JocoTerrenos extends JavaPlugin {
 
     private DatabaseManager databaseManager;
     private TerrenoRepository terrenoRepository;
+    private TeleportRepository teleportRepository;
+    private AnalyticsRepository analyticsRepository;
+    private FenceLedgerRepository fenceLedgerRepository;
+    private PlayerSeenRepository playerSeenRepository;
+    private TaxRepository taxRepository;
+    private SnapshotRepository snapshotRepository;
+    private AuditRepository auditRepository;
     private TerrenoService terrenoService;
     private Economy economy;
+    private EconomyService economyService;
+    private TeleportCache teleportCache;
+    private TerrenoIndex terrenoIndex;
+    private MobSpawnIndex mobSpawnIndex;
+    private PlayerLandCache playerLandCache;
+    private TrustService trustService;
+    private AnalyticsService analyticsService;
+    private QuotaService quotaService;
+    private RateLimiter rateLimiter;
+    private LandVisualizer landVisualizer;
+    private NameSearchIndex nameSearchIndex;
+    private FenceLedgerService fenceLedgerService;
+    private ReclaimService reclaimService;
+    private TaxService taxService;
+    private SnapshotService snapshotService;
+    private AuditService auditService;
     private MessageService messageService;
+    private TickBudgetScheduler tickBudgetScheduler;
+    private volatile Settings settings;
 
     @Override
     public void onEnable() {
         // Salva a configuração padrão se não existir
         saveDefaultConfig();
+        carregarSettings();
 
         // Inicializa MessageService e arquivos de idioma
         messageService = new MessageService(this);
         messageService.initLocalesFolderAndDefaults();
         messageService.reload();
+        FenceUtils.configurarMensagens(messageService);
 
         // Inicializa o banco de dados
         databaseManager = new DatabaseManager(this);
         databaseManager.initialize();
 
         // Inicializa os repositórios
-        terrenoRepository = new TerrenoRepository(databaseManager, getLogger());
+        playerSeenRepository = new PlayerSeenRepository(databaseManager, getLogger());
+        if (databaseManager.getDatabaseType() == DatabaseManager.DatabaseType.FILE) {
+            File arquivo = new File(getDataFolder(), getConfig().getString("database.file.filename", "terrenos.log"));
+            long minimoCompactacao = Math.max(1, getConfig().getLong("database.file.compact-min-mb", 16)) * 1024L * 1024L;
+            try {
+                terrenoRepository = new FileTerrenoRepository(arquivo, minimoCompactacao, playerSeenRepository, getLogger());
+            } catch (IOException | UncheckedIOException e) {
+                getLogger().log(Level.SEVERE, "Erro ao abrir " + arquivo.getName() + "; desabilitando o plugin", e);
+                getServer().getPluginManager().disablePlugin(this);
+                return;
+            }
+        } else {
+            terrenoRepository = new SqlTerrenoRepository(databaseManager, getLogger());
+        }
+        teleportRepository = new TeleportRepository(databaseManager, getLogger());
+        analyticsRepository = new AnalyticsRepository(databaseManager, getLogger());
+        fenceLedgerRepository = new FenceLedgerRepository(databaseManager, getLogger());
+        taxRepository = new TaxRepository(databaseManager, getLogger());
+        snapshotRepository = new SnapshotRepository(new File(getDataFolder(), "snapshots"), getLogger());
+        auditRepository = new AuditRepository(databaseManager, getLogger());
 
         // Inicializa os services
-        terrenoService = new TerrenoService(terrenoRepository, getConfig(), messageService);
+        economyService = new EconomyService(this);
+        auditService = new AuditService(auditRepository,
+                getConfig().getInt("audit.queue-size", 8192),
+                getConfig().getInt("audit.batch-size", 500),
+                getConfig().getLong("audit.flush-interval-ms", 1000));
+        teleportCache = new TeleportCache(teleportRepository,
+                getConfig().getBoolean("lands.teleport.cache.persist", true),
+                getConfig().getInt("lands.teleport.cache.invalidation-radius", 2));
+        teleportCache.carregarAsync();
+        fenceLedgerService = new FenceLedgerService(this, fenceLedgerRepository);
+        terrenoIndex = new TerrenoIndex();
+        mobSpawnIndex = new MobSpawnIndex();
+        terrenoIndex.adicionarObservador(mobSpawnIndex);
+        playerLandCache = new PlayerLandCache(terrenoIndex);
+        terrenoIndex.adicionarObservador(playerLandCache);
+        trustService = new TrustService(terrenoRepository, terrenoIndex);
+        terrenoIndex.adicionarObservador(trustService);
+        analyticsService = new AnalyticsService(analyticsRepository, playerLandCache);
+        terrenoIndex.adicionarObservador(analyticsService);
+        analyticsService.carregarAsync();
+        quotaService = new QuotaService(this::getSettings);
+        terrenoIndex.adicionarObservador(quotaService);
+        rateLimiter = new RateLimiter(this::getSettings);
+        landVisualizer = new LandVisualizer(terrenoIndex, this::getSettings, messageService);
+        terrenoIndex.adicionarObservador(landVisualizer);
+        nameSearchIndex = new NameSearchIndex();
+        terrenoIndex.adicionarObservador(nameSearchIndex);
+        terrenoService = new TerrenoService(terrenoRepository, this::getSettings, messageService, economyService, teleportCache, terrenoIndex, trustService, auditService);
+        terrenoIndex.adicionarObservador(terrenoService);
+        terrenoService.carregarIndiceAsync();
+        reclaimService = new ReclaimService(this, terrenoRepository, playerSeenRepository, fenceLedgerRepository, this::getSettings);
+        // Donos que nunca tiveram acesso registrado passam a contar para a expiração a partir deste enable
+        terrenoIndex.aguardarCarregamento().thenCompose(v -> reclaimService.registrarDonosSemAcessoAsync(terrenoIndex.donos()));
+        taxService = new TaxService(this, taxRepository, terrenoRepository, terrenoService, economyService, this::getSettings);
+        terrenoIndex.adicionarObservador(taxService);
+        snapshotService = new SnapshotService(this, snapshotRepository, this::getSettings);
+        terrenoIndex.adicionarObservador(snapshotService);
+
+        // Agendador de edições no mundo com orçamento por tick
+        tickBudgetScheduler = new TickBudgetScheduler(getConfig().getDouble("lands.edit-budget.ms-per-tick", 5.0));
+        tickBudgetScheduler.runTaskTimer(this, 1L, 1L);
+
+        // Estatísticas: amostragem a cada segundo e gravação periódica fora da main thread
+        long flushTicks = Math.max(1, getConfig().getLong("analytics.flush-interval-minutes", 5)) * 60L * 20L;
+        getServer().getScheduler().runTaskTimer(this, analyticsService::amostrar, 20L, 20L);
+        getServer().getScheduler().runTaskTimerAsynchronously(this, analyticsService::flush, flushTicks, flushTicks);
+
+        // Expiração de terrenos de donos inativos (o intervalo só muda com restart)
+        long reclaimTicks = settings.expiracao().intervaloHoras() * 60L * 60L * 20L;
+        getServer().getScheduler().runTaskTimer(this, reclaimService::executarAgendado, 10L * 60L * 20L, reclaimTicks);
+
+        // Imposto: verifica a cada hora os terrenos cujo período acabou
+        getServer().getScheduler().runTaskTimer(this, taxService::executarAgendado, 5L * 60L * 20L, 60L * 60L * 20L);
+
+        // Limites de frequência: descarta os baldes que já estão cheios
+        getServer().getScheduler().runTaskTimer(this, rateLimiter::limparOciosos, 60L * 20L, 60L * 20L);
+
+        // Visualização de bordas (/terreno ver)
+        getServer().getScheduler().runTaskTimer(this, landVisualizer::tick, 10L, 10L);
+
         // Registra os comandos
         Objects.requireNonNull(getCommand("cercar")).setExecutor(new CercarCommand(messageService));
         Objects.requireNonNull(getCommand("resizecerca")).setExecutor(new ResizeCercaCommand(messageService));
@@ -52,14 +202,57 @@ public final class JocoTerrenos extends JavaPlugin {
         Objects.requireNonNull(getCommand("terreno")).setExecutor(terrenoCmd);
         Objects.requireNonNull(getCommand("terreno")).setTabCompleter(terrenoCmd);
 
+        // Registra os listeners
+        getServer().getPluginManager().registerEvents(new TeleportCacheListener(teleportCache), this);
+        getServer().getPluginManager().registerEvents(new MobSpawnListener(mobSpawnIndex), this);
+        getServer().getPluginManager().registerEvents(new PlayerLandListener(playerLandCache), this);
+        getServer().getPluginManager().registerEvents(new PvpListener(playerLandCache), this);
+        getServer().getPluginManager().registerEvents(new ProtectionListener(trustService, messageService), this);
+        getServer().getPluginManager().registerEvents(new FlagListener(terrenoIndex, playerLandCache, trustService, messageService), this);
+        getServer().getPluginManager().registerEvents(new ListagemListener(terrenoService), this);
+        getServer().getPluginManager().registerEvents(new LandVisualizerListener(landVisualizer), this);
+        getServer().getPluginManager().registerEvents(new PlayerSeenListener(reclaimService), this);
+        getServer().getPluginManager().registerEvents(new TaxListener(taxService), this);
+        // Jogadores já online (ex.: /reload)
+        Bukkit.getOnlinePlayers().forEach(p -> trustService.carregarAsync(p.getUniqueId()));
+
         // Setup Vault Economy
         setupEconomy();
 
+        // Retoma regenerações e remoções de cercas interrompidas (após os mundos carregarem)
+        getServer().getScheduler().runTaskLater(this, () -> {
+            RefenceJob.retomarPendentes(this);
+            reclaimService.retomarPendentesAsync();
+        }, 40L);
+
         getLogger().info("JocoTerrenos habilitado com sucesso!");
     }
 
     @Override
     public void onDisable() {
+        if (tickBudgetScheduler != null) {
+            tickBudgetScheduler.shutdown();
+        }
+        if (economyService != null) {
+            economyService.shutdown();
+        }
+        if (analyticsService != null) {
+            analyticsService.flush();
+        }
+        if (reclaimService != null) {
+            reclaimService.registrarOnline();
+        }
+
+        // Grava a auditoria pendente antes de fechar o banco
+        if (auditService != null) {
+            auditService.close();
+        }
+
+        // Grava o que faltar do log de terrenos (modo FILE) antes de fechar o banco
+        if (terrenoRepository != null) {
+            terrenoRepository.close();
+        }
+
         // Fecha a conexão com o banco de dados
         if (databaseManager != null) {
             databaseManager.close();
@@ -68,6 +261,25 @@ public final class JocoTerrenos extends JavaPlugin {
         getLogger().info("JocoTerrenos desabilitado!");
     }
 
+    /**
+     * Relê o config.yml e troca as configurações de uma vez. Banco, pool de conexões, cache de teleporte,
+     * orçamento de edição e intervalo de analytics só mudam com restart.
+     *
+     * @return avisos de valores inválidos (já registrados no log)
+     */
+    public List<String> recarregarSettings() {
+        reloadConfig();
+        return carregarSettings();
+    }
+
+    private List<String> carregarSettings() {
+        List<String> avisos = new ArrayList<>();
+        settings = Settings.carregar(getConfig(), avisos);
+        FenceUtils.configurarMaterial(settings.materialCerca());
+        avisos.forEach(aviso -> getLogger().warning("config.yml: " + aviso));
+        return avisos;
+    }
+
     private void setupEconomy() {
         if (getServer().getPluginManager().getPlugin("Vault") == null) {
             getLogger().severe("Vault não encontrado! Desabilitando o plugin.");
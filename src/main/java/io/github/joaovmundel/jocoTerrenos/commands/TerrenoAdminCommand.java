@@ -0,0 +1,370 @@
+package io.github.joaovmundel.jocoTerrenos.commands;
+
+import io.github.joaovmundel.jocoTerrenos.JocoTerrenos;
+import io.github.joaovmundel.jocoTerrenos.infrastructure.JocoLogging;
+import io.github.joaovmundel.jocoTerrenos.repositories.AuditRepository;
+import io.github.joaovmundel.jocoTerrenos.service.AuditService;
+import io.github.joaovmundel.jocoTerrenos.service.MessageService;
+import io.github.joaovmundel.jocoTerrenos.service.NameSearchIndex;
+import io.github.joaovmundel.jocoTerrenos.service.TaxService;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex.Area;
+import io.github.joaovmundel.jocoTerrenos.tasks.RefenceJob;
+import io.github.joaovmundel.jocoTerrenos.utils.FenceUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Subcomandos administrativos de {@code /terreno admin}. Aceita jogadores e console.
+ */
+public class TerrenoAdminCommand {
+
+    public static final String PERMISSION = "jocoterrenos.admin";
+    private static final List<String> SUB_COMMANDS = List.of("refence", "reparar", "exportar", "expirar", "imposto", "reload", "buscar", "auditoria");
+    private static final int RESULTADOS_BUSCA = 10;
+    private static final int SUGESTOES_BUSCA = 20;
+    private static final int REGISTROS_AUDITORIA = 10;
+    private static final DateTimeFormatter FORMATO_AUDITORIA = DateTimeFormatter.ofPattern("dd/MM HH:mm:ss");
+
+    private final JocoTerrenos plugin;
+    private final JocoLogging logger = new JocoLogging(this.getClass().getName());
+
+    public TerrenoAdminCommand(JocoTerrenos plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * @param args argumentos completos de /terreno (args[0] = "admin")
+     */
+    public boolean handle(CommandSender sender, String[] args) {
+        MessageService messages = plugin.getMessageService();
+        if (!sender.hasPermission(PERMISSION)) {
+            messages.send(sender, "terreno.admin.sem-permissao");
+            return true;
+        }
+        if (args.length < 2) {
+            messages.sendList(sender, "terreno.admin.usage");
+            return true;
+        }
+
+        return switch (args[1].toLowerCase()) {
+            case "refence" -> handleRefence(sender, args);
+            case "reparar" -> handleReparar(sender, args);
+            case "exportar" -> handleExportar(sender);
+            case "expirar" -> handleExpirar(sender, args);
+            case "imposto" -> handleImposto(sender);
+            case "reload" -> handleReload(sender);
+            case "buscar" -> handleBuscar(sender, args);
+            case "auditoria" -> handleAuditoria(sender, args);
+            default -> {
+                messages.sendList(sender, "terreno.admin.usage");
+                yield true;
+            }
+        };
+    }
+
+    private boolean handleRefence(CommandSender sender, String[] args) {
+        MessageService messages = plugin.getMessageService();
+        if (args.length < 3) {
+            messages.send(sender, "terreno.admin.refence.usage");
+            return true;
+        }
+
+        World world = Bukkit.getWorld(args[2]);
+        if (world == null) {
+            messages.send(sender, "terreno.admin.refence.mundo-invalido", MessageService.placeholders("world", args[2]));
+            return true;
+        }
+
+        Material materialNovo = FenceUtils.getConfiguredFenceMaterial();
+        Material materialAntigo = materialNovo;
+        if (args.length >= 4) {
+            materialAntigo = Material.matchMaterial(args[3]);
+            if (materialAntigo == null) {
+                messages.send(sender, "terreno.admin.refence.material-invalido", MessageService.placeholders("material", args[3]));
+                return true;
+            }
+        }
+
+        String worldName = world.getName();
+        if (!RefenceJob.reservar(worldName)) {
+            messages.send(sender, "terreno.admin.refence.em-andamento", MessageService.placeholders("world", worldName));
+            return true;
+        }
+
+        UUID solicitante = sender instanceof Player player ? player.getUniqueId() : null;
+        Material antigo = materialAntigo;
+        plugin.getTerrenoService().listarTerrenosDoMundoAsync(worldName).whenComplete((terrenos, ex) -> {
+            if (ex != null) {
+                RefenceJob.liberar(worldName);
+                logger.warning("Erro ao listar terrenos de " + worldName + ": " + ex.getMessage());
+                Bukkit.getScheduler().runTask(plugin, () -> messages.send(sender, "terreno.admin.refence.erro"));
+                return;
+            }
+            RefenceJob job = RefenceJob.criar(plugin, world, terrenos, antigo, materialNovo, solicitante);
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                plugin.getTickBudgetScheduler().submit(job);
+                messages.send(sender, "terreno.admin.refence.iniciado", MessageService.placeholders(
+                        "world", worldName, "total", job.getTotal(), "old", antigo.name(), "new", materialNovo.name()));
+            });
+        });
+        return true;
+    }
+
+    private boolean handleReparar(CommandSender sender, String[] args) {
+        MessageService messages = plugin.getMessageService();
+        if (args.length < 3) {
+            messages.send(sender, "terreno.admin.reparar.usage");
+            return true;
+        }
+        long id;
+        try {
+            id = Long.parseLong(args[2]);
+        } catch (NumberFormatException e) {
+            messages.send(sender, "invalid-number");
+            return true;
+        }
+
+        plugin.getFenceLedgerService().repararAsync(id).whenComplete((reparo, ex) -> Bukkit.getScheduler().runTask(plugin, () -> {
+            if (ex != null) {
+                logger.warning("Erro ao reparar cercas do terreno " + id + ": " + ex.getMessage());
+                messages.send(sender, "terreno.admin.reparar.erro");
+                return;
+            }
+            if (reparo.isEmpty()) {
+                messages.send(sender, "terreno.admin.reparar.sem-registro", MessageService.placeholders("id", id));
+                return;
+            }
+            messages.send(sender, "terreno.admin.reparar.sucesso", MessageService.placeholders(
+                    "id", id, "total", reparo.get().registradas(), "missing", reparo.get().faltando(), "repaired", reparo.get().reparadas()));
+        }));
+        return true;
+    }
+
+    private boolean handleExportar(CommandSender sender) {
+        MessageService messages = plugin.getMessageService();
+        File pasta = new File(plugin.getDataFolder(), "exports");
+        plugin.getAnalyticsService().exportarCsvAsync(pasta).whenComplete((destino, ex) -> Bukkit.getScheduler().runTask(plugin, () -> {
+            if (ex != null) {
+                logger.warning("Erro ao exportar estatísticas: " + ex.getMessage());
+                messages.send(sender, "terreno.admin.exportar.erro");
+                return;
+            }
+            messages.send(sender, "terreno.admin.exportar.sucesso", MessageService.placeholders("path", destino.getPath()));
+        }));
+        return true;
+    }
+
+    private boolean handleExpirar(CommandSender sender, String[] args) {
+        MessageService messages = plugin.getMessageService();
+        if (args.length < 3 || !(args[2].equalsIgnoreCase("simular") || args[2].equalsIgnoreCase("executar"))) {
+            messages.send(sender, "terreno.admin.expirar.usage");
+            return true;
+        }
+        boolean simulacao = args[2].equalsIgnoreCase("simular");
+        int dias = plugin.getSettings().expiracao().diasInativo();
+        messages.send(sender, simulacao ? "terreno.admin.expirar.simulando" : "terreno.admin.expirar.iniciado",
+                MessageService.placeholders("days", dias));
+        plugin.getReclaimService().executarAsync(simulacao).whenComplete((relatorio, ex) -> Bukkit.getScheduler().runTask(plugin, () -> {
+            if (ex != null) {
+                logger.warning("Erro ao expirar terrenos: " + ex.getMessage());
+                messages.send(sender, "terreno.admin.expirar.erro");
+                return;
+            }
+            if (relatorio.isEmpty()) {
+                messages.send(sender, "terreno.admin.expirar.em-andamento");
+                return;
+            }
+            messages.send(sender, simulacao ? "terreno.admin.expirar.simulado" : "terreno.admin.expirar.concluido", MessageService.placeholders(
+                    "lands", relatorio.get().terrenos(), "owners", relatorio.get().donos(), "area", relatorio.get().area(),
+                    "removed", relatorio.get().removidos(), "path", relatorio.get().arquivo().getPath()));
+        }));
+        return true;
+    }
+
+    private boolean handleImposto(CommandSender sender) {
+        MessageService messages = plugin.getMessageService();
+        messages.send(sender, "terreno.admin.imposto.iniciado");
+        plugin.getTaxService().executarAsync().whenComplete((relatorio, ex) -> Bukkit.getScheduler().runTask(plugin, () -> {
+            if (ex != null) {
+                logger.warning("Erro ao cobrar impostos: " + ex.getMessage());
+                messages.send(sender, "terreno.admin.imposto.erro");
+                return;
+            }
+            if (relatorio.isEmpty()) {
+                messages.send(sender, "terreno.admin.imposto.em-andamento");
+                return;
+            }
+            TaxService.Relatorio r = relatorio.get();
+            messages.send(sender, "terreno.admin.imposto.concluido", MessageService.placeholders(
+                    "paid", r.donosPagantes(), "owners", r.donosCobrados(), "price", String.format("%.2f", r.arrecadado()),
+                    "lands", r.terrenosPagos(), "grace", r.terrenosEmCarencia(), "overdue", r.terrenosVencidos(), "removed", r.terrenosApagados(),
+                    "seconds", r.duracaoMs() / 1000L));
+        }));
+        return true;
+    }
+
+    private boolean handleReload(CommandSender sender) {
+        MessageService messages = plugin.getMessageService();
+        List<String> avisos = plugin.recarregarSettings();
+        messages.reload();
+        messages.send(sender, "terreno.admin.reload.sucesso", MessageService.placeholders("warnings", avisos.size()));
+        for (String aviso : avisos) {
+            messages.send(sender, "terreno.admin.reload.aviso", MessageService.placeholders("warning", aviso));
+        }
+        return true;
+    }
+
+    private boolean handleBuscar(CommandSender sender, String[] args) {
+        MessageService messages = plugin.getMessageService();
+        if (args.length < 3) {
+            messages.send(sender, "terreno.admin.buscar.usage");
+            return true;
+        }
+        if (!plugin.getTerrenoIndex().isCarregado()) {
+            messages.send(sender, "terreno.admin.buscar.carregando");
+            return true;
+        }
+
+        String texto = String.join(" ", Arrays.copyOfRange(args, 2, args.length));
+        long inicio = System.nanoTime();
+        List<NameSearchIndex.Resultado> resultados = plugin.getNameSearchIndex().buscar(texto, RESULTADOS_BUSCA);
+        long micros = (System.nanoTime() - inicio) / 1000L;
+        if (resultados.isEmpty()) {
+            messages.send(sender, "terreno.admin.buscar.vazio", MessageService.placeholders("query", texto));
+            return true;
+        }
+
+        messages.send(sender, "terreno.admin.buscar.titulo", MessageService.placeholders(
+                "query", texto, "count", resultados.size(), "ms", String.format("%.2f", micros / 1000.0)));
+        for (NameSearchIndex.Resultado r : resultados) {
+            Area area = r.area();
+            String dono = Bukkit.getOfflinePlayer(UUID.fromString(area.donoUUID())).getName();
+            messages.send(sender, "terreno.admin.buscar.linha", MessageService.placeholders(
+                    "id", area.id(), "name", area.name(), "owner", dono != null ? dono : area.donoUUID(),
+                    "world", area.world(), "x", (int) Math.floor(area.centerX()), "z", (int) Math.floor(area.centerZ()),
+                    "size", area.size()));
+        }
+        return true;
+    }
+
+    /**
+     * /terreno admin auditoria &lt;id|todos&gt; [página]
+     */
+    private boolean handleAuditoria(CommandSender sender, String[] args) {
+        MessageService messages = plugin.getMessageService();
+        if (args.length < 3) {
+            messages.send(sender, "terreno.admin.auditoria.usage");
+            return true;
+        }
+        Long terrenoId = null;
+        int pagina = 1;
+        try {
+            if (!args[2].equalsIgnoreCase("todos")) terrenoId = Long.parseLong(args[2]);
+            if (args.length >= 4) pagina = Integer.parseInt(args[3]);
+        } catch (NumberFormatException e) {
+            messages.send(sender, "invalid-number");
+            return true;
+        }
+
+        String escopo = terrenoId != null ? String.valueOf(terrenoId) : "todos";
+        AuditService auditoria = plugin.getAuditService();
+        auditoria.listarPaginaAsync(terrenoId, pagina, REGISTROS_AUDITORIA).whenComplete((resultado, ex) -> Bukkit.getScheduler().runTask(plugin, () -> {
+            if (ex != null) {
+                logger.warning("Erro ao consultar auditoria: " + ex.getMessage());
+                messages.send(sender, "terreno.admin.auditoria.erro");
+                return;
+            }
+            if (resultado.total() == 0) {
+                messages.send(sender, "terreno.admin.auditoria.vazio", MessageService.placeholders("scope", escopo));
+                return;
+            }
+            messages.send(sender, "terreno.admin.auditoria.titulo", MessageService.placeholders(
+                    "scope", escopo, "page", resultado.pagina(), "pages", resultado.totalPaginas(), "total", resultado.total(),
+                    "pending", auditoria.getPendentes(), "dropped", auditoria.getDescartados()));
+            for (AuditRepository.Registro r : resultado.registros()) {
+                String acao = messages.format("terreno.admin.auditoria.acao." + r.acao().name().toLowerCase(), MessageService.placeholders(
+                        "target", nomeJogador(r.alvo()), "detail", r.detalhe() != null ? r.detalhe() : "",
+                        "value", r.valor()));
+                messages.send(sender, "terreno.admin.auditoria.linha", MessageService.placeholders(
+                        "date", FORMATO_AUDITORIA.format(Instant.ofEpochMilli(r.momento()).atZone(ZoneId.systemDefault())),
+                        "id", r.terrenoId(),
+                        "actor", r.ator() != null ? nomeJogador(r.ator()) : messages.get("terreno.admin.auditoria.sistema"),
+                        "action", acao));
+            }
+            if (resultado.pagina() < resultado.totalPaginas()) {
+                messages.send(sender, "terreno.admin.auditoria.proxima", MessageService.placeholders(
+                        "scope", escopo, "next", resultado.pagina() + 1));
+            }
+        }));
+        return true;
+    }
+
+    /**
+     * Nome do jogador quando o texto é um UUID conhecido; senão o próprio texto
+     */
+    private static String nomeJogador(String texto) {
+        if (texto == null) return "";
+        try {
+            String nome = Bukkit.getOfflinePlayer(UUID.fromString(texto)).getName();
+            return nome != null ? nome : texto;
+        } catch (IllegalArgumentException e) {
+            return texto;
+        }
+    }
+
+    /**
+     * @param args argumentos completos de /terreno (args[0] = "admin")
+     */
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        List<String> suggestions = new ArrayList<>();
+        if (!sender.hasPermission(PERMISSION)) {
+            return suggestions;
+        }
+        if (args.length == 2) {
+            String prefix = args[1].toLowerCase();
+            return SUB_COMMANDS.stream().filter(s -> s.startsWith(prefix)).toList();
+        }
+        if (args.length == 3 && "expirar".equalsIgnoreCase(args[1])) {
+            String prefix = args[2].toLowerCase();
+            return List.of("simular", "executar").stream().filter(s -> s.startsWith(prefix)).toList();
+        }
+        if (args.length >= 3 && "buscar".equalsIgnoreCase(args[1])) {
+            String texto = String.join(" ", Arrays.copyOfRange(args, 2, args.length));
+            if (texto.isBlank()) return suggestions;
+            // O cliente completa só a última palavra: sugere o que falta do nome a partir dela
+            int inicioPalavra = texto.length() - args[args.length - 1].length();
+            for (String nome : plugin.getNameSearchIndex().sugerir(texto, SUGESTOES_BUSCA)) {
+                if (nome.length() >= inicioPalavra && nome.regionMatches(true, 0, texto, 0, inicioPalavra)) {
+                    suggestions.add(nome.substring(inicioPalavra));
+                } else if (args.length == 3) {
+                    suggestions.add(nome);
+                }
+            }
+            return suggestions;
+        }
+        if (args.length == 3 && "auditoria".equalsIgnoreCase(args[1])) {
+            String prefix = args[2].toLowerCase();
+            if ("todos".startsWith(prefix)) suggestions.add("todos");
+            return suggestions;
+        }
+        if (args.length == 3 && "refence".equalsIgnoreCase(args[1])) {
+            String prefix = args[2].toLowerCase();
+            for (World world : Bukkit.getWorlds()) {
+                if (world.getName().toLowerCase().startsWith(prefix)) suggestions.add(world.getName());
+            }
+        }
+        return suggestions;
+    }
+}
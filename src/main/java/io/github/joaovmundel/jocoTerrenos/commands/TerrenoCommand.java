@@ -4,13 +4,21 @@ import io.github.joaovmundel.jocoTerrenos.JocoTerrenos;
 import io.github.joaovmundel.jocoTerrenos.exceptions.TerrenoNotFoundException;
 import io.github.joaovmundel.jocoTerrenos.infrastructure.JocoLogging;
 import io.github.joaovmundel.jocoTerrenos.models.Terreno;
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoFlag;
+import io.github.joaovmundel.jocoTerrenos.repositories.UpdateResult;
+import io.github.joaovmundel.jocoTerrenos.service.FenceLedgerService;
+import io.github.joaovmundel.jocoTerrenos.service.LandVisualizer;
 import io.github.joaovmundel.jocoTerrenos.service.MessageService;
+import io.github.joaovmundel.jocoTerrenos.service.QuotaService;
 import io.github.joaovmundel.jocoTerrenos.service.TerrenoService;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoService.Redimensionamento;
+import io.github.joaovmundel.jocoTerrenos.tasks.FenceDiffJob;
 import io.github.joaovmundel.jocoTerrenos.utils.FenceUtils;
 import io.github.joaovmundel.jocoTerrenos.utils.LocationUtils;
 import io.github.joaovmundel.jocoTerrenos.utils.StringUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.Material;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -30,15 +38,24 @@ public class TerrenoCommand implements CommandExecutor, TabCompleter {
     private final JocoTerrenos plugin;
     private final JocoLogging logger = new JocoLogging(this.getClass().getName());
     private final TerrenoService terrenoService;
-    private static final List<String> SUB_COMMANDS = Arrays.asList("comprar", "preco", "listar", "info", "deletar", "pvp", "mobs", "publico", "tp");
+    private final TerrenoAdminCommand adminCommand;
+    private final TerrenoMembroCommand membroCommand;
+    private static final List<String> SUB_COMMANDS = Arrays.asList("comprar", "preco", "listar", "info", "deletar", "pvp", "mobs", "publico", "flag", "tp", "redimensionar", "membro", "renomear", "transferir", "ver", "sugerir", "snapshot", "restaurar");
 
     public TerrenoCommand(JocoTerrenos plugin) {
         this.terrenoService = plugin.getTerrenoService();
         this.plugin = plugin;
+        this.adminCommand = new TerrenoAdminCommand(plugin);
+        this.membroCommand = new TerrenoMembroCommand(plugin);
     }
 
     @Override
     public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        // Subcomandos administrativos também podem ser usados pelo console
+        if (args.length > 0 && "admin".equalsIgnoreCase(args[0])) {
+            return adminCommand.handle(sender, args);
+        }
+
         if (!(sender instanceof Player player)) {
             plugin.getMessageService().send(sender, "only-player");
             return true;
@@ -50,16 +67,31 @@ public class TerrenoCommand implements CommandExecutor, TabCompleter {
         }
 
         String subCommand = args[0].toLowerCase();
+        long espera = plugin.getRateLimiter().consumir(player.getUniqueId(), subCommand);
+        if (espera > 0) {
+            plugin.getMessageService().send(player, "terreno.limite.aguarde", MessageService.placeholders("seconds", espera));
+            return true;
+        }
+
         return switch (subCommand) {
             case "comprar" -> handleComprar(player, args);
-            case "listar" -> handleListar(player);
+            case "listar" -> handleListar(player, args);
             case "info" -> handleInfo(player, args);
             case "deletar" -> handleDeletar(player, args);
             case "pvp" -> handleTogglePvp(player, args);
             case "mobs" -> handleToggleMobs(player, args);
             case "publico" -> handleTogglePublico(player, args);
+            case "flag" -> handleFlag(player, args);
             case "tp" -> handleTp(player, args);
             case "preco" -> handlePreco(player, args);
+            case "redimensionar" -> handleRedimensionar(player, args);
+            case "membro" -> membroCommand.handle(player, args);
+            case "renomear" -> handleRenomear(player, args);
+            case "transferir" -> handleTransferir(player, args);
+            case "ver" -> handleVer(player);
+            case "sugerir" -> handleSugerir(player, args);
+            case "snapshot" -> handleSnapshot(player, args);
+            case "restaurar" -> handleRestaurar(player, args);
             default -> {
                 sendHelp(player);
                 yield true;
@@ -92,37 +124,55 @@ public class TerrenoCommand implements CommandExecutor, TabCompleter {
                 return true;
             }
 
+            // Cota reservada antes de qualquer trabalho assíncrono; liberada quando a compra termina
+            String donoUUID = player.getUniqueId().toString();
+            long area = (long) tamanho * tamanho;
+            if (!reservarCota(player, donoUUID, 1, area)) {
+                return true;
+            }
+
             // Verificação assíncrona de disponibilidade com espaçamento, snapshot da localização na main thread dentro do service
             int buffer = terrenoService.getEspacoEntreTerrenos();
             CompletableFuture<Boolean> dispFut = terrenoService.isAreaDisponivelAsync(player.getLocation(), tamanho, buffer);
             dispFut.handle((disponivel, ex) -> {
+                if (ex != null || !Boolean.TRUE.equals(disponivel)) {
+                    plugin.getQuotaService().liberar(donoUUID, 1, area);
+                }
                 if (ex != null) {
                     Bukkit.getScheduler().runTask(plugin, () -> plugin.getMessageService().send(player, "terreno.comprar.falha"));
                     logger.warning("Erro ao verificar disponibilidade: " + ex.getMessage());
                     return null;
                 }
                 if (Boolean.FALSE.equals(disponivel)) {
-                    Bukkit.getScheduler().runTask(plugin, () -> plugin.getMessageService().send(player, "terreno.comprar.area-indisponivel", MessageService.placeholders("buffer", buffer)));
+                    Bukkit.getScheduler().runTask(plugin, () -> {
+                        plugin.getMessageService().send(player, "terreno.comprar.area-indisponivel", MessageService.placeholders("buffer", buffer));
+                        plugin.getMessageService().send(player, "terreno.comprar.dica-sugerir", MessageService.placeholders("size", tamanho));
+                    });
                     return null;
                 }
 
-                // Área disponível: prossegue criação na main thread
+                // Área disponível: prossegue criação a partir da main thread (snapshot da posição do jogador)
                 Bukkit.getScheduler().runTask(plugin, () -> {
                     double custo = terrenoService.calcularCustoTerreno(tamanho);
                     plugin.getMessageService().send(player, "terreno.comprar.preco", MessageService.placeholders("price", String.format("%.2f", custo)));
 
-                    Optional<Terreno> created = terrenoService.criarTerreno(player, tamanho, nome);
-
-                    if (created.isPresent()) {
-                        FenceUtils.colocarCercas(player, tamanho);
-                        Terreno terreno = created.get();
-                        plugin.getMessageService().send(player, "terreno.comprar.sucesso");
-                        plugin.getMessageService().send(player, "terreno.comprar.info-dono", MessageService.placeholders("player", player.getName()));
-                        plugin.getMessageService().send(player, "terreno.comprar.info-terreno", MessageService.placeholders("name", terreno.getName()));
-                        plugin.getMessageService().send(player, "terreno.comprar.info-tamanho", MessageService.placeholders("size", tamanho));
-                    } else {
-                        plugin.getMessageService().send(player, "terreno.comprar.falha");
-                    }
+                    terrenoService.criarTerrenoAsync(player, tamanho, nome).whenComplete((created, createEx) -> Bukkit.getScheduler().runTask(plugin, () -> {
+                        plugin.getQuotaService().liberar(donoUUID, 1, area);
+                        if (createEx != null) {
+                            logger.warning("Erro ao criar terreno: " + createEx.getMessage());
+                        }
+                        if (createEx == null && created.isPresent()) {
+                            Terreno terreno = created.get();
+                            // Cercas no centro registrado, não na posição atual (o jogador pode ter se movido)
+                            plugin.getFenceLedgerService().colocarCercas(terreno);
+                            plugin.getMessageService().send(player, "terreno.comprar.sucesso");
+                            plugin.getMessageService().send(player, "terreno.comprar.info-dono", MessageService.placeholders("player", player.getName()));
+                            plugin.getMessageService().send(player, "terreno.comprar.info-terreno", MessageService.placeholders("name", terreno.getName()));
+                            plugin.getMessageService().send(player, "terreno.comprar.info-tamanho", MessageService.placeholders("size", tamanho));
+                        } else {
+                            plugin.getMessageService().send(player, "terreno.comprar.falha");
+                        }
+                    }));
                 });
                 return null;
             });
@@ -144,18 +194,39 @@ public class TerrenoCommand implements CommandExecutor, TabCompleter {
         return sb.toString();
     }
 
-    private boolean handleListar(Player player) {
-        String playerUUID = player.getUniqueId().toString();
-        List<Terreno> terrenos = terrenoService.listarTerrenosDoJogador(playerUUID);
+    private boolean handleListar(Player player, String[] args) {
+        int pagina = 1;
+        if (args.length >= 2) {
+            try {
+                pagina = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                plugin.getMessageService().send(player, "invalid-number");
+                return true;
+            }
+        }
+
+        terrenoService.listarPaginaAsync(player.getUniqueId().toString(), pagina).whenComplete((resultado, ex) ->
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    if (ex != null) {
+                        logger.warning("Erro ao listar terrenos de " + player.getName() + ": " + ex.getMessage());
+                        plugin.getMessageService().send(player, "terreno.listar.erro");
+                        return;
+                    }
+                    exibirPagina(player, resultado);
+                }));
+        return true;
+    }
 
-        if (terrenos.isEmpty()) {
+    private void exibirPagina(Player player, TerrenoService.Pagina resultado) {
+        if (resultado.total() == 0) {
             plugin.getMessageService().send(player, "terreno.listar.vazio");
-            return true;
+            return;
         }
-        plugin.getMessageService().send(player, "terreno.listar.titulo");
-        for (Terreno terreno : terrenos) {
-            String pvp = terreno.getPvp() ? plugin.getMessageService().get("status.on") : plugin.getMessageService().get("status.off");
-            String mobs = terreno.getMobs() ? plugin.getMessageService().get("status.on") : plugin.getMessageService().get("status.off");
+        plugin.getMessageService().send(player, "terreno.listar.titulo", MessageService.placeholders(
+                "page", resultado.pagina(), "pages", resultado.totalPaginas(), "total", resultado.total()));
+        for (Terreno terreno : resultado.terrenos()) {
+            String pvp = terreno.temFlag(TerrenoFlag.PVP) ? plugin.getMessageService().get("status.on") : plugin.getMessageService().get("status.off");
+            String mobs = terreno.temFlag(TerrenoFlag.MOBS) ? plugin.getMessageService().get("status.on") : plugin.getMessageService().get("status.off");
             String line = plugin.getMessageService().format("terreno.listar.linha",
                     MessageService.placeholders(
                             "id", terreno.getId(),
@@ -166,8 +237,9 @@ public class TerrenoCommand implements CommandExecutor, TabCompleter {
                     ));
             plugin.getMessageService().send(player, line);
         }
-
-        return true;
+        if (resultado.pagina() < resultado.totalPaginas()) {
+            plugin.getMessageService().send(player, "terreno.listar.proxima", MessageService.placeholders("next", resultado.pagina() + 1));
+        }
     }
 
     private boolean handleInfo(Player player, String[] args) {
@@ -203,9 +275,7 @@ public class TerrenoCommand implements CommandExecutor, TabCompleter {
         player.sendMessage(plugin.getMessageService().format("terreno.info.nome", MessageService.placeholders("name", t.getName())));
         player.sendMessage(plugin.getMessageService().format("terreno.info.tamanho", MessageService.placeholders("size", t.getSize())));
         player.sendMessage(plugin.getMessageService().format("terreno.info.localizacao", MessageService.placeholders("location", LocationUtils.formattedLocation(t.getLocation()))));
-        player.sendMessage(plugin.getMessageService().format("terreno.info.pvp", MessageService.placeholders("pvp", t.getPvp() ? plugin.getMessageService().get("status.habilitado") : plugin.getMessageService().get("status.desabilitado"))));
-        player.sendMessage(plugin.getMessageService().format("terreno.info.mobs", MessageService.placeholders("mobs", t.getMobs() ? plugin.getMessageService().get("status.habilitado") : plugin.getMessageService().get("status.desabilitado"))));
-        player.sendMessage(plugin.getMessageService().format("terreno.info.publico", MessageService.placeholders("public", t.getPublicAccess() ? plugin.getMessageService().get("status.sim") : plugin.getMessageService().get("status.nao"))));
+        exibirFlags(player, t);
         player.sendMessage(plugin.getMessageService().format("terreno.info.membros", MessageService.placeholders("count", t.getMembers().size())));
     }
 
@@ -221,10 +291,7 @@ public class TerrenoCommand implements CommandExecutor, TabCompleter {
             Terreno terreno = terrenoService.buscarTerrenoPorNome(playerUUID, name);
 
             if (terrenoService.deletarTerreno(name, playerUUID)) {
-                Location loc = LocationUtils.converterLocalizacao(terreno.getLocation());
-                if (loc != null) {
-                    FenceUtils.removerCercas(loc, terreno.getSize());
-                }
+                plugin.getFenceLedgerService().removerCercas(terreno);
                 plugin.getMessageService().send(player, "terreno.deletar.sucesso");
             } else {
                 plugin.getMessageService().send(player, "terreno.deletar.erro");
@@ -246,7 +313,7 @@ public class TerrenoCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        return toggleSetting(player, args[1], "pvp");
+        return toggleSetting(player, args[1], TerrenoFlag.PVP);
     }
 
     private boolean handleToggleMobs(Player player, String[] args) {
@@ -255,7 +322,7 @@ public class TerrenoCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        return toggleSetting(player, args[1], "mobs");
+        return toggleSetting(player, args[1], TerrenoFlag.MOBS);
     }
 
     private boolean handleTogglePublico(Player player, String[] args) {
@@ -264,10 +331,53 @@ public class TerrenoCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        return toggleSetting(player, args[1], "publico");
+        return toggleSetting(player, args[1], TerrenoFlag.PUBLICO);
+    }
+
+    /**
+     * /terreno flag [nome] lista as flags do terreno; /terreno flag [nome] [flag] alterna uma delas.
+     */
+    private boolean handleFlag(Player player, String[] args) {
+        if (args.length < 2) {
+            plugin.getMessageService().send(player, "terreno.flag.usage");
+            return true;
+        }
+        if (args.length == 2) {
+            try {
+                Terreno terreno = terrenoService.buscarTerrenoPorNome(player.getUniqueId().toString(), args[1]);
+                plugin.getMessageService().send(player, "terreno.flag.titulo", MessageService.placeholders("name", terreno.getName()));
+                exibirFlags(player, terreno);
+            } catch (TerrenoNotFoundException e) {
+                plugin.getMessageService().send(player, "terreno.info.nao-encontrado");
+            }
+            return true;
+        }
+
+        Optional<TerrenoFlag> flag = TerrenoFlag.porChave(args[2]);
+        if (flag.isEmpty()) {
+            plugin.getMessageService().send(player, "terreno.flag.invalida", MessageService.placeholders("flags",
+                    String.join(", ", TerrenoFlag.todas().stream().map(TerrenoFlag::chave).toList())));
+            return true;
+        }
+        return toggleSetting(player, args[1], flag.get());
+    }
+
+    private void exibirFlags(Player player, Terreno t) {
+        for (TerrenoFlag flag : TerrenoFlag.todas()) {
+            plugin.getMessageService().send(player, "terreno.info.flag", MessageService.placeholders(
+                    "flag", nomeFlag(flag), "status", statusFlag(t.temFlag(flag))));
+        }
     }
 
-    private boolean toggleSetting(Player player, String nome, String setting) {
+    private String nomeFlag(TerrenoFlag flag) {
+        return plugin.getMessageService().get("terreno.flag.nome." + flag.chave());
+    }
+
+    private String statusFlag(boolean ativa) {
+        return ativa ? plugin.getMessageService().get("status.habilitado") : plugin.getMessageService().get("status.desabilitado");
+    }
+
+    private boolean toggleSetting(Player player, String nome, TerrenoFlag flag) {
         try {
             String playerUUID = player.getUniqueId().toString();
 
@@ -276,38 +386,16 @@ public class TerrenoCommand implements CommandExecutor, TabCompleter {
                 return true;
             }
 
-            boolean success = switch (setting) {
-                case "pvp" -> terrenoService.togglePvp(nome, playerUUID);
-                case "mobs" -> terrenoService.toggleMobs(nome, playerUUID);
-                case "publico" -> terrenoService.togglePublico(nome, playerUUID);
-                default -> false;
-            };
-
-            if (!success) {
+            Optional<Boolean> ativa = terrenoService.alternarFlag(nome, playerUUID, flag);
+            if (ativa.isEmpty()) {
                 plugin.getMessageService().send(player, "terreno.toggle.erro");
-                logger.warning("Erro ao atualizar configuração do terreno para " + setting);
+                logger.warning("Erro ao atualizar a flag " + flag.chave() + " do terreno");
                 logger.warning("Jogador: " + player.getName() + " - Terreno: " + nome);
                 return true;
             }
 
-            Terreno atualizado = terrenoService.buscarTerrenoPorNome(playerUUID, nome);
-            String mensagem = switch (setting) {
-                case "pvp" -> plugin.getMessageService().format("terreno.toggle.pvp",
-                        MessageService.placeholders("status",
-                                atualizado.getPvp() ? plugin.getMessageService().get("status.habilitado")
-                                        : plugin.getMessageService().get("status.desabilitado")));
-                case "mobs" -> plugin.getMessageService().format("terreno.toggle.mobs",
-                        MessageService.placeholders("status",
-                                atualizado.getMobs() ? plugin.getMessageService().get("status.habilitado")
-                                        : plugin.getMessageService().get("status.desabilitado")));
-                case "publico" -> plugin.getMessageService().format("terreno.toggle.publico",
-                        MessageService.placeholders("status",
-                                atualizado.getPublicAccess() ? plugin.getMessageService().get("status.habilitado")
-                                        : plugin.getMessageService().get("status.desabilitado")));
-                default -> "";
-            };
-
-            player.sendMessage(mensagem);
+            plugin.getMessageService().send(player, "terreno.toggle.flag",
+                    MessageService.placeholders("flag", nomeFlag(flag), "status", statusFlag(ativa.get())));
             plugin.getMessageService().send(player, "terreno.toggle.sucesso", MessageService.placeholders("name", nome));
         } catch (TerrenoNotFoundException e) {
             plugin.getMessageService().send(player, "terreno.toggle.erro");
@@ -370,6 +458,301 @@ public class TerrenoCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    private boolean handleRedimensionar(Player player, String[] args) {
+        if (args.length < 3) {
+            plugin.getMessageService().send(player, "terreno.redimensionar.usage");
+            return true;
+        }
+
+        int tamanho;
+        try {
+            tamanho = Integer.parseInt(args[2]);
+        } catch (NumberFormatException e) {
+            plugin.getMessageService().send(player, "invalid-number");
+            return true;
+        }
+        if (!terrenoService.tamanhoValido(tamanho)) {
+            plugin.getMessageService().send(player, "terreno.comprar.tamanho-invalido-min", MessageService.placeholders("min", terrenoService.getTamanhoMinimo()));
+            plugin.getMessageService().send(player, "terreno.comprar.tamanho-invalido-max", MessageService.placeholders("max", terrenoService.getTamanhoMaximo()));
+            return true;
+        }
+
+        String nome = args[1];
+        String donoUUID = player.getUniqueId().toString();
+        long areaExtra = Math.max(0, (long) tamanho * tamanho - plugin.getQuotaService().areaDoTerreno(donoUUID, nome));
+        if (!reservarCota(player, donoUUID, 0, areaExtra)) {
+            return true;
+        }
+
+        terrenoService.redimensionarTerrenoAsync(player, nome, tamanho).whenComplete((resultado, ex) -> Bukkit.getScheduler().runTask(plugin, () -> {
+            plugin.getQuotaService().liberar(donoUUID, 0, areaExtra);
+            if (ex != null) {
+                logger.warning("Erro ao redimensionar terreno: " + ex.getMessage());
+                plugin.getMessageService().send(player, "terreno.redimensionar.erro");
+                return;
+            }
+            switch (resultado.status()) {
+                case SUCESSO -> aplicarRedimensionamento(player, resultado, tamanho);
+                case MESMO_TAMANHO -> plugin.getMessageService().send(player, "terreno.redimensionar.mesmo-tamanho");
+                case NAO_ENCONTRADO -> plugin.getMessageService().send(player, "terreno.info.nao-encontrado");
+                case NAO_DONO -> plugin.getMessageService().send(player, "terreno.redimensionar.nao-dono");
+                case AREA_INDISPONIVEL -> plugin.getMessageService().send(player, "terreno.redimensionar.area-indisponivel",
+                        MessageService.placeholders("buffer", terrenoService.getEspacoEntreTerrenos()));
+                case SALDO_INSUFICIENTE -> plugin.getMessageService().send(player, "terreno.redimensionar.saldo-insuficiente",
+                        MessageService.placeholders("price", String.format("%.2f", resultado.diferenca())));
+                default -> plugin.getMessageService().send(player, "terreno.redimensionar.erro");
+            }
+        }));
+        return true;
+    }
+
+    private void aplicarRedimensionamento(Player player, Redimensionamento resultado, int tamanho) {
+        Terreno terreno = resultado.terreno();
+        // Só a diferença entre os perímetros é editada, distribuída pelos ticks, usando o registro de cercas quando houver
+        Location centro = LocationUtils.converterLocalizacao(terreno.getLocation());
+        if (centro != null && centro.getWorld() != null) {
+            FenceLedgerService cercas = plugin.getFenceLedgerService();
+            Material material = FenceUtils.getConfiguredFenceMaterial();
+            cercas.carregarAsync(terreno.getId()).whenComplete((ledger, ex) -> Bukkit.getScheduler().runTask(plugin, () -> {
+                // Registro com outro material não serve para a remoção; cai na varredura por coluna
+                long[] registradas = ex == null && ledger.isPresent() && material.name().equals(ledger.get().material())
+                        ? ledger.get().posicoes() : null;
+                plugin.getTickBudgetScheduler().submit(new FenceDiffJob(centro.getWorld(), centro.getBlockX(), centro.getBlockZ(),
+                        resultado.tamanhoAntigo(), tamanho, material, registradas,
+                        posicoes -> cercas.registrarAsync(terreno.getId(), centro.getWorld().getName(), material, posicoes)));
+            }));
+        }
+        plugin.getMessageService().send(player, "terreno.redimensionar.sucesso",
+                MessageService.placeholders("name", terreno.getName(), "old", resultado.tamanhoAntigo(), "new", tamanho));
+        if (resultado.diferenca() > 0) {
+            plugin.getMessageService().send(player, "terreno.redimensionar.cobrado",
+                    MessageService.placeholders("price", String.format("%.2f", resultado.diferenca())));
+        } else if (resultado.diferenca() < 0) {
+            plugin.getMessageService().send(player, "terreno.redimensionar.reembolsado",
+                    MessageService.placeholders("price", String.format("%.2f", -resultado.diferenca())));
+        }
+    }
+
+    private boolean handleRenomear(Player player, String[] args) {
+        if (args.length < 3) {
+            plugin.getMessageService().send(player, "terreno.renomear.usage");
+            return true;
+        }
+        String nome = args[1];
+        String novoNome = joinArgs(args, 2);
+        if (novoNome.length() > 15) {
+            plugin.getMessageService().send(player, "terreno.comprar.nome-longo");
+            return true;
+        }
+
+        terrenoService.renomearTerrenoAsync(player.getUniqueId().toString(), nome, novoNome).whenComplete((resultado, ex) ->
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    if (ex != null) {
+                        logger.warning("Erro ao renomear terreno: " + ex.getMessage());
+                    }
+                    responderEscrita(player, ex != null ? UpdateResult.ERROR : resultado, "terreno.renomear",
+                            MessageService.placeholders("name", nome, "new", novoNome));
+                }));
+        return true;
+    }
+
+    private boolean handleTransferir(Player player, String[] args) {
+        if (args.length < 3) {
+            plugin.getMessageService().send(player, "terreno.transferir.usage");
+            return true;
+        }
+        String nome = args[1];
+        Player destino = Bukkit.getPlayerExact(args[2]);
+        if (destino == null) {
+            plugin.getMessageService().send(player, "terreno.transferir.jogador-offline", MessageService.placeholders("player", args[2]));
+            return true;
+        }
+        if (destino.getUniqueId().equals(player.getUniqueId())) {
+            plugin.getMessageService().send(player, "terreno.transferir.mesmo-jogador");
+            return true;
+        }
+
+        // A cota verificada é a de quem recebe o terreno
+        String destinoUUID = destino.getUniqueId().toString();
+        long area = plugin.getQuotaService().areaDoTerreno(player.getUniqueId().toString(), nome);
+        QuotaService.Resultado cota = plugin.getQuotaService().reservar(destinoUUID, 1, area,
+                destino.hasPermission(QuotaService.PERMISSION_UNLIMITED));
+        if (cota != QuotaService.Resultado.OK) {
+            plugin.getMessageService().send(player, "terreno.transferir.limite-destino", MessageService.placeholders("player", destino.getName()));
+            return true;
+        }
+
+        terrenoService.transferirTerrenoAsync(player.getUniqueId().toString(), nome, destino.getUniqueId()).whenComplete((resultado, ex) ->
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    plugin.getQuotaService().liberar(destinoUUID, 1, area);
+                    if (ex != null) {
+                        logger.warning("Erro ao transferir terreno: " + ex.getMessage());
+                    }
+                    UpdateResult status = ex != null ? UpdateResult.ERROR : resultado;
+                    responderEscrita(player, status, "terreno.transferir",
+                            MessageService.placeholders("name", nome, "player", destino.getName()));
+                    if (status == UpdateResult.UPDATED && destino.isOnline()) {
+                        plugin.getMessageService().send(destino, "terreno.transferir.recebido",
+                                MessageService.placeholders("name", nome, "player", player.getName()));
+                    }
+                }));
+        return true;
+    }
+
+    private boolean handleVer(Player player) {
+        LandVisualizer visualizer = plugin.getLandVisualizer();
+        if (visualizer.alternar(player)) {
+            plugin.getMessageService().send(player, "terreno.ver.ativado", MessageService.placeholders("seconds", visualizer.getDuracaoSegundos()));
+        } else {
+            plugin.getMessageService().send(player, "terreno.ver.desativado");
+        }
+        return true;
+    }
+
+    private boolean handleSugerir(Player player, String[] args) {
+        if (args.length < 2) {
+            plugin.getMessageService().send(player, "terreno.sugerir.usage");
+            return true;
+        }
+        int tamanho;
+        try {
+            tamanho = Integer.parseInt(args[1]);
+        } catch (NumberFormatException e) {
+            plugin.getMessageService().send(player, "invalid-number");
+            return true;
+        }
+        if (!terrenoService.tamanhoValido(tamanho)) {
+            plugin.getMessageService().send(player, "terreno.comprar.tamanho-invalido-min", MessageService.placeholders("min", terrenoService.getTamanhoMinimo()));
+            plugin.getMessageService().send(player, "terreno.comprar.tamanho-invalido-max", MessageService.placeholders("max", terrenoService.getTamanhoMaximo()));
+            return true;
+        }
+
+        Location origem = player.getLocation();
+        terrenoService.sugerirCentroAsync(origem, tamanho).whenComplete((centro, ex) -> Bukkit.getScheduler().runTask(plugin, () -> {
+            if (ex != null) {
+                logger.warning("Erro ao sugerir posição: " + ex.getMessage());
+                plugin.getMessageService().send(player, "terreno.comprar.falha");
+                return;
+            }
+            if (centro.isEmpty()) {
+                plugin.getMessageService().send(player, "terreno.sugerir.nenhum",
+                        MessageService.placeholders("size", tamanho, "radius", terrenoService.getRaioSugestao()));
+                return;
+            }
+            int x = (int) Math.floor(centro.get().x());
+            int z = (int) Math.floor(centro.get().z());
+            if (x == origem.getBlockX() && z == origem.getBlockZ()) {
+                plugin.getMessageService().send(player, "terreno.sugerir.aqui", MessageService.placeholders("size", tamanho));
+                return;
+            }
+            long distancia = Math.round(Math.hypot(centro.get().x() - origem.getX(), centro.get().z() - origem.getZ()));
+            plugin.getMessageService().send(player, "terreno.sugerir.encontrado",
+                    MessageService.placeholders("size", tamanho, "x", x, "z", z, "distance", distancia));
+        }));
+        return true;
+    }
+
+    private boolean handleSnapshot(Player player, String[] args) {
+        if (args.length < 2) {
+            plugin.getMessageService().send(player, "terreno.snapshot.usage");
+            return true;
+        }
+
+        Terreno terreno;
+        try {
+            terreno = terrenoService.buscarTerrenoPorNome(player.getUniqueId().toString(), args[1]);
+        } catch (TerrenoNotFoundException e) {
+            plugin.getMessageService().send(player, "terreno.info.nao-encontrado");
+            return true;
+        }
+
+        plugin.getMessageService().send(player, "terreno.snapshot.iniciado", MessageService.placeholders("name", terreno.getName()));
+        plugin.getSnapshotService().capturarAsync(terreno).whenComplete((resultado, ex) -> Bukkit.getScheduler().runTask(plugin, () -> {
+            if (ex != null) {
+                logger.warning("Erro ao capturar snapshot: " + ex.getMessage());
+                plugin.getMessageService().send(player, "terreno.snapshot.erro");
+                return;
+            }
+            switch (resultado.status()) {
+                case SUCESSO -> plugin.getMessageService().send(player, "terreno.snapshot.sucesso", MessageService.placeholders(
+                        "name", terreno.getName(), "blocks", resultado.blocos(), "palette", resultado.paleta(),
+                        "size_kb", Math.max(1, resultado.bytes() / 1024)));
+                case EM_ANDAMENTO -> plugin.getMessageService().send(player, "terreno.snapshot.em-andamento");
+                case MUNDO_INVALIDO -> plugin.getMessageService().send(player, "terreno.snapshot.mundo-invalido");
+                case MUITO_GRANDE -> plugin.getMessageService().send(player, "terreno.snapshot.tamanho-excedido",
+                        MessageService.placeholders("max", plugin.getSettings().tamanhoMaximoSnapshot()));
+                default -> plugin.getMessageService().send(player, "terreno.snapshot.erro");
+            }
+        }));
+        return true;
+    }
+
+    private boolean handleRestaurar(Player player, String[] args) {
+        if (args.length < 2) {
+            plugin.getMessageService().send(player, "terreno.restaurar.usage");
+            return true;
+        }
+
+        Terreno terreno;
+        try {
+            terreno = terrenoService.buscarTerrenoPorNome(player.getUniqueId().toString(), args[1]);
+        } catch (TerrenoNotFoundException e) {
+            plugin.getMessageService().send(player, "terreno.info.nao-encontrado");
+            return true;
+        }
+
+        plugin.getMessageService().send(player, "terreno.restaurar.iniciado", MessageService.placeholders("name", terreno.getName()));
+        plugin.getSnapshotService().restaurarAsync(terreno).whenComplete((resultado, ex) -> Bukkit.getScheduler().runTask(plugin, () -> {
+            if (ex != null) {
+                logger.warning("Erro ao restaurar snapshot: " + ex.getMessage());
+                plugin.getMessageService().send(player, "terreno.restaurar.erro");
+                return;
+            }
+            switch (resultado.status()) {
+                case SUCESSO -> plugin.getMessageService().send(player, "terreno.restaurar.sucesso", MessageService.placeholders(
+                        "name", terreno.getName(), "changed", resultado.blocos(),
+                        "seconds", String.format("%.1f", resultado.duracaoMs() / 1000.0)));
+                case SEM_SNAPSHOT -> plugin.getMessageService().send(player, "terreno.restaurar.sem-snapshot");
+                case EM_ANDAMENTO -> plugin.getMessageService().send(player, "terreno.restaurar.em-andamento");
+                case MUNDO_INVALIDO -> plugin.getMessageService().send(player, "terreno.restaurar.mundo-invalido");
+                default -> plugin.getMessageService().send(player, "terreno.restaurar.erro");
+            }
+        }));
+        return true;
+    }
+
+    /**
+     * Reserva cota para a operação, avisando o jogador quando o limite seria ultrapassado.
+     */
+    private boolean reservarCota(Player player, String donoUUID, int terrenos, long area) {
+        QuotaService quotas = plugin.getQuotaService();
+        switch (quotas.reservar(donoUUID, terrenos, area, player.hasPermission(QuotaService.PERMISSION_UNLIMITED))) {
+            case LIMITE_TERRENOS -> {
+                plugin.getMessageService().send(player, "terreno.limite.terrenos", MessageService.placeholders("max", quotas.getMaxTerrenos()));
+                return false;
+            }
+            case LIMITE_AREA -> {
+                plugin.getMessageService().send(player, "terreno.limite.area", MessageService.placeholders("max", quotas.getMaxArea()));
+                return false;
+            }
+            default -> {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Mensagem para o resultado de uma escrita condicional: {@code <prefixo>.sucesso} e {@code <prefixo>.conflito}.
+     */
+    private void responderEscrita(Player player, UpdateResult resultado, String prefixo, java.util.Map<String, ?> placeholders) {
+        switch (resultado) {
+            case UPDATED -> plugin.getMessageService().send(player, prefixo + ".sucesso", placeholders);
+            case CONFLICT -> plugin.getMessageService().send(player, prefixo + ".conflito", placeholders);
+            case NOT_FOUND -> plugin.getMessageService().send(player, "terreno.info.nao-encontrado");
+            default -> plugin.getMessageService().send(player, "terreno.toggle.erro");
+        }
+    }
+
     private void sendHelp(Player player) {
         plugin.getMessageService().send(player, "help.title");
         plugin.getMessageService().sendList(player, "help.lines");
@@ -385,13 +768,19 @@ public class TerrenoCommand implements CommandExecutor, TabCompleter {
         String playerUUID = player.getUniqueId().toString();
         if (args.length == 1) {
             String prefix = args[0].toLowerCase();
-            suggestions = SUB_COMMANDS.stream().filter(s -> s.startsWith(prefix)).toList();
+            suggestions = new ArrayList<>(SUB_COMMANDS.stream().filter(s -> s.startsWith(prefix)).toList());
+            if ("admin".startsWith(prefix) && player.hasPermission(TerrenoAdminCommand.PERMISSION)) suggestions.add("admin");
+        } else if ("admin".equalsIgnoreCase(args[0])) {
+            suggestions = adminCommand.tabComplete(sender, args);
+        } else if ("membro".equalsIgnoreCase(args[0])) {
+            suggestions = membroCommand.tabComplete(player, args);
         } else if (args.length == 2) {
             String sub = args[0].toLowerCase();
             String prefix = args[1].toLowerCase();
             switch (sub) {
                 case "comprar":
                 case "preco":
+                case "sugerir":
                     // Suggest common sizes
                     for (int sz : new int[]{5, 10, 15, 20, 25, 30, 50, 100}) {
                         String s = String.valueOf(sz);
@@ -409,13 +798,29 @@ public class TerrenoCommand implements CommandExecutor, TabCompleter {
                 case "pvp":
                 case "mobs":
                 case "publico":
+                case "flag":
                 case "tp":
+                case "redimensionar":
+                case "renomear":
+                case "transferir":
+                case "snapshot":
+                case "restaurar":
                     for (Terreno t : terrenoService.listarTerrenosDoJogador(playerUUID)) {
                         String terrenoName = t.getName();
                         if (terrenoName.startsWith(prefix)) suggestions.add(terrenoName);
                     }
                     break;
             }
+        } else if (args.length == 3 && "flag".equalsIgnoreCase(args[0])) {
+            String prefix = args[2].toLowerCase();
+            for (TerrenoFlag flag : TerrenoFlag.todas()) {
+                if (flag.chave().startsWith(prefix)) suggestions.add(flag.chave());
+            }
+        } else if (args.length == 3 && "transferir".equalsIgnoreCase(args[0])) {
+            String prefix = args[2].toLowerCase();
+            for (Player online : Bukkit.getOnlinePlayers()) {
+                if (online != player && online.getName().toLowerCase().startsWith(prefix)) suggestions.add(online.getName());
+            }
         } else if (args.length >= 3) {
             String sub = args[0].toLowerCase();
             if ("comprar".equals(sub)) {
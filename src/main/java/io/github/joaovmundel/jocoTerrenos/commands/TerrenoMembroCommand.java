@@ -0,0 +1,178 @@
+package io.github.joaovmundel.jocoTerrenos.commands;
+
+import io.github.joaovmundel.jocoTerrenos.JocoTerrenos;
+import io.github.joaovmundel.jocoTerrenos.infrastructure.JocoLogging;
+import io.github.joaovmundel.jocoTerrenos.models.Terreno;
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoRole;
+import io.github.joaovmundel.jocoTerrenos.service.MessageService;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoService.ResultadoMembros;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Subcomandos de {@code /terreno membro}. {@code add} e {@code remover} aceitam vários jogadores de uma vez
+ * (separados por espaço ou vírgula), gravados num único lote.
+ */
+public class TerrenoMembroCommand {
+
+    private static final List<String> SUB_COMMANDS = List.of("add", "remover", "cargo");
+    private static final List<String> CARGOS = List.of("member", "admin");
+
+    private final JocoTerrenos plugin;
+    private final JocoLogging logger = new JocoLogging(this.getClass().getName());
+
+    public TerrenoMembroCommand(JocoTerrenos plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * @param args argumentos completos de /terreno (args[0] = "membro")
+     */
+    public boolean handle(Player player, String[] args) {
+        MessageService messages = plugin.getMessageService();
+        if (args.length < 4) {
+            messages.sendList(player, "terreno.membro.usage");
+            return true;
+        }
+
+        String sub = args[1].toLowerCase();
+        String nome = args[2];
+        String donoUUID = player.getUniqueId().toString();
+
+        switch (sub) {
+            case "add", "remover" -> {
+                Map<String, UUID> jogadores = resolverJogadores(player, args, 3);
+                if (jogadores == null) return true;
+                CompletableFuture<ResultadoMembros> futuro = "add".equals(sub)
+                        ? plugin.getTerrenoService().adicionarMembrosAsync(donoUUID, nome, jogadores.values(), TerrenoRole.MEMBER)
+                        : plugin.getTerrenoService().removerMembrosAsync(donoUUID, nome, jogadores.values());
+                responder(player, futuro, "add".equals(sub) ? "terreno.membro.adicionados" : "terreno.membro.removidos",
+                        MessageService.placeholders("name", nome, "players", String.join(", ", jogadores.keySet())));
+            }
+            case "cargo" -> {
+                if (args.length < 5) {
+                    messages.sendList(player, "terreno.membro.usage");
+                    return true;
+                }
+                TerrenoRole cargo = parseCargo(args[4]);
+                if (cargo == null) {
+                    messages.send(player, "terreno.membro.cargo-invalido", MessageService.placeholders("role", args[4]));
+                    return true;
+                }
+                Map<String, UUID> jogadores = resolverJogadores(player, args, 3);
+                if (jogadores == null) return true;
+                String alvo = jogadores.keySet().iterator().next();
+                responder(player, plugin.getTerrenoService().alterarCargoAsync(donoUUID, nome, jogadores.get(alvo), cargo),
+                        "terreno.membro.cargo-alterado", MessageService.placeholders("name", nome, "player", alvo, "role", cargo.name()));
+            }
+            default -> messages.sendList(player, "terreno.membro.usage");
+        }
+        return true;
+    }
+
+    private void responder(Player player, CompletableFuture<ResultadoMembros> futuro, String chaveSucesso, Map<String, Object> placeholders) {
+        MessageService messages = plugin.getMessageService();
+        futuro.whenComplete((resultado, ex) -> Bukkit.getScheduler().runTask(plugin, () -> {
+            if (ex != null) {
+                logger.warning("Erro ao alterar membros: " + ex.getMessage());
+                messages.send(player, "terreno.membro.erro");
+                return;
+            }
+            switch (resultado.status()) {
+                case SUCESSO -> {
+                    placeholders.put("count", resultado.afetados());
+                    messages.send(player, chaveSucesso, placeholders);
+                }
+                case NAO_ENCONTRADO -> messages.send(player, "terreno.info.nao-encontrado");
+                case NAO_MEMBRO -> messages.send(player, "terreno.membro.nao-membro", placeholders);
+                default -> messages.send(player, "terreno.membro.erro");
+            }
+        }));
+    }
+
+    /**
+     * Converte nomes em UUIDs: primeiro jogadores online, depois quem já entrou no servidor.
+     * Retorna null (e avisa o jogador) se algum nome for desconhecido.
+     */
+    private Map<String, UUID> resolverJogadores(Player player, String[] args, int inicio) {
+        Map<String, UUID> resolvidos = new LinkedHashMap<>();
+        List<String> desconhecidos = new ArrayList<>();
+        Map<String, OfflinePlayer> offline = null;
+        for (int i = inicio; i < args.length; i++) {
+            for (String nome : args[i].split(",")) {
+                if (nome.isBlank()) continue;
+                Player online = Bukkit.getPlayerExact(nome);
+                if (online != null) {
+                    resolvidos.put(online.getName(), online.getUniqueId());
+                    continue;
+                }
+                if (offline == null) offline = jogadoresConhecidos();
+                OfflinePlayer conhecido = offline.get(nome.toLowerCase(Locale.ROOT));
+                if (conhecido != null) {
+                    resolvidos.put(conhecido.getName(), conhecido.getUniqueId());
+                } else {
+                    desconhecidos.add(nome);
+                }
+            }
+        }
+        if (!desconhecidos.isEmpty() || resolvidos.isEmpty()) {
+            plugin.getMessageService().send(player, "terreno.membro.jogador-desconhecido",
+                    MessageService.placeholders("players", String.join(", ", desconhecidos)));
+            return null;
+        }
+        return resolvidos;
+    }
+
+    private static Map<String, OfflinePlayer> jogadoresConhecidos() {
+        Map<String, OfflinePlayer> porNome = new HashMap<>();
+        for (OfflinePlayer p : Bukkit.getOfflinePlayers()) {
+            if (p.getName() != null) porNome.put(p.getName().toLowerCase(Locale.ROOT), p);
+        }
+        return porNome;
+    }
+
+    private static TerrenoRole parseCargo(String valor) {
+        return switch (valor.toLowerCase()) {
+            case "member", "membro" -> TerrenoRole.MEMBER;
+            case "admin" -> TerrenoRole.ADMIN;
+            default -> null;
+        };
+    }
+
+    /**
+     * @param args argumentos completos de /terreno (args[0] = "membro")
+     */
+    public List<String> tabComplete(Player player, String[] args) {
+        List<String> suggestions = new ArrayList<>();
+        if (args.length == 2) {
+            String prefix = args[1].toLowerCase();
+            return SUB_COMMANDS.stream().filter(s -> s.startsWith(prefix)).toList();
+        }
+        if (args.length == 3) {
+            String prefix = args[2].toLowerCase();
+            for (Terreno t : plugin.getTerrenoService().listarTerrenosDoJogador(player.getUniqueId().toString())) {
+                if (t.getName() != null && t.getName().toLowerCase().startsWith(prefix)) suggestions.add(t.getName());
+            }
+            return suggestions;
+        }
+        if (args.length == 5 && "cargo".equalsIgnoreCase(args[1])) {
+            String prefix = args[4].toLowerCase();
+            return CARGOS.stream().filter(s -> s.startsWith(prefix)).toList();
+        }
+        String prefix = args[args.length - 1].toLowerCase();
+        for (Player online : Bukkit.getOnlinePlayers()) {
+            if (online.getName().toLowerCase().startsWith(prefix)) suggestions.add(online.getName());
+        }
+        return suggestions;
+    }
+}
@@ -2,12 +2,14 @@ package io.github.joaovmundel.jocoTerrenos.database;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoFlag;
 import lombok.Getter;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.Plugin;
 
 import java.io.File;
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.logging.Level;
@@ -20,7 +22,15 @@ public class DatabaseManager {
     private DatabaseType databaseType;
 
     public enum DatabaseType {
-        SQLITE, MYSQL, POSTGRESQL
+        SQLITE, MYSQL, POSTGRESQL, FILE
+    }
+
+    /**
+     * Trabalho executado dentro de uma unidade de trabalho
+     */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T execute(UnitOfWork uow) throws SQLException;
     }
 
     public DatabaseManager(Plugin plugin) {
@@ -33,18 +43,21 @@ public class DatabaseManager {
      */
     public void initialize() {
         String typeString = config.getString("database.type", "SQLITE").toUpperCase();
+        DatabaseType tipo;
 
         try {
-            this.databaseType = DatabaseType.valueOf(typeString);
+            tipo = DatabaseType.valueOf(typeString);
         } catch (IllegalArgumentException e) {
             plugin.getLogger().warning("Tipo de banco de dados inválido: " + typeString + ". Usando SQLite como padrão.");
-            this.databaseType = DatabaseType.SQLITE;
+            tipo = DatabaseType.SQLITE;
         }
 
         HikariConfig hikariConfig = new HikariConfig();
 
-        switch (databaseType) {
+        switch (tipo) {
             case SQLITE:
+            case FILE:
+                // No modo FILE as tabelas auxiliares continuam no SQLite
                 setupSQLite(hikariConfig);
                 break;
             case MYSQL:
@@ -55,6 +68,16 @@ public class DatabaseManager {
                 break;
         }
 
+        iniciar(tipo, hikariConfig);
+    }
+
+    /**
+     * Abre o pool com a conexão já configurada e cria as tabelas no dialeto informado.
+     * Separado de {@link #initialize()} para os testes apontarem um dialeto para um banco embutido (H2).
+     */
+    void iniciar(DatabaseType tipo, HikariConfig hikariConfig) {
+        this.databaseType = tipo;
+
         // Configurações do pool
         hikariConfig.setMaximumPoolSize(config.getInt("database.pool.maximum-pool-size", 10));
         hikariConfig.setMinimumIdle(config.getInt("database.pool.minimum-idle", 2));
@@ -146,6 +169,8 @@ public class DatabaseManager {
         config.addDataSourceProperty("cachePrepStmts", "true");
         config.addDataSourceProperty("prepStmtCacheSize", "250");
         config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        // Envia lotes de INSERT como um único comando multi-valor
+        config.addDataSourceProperty("reWriteBatchedInserts", "true");
     }
 
     /**
@@ -154,110 +179,115 @@ public class DatabaseManager {
     private void createTables() {
         try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
 
-            // Tabela de Terrenos
-            String createTerrenosTable;
-            if (databaseType == DatabaseType.SQLITE) {
-                createTerrenosTable = """
-                            CREATE TABLE IF NOT EXISTS terrenos (
-                                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                                dono_uuid VARCHAR(36) NOT NULL,
-                                name TEXT,
-                                db_name_key TEXT,
-                                location TEXT NOT NULL,
-                                size INTEGER NOT NULL,
-                                pvp BOOLEAN DEFAULT FALSE,
-                                mobs BOOLEAN DEFAULT FALSE,
-                                public_access BOOLEAN DEFAULT FALSE,
-                                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                                updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                            );
-                        """;
-                stmt.execute(createTerrenosTable);
-                stmt.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_unique_name_key ON terrenos(db_name_key)");
-            } else if (databaseType == DatabaseType.MYSQL) {
-                createTerrenosTable = """
-                            CREATE TABLE IF NOT EXISTS terrenos (
-                                id BIGINT PRIMARY KEY AUTO_INCREMENT,
-                                dono_uuid VARCHAR(36) NOT NULL,
-                                name VARCHAR(255),
-                                db_name_key VARCHAR(300),
-                                location TEXT NOT NULL,
-                                size INT NOT NULL,
-                                pvp BOOLEAN DEFAULT FALSE,
-                                mobs BOOLEAN DEFAULT FALSE,
-                                public_access BOOLEAN DEFAULT FALSE,
-                                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                                updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-                                UNIQUE KEY uk_name_key (db_name_key),
-                                INDEX idx_dono_uuid (dono_uuid)
-                            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
-                        """;
-                stmt.execute(createTerrenosTable);
-            } else { // PostgreSQL
-                createTerrenosTable = """
-                            CREATE TABLE IF NOT EXISTS terrenos (
-                                id BIGSERIAL PRIMARY KEY,
-                                dono_uuid VARCHAR(36) NOT NULL,
-                                name VARCHAR(255),
-                                db_name_key VARCHAR(300),
-                                location TEXT NOT NULL,
-                                size INTEGER NOT NULL,
-                                pvp BOOLEAN DEFAULT FALSE,
-                                mobs BOOLEAN DEFAULT FALSE,
-                                public_access BOOLEAN DEFAULT FALSE,
-                                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                                updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                            );
-                        """;
-                stmt.execute(createTerrenosTable);
-                stmt.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_name_key ON terrenos(db_name_key)");
-                stmt.execute("CREATE INDEX IF NOT EXISTS idx_dono_uuid ON terrenos(dono_uuid)");
+            // Terrenos e membros ficam no log local no modo FILE; o banco guarda só as tabelas auxiliares
+            if (databaseType != DatabaseType.FILE) {
+                createLandTables(stmt);
             }
 
-            // Tabela de Membros do Terreno
-            String createMembersTable;
-            if (databaseType == DatabaseType.SQLITE) {
-                createMembersTable = """
-                            CREATE TABLE IF NOT EXISTS terreno_members (
-                                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                                terreno_id INTEGER NOT NULL,
-                                member_uuid VARCHAR(36) NOT NULL,
-                                member_role VARCHAR(20) NOT NULL,
-                                added_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                                FOREIGN KEY (terreno_id) REFERENCES terrenos(id) ON DELETE CASCADE,
-                                UNIQUE(terreno_id, member_uuid)
+            // Tabela de pontos de teleporte seguros (cache persistido, mesmo DDL nos três bancos)
+            stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS terreno_teleportes (
+                            terreno_id BIGINT PRIMARY KEY,
+                            world VARCHAR(64) NOT NULL,
+                            x INT NOT NULL,
+                            y INT NOT NULL,
+                            z INT NOT NULL
+                        )
+                    """);
+
+            // Resumos de uso (gravados periodicamente pelo AnalyticsService)
+            stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS terreno_estatisticas (
+                            terreno_id BIGINT PRIMARY KEY,
+                            visitor_seconds BIGINT NOT NULL DEFAULT 0,
+                            updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                        )
+                    """);
+            stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS mundo_estatisticas (
+                            world VARCHAR(64) PRIMARY KEY,
+                            lands INT NOT NULL,
+                            claimed_area BIGINT NOT NULL,
+                            players_inside INT NOT NULL,
+                            updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                        )
+                    """);
+
+            // Posições exatas das cercas colocadas por terreno (longs empacotados num blob)
+            String tipoBlob = switch (databaseType) {
+                case MYSQL -> "MEDIUMBLOB";
+                case POSTGRESQL -> "BYTEA";
+                default -> "BLOB";
+            };
+            stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS terreno_cercas (
+                            terreno_id BIGINT PRIMARY KEY,
+                            world VARCHAR(64) NOT NULL,
+                            material VARCHAR(64) NOT NULL,
+                            posicoes %s NOT NULL,
+                            updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                        )
+                    """.formatted(tipoBlob));
+
+            // Imposto dos terrenos: último pagamento e início do atraso (epoch ms)
+            stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS terreno_impostos (
+                            terreno_id BIGINT PRIMARY KEY,
+                            paid_at BIGINT NOT NULL,
+                            due_since BIGINT
+                        )
+                    """);
+
+            // Último acesso de cada jogador (epoch ms), para expirar terrenos de donos inativos
+            if (databaseType == DatabaseType.MYSQL) {
+                stmt.execute("""
+                            CREATE TABLE IF NOT EXISTS jogadores_vistos (
+                                player_uuid VARCHAR(36) PRIMARY KEY,
+                                last_seen BIGINT NOT NULL,
+                                INDEX idx_last_seen (last_seen)
+                            )
+                        """);
+            } else {
+                stmt.execute("""
+                            CREATE TABLE IF NOT EXISTS jogadores_vistos (
+                                player_uuid VARCHAR(36) PRIMARY KEY,
+                                last_seen BIGINT NOT NULL
                             )
-                        """;
-            } else if (databaseType == DatabaseType.MYSQL) {
-                createMembersTable = """
-                            CREATE TABLE IF NOT EXISTS terreno_members (
+                        """);
+                stmt.execute("CREATE INDEX IF NOT EXISTS idx_last_seen ON jogadores_vistos(last_seen)");
+            }
+
+            // Auditoria das alterações de terrenos (gravada em lotes pelo AuditService; momento em epoch ms)
+            if (databaseType == DatabaseType.MYSQL) {
+                stmt.execute("""
+                            CREATE TABLE IF NOT EXISTS terreno_audit (
                                 id BIGINT PRIMARY KEY AUTO_INCREMENT,
+                                momento BIGINT NOT NULL,
                                 terreno_id BIGINT NOT NULL,
-                                member_uuid VARCHAR(36) NOT NULL,
-                                member_role VARCHAR(20) NOT NULL,
-                                added_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                                FOREIGN KEY (terreno_id) REFERENCES terrenos(id) ON DELETE CASCADE,
-                                UNIQUE KEY unique_member (terreno_id, member_uuid),
-                                INDEX idx_member_uuid (member_uuid)
+                                acao VARCHAR(32) NOT NULL,
+                                ator_uuid VARCHAR(36),
+                                alvo VARCHAR(64),
+                                detalhe VARCHAR(64),
+                                valor BIGINT NOT NULL DEFAULT 0,
+                                INDEX idx_audit_terreno (terreno_id, id)
                             ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
-                        """;
-            } else { // PostgreSQL
-                createMembersTable = """
-                            CREATE TABLE IF NOT EXISTS terreno_members (
-                                id BIGSERIAL PRIMARY KEY,
+                        """);
+            } else {
+                stmt.execute("""
+                            CREATE TABLE IF NOT EXISTS terreno_audit (
+                                id %s,
+                                momento BIGINT NOT NULL,
                                 terreno_id BIGINT NOT NULL,
-                                member_uuid VARCHAR(36) NOT NULL,
-                                member_role VARCHAR(20) NOT NULL,
-                                added_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                                FOREIGN KEY (terreno_id) REFERENCES terrenos(id) ON DELETE CASCADE,
-                                UNIQUE(terreno_id, member_uuid)
-                            );
-                            CREATE INDEX IF NOT EXISTS idx_member_uuid ON terreno_members(member_uuid);
-                        """;
+                                acao VARCHAR(32) NOT NULL,
+                                ator_uuid VARCHAR(36),
+                                alvo VARCHAR(64),
+                                detalhe VARCHAR(64),
+                                valor BIGINT NOT NULL DEFAULT 0
+                            )
+                        """.formatted(databaseType == DatabaseType.POSTGRESQL ? "BIGSERIAL PRIMARY KEY" : "INTEGER PRIMARY KEY AUTOINCREMENT"));
+                stmt.execute("CREATE INDEX IF NOT EXISTS idx_audit_terreno ON terreno_audit(terreno_id, id)");
             }
 
-            stmt.execute(createMembersTable);
-
             plugin.getLogger().info("Tabelas do banco de dados criadas/verificadas com sucesso!");
 
         } catch (SQLException e) {
@@ -265,6 +295,131 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Cria as tabelas de terrenos e membros
+     */
+    private void createLandTables(Statement stmt) throws SQLException {
+        // Tabela de Terrenos
+        String createTerrenosTable;
+        if (databaseType == DatabaseType.SQLITE) {
+            createTerrenosTable = """
+                        CREATE TABLE IF NOT EXISTS terrenos (
+                            id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            dono_uuid VARCHAR(36) NOT NULL,
+                            name TEXT,
+                            db_name_key TEXT,
+                            location TEXT NOT NULL,
+                            size INTEGER NOT NULL,
+                            flags BIGINT NOT NULL DEFAULT 0,
+                            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                        );
+                    """;
+            stmt.execute(createTerrenosTable);
+            stmt.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_unique_name_key ON terrenos(db_name_key)");
+            // Listagem por dono (keyset em id; o rowid já faz parte do índice)
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_dono_uuid ON terrenos(dono_uuid)");
+        } else if (databaseType == DatabaseType.MYSQL) {
+            createTerrenosTable = """
+                        CREATE TABLE IF NOT EXISTS terrenos (
+                            id BIGINT PRIMARY KEY AUTO_INCREMENT,
+                            dono_uuid VARCHAR(36) NOT NULL,
+                            name VARCHAR(255),
+                            db_name_key VARCHAR(300),
+                            location TEXT NOT NULL,
+                            size INT NOT NULL,
+                            flags BIGINT NOT NULL DEFAULT 0,
+                            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                            UNIQUE KEY uk_name_key (db_name_key),
+                            INDEX idx_dono_uuid (dono_uuid)
+                        ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+                    """;
+            stmt.execute(createTerrenosTable);
+        } else { // PostgreSQL
+            createTerrenosTable = """
+                        CREATE TABLE IF NOT EXISTS terrenos (
+                            id BIGSERIAL PRIMARY KEY,
+                            dono_uuid VARCHAR(36) NOT NULL,
+                            name VARCHAR(255),
+                            db_name_key VARCHAR(300),
+                            location TEXT NOT NULL,
+                            size INTEGER NOT NULL,
+                            flags BIGINT NOT NULL DEFAULT 0,
+                            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                        );
+                    """;
+            stmt.execute(createTerrenosTable);
+            stmt.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_name_key ON terrenos(db_name_key)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_dono_uuid ON terrenos(dono_uuid)");
+        }
+        migrarFlags(stmt);
+
+        // Tabela de Membros do Terreno
+        String createMembersTable;
+        if (databaseType == DatabaseType.SQLITE) {
+            createMembersTable = """
+                        CREATE TABLE IF NOT EXISTS terreno_members (
+                            id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            terreno_id INTEGER NOT NULL,
+                            member_uuid VARCHAR(36) NOT NULL,
+                            member_role VARCHAR(20) NOT NULL,
+                            added_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            FOREIGN KEY (terreno_id) REFERENCES terrenos(id) ON DELETE CASCADE,
+                            UNIQUE(terreno_id, member_uuid)
+                        )
+                    """;
+        } else if (databaseType == DatabaseType.MYSQL) {
+            createMembersTable = """
+                        CREATE TABLE IF NOT EXISTS terreno_members (
+                            id BIGINT PRIMARY KEY AUTO_INCREMENT,
+                            terreno_id BIGINT NOT NULL,
+                            member_uuid VARCHAR(36) NOT NULL,
+                            member_role VARCHAR(20) NOT NULL,
+                            added_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            FOREIGN KEY (terreno_id) REFERENCES terrenos(id) ON DELETE CASCADE,
+                            UNIQUE KEY unique_member (terreno_id, member_uuid),
+                            INDEX idx_member_uuid (member_uuid)
+                        ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+                    """;
+        } else { // PostgreSQL
+            createMembersTable = """
+                        CREATE TABLE IF NOT EXISTS terreno_members (
+                            id BIGSERIAL PRIMARY KEY,
+                            terreno_id BIGINT NOT NULL,
+                            member_uuid VARCHAR(36) NOT NULL,
+                            member_role VARCHAR(20) NOT NULL,
+                            added_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            FOREIGN KEY (terreno_id) REFERENCES terrenos(id) ON DELETE CASCADE,
+                            UNIQUE(terreno_id, member_uuid)
+                        );
+                        CREATE INDEX IF NOT EXISTS idx_member_uuid ON terreno_members(member_uuid);
+                    """;
+        }
+
+        stmt.execute(createMembersTable);
+    }
+
+    /**
+     * Bancos criados antes da coluna flags: cria a coluna e copia pvp, mobs e public_access para os bits. As flags
+     * novas recebem o valor legado de {@link TerrenoFlag}, para os terrenos antigos continuarem como estavam.
+     * As colunas antigas ficam na tabela, mas não são mais usadas.
+     */
+    private void migrarFlags(Statement stmt) throws SQLException {
+        Connection conn = stmt.getConnection();
+        try (ResultSet colunas = conn.getMetaData().getColumns(conn.getCatalog(), null, "terrenos", "flags")) {
+            if (colunas.next()) return;
+        }
+        long legado = TerrenoFlag.legados() & ~(TerrenoFlag.PVP.mascara() | TerrenoFlag.MOBS.mascara() | TerrenoFlag.PUBLICO.mascara());
+        stmt.execute("ALTER TABLE terrenos ADD COLUMN flags BIGINT NOT NULL DEFAULT 0");
+        int migrados = stmt.executeUpdate("UPDATE terrenos SET flags = " + legado
+                + " + (CASE WHEN pvp THEN " + TerrenoFlag.PVP.mascara() + " ELSE 0 END)"
+                + " + (CASE WHEN mobs THEN " + TerrenoFlag.MOBS.mascara() + " ELSE 0 END)"
+                + " + (CASE WHEN public_access THEN " + TerrenoFlag.PUBLICO.mascara() + " ELSE 0 END)");
+        plugin.getLogger().info("Coluna flags criada em terrenos; " + migrados + " terrenos migrados.");
+    }
+
     /**
      * Obtém uma conexão com o banco de dados
      */
@@ -275,6 +430,55 @@ public class DatabaseManager {
         return dataSource.getConnection();
     }
 
+    /**
+     * Abre (ou reaproveita, se já houver uma ativa na thread) uma unidade de trabalho
+     */
+    public UnitOfWork openUnitOfWork() throws SQLException {
+        return UnitOfWork.open(this);
+    }
+
+    /**
+     * Executa o trabalho numa transação explícita.
+     * Se já existir uma transação ativa na thread, o trabalho participa dela.
+     */
+    public <T> T inTransaction(SqlWork<T> work) throws SQLException {
+        try (UnitOfWork uow = openUnitOfWork()) {
+            if (uow.isInTransaction()) {
+                return work.execute(uow);
+            }
+            uow.begin();
+            try {
+                T result = work.execute(uow);
+                uow.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                // Falha no rollback não pode esconder o erro que o causou
+                try {
+                    uow.rollback();
+                } catch (SQLException | RuntimeException falhaRollback) {
+                    e.addSuppressed(falhaRollback);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Indica se a exceção é uma violação de restrição única, nos três bancos suportados.
+     * SQLState 23505 (PostgreSQL), 23000/1062 (MySQL) e SQLITE_CONSTRAINT_UNIQUE (2067) ou a mensagem do SQLite.
+     */
+    public static boolean isUniqueViolation(SQLException e) {
+        String state = e.getSQLState();
+        if ("23505".equals(state) || ("23000".equals(state) && e.getErrorCode() == 1062)) {
+            return true;
+        }
+        if (e.getErrorCode() == 2067) {
+            return true;
+        }
+        String message = e.getMessage();
+        return message != null && message.contains("UNIQUE constraint failed");
+    }
+
     /**
      * Fecha a conexão com o banco de dados
      */
@@ -0,0 +1,311 @@
+package io.github.joaovmundel.jocoTerrenos.database;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Log de escrita sequencial (database.type FILE). Cada registro é {@code [tamanho][crc32][corpo]}; o conteúdo do
+ * corpo é de quem usa o log. Uma thread gravadora junta os registros que chegaram enquanto o fsync anterior rodava
+ * e grava todos com um único fsync (group commit).
+ * <p>
+ * Na abertura, os registros são reaplicados em ordem até o primeiro incompleto ou com CRC errado, e o arquivo é
+ * cortado ali (o que sobra é uma escrita interrompida por queda; uma cópia fica em {@code <arquivo>.<ms>.descartado}).
+ * Quando o arquivo passa do dobro do tamanho da última compactação, ele é reescrito com a imagem atual. Como
+ * registros na fila podem acabar gravados depois da imagem que já os contém, os corpos precisam ser idempotentes
+ * (reaplicar não muda o resultado).
+ */
+public class LandLog implements AutoCloseable {
+
+    private static final int MAGIC = 0x4A544C47; // "JTLG"
+    private static final int VERSAO = 1;
+    private static final int CABECALHO = 8;
+    private static final int CABECALHO_REGISTRO = 8;
+
+    private final File arquivo;
+    private final long minimoCompactacao;
+    private final Supplier<List<byte[]>> imagem;
+    private final Logger logger;
+    private final LinkedBlockingQueue<Pendente> fila = new LinkedBlockingQueue<>();
+    private final Thread gravador;
+
+    private FileChannel canal;
+    private volatile long tamanho;
+    private long tamanhoCompactado;
+    private volatile IOException falha;
+    private volatile boolean fechado;
+
+    /**
+     * Registro esperando o fsync; {@code corpo} null encerra a thread gravadora.
+     */
+    private record Pendente(byte[] corpo, CompletableFuture<Void> gravado) {
+    }
+
+    private LandLog(File arquivo, long minimoCompactacao, Supplier<List<byte[]>> imagem, Logger logger) {
+        this.arquivo = arquivo;
+        this.minimoCompactacao = minimoCompactacao;
+        this.imagem = imagem;
+        this.logger = logger;
+        this.gravador = new Thread(this::gravarEmLoop, "JocoTerrenos-LandLog");
+        this.gravador.setDaemon(true);
+    }
+
+    /**
+     * Abre (ou cria) o log, reaplica os registros válidos com {@code aplicar} e inicia a thread gravadora.
+     *
+     * @param minimoCompactacao tamanho em bytes abaixo do qual o arquivo nunca é compactado
+     * @param imagem            corpos que reconstroem o estado atual inteiro, usados na compactação
+     */
+    public static LandLog abrir(File arquivo, long minimoCompactacao, Consumer<byte[]> aplicar,
+                                Supplier<List<byte[]>> imagem, Logger logger) throws IOException {
+        LandLog log = new LandLog(arquivo, minimoCompactacao, imagem, logger);
+        log.recuperar(aplicar);
+        log.gravador.start();
+        return log;
+    }
+
+    /**
+     * Enfileira um registro. O futuro completa depois do fsync, ou com erro se o log falhou ou foi fechado.
+     */
+    public CompletableFuture<Void> gravar(byte[] corpo) {
+        CompletableFuture<Void> gravado = new CompletableFuture<>();
+        if (falha != null) {
+            gravado.completeExceptionally(falha);
+        } else if (fechado) {
+            gravado.completeExceptionally(new IOException("Log fechado"));
+        } else {
+            fila.add(new Pendente(corpo, gravado));
+        }
+        return gravado;
+    }
+
+    /**
+     * true depois de uma falha de gravação: tudo o que ainda está na fila (ou chegar) vai falhar
+     */
+    public boolean falhou() {
+        return falha != null;
+    }
+
+    /**
+     * Bytes válidos no arquivo
+     */
+    public long tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Grava o que estiver na fila e fecha o arquivo.
+     */
+    @Override
+    public void close() {
+        if (fechado) return;
+        fechado = true;
+        fila.add(new Pendente(null, null));
+        try {
+            gravador.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            canal.close();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Erro ao fechar " + arquivo.getName(), e);
+        }
+    }
+
+    private void recuperar(Consumer<byte[]> aplicar) throws IOException {
+        File pasta = arquivo.getParentFile();
+        if (pasta != null && !pasta.mkdirs() && !pasta.isDirectory()) {
+            throw new IOException("Não foi possível criar " + pasta);
+        }
+        canal = FileChannel.open(arquivo.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long tamanhoArquivo = canal.size();
+        if (tamanhoArquivo < CABECALHO) {
+            // Arquivo novo (ou cabeçalho interrompido): começa do zero
+            canal.truncate(0);
+            escreverTudo(canal, cabecalho(), 0);
+            canal.force(true);
+            tamanho = CABECALHO;
+            tamanhoCompactado = CABECALHO;
+            return;
+        }
+        if (tamanhoArquivo > Integer.MAX_VALUE) {
+            throw new IOException(arquivo.getName() + " passou de 2 GB");
+        }
+
+        ByteBuffer dados = ByteBuffer.allocate((int) tamanhoArquivo);
+        while (dados.hasRemaining()) {
+            if (canal.read(dados, dados.position()) < 0) break;
+        }
+        dados.flip();
+        if (dados.getInt() != MAGIC || dados.getInt() != VERSAO) {
+            throw new IOException(arquivo.getName() + " não é um log do JocoTerrenos ou é de outra versão");
+        }
+
+        CRC32 crc = new CRC32();
+        int registros = 0;
+        while (dados.remaining() >= CABECALHO_REGISTRO) {
+            int inicio = dados.position();
+            int tamanhoCorpo = dados.getInt();
+            int crcEsperado = dados.getInt();
+            if (tamanhoCorpo < 0 || tamanhoCorpo > dados.remaining()) {
+                dados.position(inicio);
+                break;
+            }
+            byte[] corpo = new byte[tamanhoCorpo];
+            dados.get(corpo);
+            crc.reset();
+            crc.update(corpo);
+            if ((int) crc.getValue() != crcEsperado) {
+                dados.position(inicio);
+                break;
+            }
+            aplicar.accept(corpo);
+            registros++;
+        }
+
+        tamanho = dados.position();
+        tamanhoCompactado = tamanho;
+        if (tamanho < tamanhoArquivo) {
+            // Guarda o trecho descartado para análise antes de cortar o arquivo
+            File descartado = new File(arquivo.getPath() + "." + System.currentTimeMillis() + ".descartado");
+            Files.write(descartado.toPath(), Arrays.copyOfRange(dados.array(), (int) tamanho, (int) tamanhoArquivo));
+            logger.warning(arquivo.getName() + ": " + (tamanhoArquivo - tamanho) + " bytes incompletos ou corrompidos no fim do log"
+                    + " (escrita interrompida); descartados e copiados para " + descartado.getName() + ".");
+            canal.truncate(tamanho);
+            canal.force(true);
+        }
+        logger.info(arquivo.getName() + ": " + registros + " registros reaplicados (" + tamanho / 1024 + " KB).");
+    }
+
+    private void gravarEmLoop() {
+        List<Pendente> lote = new ArrayList<>();
+        while (true) {
+            try {
+                lote.add(fila.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            fila.drainTo(lote);
+            boolean encerrar = lote.removeIf(p -> p.corpo() == null);
+
+            if (!lote.isEmpty()) {
+                gravarLote(lote);
+                lote.clear();
+            }
+            if (encerrar) return;
+            if (falha == null && tamanho > Math.max(minimoCompactacao, 2 * tamanhoCompactado)) {
+                compactar();
+            }
+        }
+    }
+
+    private void gravarLote(List<Pendente> lote) {
+        if (falha != null) {
+            lote.forEach(p -> p.gravado().completeExceptionally(falha));
+            return;
+        }
+        int total = 0;
+        for (Pendente p : lote) {
+            total += CABECALHO_REGISTRO + p.corpo().length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        CRC32 crc = new CRC32();
+        for (Pendente p : lote) {
+            crc.reset();
+            crc.update(p.corpo());
+            buffer.putInt(p.corpo().length).putInt((int) crc.getValue()).put(p.corpo());
+        }
+        buffer.flip();
+
+        try {
+            escreverTudo(canal, buffer, tamanho);
+            canal.force(false);
+            tamanho += total;
+            lote.forEach(p -> p.gravado().complete(null));
+        } catch (IOException e) {
+            // Depois de uma falha o fim do arquivo é incerto: o log para de aceitar escritas até o restart
+            falha = e;
+            logger.log(Level.SEVERE, "Erro ao gravar em " + arquivo.getName() + "; as próximas alterações de terrenos serão recusadas", e);
+            lote.forEach(p -> p.gravado().completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Reescreve o log só com a imagem atual, num arquivo temporário que depois substitui o original.
+     */
+    private void compactar() {
+        long inicio = System.currentTimeMillis();
+        long antes = tamanho;
+        List<byte[]> corpos = imagem.get();
+        if (!fila.isEmpty()) {
+            // A imagem pode conter alterações ainda na fila, que podem falhar: tenta de novo depois do próximo lote
+            return;
+        }
+        File temporario = new File(arquivo.getPath() + ".compact");
+        long novoTamanho = CABECALHO;
+        try (FileChannel novo = FileChannel.open(temporario.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            escreverTudo(novo, cabecalho(), 0);
+            CRC32 crc = new CRC32();
+            for (byte[] corpo : corpos) {
+                crc.reset();
+                crc.update(corpo);
+                ByteBuffer registro = ByteBuffer.allocate(CABECALHO_REGISTRO + corpo.length);
+                registro.putInt(corpo.length).putInt((int) crc.getValue()).put(corpo).flip();
+                escreverTudo(novo, registro, novoTamanho);
+                novoTamanho += registro.capacity();
+            }
+            novo.force(true);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Erro ao compactar " + arquivo.getName() + "; o log atual continua em uso", e);
+            tamanhoCompactado = tamanho;
+            return;
+        }
+
+        try {
+            canal.close();
+            Files.move(temporario.toPath(), arquivo.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Erro ao trocar " + arquivo.getName() + " pela versão compactada", e);
+            novoTamanho = -1;
+        }
+        try {
+            canal = FileChannel.open(arquivo.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            tamanho = novoTamanho < 0 ? canal.size() : novoTamanho;
+            tamanhoCompactado = tamanho;
+        } catch (IOException e) {
+            falha = e;
+            logger.log(Level.SEVERE, "Erro ao reabrir " + arquivo.getName() + "; as próximas alterações de terrenos serão recusadas", e);
+            return;
+        }
+        if (novoTamanho >= 0) {
+            logger.info(arquivo.getName() + " compactado: " + antes / 1024 + " KB -> " + novoTamanho / 1024 + " KB em "
+                    + (System.currentTimeMillis() - inicio) + " ms.");
+        }
+    }
+
+    private static ByteBuffer cabecalho() {
+        return ByteBuffer.allocate(CABECALHO).putInt(MAGIC).putInt(VERSAO).flip();
+    }
+
+    private static void escreverTudo(FileChannel canal, ByteBuffer buffer, long posicao) throws IOException {
+        while (buffer.hasRemaining()) {
+            posicao += canal.write(buffer, posicao);
+        }
+    }
+}
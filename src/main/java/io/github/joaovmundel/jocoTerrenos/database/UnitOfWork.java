@@ -0,0 +1,127 @@
+package io.github.joaovmundel.jocoTerrenos.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unidade de trabalho ligada à thread atual.
+ * Mantém uma única conexão e um cache de PreparedStatements enquanto durar a operação,
+ * de modo que chamadas aninhadas do repositório reutilizem a mesma conexão em vez de
+ * pegar outra do pool (o que pode travar quando o pool está esgotado).
+ */
+public final class UnitOfWork implements AutoCloseable {
+
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+    private int depth = 1;
+    private boolean inTransaction;
+
+    private UnitOfWork(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Abre uma nova unidade de trabalho ou entra na que já está ativa na thread.
+     */
+    static UnitOfWork open(DatabaseManager databaseManager) throws SQLException {
+        UnitOfWork current = CURRENT.get();
+        if (current != null) {
+            current.depth++;
+            return current;
+        }
+        UnitOfWork uow = new UnitOfWork(databaseManager.getConnection());
+        CURRENT.set(uow);
+        return uow;
+    }
+
+    /**
+     * Retorna um PreparedStatement do cache (ou prepara um novo) para o SQL informado.
+     * O statement pertence à unidade de trabalho e não deve ser fechado por quem chama.
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        return prepare(sql, sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    /**
+     * Igual a {@link #prepare(String)}, mas solicitando as chaves geradas pelo INSERT.
+     */
+    public PreparedStatement prepareWithKeys(String sql) throws SQLException {
+        return prepare("keys:" + sql, sql, Statement.RETURN_GENERATED_KEYS);
+    }
+
+    private PreparedStatement prepare(String cacheKey, String sql, int autoGeneratedKeys) throws SQLException {
+        PreparedStatement stmt = statements.get(cacheKey);
+        if (stmt == null || stmt.isClosed()) {
+            stmt = connection.prepareStatement(sql, autoGeneratedKeys);
+            statements.put(cacheKey, stmt);
+        } else {
+            stmt.clearParameters();
+        }
+        return stmt;
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public boolean isInTransaction() {
+        return inTransaction;
+    }
+
+    void begin() throws SQLException {
+        connection.setAutoCommit(false);
+        inTransaction = true;
+    }
+
+    void commit() throws SQLException {
+        try {
+            connection.commit();
+        } finally {
+            endTransaction();
+        }
+    }
+
+    void rollback() throws SQLException {
+        try {
+            connection.rollback();
+        } finally {
+            endTransaction();
+        }
+    }
+
+    private void endTransaction() throws SQLException {
+        inTransaction = false;
+        connection.setAutoCommit(true);
+    }
+
+    /**
+     * Sai da unidade de trabalho; a conexão só volta ao pool quando a chamada mais externa fecha.
+     */
+    @Override
+    public void close() throws SQLException {
+        if (--depth > 0) {
+            return;
+        }
+        CURRENT.remove();
+        try {
+            for (PreparedStatement stmt : statements.values()) {
+                try {
+                    stmt.close();
+                } catch (SQLException ignored) {
+                }
+            }
+            statements.clear();
+            if (inTransaction) {
+                rollback();
+            }
+        } finally {
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package io.github.joaovmundel.jocoTerrenos.infrastructure;
+
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoFlag;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Configurações usadas nos caminhos quentes, lidas e validadas uma vez a partir do config.yml.
+ * Imutável: o plugin troca a instância inteira no reload ({@code /terreno admin reload}), e quem lê
+ * só acessa campos. Valores inválidos são avisados na carga e substituídos pelo padrão.
+ *
+ * @param teleporteMinY altura mínima da busca de teleporte, ou null para o mínimo do mundo
+ * @param teleporteMaxY altura máxima da busca de teleporte, ou null para o máximo do mundo
+ * @param limitesTaxa   limites de frequência por subcomando; a chave {@code default} vale para os demais
+ * @param tamanhoMaximoSnapshot maior terreno (lado) aceito por {@code /terreno snapshot}
+ * @param flagsPadrao   flags de terrenos novos ({@code lands.flags.defaults})
+ * @param flagsPorMundo flags de terrenos novos nos mundos com {@code lands.flags.worlds.<mundo>}
+ */
+public record Settings(int tamanhoMinimo, int tamanhoMaximo, int espacoEntreTerrenos, double precoPorBloco,
+                       Material materialCerca, Integer teleporteMinY, Integer teleporteMaxY, int raioSugestao,
+                       int maxTerrenosPorDono, long maxAreaPorDono, Map<String, LimiteTaxa> limitesTaxa,
+                       Visualizacao visualizacao, Expiracao expiracao, Imposto imposto, int tamanhoMaximoSnapshot,
+                       long flagsPadrao, Map<String, Long> flagsPorMundo) {
+
+    /**
+     * Balde de fichas de um subcomando; capacidade 0 desliga o limite.
+     */
+    public record LimiteTaxa(double capacidade, double recargaPorSegundo) {
+        public boolean ativo() {
+            return capacidade > 0 && recargaPorSegundo > 0;
+        }
+    }
+
+    /**
+     * Parâmetros de {@code /terreno ver}.
+     */
+    public record Visualizacao(Material material, int duracaoSegundos, int raio, int maxBlocos, long intervaloMinimoMs) {
+    }
+
+    /**
+     * Expiração de terrenos de donos inativos ({@code lands.reclaim}).
+     *
+     * @param simulacao a execução agendada só gera o relatório, sem apagar nada
+     */
+    public record Expiracao(boolean ativo, int diasInativo, int intervaloHoras, int tamanhoLote, boolean simulacao) {
+    }
+
+    /**
+     * Imposto periódico ({@code lands.tax}).
+     *
+     * @param taxa         fração do preço de compra (tamanho² × preço por bloco) cobrada a cada intervalo
+     * @param donosPorTick donos cobrados por tick quando o provider de economia não é thread-safe
+     */
+    public record Imposto(boolean ativo, double taxa, int intervaloHoras, int diasCarencia, int donosPorTick, boolean apagarVencidos) {
+    }
+
+    public Settings {
+        limitesTaxa = Map.copyOf(limitesTaxa);
+        flagsPorMundo = Map.copyOf(flagsPorMundo);
+    }
+
+    /**
+     * Flags de um terreno novo no mundo
+     */
+    public long flagsDoMundo(String world) {
+        Long flags = flagsPorMundo.get(world);
+        return flags != null ? flags : flagsPadrao;
+    }
+
+    /**
+     * Limite do subcomando, ou o {@code default} se ele não tiver um próprio (null se nenhum existir).
+     */
+    public LimiteTaxa limiteTaxa(String subComando) {
+        LimiteTaxa limite = limitesTaxa.get(subComando);
+        return limite != null ? limite : limitesTaxa.get("default");
+    }
+
+    /**
+     * Lê e valida a configuração. Cada problema encontrado vira uma linha em {@code avisos}.
+     */
+    public static Settings carregar(FileConfiguration config, List<String> avisos) {
+        Leitor l = new Leitor(config, avisos);
+
+        int min = l.inteiro("lands.min-size", "terrenos.tamanho-minimo", 5, 1, Integer.MAX_VALUE);
+        int max = l.inteiro("lands.max-size", "terrenos.tamanho-maximo", 100, 1, Integer.MAX_VALUE);
+        if (max < min) {
+            avisos.add("lands.max-size (" + max + ") é menor que lands.min-size (" + min + "); usando " + min);
+            max = min;
+        }
+        int espaco = l.inteiro("lands.spacing-between-lands", "terrenos.espaco-entre-terrenos", 3, 0, Integer.MAX_VALUE);
+        double preco = l.decimal("lands.block-price", "terrenos.block-price", 1000.0, 0);
+        Material cerca = l.material("lands.fence-material", "terrenos.fence-material", Material.OAK_FENCE);
+
+        Integer minY = l.opcional("lands.teleport.min-y", "terrenos.teleport.altura-min");
+        Integer maxY = l.opcional("lands.teleport.max-y", "terrenos.teleport.altura-max");
+        if (minY != null && maxY != null && maxY < minY) {
+            avisos.add("lands.teleport.max-y (" + maxY + ") é menor que lands.teleport.min-y (" + minY + "); usando as alturas do mundo");
+            minY = null;
+            maxY = null;
+        }
+
+        int raioSugestao = l.inteiro("lands.suggest.max-radius", null, 1024, 1, 30_000_000);
+        int maxTerrenos = l.inteiro("lands.limits.max-lands-per-owner", null, 0, 0, Integer.MAX_VALUE);
+        long maxArea = l.longo("lands.limits.max-area-per-owner", 0L, 0L);
+
+        Map<String, LimiteTaxa> limites = new HashMap<>();
+        ConfigurationSection secao = config.getConfigurationSection("lands.rate-limit");
+        if (secao != null) {
+            for (String sub : secao.getKeys(false)) {
+                String base = "lands.rate-limit." + sub;
+                limites.put(sub.toLowerCase(), new LimiteTaxa(
+                        l.decimal(base + ".capacity", null, 0, 0),
+                        l.decimal(base + ".refill-per-second", null, 0, 0)));
+            }
+        }
+
+        Visualizacao visualizacao = new Visualizacao(
+                l.material("lands.visualization.material", null, Material.GLOWSTONE),
+                l.inteiro("lands.visualization.duration-seconds", null, 30, 1, 3600),
+                l.inteiro("lands.visualization.radius", null, 64, 1, 512),
+                l.inteiro("lands.visualization.max-blocks", null, 2048, 1, 65536),
+                l.longo("lands.visualization.min-refresh-ms", 1000L, 0L));
+
+        Expiracao expiracao = new Expiracao(
+                config.getBoolean("lands.reclaim.enabled", false),
+                l.inteiro("lands.reclaim.inactive-days", null, 60, 1, 36500),
+                l.inteiro("lands.reclaim.interval-hours", null, 24, 1, 8760),
+                l.inteiro("lands.reclaim.batch-size", null, 200, 1, 10_000),
+                config.getBoolean("lands.reclaim.dry-run", true));
+
+        Imposto imposto = new Imposto(
+                config.getBoolean("lands.tax.enabled", false),
+                l.decimal("lands.tax.rate", null, 0.01, 0),
+                l.inteiro("lands.tax.interval-hours", null, 24, 1, 8760),
+                l.inteiro("lands.tax.grace-days", null, 7, 0, 36500),
+                l.inteiro("lands.tax.owners-per-tick", null, 50, 1, 10_000),
+                config.getBoolean("lands.tax.reclaim-overdue", true));
+
+        int tamanhoSnapshot = l.inteiro("lands.snapshots.max-size", null, 200, 1, 1024);
+
+        long flagsPadrao = l.flags("lands.flags.defaults", TerrenoFlag.padroes());
+        Map<String, Long> flagsPorMundo = new HashMap<>();
+        ConfigurationSection mundos = config.getConfigurationSection("lands.flags.worlds");
+        if (mundos != null) {
+            for (String world : mundos.getKeys(false)) {
+                flagsPorMundo.put(world, l.flags("lands.flags.worlds." + world, flagsPadrao));
+            }
+        }
+
+        return new Settings(min, max, espaco, preco, cerca, minY, maxY, raioSugestao, maxTerrenos, maxArea, limites,
+                visualizacao, expiracao, imposto, tamanhoSnapshot, flagsPadrao, flagsPorMundo);
+    }
+
+    /**
+     * Leitura com chave antiga opcional, faixa válida e aviso quando o valor é recusado.
+     */
+    private record Leitor(FileConfiguration config, List<String> avisos) {
+
+        private String chave(String atual, String antiga) {
+            if (config.isSet(atual) || antiga == null || !config.isSet(antiga)) return atual;
+            avisos.add("Chave antiga " + antiga + " em uso; renomeie para " + atual);
+            return antiga;
+        }
+
+        int inteiro(String atual, String antiga, int padrao, int min, int max) {
+            String chave = chave(atual, antiga);
+            if (!config.isSet(chave)) return padrao;
+            if (!config.isInt(chave)) {
+                avisos.add(chave + " deve ser um número inteiro: '" + config.get(chave) + "'; usando " + padrao);
+                return padrao;
+            }
+            int valor = config.getInt(chave);
+            if (valor < min || valor > max) {
+                avisos.add(chave + " fora da faixa [" + min + ", " + max + "]: " + valor + "; usando " + padrao);
+                return padrao;
+            }
+            return valor;
+        }
+
+        long longo(String chave, long padrao, long min) {
+            if (!config.isSet(chave)) return padrao;
+            if (!config.isInt(chave) && !config.isLong(chave)) {
+                avisos.add(chave + " deve ser um número inteiro: '" + config.get(chave) + "'; usando " + padrao);
+                return padrao;
+            }
+            long valor = config.getLong(chave);
+            if (valor < min) {
+                avisos.add(chave + " deve ser pelo menos " + min + ": " + valor + "; usando " + padrao);
+                return padrao;
+            }
+            return valor;
+        }
+
+        double decimal(String atual, String antiga, double padrao, double min) {
+            String chave = chave(atual, antiga);
+            if (!config.isSet(chave)) return padrao;
+            if (!config.isDouble(chave) && !config.isInt(chave)) {
+                avisos.add(chave + " deve ser um número: '" + config.get(chave) + "'; usando " + padrao);
+                return padrao;
+            }
+            double valor = config.getDouble(chave);
+            if (valor < min || Double.isNaN(valor)) {
+                avisos.add(chave + " deve ser pelo menos " + min + ": " + valor + "; usando " + padrao);
+                return padrao;
+            }
+            return valor;
+        }
+
+        Integer opcional(String atual, String antiga) {
+            String chave = chave(atual, antiga);
+            if (!config.isSet(chave)) return null;
+            if (!config.isInt(chave)) {
+                avisos.add(chave + " deve ser um número inteiro: '" + config.get(chave) + "'; usando a altura do mundo");
+                return null;
+            }
+            return config.getInt(chave);
+        }
+
+        /**
+         * Aplica sobre {@code base} as flags definidas na seção ({@code <flag>: true|false})
+         */
+        long flags(String secao, long base) {
+            ConfigurationSection flags = config.getConfigurationSection(secao);
+            if (flags == null) return base;
+            long resultado = base;
+            for (String chave : flags.getKeys(false)) {
+                Optional<TerrenoFlag> flag = TerrenoFlag.porChave(chave);
+                if (flag.isEmpty()) {
+                    avisos.add(secao + "." + chave + " não é uma flag conhecida; ignorando");
+                } else if (!flags.isBoolean(chave)) {
+                    avisos.add(secao + "." + chave + " deve ser true ou false: '" + flags.get(chave) + "'; ignorando");
+                } else {
+                    resultado = flag.get().aplicar(resultado, flags.getBoolean(chave));
+                }
+            }
+            return resultado;
+        }
+
+        Material material(String atual, String antiga, Material padrao) {
+            String chave = chave(atual, antiga);
+            if (!config.isSet(chave)) return padrao;
+            String nome = config.getString(chave);
+            Material material = nome != null ? Material.matchMaterial(nome) : null;
+            if (material == null || !material.isBlock()) {
+                avisos.add(chave + " não é um bloco válido: '" + nome + "'; usando " + padrao.name());
+                return padrao;
+            }
+            return material;
+        }
+    }
+}
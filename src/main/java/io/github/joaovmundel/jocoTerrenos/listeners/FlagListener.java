@@ -0,0 +1,154 @@
+package io.github.joaovmundel.jocoTerrenos.listeners;
+
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoFlag;
+import io.github.joaovmundel.jocoTerrenos.service.MessageService;
+import io.github.joaovmundel.jocoTerrenos.service.PlayerLandCache;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex.Area;
+import io.github.joaovmundel.jocoTerrenos.service.TrustService;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockIgniteEvent;
+import org.bukkit.event.block.BlockIgniteEvent.IgniteCause;
+import org.bukkit.event.block.BlockSpreadEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Aplica as flags de ambiente (explosões, fogo, fluidos) e a de entrada. Cada checagem é uma busca no índice
+ * espacial e um AND com a máscara da flag.
+ */
+public class FlagListener implements Listener {
+
+    /**
+     * Fogo que nasce sozinho; isqueiros e afins já passam pela proteção de interação
+     */
+    private static final Set<IgniteCause> IGNICAO_NATURAL = EnumSet.of(IgniteCause.SPREAD, IgniteCause.LAVA, IgniteCause.LIGHTNING);
+    private static final long INTERVALO_AVISO_MS = 2000;
+
+    private final TerrenoIndex index;
+    private final PlayerLandCache playerLandCache;
+    private final TrustService trustService;
+    private final MessageService messages;
+    private final Map<UUID, Long> ultimoAviso = new HashMap<>();
+
+    public FlagListener(TerrenoIndex index, PlayerLandCache playerLandCache, TrustService trustService, MessageService messages) {
+        this.index = index;
+        this.playerLandCache = playerLandCache;
+        this.trustService = trustService;
+        this.messages = messages;
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        filtrarExplosao(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        filtrarExplosao(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBurn(BlockBurnEvent event) {
+        if (bloqueado(event.getBlock(), TerrenoFlag.FOGO)) event.setCancelled(true);
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onSpread(BlockSpreadEvent event) {
+        if (event.getSource().getType() == Material.FIRE && bloqueado(event.getBlock(), TerrenoFlag.FOGO)) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onIgnite(BlockIgniteEvent event) {
+        if (IGNICAO_NATURAL.contains(event.getCause()) && bloqueado(event.getBlock(), TerrenoFlag.FOGO)) {
+            event.setCancelled(true);
+        }
+    }
+
+    /**
+     * Água e lava só são barradas ao entrar de fora; dentro do terreno continuam correndo normalmente.
+     */
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onFlow(BlockFromToEvent event) {
+        Area destino = areaDe(event.getToBlock());
+        if (destino == null || destino.temFlag(TerrenoFlag.FLUIDOS)) return;
+        Area origem = areaDe(event.getBlock());
+        if (origem == null || origem.id() != destino.id()) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+        Location para = event.getTo();
+        Location de = event.getFrom();
+        if (para == null || (para.getBlockX() == de.getBlockX() && para.getBlockZ() == de.getBlockZ()
+                && para.getWorld() == de.getWorld())) {
+            return;
+        }
+        if (entradaNegada(event.getPlayer(), para)) event.setCancelled(true);
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent event) {
+        if (event.getTo() != null && entradaNegada(event.getPlayer(), event.getTo())) event.setCancelled(true);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        ultimoAviso.remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Só barra a entrada vinda de fora: quem já está dentro (ex.: flag desligada com o jogador lá) pode sair e andar.
+     */
+    private boolean entradaNegada(Player player, Location destino) {
+        if (destino.getWorld() == null) return false;
+        Area area = index.findAt(destino.getWorld().getName(), destino.getX(), destino.getZ()).orElse(null);
+        if (trustService.podeEntrar(player, area)) return false;
+        Area atual = playerLandCache.terrenoAtual(player);
+        if (atual != null && atual.id() == area.id()) return false;
+
+        long agora = System.currentTimeMillis();
+        Long anterior = ultimoAviso.get(player.getUniqueId());
+        if (anterior == null || agora - anterior >= INTERVALO_AVISO_MS) {
+            ultimoAviso.put(player.getUniqueId(), agora);
+            messages.send(player, "terreno.flag.entrada-negada", MessageService.placeholders("name", area.name()));
+        }
+        return true;
+    }
+
+    private void filtrarExplosao(List<Block> blocos) {
+        blocos.removeIf(b -> bloqueado(b, TerrenoFlag.EXPLOSOES));
+    }
+
+    private boolean bloqueado(Block block, TerrenoFlag flag) {
+        Area area = areaDe(block);
+        return area != null && !area.temFlag(flag);
+    }
+
+    private Area areaDe(Block block) {
+        // Centro do bloco, para coincidir com as colunas de cerca
+        return index.findAt(block.getWorld().getName(), block.getX() + 0.5, block.getZ() + 0.5).orElse(null);
+    }
+}
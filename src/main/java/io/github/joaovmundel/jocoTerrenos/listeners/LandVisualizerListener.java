@@ -0,0 +1,30 @@
+package io.github.joaovmundel.jocoTerrenos.listeners;
+
+import io.github.joaovmundel.jocoTerrenos.service.LandVisualizer;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Encerra a visualização de bordas quando o jogador sai ou troca de mundo.
+ */
+public class LandVisualizerListener implements Listener {
+
+    private final LandVisualizer landVisualizer;
+
+    public LandVisualizerListener(LandVisualizer landVisualizer) {
+        this.landVisualizer = landVisualizer;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        landVisualizer.remover(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChangedWorld(PlayerChangedWorldEvent event) {
+        landVisualizer.remover(event.getPlayer().getUniqueId());
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.joaovmundel.jocoTerrenos.listeners;
+
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoService;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Descarta os cursores de {@code /terreno listar} do jogador ao sair.
+ */
+public class ListagemListener implements Listener {
+
+    private final TerrenoService terrenoService;
+
+    public ListagemListener(TerrenoService terrenoService) {
+        this.terrenoService = terrenoService;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        terrenoService.esquecerCursores(event.getPlayer().getUniqueId());
+    }
+}
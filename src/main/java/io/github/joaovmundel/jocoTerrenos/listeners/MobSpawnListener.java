@@ -0,0 +1,42 @@
+package io.github.joaovmundel.jocoTerrenos.listeners;
+
+import io.github.joaovmundel.jocoTerrenos.service.MobSpawnIndex;
+import org.bukkit.Location;
+import org.bukkit.entity.Enemy;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.event.entity.CreatureSpawnEvent.SpawnReason;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Impede o nascimento de mobs hostis ({@link Enemy}, o que inclui slimes, phantoms e ghasts) em terrenos com mobs
+ * desativados.
+ * Spawns feitos por jogadores ou plugins (ovos, comandos, API) não são bloqueados.
+ */
+public class MobSpawnListener implements Listener {
+
+    private static final Set<SpawnReason> PERMITIDOS = EnumSet.of(
+            SpawnReason.SPAWNER_EGG, SpawnReason.COMMAND, SpawnReason.CUSTOM, SpawnReason.DEFAULT);
+
+    private final MobSpawnIndex mobSpawnIndex;
+
+    public MobSpawnListener(MobSpawnIndex mobSpawnIndex) {
+        this.mobSpawnIndex = mobSpawnIndex;
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onCreatureSpawn(CreatureSpawnEvent event) {
+        if (!(event.getEntity() instanceof Enemy) || PERMITIDOS.contains(event.getSpawnReason())) {
+            return;
+        }
+        Location loc = event.getLocation();
+        if (loc.getWorld() == null) return;
+        if (!mobSpawnIndex.podeNascer(loc.getWorld().getName(), loc.getX(), loc.getZ())) {
+            event.setCancelled(true);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.joaovmundel.jocoTerrenos.listeners;
+
+import io.github.joaovmundel.jocoTerrenos.service.PlayerLandCache;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+/**
+ * Mantém o {@link PlayerLandCache} em dia com a posição dos jogadores.
+ */
+public class PlayerLandListener implements Listener {
+
+    private final PlayerLandCache playerLandCache;
+
+    public PlayerLandListener(PlayerLandCache playerLandCache) {
+        this.playerLandCache = playerLandCache;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        playerLandCache.aoMover(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+        playerLandCache.aoMover(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent event) {
+        playerLandCache.aoMover(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        playerLandCache.remover(event.getPlayer());
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.joaovmundel.jocoTerrenos.listeners;
+
+import io.github.joaovmundel.jocoTerrenos.service.ReclaimService;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Grava o último acesso do jogador (usado na expiração de terrenos inativos).
+ */
+public class PlayerSeenListener implements Listener {
+
+    private final ReclaimService reclaimService;
+
+    public PlayerSeenListener(ReclaimService reclaimService) {
+        this.reclaimService = reclaimService;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        reclaimService.registrarAcessoAsync(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        reclaimService.registrarAcessoAsync(event.getPlayer().getUniqueId());
+    }
+}
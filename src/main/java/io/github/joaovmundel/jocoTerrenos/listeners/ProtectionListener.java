@@ -0,0 +1,89 @@
+package io.github.joaovmundel.jocoTerrenos.listeners;
+
+import io.github.joaovmundel.jocoTerrenos.service.MessageService;
+import io.github.joaovmundel.jocoTerrenos.service.TrustService;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.player.PlayerBucketEmptyEvent;
+import org.bukkit.event.player.PlayerBucketFillEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Protege os terrenos contra construção e interação de quem não é dono nem membro.
+ */
+public class ProtectionListener implements Listener {
+
+    private final TrustService trustService;
+    private final MessageService messages;
+
+    public ProtectionListener(TrustService trustService, MessageService messages) {
+        this.trustService = trustService;
+        this.messages = messages;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+        trustService.carregarAsync(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        trustService.descarregar(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        if (!trustService.podeConstruir(event.getPlayer(), event.getBlock())) {
+            negar(event.getPlayer());
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        if (!trustService.podeConstruir(event.getPlayer(), event.getBlock())) {
+            negar(event.getPlayer());
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onBucketEmpty(PlayerBucketEmptyEvent event) {
+        if (!trustService.podeConstruir(event.getPlayer(), event.getBlock())) {
+            negar(event.getPlayer());
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onBucketFill(PlayerBucketFillEvent event) {
+        if (!trustService.podeConstruir(event.getPlayer(), event.getBlockClicked())) {
+            negar(event.getPlayer());
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onInteract(PlayerInteractEvent event) {
+        Block block = event.getClickedBlock();
+        if (block == null) return;
+        if (event.getAction() != Action.RIGHT_CLICK_BLOCK && event.getAction() != Action.PHYSICAL) return;
+        if (!trustService.podeInteragir(event.getPlayer(), block)) {
+            // Placas de pressão etc. não geram mensagem para não poluir o chat
+            if (event.getAction() == Action.RIGHT_CLICK_BLOCK) negar(event.getPlayer());
+            event.setCancelled(true);
+        }
+    }
+
+    private void negar(Player player) {
+        messages.send(player, "terreno.protecao.sem-permissao");
+    }
+}
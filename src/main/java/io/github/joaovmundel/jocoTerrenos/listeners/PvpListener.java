@@ -0,0 +1,48 @@
+package io.github.joaovmundel.jocoTerrenos.listeners;
+
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoFlag;
+import io.github.joaovmundel.jocoTerrenos.service.PlayerLandCache;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex.Area;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Projectile;
+import org.bukkit.entity.Tameable;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+
+/**
+ * Bloqueia dano entre jogadores quando o atacante ou a vítima está num terreno com PvP desativado.
+ * Projéteis e animais domesticados contam como ataque do jogador que os controla.
+ */
+public class PvpListener implements Listener {
+
+    private final PlayerLandCache playerLandCache;
+
+    public PvpListener(PlayerLandCache playerLandCache) {
+        this.playerLandCache = playerLandCache;
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onDamage(EntityDamageByEntityEvent event) {
+        if (!(event.getEntity() instanceof Player vitima)) return;
+        Player atacante = atacante(event.getDamager());
+        if (atacante == null || atacante == vitima) return;
+
+        if (pvpBloqueado(playerLandCache.terrenoAtual(vitima)) || pvpBloqueado(playerLandCache.terrenoAtual(atacante))) {
+            event.setCancelled(true);
+        }
+    }
+
+    private static boolean pvpBloqueado(Area area) {
+        return area != null && !area.temFlag(TerrenoFlag.PVP);
+    }
+
+    private static Player atacante(Entity damager) {
+        if (damager instanceof Player player) return player;
+        if (damager instanceof Projectile projectile && projectile.getShooter() instanceof Player shooter) return shooter;
+        if (damager instanceof Tameable tameable && tameable.getOwner() instanceof Player dono) return dono;
+        return null;
+    }
+}
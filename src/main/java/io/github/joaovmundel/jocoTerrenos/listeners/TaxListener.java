@@ -0,0 +1,24 @@
+package io.github.joaovmundel.jocoTerrenos.listeners;
+
+import io.github.joaovmundel.jocoTerrenos.service.TaxService;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+
+/**
+ * Avisa o dono, ao entrar, sobre terrenos com imposto em atraso.
+ */
+public class TaxListener implements Listener {
+
+    private final TaxService taxService;
+
+    public TaxListener(TaxService taxService) {
+        this.taxService = taxService;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        taxService.avisarAtrasoAsync(event.getPlayer());
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.joaovmundel.jocoTerrenos.listeners;
+
+import io.github.joaovmundel.jocoTerrenos.service.TeleportCache;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+
+/**
+ * Invalida pontos de teleporte em cache quando blocos perto deles mudam.
+ */
+public class TeleportCacheListener implements Listener {
+
+    private final TeleportCache teleportCache;
+
+    public TeleportCacheListener(TeleportCache teleportCache) {
+        this.teleportCache = teleportCache;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        teleportCache.aoAlterarBloco(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        teleportCache.aoAlterarBloco(event.getBlock());
+    }
+}
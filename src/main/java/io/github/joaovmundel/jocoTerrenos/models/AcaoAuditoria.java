@@ -0,0 +1,52 @@
+package io.github.joaovmundel.jocoTerrenos.models;
+
+/**
+ * Alterações de terreno registradas na auditoria (coluna {@code acao} de terreno_audit, pelo nome).
+ * O que vai em alvo, detalhe e valor depende da ação.
+ */
+public enum AcaoAuditoria {
+    /**
+     * alvo: nome; valor: tamanho
+     */
+    CRIAR,
+    /**
+     * alvo: nome; valor: tamanho
+     */
+    APAGAR,
+    /**
+     * Apagado por inatividade do dono (sem ator). alvo: nome; valor: tamanho
+     */
+    EXPIRAR,
+    /**
+     * Apagado por imposto vencido além da carência (sem ator). alvo: nome; valor: tamanho
+     */
+    IMPOSTO_VENCIDO,
+    /**
+     * detalhe: chave da flag; valor: 1 ligada, 0 desligada
+     */
+    FLAG,
+    /**
+     * alvo: UUID do membro; detalhe: cargo
+     */
+    MEMBRO_ADICIONAR,
+    /**
+     * alvo: UUID do membro
+     */
+    MEMBRO_REMOVER,
+    /**
+     * alvo: UUID do membro; detalhe: novo cargo
+     */
+    MEMBRO_CARGO,
+    /**
+     * alvo: novo nome
+     */
+    RENOMEAR,
+    /**
+     * alvo: UUID do novo dono
+     */
+    TRANSFERIR,
+    /**
+     * valor: novo tamanho
+     */
+    REDIMENSIONAR
+}
@@ -0,0 +1,45 @@
+package io.github.joaovmundel.jocoTerrenos.models;
+
+/**
+ * Cópia dos blocos de uma região: paleta de estados ({@code BlockData#getAsString}) e, para cada bloco,
+ * o índice na paleta empacotado com {@code bits} bits (sem atravessar longs). Ordem: X mais rápido, depois Z, depois Y.
+ */
+public record RegionSnapshot(String world, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ,
+                             long criadoEm, String[] paleta, int bits, long[] dados) {
+
+    public int volume() {
+        return sizeX * sizeY * sizeZ;
+    }
+
+    public int indice(int x, int y, int z) {
+        return ((y - minY) * sizeZ + (z - minZ)) * sizeX + (x - minX);
+    }
+
+    /**
+     * Índice na paleta do i-ésimo bloco.
+     */
+    public int get(int i) {
+        int porLong = 64 / bits;
+        long palavra = dados[i / porLong];
+        return (int) ((palavra >>> ((i % porLong) * bits)) & ((1L << bits) - 1));
+    }
+
+    /**
+     * Menor quantidade de bits que comporta {@code tamanhoPaleta} valores (mínimo 1).
+     */
+    public static int bitsPara(int tamanhoPaleta) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(tamanhoPaleta - 1));
+    }
+
+    /**
+     * Empacota os índices na paleta com {@code bits} bits cada.
+     */
+    public static long[] empacotar(char[] indices, int bits) {
+        int porLong = 64 / bits;
+        long[] dados = new long[(indices.length + porLong - 1) / porLong];
+        for (int i = 0; i < indices.length; i++) {
+            dados[i / porLong] |= (long) indices[i] << ((i % porLong) * bits);
+        }
+        return dados;
+    }
+}
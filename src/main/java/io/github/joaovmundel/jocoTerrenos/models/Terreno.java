@@ -12,8 +12,17 @@ public class Terreno {
     private String donoUUID;
     private String location;
     private Integer size;
-    private Boolean pvp;
-    private Boolean mobs;
-    private Boolean publicAccess;
+    /**
+     * Bits de {@link TerrenoFlag}
+     */
+    private long flags;
     private List<TerrenoMember> members = new ArrayList<>();
+
+    public boolean temFlag(TerrenoFlag flag) {
+        return flag.em(flags);
+    }
+
+    public void setFlag(TerrenoFlag flag, boolean ativa) {
+        flags = flag.aplicar(flags, ativa);
+    }
 }
@@ -0,0 +1,101 @@
+package io.github.joaovmundel.jocoTerrenos.models;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Flags de um terreno, guardadas como bits de um único long (coluna {@code flags}). O bit de cada flag é a
+ * posição dela aqui: flags novas entram sempre no fim, e nenhuma pode ser removida ou reordenada (no máximo 64).
+ * Bit ligado = permitido.
+ */
+public enum TerrenoFlag {
+
+    PVP("pvp", false, false),
+    MOBS("mobs", true, true),
+    /**
+     * Qualquer jogador pode usar portas, baús, botões etc.
+     */
+    PUBLICO("publico", false, false),
+    EXPLOSOES("explosoes", false, true),
+    /**
+     * Fogo se espalha e queima blocos
+     */
+    FOGO("fogo", false, true),
+    /**
+     * Água e lava de fora entram no terreno
+     */
+    FLUIDOS("fluidos", false, true),
+    /**
+     * Quem não é dono nem membro pode entrar
+     */
+    ENTRAR("entrar", true, true);
+
+    private static final List<TerrenoFlag> TODAS = List.of(values());
+
+    static {
+        if (TODAS.size() > Long.SIZE) {
+            throw new IllegalStateException("No máximo " + Long.SIZE + " flags de terreno");
+        }
+    }
+
+    private final String chave;
+    private final boolean padrao;
+    private final boolean legado;
+
+    /**
+     * @param padrao valor em terrenos novos quando o config.yml não define
+     * @param legado valor em terrenos criados antes da flag existir (mantém o comportamento que eles já tinham)
+     */
+    TerrenoFlag(String chave, boolean padrao, boolean legado) {
+        this.chave = chave;
+        this.padrao = padrao;
+        this.legado = legado;
+    }
+
+    /**
+     * Nome usado no config.yml, nos comandos e nas mensagens
+     */
+    public String chave() {
+        return chave;
+    }
+
+    public long mascara() {
+        return 1L << ordinal();
+    }
+
+    public boolean em(long flags) {
+        return (flags & mascara()) != 0;
+    }
+
+    public long aplicar(long flags, boolean ativa) {
+        return ativa ? flags | mascara() : flags & ~mascara();
+    }
+
+    public static List<TerrenoFlag> todas() {
+        return TODAS;
+    }
+
+    public static Optional<TerrenoFlag> porChave(String chave) {
+        return TODAS.stream().filter(f -> f.chave.equalsIgnoreCase(chave)).findFirst();
+    }
+
+    /**
+     * Flags padrão de terrenos novos, sem considerar o config.yml
+     */
+    public static long padroes() {
+        return mascaraDe(f -> f.padrao);
+    }
+
+    /**
+     * Flags que terrenos antigos recebem ao migrar (as três primeiras vêm das colunas antigas)
+     */
+    public static long legados() {
+        return mascaraDe(f -> f.legado);
+    }
+
+    private static long mascaraDe(Predicate<TerrenoFlag> filtro) {
+        return Arrays.stream(values()).filter(filtro).mapToLong(TerrenoFlag::mascara).reduce(0L, (a, b) -> a | b);
+    }
+}
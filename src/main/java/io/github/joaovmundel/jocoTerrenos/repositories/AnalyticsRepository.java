@@ -0,0 +1,111 @@
+package io.github.joaovmundel.jocoTerrenos.repositories;
+
+import io.github.joaovmundel.jocoTerrenos.database.DatabaseManager;
+import io.github.joaovmundel.jocoTerrenos.database.UnitOfWork;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistência dos resumos de uso dos terrenos (tabelas terreno_estatisticas e mundo_estatisticas)
+ */
+public class AnalyticsRepository {
+
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+
+    public AnalyticsRepository(DatabaseManager databaseManager, Logger logger) {
+        this.databaseManager = databaseManager;
+        this.logger = logger;
+    }
+
+    /**
+     * Resumo de um mundo no momento do flush
+     */
+    public record WorldSummary(String world, int lands, long claimedArea, int playersInside) {
+    }
+
+    /**
+     * Busca os segundos de visita acumulados, indexados pelo ID do terreno
+     */
+    public Map<Long, Long> findVisitorSeconds() {
+        String sql = "SELECT terreno_id, visitor_seconds FROM terreno_estatisticas";
+        Map<Long, Long> totais = new HashMap<>();
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork();
+             ResultSet rs = uow.prepare(sql).executeQuery()) {
+
+            while (rs.next()) {
+                totais.put(rs.getLong("terreno_id"), rs.getLong("visitor_seconds"));
+            }
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao buscar estatísticas dos terrenos", e);
+        }
+
+        return totais;
+    }
+
+    /**
+     * Soma os incrementos de visita, remove as linhas de terrenos apagados e substitui os resumos por mundo,
+     * tudo numa única transação com lotes.
+     */
+    public boolean flush(Map<Long, Long> incrementos, Collection<Long> removidos, Collection<WorldSummary> mundos) {
+        String upsert = switch (databaseManager.getDatabaseType()) {
+            case MYSQL -> """
+                        INSERT INTO terreno_estatisticas (terreno_id, visitor_seconds) VALUES (?, ?)
+                        ON DUPLICATE KEY UPDATE visitor_seconds = visitor_seconds + VALUES(visitor_seconds), updated_at = CURRENT_TIMESTAMP
+                    """;
+            default -> """
+                        INSERT INTO terreno_estatisticas (terreno_id, visitor_seconds) VALUES (?, ?)
+                        ON CONFLICT (terreno_id) DO UPDATE SET visitor_seconds = terreno_estatisticas.visitor_seconds + excluded.visitor_seconds,
+                        updated_at = CURRENT_TIMESTAMP
+                    """;
+        };
+
+        try {
+            return databaseManager.inTransaction(uow -> {
+                if (!incrementos.isEmpty()) {
+                    PreparedStatement stmt = uow.prepare(upsert);
+                    for (Map.Entry<Long, Long> e : incrementos.entrySet()) {
+                        stmt.setLong(1, e.getKey());
+                        stmt.setLong(2, e.getValue());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+                if (!removidos.isEmpty()) {
+                    PreparedStatement stmt = uow.prepare("DELETE FROM terreno_estatisticas WHERE terreno_id = ?");
+                    for (Long id : removidos) {
+                        stmt.setLong(1, id);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+                uow.prepare("DELETE FROM mundo_estatisticas").executeUpdate();
+                if (!mundos.isEmpty()) {
+                    PreparedStatement stmt = uow.prepare("INSERT INTO mundo_estatisticas (world, lands, claimed_area, players_inside) VALUES (?, ?, ?, ?)");
+                    for (WorldSummary m : mundos) {
+                        stmt.setString(1, m.world());
+                        stmt.setInt(2, m.lands());
+                        stmt.setLong(3, m.claimedArea());
+                        stmt.setInt(4, m.playersInside());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+                return true;
+            });
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao gravar estatísticas dos terrenos", e);
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.joaovmundel.jocoTerrenos.repositories;
+
+import io.github.joaovmundel.jocoTerrenos.database.DatabaseManager;
+import io.github.joaovmundel.jocoTerrenos.database.UnitOfWork;
+import io.github.joaovmundel.jocoTerrenos.models.AcaoAuditoria;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistência da auditoria de alterações dos terrenos (tabela terreno_audit)
+ */
+public class AuditRepository {
+
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+
+    public AuditRepository(DatabaseManager databaseManager, Logger logger) {
+        this.databaseManager = databaseManager;
+        this.logger = logger;
+    }
+
+    /**
+     * Uma linha da auditoria; {@code id} é 0 antes de gravar e {@code ator} null para ações do sistema
+     */
+    public record Registro(long id, long momento, long terrenoId, AcaoAuditoria acao, String ator, String alvo,
+                           String detalhe, long valor) {
+    }
+
+    /**
+     * Grava os registros num único lote e numa única transação
+     */
+    public boolean inserir(List<Registro> registros) {
+        if (registros.isEmpty()) return true;
+        String sql = "INSERT INTO terreno_audit (momento, terreno_id, acao, ator_uuid, alvo, detalhe, valor) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        try {
+            return databaseManager.inTransaction(uow -> {
+                PreparedStatement stmt = uow.prepare(sql);
+                for (Registro r : registros) {
+                    stmt.setLong(1, r.momento());
+                    stmt.setLong(2, r.terrenoId());
+                    stmt.setString(3, r.acao().name());
+                    texto(stmt, 4, r.ator());
+                    texto(stmt, 5, r.alvo());
+                    texto(stmt, 6, r.detalhe());
+                    stmt.setLong(7, r.valor());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                return true;
+            });
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao gravar " + registros.size() + " registros de auditoria", e);
+        }
+
+        return false;
+    }
+
+    /**
+     * Página de registros, do mais novo para o mais antigo; {@code terrenoId} null traz todos os terrenos
+     */
+    public List<Registro> findPagina(Long terrenoId, int pular, int limite) {
+        String sql = terrenoId == null
+                ? "SELECT * FROM terreno_audit ORDER BY id DESC LIMIT ? OFFSET ?"
+                : "SELECT * FROM terreno_audit WHERE terreno_id = ? ORDER BY id DESC LIMIT ? OFFSET ?";
+        List<Registro> registros = new ArrayList<>();
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            int i = 1;
+            if (terrenoId != null) stmt.setLong(i++, terrenoId);
+            stmt.setInt(i++, limite);
+            stmt.setInt(i, pular);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    registros.add(new Registro(rs.getLong("id"), rs.getLong("momento"), rs.getLong("terreno_id"),
+                            AcaoAuditoria.valueOf(rs.getString("acao")), rs.getString("ator_uuid"), rs.getString("alvo"),
+                            rs.getString("detalhe"), rs.getLong("valor")));
+                }
+            }
+
+        } catch (SQLException | IllegalArgumentException e) {
+            logger.log(Level.SEVERE, "Erro ao buscar auditoria" + (terrenoId != null ? " do terreno " + terrenoId : ""), e);
+        }
+
+        return registros;
+    }
+
+    /**
+     * Quantidade de registros (de um terreno, ou todos com null), ou -1 em caso de erro
+     */
+    public int count(Long terrenoId) {
+        String sql = terrenoId == null
+                ? "SELECT COUNT(*) FROM terreno_audit"
+                : "SELECT COUNT(*) FROM terreno_audit WHERE terreno_id = ?";
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            if (terrenoId != null) stmt.setLong(1, terrenoId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao contar auditoria" + (terrenoId != null ? " do terreno " + terrenoId : ""), e);
+        }
+
+        return -1;
+    }
+
+    private static void texto(PreparedStatement stmt, int indice, String valor) throws SQLException {
+        if (valor == null) {
+            stmt.setNull(indice, Types.VARCHAR);
+        } else {
+            // As colunas têm 64 caracteres; nomes e UUIDs cabem, o resto é cortado
+            stmt.setString(indice, valor.length() > 64 ? valor.substring(0, 64) : valor);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package io.github.joaovmundel.jocoTerrenos.repositories;
+
+import io.github.joaovmundel.jocoTerrenos.database.DatabaseManager;
+import io.github.joaovmundel.jocoTerrenos.database.UnitOfWork;
+
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Registro das cercas colocadas por terreno (tabela terreno_cercas).
+ * As posições são longs empacotados (ver {@code FenceUtils#posicao}) gravados em sequência num blob.
+ */
+public class FenceLedgerRepository {
+
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+
+    public FenceLedgerRepository(DatabaseManager databaseManager, Logger logger) {
+        this.databaseManager = databaseManager;
+        this.logger = logger;
+    }
+
+    /**
+     * Cercas de um terreno: mundo, material usado e posições exatas
+     */
+    public record FenceLedger(long terrenoId, String world, String material, long[] posicoes) {
+    }
+
+    public Optional<FenceLedger> find(long terrenoId) {
+        String sql = "SELECT world, material, posicoes FROM terreno_cercas WHERE terreno_id = ?";
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setLong(1, terrenoId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(new FenceLedger(terrenoId, rs.getString("world"), rs.getString("material"),
+                            desempacotar(rs.getBytes("posicoes"))));
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao buscar cercas do terreno: " + terrenoId, e);
+        }
+
+        return Optional.empty();
+    }
+
+    public boolean save(FenceLedger ledger) {
+        String sql = switch (databaseManager.getDatabaseType()) {
+            case MYSQL -> """
+                        INSERT INTO terreno_cercas (terreno_id, world, material, posicoes) VALUES (?, ?, ?, ?)
+                        ON DUPLICATE KEY UPDATE world = VALUES(world), material = VALUES(material), posicoes = VALUES(posicoes),
+                        updated_at = CURRENT_TIMESTAMP
+                    """;
+            default -> """
+                        INSERT INTO terreno_cercas (terreno_id, world, material, posicoes) VALUES (?, ?, ?, ?)
+                        ON CONFLICT (terreno_id) DO UPDATE SET world = excluded.world, material = excluded.material,
+                        posicoes = excluded.posicoes, updated_at = CURRENT_TIMESTAMP
+                    """;
+        };
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setLong(1, ledger.terrenoId());
+            stmt.setString(2, ledger.world());
+            stmt.setString(3, ledger.material());
+            stmt.setBytes(4, empacotar(ledger.posicoes()));
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao salvar cercas do terreno: " + ledger.terrenoId(), e);
+        }
+
+        return false;
+    }
+
+    public boolean delete(long terrenoId) {
+        String sql = "DELETE FROM terreno_cercas WHERE terreno_id = ?";
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setLong(1, terrenoId);
+            stmt.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao apagar cercas do terreno: " + terrenoId, e);
+        }
+
+        return false;
+    }
+
+    /**
+     * IDs dos terrenos com registro, em páginas por chave (os terrenos podem estar em outro armazenamento)
+     */
+    public List<Long> findIdsAfter(long aposId, int limite) {
+        String sql = "SELECT terreno_id FROM terreno_cercas WHERE terreno_id > ? ORDER BY terreno_id LIMIT ?";
+        List<Long> ids = new ArrayList<>();
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setLong(1, aposId);
+            stmt.setInt(2, limite);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao buscar registros de cercas após: " + aposId, e);
+        }
+
+        return ids;
+    }
+
+    private static byte[] empacotar(long[] posicoes) {
+        ByteBuffer buffer = ByteBuffer.allocate(posicoes.length * Long.BYTES);
+        buffer.asLongBuffer().put(posicoes);
+        return buffer.array();
+    }
+
+    private static long[] desempacotar(byte[] bytes) {
+        if (bytes == null) return new long[0];
+        long[] posicoes = new long[bytes.length / Long.BYTES];
+        ByteBuffer.wrap(bytes).asLongBuffer().get(posicoes);
+        return posicoes;
+    }
+}
@@ -0,0 +1,929 @@
+package io.github.joaovmundel.jocoTerrenos.repositories;
+
+import io.github.joaovmundel.jocoTerrenos.database.LandLog;
+import io.github.joaovmundel.jocoTerrenos.models.Terreno;
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoFlag;
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoMember;
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoRole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Terrenos e membros num {@link LandLog} local (database.type FILE), para servidores únicos.
+ * A imagem inteira fica em memória e as leituras nunca vão ao disco; cada alteração é validada e aplicada na
+ * memória e vira um único registro do log (atômico), e o método só retorna depois do fsync. Se a gravação falhar,
+ * a alteração é desfeita na memória antes de o método retornar o erro.
+ * <p>
+ * Os registros só contêm operações que gravam o valor final (terreno inteiro, remoção, membro com cargo), para
+ * serem idempotentes como o log exige. O último acesso dos donos continua no banco auxiliar (SQLite).
+ */
+public class FileTerrenoRepository implements TerrenoRepository {
+
+    private static final byte OP_TERRENO = 1;
+    private static final byte OP_APAGAR = 2;
+    private static final byte OP_MEMBRO = 3;
+    private static final byte OP_REMOVER_MEMBRO = 4;
+    private static final byte OP_SEQUENCIA = 5;
+    /**
+     * Terreno com as flags num long; substitui {@link #OP_TERRENO} (três booleanos), que continua sendo lido
+     */
+    private static final byte OP_TERRENO_FLAGS = 6;
+    private static final int CANDIDATOS_POR_PAGINA = 1000;
+
+    private final PlayerSeenRepository playerSeenRepository;
+    private final Logger logger;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<Long, Terreno> terrenos = new TreeMap<>();
+    private final Map<Long, Map<String, TerrenoRole>> membros = new HashMap<>();
+    private final Map<String, Long> porChaveNome = new HashMap<>();
+    private final TreeMap<String, TreeSet<Long>> porDono = new TreeMap<>();
+    private final Map<String, Set<Long>> porMembro = new HashMap<>();
+    private final LandLog log;
+    /**
+     * Lotes já aplicados na memória cujo fsync ainda não confirmou, na ordem do log (com o write lock)
+     */
+    private final ArrayDeque<Pendente> pendentes = new ArrayDeque<>();
+    private long proximoId = 1;
+
+    private record Pendente(Lote lote, CompletableFuture<Void> gravado) {
+    }
+
+    /**
+     * Abre o log e reconstrói a imagem em memória.
+     *
+     * @param minimoCompactacao tamanho em bytes abaixo do qual o log nunca é compactado
+     */
+    public FileTerrenoRepository(File arquivo, long minimoCompactacao, PlayerSeenRepository playerSeenRepository,
+                                 Logger logger) throws IOException {
+        this.playerSeenRepository = playerSeenRepository;
+        this.logger = logger;
+        this.log = LandLog.abrir(arquivo, minimoCompactacao, this::reaplicar, this::imagem, logger);
+        logger.info("Terrenos carregados de " + arquivo.getName() + ": " + terrenos.size() + " terrenos.");
+    }
+
+    @Override
+    public Optional<Terreno> create(Terreno terreno) {
+        return criar(terreno, false);
+    }
+
+    @Override
+    public Optional<Terreno> createWithOwner(Terreno terreno) {
+        return criar(terreno, true);
+    }
+
+    private Optional<Terreno> criar(Terreno terreno, boolean comDono) {
+        CompletableFuture<Void> gravado;
+        lock.writeLock().lock();
+        try {
+            String chave = chaveNome(terreno.getDonoUUID(), terreno.getName());
+            if (porChaveNome.containsKey(chave)) {
+                logger.warning("Terreno não criado: nome já usado (" + chave + ")");
+                return Optional.empty();
+            }
+            terreno.setId(proximoId);
+            Lote lote = new Lote(true).terreno(terreno);
+            if (comDono) {
+                lote.membro(terreno.getId(), terreno.getDonoUUID(), TerrenoRole.OWNER);
+            }
+            gravado = gravar(lote);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (!aguardar(gravado, "Erro ao criar terreno")) {
+            terreno.setId(null);
+            return Optional.empty();
+        }
+        if (comDono) {
+            List<TerrenoMember> members = new ArrayList<>();
+            members.add(new TerrenoMember(terreno.getId(), terreno.getDonoUUID(), TerrenoRole.OWNER));
+            terreno.setMembers(members);
+        }
+        logger.info("Terreno criado com ID: " + terreno.getId());
+        return Optional.of(terreno);
+    }
+
+    @Override
+    public Optional<Terreno> findById(Long id) {
+        lock.readLock().lock();
+        try {
+            Terreno t = terrenos.get(id);
+            return t != null ? Optional.of(comMembros(t)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Terreno> findByDonoUUID(String donoUUID) {
+        lock.readLock().lock();
+        try {
+            List<Terreno> lista = new ArrayList<>();
+            for (Long id : porDono.getOrDefault(donoUUID, new TreeSet<>())) {
+                lista.add(comMembros(terrenos.get(id)));
+            }
+            return lista;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Terreno> findByOwnerAfter(String donoUUID, long aposId, int limite) {
+        lock.readLock().lock();
+        try {
+            List<Terreno> lista = new ArrayList<>();
+            TreeSet<Long> ids = porDono.get(donoUUID);
+            if (ids == null) return lista;
+            for (Long id : ids.tailSet(aposId, false)) {
+                if (lista.size() == limite) break;
+                lista.add(copia(terrenos.get(id)));
+            }
+            return lista;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int countByOwner(String donoUUID) {
+        lock.readLock().lock();
+        try {
+            TreeSet<Long> ids = porDono.get(donoUUID);
+            return ids != null ? ids.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Terreno> findAll() {
+        lock.readLock().lock();
+        try {
+            List<Terreno> lista = new ArrayList<>(terrenos.size());
+            for (Terreno t : terrenos.values()) {
+                lista.add(comMembros(t));
+            }
+            return lista;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Terreno> findByWorld(String worldName) {
+        String prefixo = worldName + ":";
+        lock.readLock().lock();
+        try {
+            List<Terreno> lista = new ArrayList<>();
+            for (Terreno t : terrenos.values()) {
+                if (t.getLocation().startsWith(prefixo)) lista.add(copia(t));
+            }
+            return lista;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean forEachTerreno(Consumer<Terreno> consumer) {
+        // Copia antes: o consumidor pode demorar ou chamar o repositório
+        List<Terreno> lista;
+        lock.readLock().lock();
+        try {
+            lista = new ArrayList<>(terrenos.size());
+            for (Terreno t : terrenos.values()) {
+                lista.add(copia(t));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lista.forEach(consumer);
+        return true;
+    }
+
+    @Override
+    public List<TerrenoExpirado> findExpirados(long vistoAntesDe, long aposId, int limite) {
+        List<TerrenoExpirado> expirados = new ArrayList<>();
+        long cursor = aposId;
+        while (expirados.size() < limite) {
+            List<Terreno> candidatos = new ArrayList<>();
+            lock.readLock().lock();
+            try {
+                for (Terreno t : terrenos.tailMap(cursor, false).values()) {
+                    candidatos.add(copia(t));
+                    if (candidatos.size() == CANDIDATOS_POR_PAGINA) break;
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (candidatos.isEmpty()) break;
+            cursor = candidatos.get(candidatos.size() - 1).getId();
+
+            Map<String, Long> vistos = playerSeenRepository.findLastSeen(candidatos.stream().map(Terreno::getDonoUUID).distinct().toList());
+            for (Terreno t : candidatos) {
+                Long visto = vistos.get(t.getDonoUUID());
+                if (visto == null || visto >= vistoAntesDe) continue;
+                expirados.add(new TerrenoExpirado(t, visto));
+                if (expirados.size() == limite) break;
+            }
+        }
+        return expirados;
+    }
+
+    @Override
+    public List<Long> deleteExpirados(Collection<Long> ids, long vistoAntesDe) {
+        Map<Long, String> donos = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Long id : ids) {
+                Terreno t = terrenos.get(id);
+                if (t != null) donos.put(id, t.getDonoUUID());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Map<String, Long> vistos = playerSeenRepository.findLastSeen(new HashSet<>(donos.values()));
+
+        List<Long> apagados = new ArrayList<>();
+        CompletableFuture<Void> gravado;
+        lock.writeLock().lock();
+        try {
+            Lote lote = new Lote(true);
+            for (Map.Entry<Long, String> e : donos.entrySet()) {
+                Terreno t = terrenos.get(e.getKey());
+                Long visto = vistos.get(e.getValue());
+                // O terreno pode ter sido transferido entre a leitura e agora
+                if (t == null || !t.getDonoUUID().equals(e.getValue()) || visto == null || visto >= vistoAntesDe) continue;
+                lote.apagar(e.getKey());
+                apagados.add(e.getKey());
+            }
+            if (apagados.isEmpty()) return apagados;
+            gravado = gravar(lote);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        return aguardar(gravado, "Erro ao apagar lote de terrenos expirados") ? apagados : List.of();
+    }
+
+    @Override
+    public boolean update(Terreno terreno) {
+        CompletableFuture<Void> gravado;
+        lock.writeLock().lock();
+        try {
+            if (!terrenos.containsKey(terreno.getId())) return false;
+            Long outro = porChaveNome.get(chaveNome(terreno.getDonoUUID(), terreno.getName()));
+            if (outro != null && !outro.equals(terreno.getId())) {
+                logger.warning("Terreno " + terreno.getId() + " não atualizado: nome já usado pelo terreno " + outro);
+                return false;
+            }
+            gravado = gravar(new Lote(true).terreno(terreno));
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (!aguardar(gravado, "Erro ao atualizar terreno: " + terreno.getId())) return false;
+        logger.info("Terreno atualizado: " + terreno.getId());
+        return true;
+    }
+
+    @Override
+    public boolean updateFlag(Long id, TerrenoFlag flag, boolean ativa) {
+        CompletableFuture<Void> gravado;
+        lock.writeLock().lock();
+        try {
+            Terreno atual = terrenos.get(id);
+            if (atual == null) return false;
+            Terreno novo = copia(atual);
+            novo.setFlag(flag, ativa);
+            gravado = gravar(new Lote(true).terreno(novo));
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (!aguardar(gravado, "Erro ao alterar flag do terreno: " + id)) return false;
+        logger.info("Flag " + flag.chave() + " do terreno " + id + ": " + ativa);
+        return true;
+    }
+
+    @Override
+    public boolean updateSize(Long id, int tamanhoAtual, int novoTamanho) {
+        CompletableFuture<Void> gravado;
+        lock.writeLock().lock();
+        try {
+            Terreno atual = terrenos.get(id);
+            if (atual == null || atual.getSize() != tamanhoAtual) return false;
+            Terreno novo = copia(atual);
+            novo.setSize(novoTamanho);
+            gravado = gravar(new Lote(true).terreno(novo));
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (!aguardar(gravado, "Erro ao redimensionar terreno: " + id)) return false;
+        logger.info("Terreno redimensionado: " + id + " (" + tamanhoAtual + " -> " + novoTamanho + ")");
+        return true;
+    }
+
+    @Override
+    public UpdateResult rename(Long id, String donoUUID, String novoNome) {
+        CompletableFuture<Void> gravado;
+        lock.writeLock().lock();
+        try {
+            Terreno atual = terrenos.get(id);
+            if (atual == null || !atual.getDonoUUID().equals(donoUUID)) return UpdateResult.NOT_FOUND;
+            Long outro = porChaveNome.get(chaveNome(donoUUID, novoNome));
+            if (outro != null && !outro.equals(id)) return UpdateResult.CONFLICT;
+            Terreno novo = copia(atual);
+            novo.setName(novoNome);
+            gravado = gravar(new Lote(true).terreno(novo));
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (!aguardar(gravado, "Erro ao renomear terreno: " + id)) return UpdateResult.ERROR;
+        logger.info("Terreno renomeado: " + id + " -> " + novoNome);
+        return UpdateResult.UPDATED;
+    }
+
+    @Override
+    public UpdateResult transferOwner(Long id, String donoAtual, String novoDono, String nome) {
+        CompletableFuture<Void> gravado;
+        lock.writeLock().lock();
+        try {
+            Terreno atual = terrenos.get(id);
+            if (atual == null || !atual.getDonoUUID().equals(donoAtual)) return UpdateResult.NOT_FOUND;
+            if (porChaveNome.containsKey(chaveNome(novoDono, nome))) return UpdateResult.CONFLICT;
+            Terreno novo = copia(atual);
+            novo.setDonoUUID(novoDono);
+            gravado = gravar(new Lote(true)
+                    .terreno(novo)
+                    .removerMembro(id, donoAtual)
+                    .removerMembro(id, novoDono)
+                    .membro(id, novoDono, TerrenoRole.OWNER));
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (!aguardar(gravado, "Erro ao transferir terreno: " + id)) return UpdateResult.ERROR;
+        logger.info("Terreno " + id + " transferido: " + donoAtual + " -> " + novoDono);
+        return UpdateResult.UPDATED;
+    }
+
+    @Override
+    public boolean delete(Long id) {
+        CompletableFuture<Void> gravado;
+        lock.writeLock().lock();
+        try {
+            if (!terrenos.containsKey(id)) return false;
+            gravado = gravar(new Lote(true).apagar(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (!aguardar(gravado, "Erro ao deletar terreno: " + id)) return false;
+        logger.info("Terreno deletado: " + id);
+        return true;
+    }
+
+    @Override
+    public boolean addMember(Long terrenoId, String memberUUID, TerrenoRole role) {
+        CompletableFuture<Void> gravado;
+        lock.writeLock().lock();
+        try {
+            if (!terrenos.containsKey(terrenoId) || membros.getOrDefault(terrenoId, Map.of()).containsKey(memberUUID)) return false;
+            gravado = gravar(new Lote(true).membro(terrenoId, memberUUID, role));
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (!aguardar(gravado, "Erro ao adicionar membro ao terreno: " + terrenoId)) return false;
+        logger.info("Membro adicionado ao terreno " + terrenoId + ": " + memberUUID);
+        return true;
+    }
+
+    @Override
+    public boolean removeMember(Long terrenoId, String memberUUID) {
+        CompletableFuture<Void> gravado;
+        lock.writeLock().lock();
+        try {
+            if (!membros.getOrDefault(terrenoId, Map.of()).containsKey(memberUUID)) return false;
+            gravado = gravar(new Lote(true).removerMembro(terrenoId, memberUUID));
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (!aguardar(gravado, "Erro ao remover membro do terreno: " + terrenoId)) return false;
+        logger.info("Membro removido do terreno " + terrenoId + ": " + memberUUID);
+        return true;
+    }
+
+    @Override
+    public int addMembers(Long terrenoId, Collection<String> memberUUIDs, TerrenoRole role) {
+        int added = 0;
+        CompletableFuture<Void> gravado;
+        lock.writeLock().lock();
+        try {
+            if (!terrenos.containsKey(terrenoId)) return 0;
+            Map<String, TerrenoRole> atuais = membros.getOrDefault(terrenoId, Map.of());
+            Lote lote = new Lote(true);
+            for (String memberUUID : new LinkedHashSet<>(memberUUIDs)) {
+                if (atuais.containsKey(memberUUID)) continue;
+                lote.membro(terrenoId, memberUUID, role);
+                added++;
+            }
+            if (added == 0) return 0;
+            gravado = gravar(lote);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (!aguardar(gravado, "Erro ao adicionar membros ao terreno: " + terrenoId)) return -1;
+        logger.info(added + " membro(s) adicionado(s) ao terreno " + terrenoId);
+        return added;
+    }
+
+    @Override
+    public int removeMembers(Long terrenoId, Collection<String> memberUUIDs) {
+        int removed = 0;
+        CompletableFuture<Void> gravado;
+        lock.writeLock().lock();
+        try {
+            Map<String, TerrenoRole> atuais = membros.getOrDefault(terrenoId, Map.of());
+            Lote lote = new Lote(true);
+            for (String memberUUID : new LinkedHashSet<>(memberUUIDs)) {
+                TerrenoRole cargo = atuais.get(memberUUID);
+                if (cargo == null || cargo == TerrenoRole.OWNER) continue;
+                lote.removerMembro(terrenoId, memberUUID);
+                removed++;
+            }
+            if (removed == 0) return 0;
+            gravado = gravar(lote);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (!aguardar(gravado, "Erro ao remover membros do terreno: " + terrenoId)) return -1;
+        logger.info(removed + " membro(s) removido(s) do terreno " + terrenoId);
+        return removed;
+    }
+
+    @Override
+    public boolean updateMemberRole(Long terrenoId, String memberUUID, TerrenoRole newRole) {
+        CompletableFuture<Void> gravado;
+        lock.writeLock().lock();
+        try {
+            if (!membros.getOrDefault(terrenoId, Map.of()).containsKey(memberUUID)) return false;
+            gravado = gravar(new Lote(true).membro(terrenoId, memberUUID, newRole));
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (!aguardar(gravado, "Erro ao atualizar papel do membro: " + terrenoId)) return false;
+        logger.info("Papel do membro atualizado no terreno " + terrenoId + ": " + memberUUID + " -> " + newRole);
+        return true;
+    }
+
+    @Override
+    public List<TerrenoMember> findMembersByTerrenoId(Long terrenoId) {
+        lock.readLock().lock();
+        try {
+            return listaMembros(terrenoId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Long> findTerrenoIdsByMember(String memberUUID) {
+        lock.readLock().lock();
+        try {
+            Set<Long> ids = new LinkedHashSet<>(porMembro.getOrDefault(memberUUID, Set.of()));
+            ids.addAll(porDono.getOrDefault(memberUUID, new TreeSet<>()));
+            return new ArrayList<>(ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Terreno> findByNameKey(String dbNameKey) {
+        lock.readLock().lock();
+        try {
+            Long id = porChaveNome.get(dbNameKey);
+            return id != null ? Optional.of(comMembros(terrenos.get(id))) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean existsByOwnerAndNameIgnoreCase(String donoUUID, String nome) {
+        lock.readLock().lock();
+        try {
+            return porChaveNome.containsKey(chaveNome(donoUUID, nome));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<String> findOwnersAfter(String aposDono, int limite) {
+        lock.readLock().lock();
+        try {
+            return porDono.tailMap(aposDono, false).keySet().stream().limit(limite).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Terreno> findByOwnerRange(String primeiro, String ultimo) {
+        lock.readLock().lock();
+        try {
+            List<Terreno> lista = new ArrayList<>();
+            for (TreeSet<Long> ids : porDono.subMap(primeiro, true, ultimo, true).values()) {
+                for (Long id : ids) {
+                    lista.add(copia(terrenos.get(id)));
+                }
+            }
+            return lista;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        lock.readLock().lock();
+        try {
+            Set<Long> existentes = new HashSet<>();
+            for (Long id : ids) {
+                if (terrenos.containsKey(id)) existentes.add(id);
+            }
+            return existentes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Grava o que estiver pendente e fecha o log
+     */
+    @Override
+    public void close() {
+        log.close();
+    }
+
+    /**
+     * Enfileira o lote (já aplicado na memória) no log. Chamar com o write lock.
+     */
+    private CompletableFuture<Void> gravar(Lote lote) {
+        while (!pendentes.isEmpty() && confirmado(pendentes.peekFirst().gravado())) {
+            pendentes.pollFirst();
+        }
+        CompletableFuture<Void> gravado = log.gravar(lote.bytes());
+        pendentes.addLast(new Pendente(lote, gravado));
+        return gravado;
+    }
+
+    /**
+     * Espera o fsync; se falhar, desfaz na memória o que não foi gravado.
+     */
+    private boolean aguardar(CompletableFuture<Void> gravado, String erro) {
+        try {
+            gravado.join();
+            return true;
+        } catch (CompletionException e) {
+            logger.log(Level.SEVERE, erro, e.getCause());
+        }
+
+        desfazerNaoGravados();
+        return false;
+    }
+
+    /**
+     * Desfaz os lotes que não chegaram ao disco, do mais novo para o mais antigo. O log recusa tudo depois de uma
+     * falha (e depois de fechado), então os que falharam são sempre os últimos da fila.
+     */
+    private void desfazerNaoGravados() {
+        lock.writeLock().lock();
+        try {
+            while (!pendentes.isEmpty()) {
+                Pendente p = pendentes.peekLast();
+                boolean perdido = p.gravado().isCompletedExceptionally() || (!p.gravado().isDone() && log.falhou());
+                if (!perdido) break;
+                pendentes.pollLast();
+                p.lote().desfazer();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static boolean confirmado(CompletableFuture<Void> gravado) {
+        return gravado.isDone() && !gravado.isCompletedExceptionally();
+    }
+
+    private static String chaveNome(String donoUUID, String nome) {
+        return donoUUID + "+" + nome.toLowerCase();
+    }
+
+    private static Terreno copia(Terreno t) {
+        Terreno c = new Terreno();
+        c.setId(t.getId());
+        c.setDonoUUID(t.getDonoUUID());
+        c.setName(t.getName());
+        c.setLocation(t.getLocation());
+        c.setSize(t.getSize());
+        c.setFlags(t.getFlags());
+        return c;
+    }
+
+    private Terreno comMembros(Terreno t) {
+        Terreno c = copia(t);
+        c.setMembers(listaMembros(t.getId()));
+        return c;
+    }
+
+    private List<TerrenoMember> listaMembros(Long terrenoId) {
+        List<TerrenoMember> lista = new ArrayList<>();
+        for (Map.Entry<String, TerrenoRole> e : membros.getOrDefault(terrenoId, Map.of()).entrySet()) {
+            lista.add(new TerrenoMember(terrenoId, e.getKey(), e.getValue()));
+        }
+        return lista;
+    }
+
+    // Alterações na imagem em memória, com o write lock (ou na abertura, ainda sem concorrência)
+
+    private void aplicarTerreno(Terreno t) {
+        Terreno anterior = terrenos.put(t.getId(), t);
+        if (anterior != null) {
+            porChaveNome.remove(chaveNome(anterior.getDonoUUID(), anterior.getName()));
+            removerDoDono(anterior);
+        }
+        porChaveNome.put(chaveNome(t.getDonoUUID(), t.getName()), t.getId());
+        porDono.computeIfAbsent(t.getDonoUUID(), k -> new TreeSet<>()).add(t.getId());
+        proximoId = Math.max(proximoId, t.getId() + 1);
+    }
+
+    private void aplicarApagar(long id) {
+        removerTerreno(id);
+        Map<String, TerrenoRole> doTerreno = membros.remove(id);
+        if (doTerreno != null) {
+            for (String membro : doTerreno.keySet()) {
+                removerDoMembro(membro, id);
+            }
+        }
+    }
+
+    /**
+     * Tira só o terreno (sem os membros) da imagem
+     */
+    private void removerTerreno(long id) {
+        Terreno anterior = terrenos.remove(id);
+        if (anterior != null) {
+            porChaveNome.remove(chaveNome(anterior.getDonoUUID(), anterior.getName()));
+            removerDoDono(anterior);
+        }
+    }
+
+    private void aplicarMembro(long id, String membro, TerrenoRole cargo) {
+        membros.computeIfAbsent(id, k -> new LinkedHashMap<>()).put(membro, cargo);
+        porMembro.computeIfAbsent(membro, k -> new HashSet<>()).add(id);
+    }
+
+    private void aplicarRemoverMembro(long id, String membro) {
+        Map<String, TerrenoRole> doTerreno = membros.get(id);
+        if (doTerreno != null && doTerreno.remove(membro) != null) {
+            if (doTerreno.isEmpty()) membros.remove(id);
+            removerDoMembro(membro, id);
+        }
+    }
+
+    private void removerDoDono(Terreno t) {
+        TreeSet<Long> ids = porDono.get(t.getDonoUUID());
+        if (ids != null && ids.remove(t.getId()) && ids.isEmpty()) {
+            porDono.remove(t.getDonoUUID());
+        }
+    }
+
+    private void removerDoMembro(String membro, long id) {
+        Set<Long> ids = porMembro.get(membro);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            porMembro.remove(membro);
+        }
+    }
+
+    /**
+     * Reaplica um registro do log na abertura
+     */
+    private void reaplicar(byte[] corpo) {
+        lock.writeLock().lock();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(corpo))) {
+            while (in.available() > 0) {
+                byte op = in.readByte();
+                switch (op) {
+                    case OP_TERRENO, OP_TERRENO_FLAGS -> {
+                        Terreno t = new Terreno();
+                        t.setId(in.readLong());
+                        t.setDonoUUID(in.readUTF());
+                        t.setName(in.readUTF());
+                        t.setLocation(in.readUTF());
+                        t.setSize(in.readInt());
+                        if (op == OP_TERRENO_FLAGS) {
+                            t.setFlags(in.readLong());
+                        } else {
+                            // Registro anterior às flags: as flags novas recebem o valor legado
+                            long flags = TerrenoFlag.legados();
+                            flags = TerrenoFlag.PVP.aplicar(flags, in.readBoolean());
+                            flags = TerrenoFlag.MOBS.aplicar(flags, in.readBoolean());
+                            t.setFlags(TerrenoFlag.PUBLICO.aplicar(flags, in.readBoolean()));
+                        }
+                        aplicarTerreno(t);
+                    }
+                    case OP_APAGAR -> aplicarApagar(in.readLong());
+                    case OP_MEMBRO -> aplicarMembro(in.readLong(), in.readUTF(), TerrenoRole.valueOf(in.readUTF()));
+                    case OP_REMOVER_MEMBRO -> aplicarRemoverMembro(in.readLong(), in.readUTF());
+                    case OP_SEQUENCIA -> proximoId = Math.max(proximoId, in.readLong());
+                    default -> throw new IOException("Operação desconhecida no log de terrenos: " + op);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Registros que reconstroem a imagem atual: a sequência de IDs e um registro por terreno com os membros
+     */
+    private List<byte[]> imagem() {
+        lock.readLock().lock();
+        try {
+            List<byte[]> corpos = new ArrayList<>(terrenos.size() + 1);
+            // A sequência evita reaproveitar o ID de um terreno apagado (snapshots, cercas e impostos usam o ID)
+            corpos.add(new Lote(false).sequencia(proximoId).bytes());
+            for (Terreno t : terrenos.values()) {
+                Lote lote = new Lote(false).terreno(t);
+                for (Map.Entry<String, TerrenoRole> e : membros.getOrDefault(t.getId(), Map.of()).entrySet()) {
+                    lote.membro(t.getId(), e.getKey(), e.getValue());
+                }
+                corpos.add(lote.bytes());
+            }
+            return corpos;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Operações de um registro do log. Com {@code aplicar}, cada operação também é aplicada na imagem em memória
+     * e guarda como voltar ao estado anterior ({@link #desfazer()}).
+     */
+    private final class Lote {
+        private final boolean aplicar;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final List<Runnable> desfazer = new ArrayList<>();
+
+        Lote(boolean aplicar) {
+            this.aplicar = aplicar;
+        }
+
+        Lote terreno(Terreno t) {
+            Terreno c = copia(t);
+            try {
+                out.writeByte(OP_TERRENO_FLAGS);
+                out.writeLong(c.getId());
+                out.writeUTF(c.getDonoUUID());
+                out.writeUTF(c.getName());
+                out.writeUTF(c.getLocation());
+                out.writeInt(c.getSize());
+                out.writeLong(c.getFlags());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (aplicar) {
+                Terreno anterior = terrenos.get(c.getId());
+                aplicarTerreno(c);
+                desfazer.add(() -> {
+                    if (anterior != null) {
+                        aplicarTerreno(anterior);
+                    } else {
+                        removerTerreno(c.getId());
+                    }
+                });
+            }
+            return this;
+        }
+
+        Lote apagar(long id) {
+            try {
+                out.writeByte(OP_APAGAR);
+                out.writeLong(id);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (aplicar) {
+                Terreno anterior = terrenos.get(id);
+                Map<String, TerrenoRole> doTerreno = new LinkedHashMap<>(membros.getOrDefault(id, Map.of()));
+                aplicarApagar(id);
+                desfazer.add(() -> {
+                    if (anterior != null) aplicarTerreno(anterior);
+                    doTerreno.forEach((membro, cargo) -> aplicarMembro(id, membro, cargo));
+                });
+            }
+            return this;
+        }
+
+        Lote membro(long id, String membro, TerrenoRole cargo) {
+            try {
+                out.writeByte(OP_MEMBRO);
+                out.writeLong(id);
+                out.writeUTF(membro);
+                out.writeUTF(cargo.name());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (aplicar) {
+                TerrenoRole anterior = membros.getOrDefault(id, Map.of()).get(membro);
+                aplicarMembro(id, membro, cargo);
+                desfazer.add(() -> {
+                    if (anterior != null) {
+                        aplicarMembro(id, membro, anterior);
+                    } else {
+                        aplicarRemoverMembro(id, membro);
+                    }
+                });
+            }
+            return this;
+        }
+
+        Lote removerMembro(long id, String membro) {
+            try {
+                out.writeByte(OP_REMOVER_MEMBRO);
+                out.writeLong(id);
+                out.writeUTF(membro);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (aplicar) {
+                TerrenoRole anterior = membros.getOrDefault(id, Map.of()).get(membro);
+                aplicarRemoverMembro(id, membro);
+                if (anterior != null) desfazer.add(() -> aplicarMembro(id, membro, anterior));
+            }
+            return this;
+        }
+
+        Lote sequencia(long proximo) {
+            try {
+                out.writeByte(OP_SEQUENCIA);
+                out.writeLong(proximo);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return this;
+        }
+
+        byte[] bytes() {
+            return bytes.toByteArray();
+        }
+
+        /**
+         * Volta a imagem ao estado de antes do lote. Chamar com o write lock.
+         */
+        void desfazer() {
+            for (int i = desfazer.size() - 1; i >= 0; i--) {
+                desfazer.get(i).run();
+            }
+        }
+    }
+}
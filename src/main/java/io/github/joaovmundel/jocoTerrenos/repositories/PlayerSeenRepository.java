@@ -0,0 +1,120 @@
+package io.github.joaovmundel.jocoTerrenos.repositories;
+
+import io.github.joaovmundel.jocoTerrenos.database.DatabaseManager;
+import io.github.joaovmundel.jocoTerrenos.database.UnitOfWork;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Último acesso de cada jogador (tabela jogadores_vistos), usado na expiração de terrenos inativos
+ */
+public class PlayerSeenRepository {
+
+    private static final int UUIDS_POR_CONSULTA = 500;
+
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+
+    public PlayerSeenRepository(DatabaseManager databaseManager, Logger logger) {
+        this.databaseManager = databaseManager;
+        this.logger = logger;
+    }
+
+    /**
+     * Grava o último acesso (epoch ms) dos jogadores numa única transação
+     */
+    public boolean touch(Collection<String> playerUUIDs, long quando) {
+        String sql = switch (databaseManager.getDatabaseType()) {
+            case MYSQL -> """
+                        INSERT INTO jogadores_vistos (player_uuid, last_seen) VALUES (?, ?)
+                        ON DUPLICATE KEY UPDATE last_seen = VALUES(last_seen)
+                    """;
+            default -> """
+                        INSERT INTO jogadores_vistos (player_uuid, last_seen) VALUES (?, ?)
+                        ON CONFLICT (player_uuid) DO UPDATE SET last_seen = excluded.last_seen
+                    """;
+        };
+
+        try {
+            return databaseManager.inTransaction(uow -> {
+                PreparedStatement stmt = uow.prepare(sql);
+                for (String uuid : playerUUIDs) {
+                    stmt.setString(1, uuid);
+                    stmt.setLong(2, quando);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                return true;
+            });
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao registrar último acesso de " + playerUUIDs.size() + " jogador(es)", e);
+        }
+
+        return false;
+    }
+
+    /**
+     * Grava {@code quando} como último acesso dos jogadores que ainda não têm registro, sem mexer nos demais
+     */
+    public boolean registrarAusentes(Collection<String> playerUUIDs, long quando) {
+        String sql = switch (databaseManager.getDatabaseType()) {
+            case MYSQL -> "INSERT IGNORE INTO jogadores_vistos (player_uuid, last_seen) VALUES (?, ?)";
+            default -> "INSERT INTO jogadores_vistos (player_uuid, last_seen) VALUES (?, ?) ON CONFLICT DO NOTHING";
+        };
+
+        try {
+            return databaseManager.inTransaction(uow -> {
+                PreparedStatement stmt = uow.prepare(sql);
+                for (String uuid : playerUUIDs) {
+                    stmt.setString(1, uuid);
+                    stmt.setLong(2, quando);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                return true;
+            });
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao registrar acesso inicial de " + playerUUIDs.size() + " jogador(es)", e);
+        }
+
+        return false;
+    }
+
+    /**
+     * Último acesso (epoch ms) dos jogadores que têm registro, consultado em blocos de {@value #UUIDS_POR_CONSULTA}
+     */
+    public Map<String, Long> findLastSeen(Collection<String> playerUUIDs) {
+        Map<String, Long> vistos = new HashMap<>();
+        List<String> lista = new ArrayList<>(playerUUIDs);
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            for (int de = 0; de < lista.size(); de += UUIDS_POR_CONSULTA) {
+                List<String> bloco = lista.subList(de, Math.min(lista.size(), de + UUIDS_POR_CONSULTA));
+                PreparedStatement stmt = uow.prepare("SELECT player_uuid, last_seen FROM jogadores_vistos WHERE player_uuid IN ("
+                        + String.join(", ", Collections.nCopies(bloco.size(), "?")) + ")");
+                for (int i = 0; i < bloco.size(); i++) {
+                    stmt.setString(i + 1, bloco.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        vistos.put(rs.getString(1), rs.getLong(2));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao buscar último acesso de " + playerUUIDs.size() + " jogador(es)", e);
+        }
+
+        return vistos;
+    }
+}
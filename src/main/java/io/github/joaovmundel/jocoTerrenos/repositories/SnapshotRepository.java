@@ -0,0 +1,133 @@
+package io.github.joaovmundel.jocoTerrenos.repositories;
+
+import io.github.joaovmundel.jocoTerrenos.models.RegionSnapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Snapshots de terrenos em disco ({@code snapshots/<id>.snap.gz}), um por terreno.
+ * Formato: cabeçalho, paleta em texto e os índices empacotados, tudo comprimido com gzip.
+ */
+public class SnapshotRepository {
+
+    private static final int MAGIC = 0x4A54534E; // "JTSN"
+    private static final int VERSAO = 1;
+
+    private final File pasta;
+    private final Logger logger;
+
+    public SnapshotRepository(File pasta, Logger logger) {
+        this.pasta = pasta;
+        this.logger = logger;
+    }
+
+    public Optional<RegionSnapshot> find(long terrenoId) {
+        File arquivo = arquivo(terrenoId);
+        if (!arquivo.isFile()) return Optional.empty();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(arquivo.toPath()), 1 << 16)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSAO) {
+                logger.warning("Snapshot em formato desconhecido: " + arquivo.getName());
+                return Optional.empty();
+            }
+            String world = in.readUTF();
+            int minX = in.readInt();
+            int minY = in.readInt();
+            int minZ = in.readInt();
+            int sizeX = in.readInt();
+            int sizeY = in.readInt();
+            int sizeZ = in.readInt();
+            long criadoEm = in.readLong();
+            String[] paleta = new String[in.readInt()];
+            for (int i = 0; i < paleta.length; i++) {
+                paleta[i] = in.readUTF();
+            }
+            int bits = in.readUnsignedByte();
+            long[] dados = new long[in.readInt()];
+            for (int i = 0; i < dados.length; i++) {
+                dados[i] = in.readLong();
+            }
+            return Optional.of(new RegionSnapshot(world, minX, minY, minZ, sizeX, sizeY, sizeZ, criadoEm, paleta, bits, dados));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Erro ao ler snapshot do terreno: " + terrenoId, e);
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Grava num arquivo temporário e troca pelo definitivo, para não deixar um snapshot pela metade.
+     *
+     * @return tamanho do arquivo em bytes, ou -1 em caso de erro
+     */
+    public long save(long terrenoId, RegionSnapshot snapshot) {
+        File arquivo = arquivo(terrenoId);
+        File temporario = new File(pasta, terrenoId + ".snap.gz.tmp");
+        if (!pasta.mkdirs() && !pasta.isDirectory()) {
+            logger.severe("Não foi possível criar " + pasta);
+            return -1;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temporario.toPath()), 1 << 16)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSAO);
+            out.writeUTF(snapshot.world());
+            out.writeInt(snapshot.minX());
+            out.writeInt(snapshot.minY());
+            out.writeInt(snapshot.minZ());
+            out.writeInt(snapshot.sizeX());
+            out.writeInt(snapshot.sizeY());
+            out.writeInt(snapshot.sizeZ());
+            out.writeLong(snapshot.criadoEm());
+            out.writeInt(snapshot.paleta().length);
+            for (String estado : snapshot.paleta()) {
+                out.writeUTF(estado);
+            }
+            out.writeByte(snapshot.bits());
+            out.writeInt(snapshot.dados().length);
+            for (long palavra : snapshot.dados()) {
+                out.writeLong(palavra);
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Erro ao gravar snapshot do terreno: " + terrenoId, e);
+            return -1;
+        }
+
+        try {
+            Files.move(temporario.toPath(), arquivo.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return arquivo.length();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Erro ao gravar snapshot do terreno: " + terrenoId, e);
+        }
+
+        return -1;
+    }
+
+    public boolean delete(long terrenoId) {
+        try {
+            return Files.deleteIfExists(arquivo(terrenoId).toPath());
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Erro ao apagar snapshot do terreno: " + terrenoId, e);
+        }
+
+        return false;
+    }
+
+    private File arquivo(long terrenoId) {
+        return new File(pasta, terrenoId + ".snap.gz");
+    }
+}
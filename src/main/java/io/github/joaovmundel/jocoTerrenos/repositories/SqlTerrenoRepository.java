@@ -0,0 +1,896 @@
+package io.github.joaovmundel.jocoTerrenos.repositories;
+
+import io.github.joaovmundel.jocoTerrenos.database.DatabaseManager;
+import io.github.joaovmundel.jocoTerrenos.database.UnitOfWork;
+import io.github.joaovmundel.jocoTerrenos.models.Terreno;
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoFlag;
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoMember;
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoRole;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Terrenos e membros nas tabelas terrenos e terreno_members (SQLite, MySQL ou PostgreSQL)
+ */
+public class SqlTerrenoRepository implements TerrenoRepository {
+
+    private static final int IDS_POR_CONSULTA = 500;
+
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+
+    public SqlTerrenoRepository(DatabaseManager databaseManager, Logger logger) {
+        this.databaseManager = databaseManager;
+        this.logger = logger;
+    }
+
+    /**
+     * Cria um terreno no banco de dados
+     */
+    @Override
+    public Optional<Terreno> create(Terreno terreno) {
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            if (insertTerreno(uow, terreno)) {
+                logger.info("Terreno criado com ID: " + terreno.getId());
+                return Optional.of(terreno);
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao criar terreno", e);
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Cria um terreno e registra o dono como membro OWNER na mesma transação
+     */
+    @Override
+    public Optional<Terreno> createWithOwner(Terreno terreno) {
+        try {
+            boolean created = databaseManager.inTransaction(uow -> {
+                if (!insertTerreno(uow, terreno)) {
+                    throw new SQLException("Nenhuma linha inserida para o terreno " + terreno.getName());
+                }
+                insertMember(uow, terreno.getId(), terreno.getDonoUUID(), TerrenoRole.OWNER);
+                return true;
+            });
+            if (created) {
+                List<TerrenoMember> members = new ArrayList<>();
+                members.add(new TerrenoMember(terreno.getId(), terreno.getDonoUUID(), TerrenoRole.OWNER));
+                terreno.setMembers(members);
+                logger.info("Terreno criado com ID: " + terreno.getId());
+                return Optional.of(terreno);
+            }
+        } catch (SQLException e) {
+            terreno.setId(null);
+            logger.log(Level.SEVERE, "Erro ao criar terreno", e);
+        }
+
+        return Optional.empty();
+    }
+
+    private boolean insertTerreno(UnitOfWork uow, Terreno terreno) throws SQLException {
+        String sql = """
+                    INSERT INTO terrenos (dono_uuid, name, db_name_key, location, size, flags)
+                    VALUES (?, ?, ?, ?, ?, ?)
+                """;
+
+        PreparedStatement stmt = uow.prepareWithKeys(sql);
+        stmt.setString(1, terreno.getDonoUUID());
+        stmt.setString(2, terreno.getName());
+        // db_name_key = ownerUUID + "+" + lower(name)
+        stmt.setString(3, terreno.getDonoUUID() + "+" + terreno.getName().toLowerCase());
+        stmt.setString(4, terreno.getLocation());
+        stmt.setInt(5, terreno.getSize());
+        stmt.setLong(6, terreno.getFlags());
+
+        if (stmt.executeUpdate() > 0) {
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    terreno.setId(generatedKeys.getLong(1));
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Busca um terreno pelo "ID"
+     */
+    @Override
+    public Optional<Terreno> findById(Long id) {
+        String sql = "SELECT * FROM terrenos WHERE id = ?";
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setLong(1, id);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    Terreno terreno = mapResultSetToTerreno(rs);
+                    // Carrega os membros do terreno
+                    terreno.setMembers(findMembersByTerrenoId(id));
+                    return Optional.of(terreno);
+                }
+            }
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao buscar terreno por ID: " + id, e);
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Busca todos os terrenos de um dono (UUID)
+     */
+    @Override
+    public List<Terreno> findByDonoUUID(String donoUUID) {
+        String sql = "SELECT * FROM terrenos WHERE dono_uuid = ?";
+        List<Terreno> terrenos = new ArrayList<>();
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setString(1, donoUUID);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Terreno terreno = mapResultSetToTerreno(rs);
+                    terreno.setMembers(findMembersByTerrenoId(terreno.getId()));
+                    terrenos.add(terreno);
+                }
+            }
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao buscar terrenos do dono: " + donoUUID, e);
+        }
+
+        return terrenos;
+    }
+
+    /**
+     * Página dos terrenos do dono por keyset (id &gt; aposId), usando o índice de dono_uuid; sem membros
+     */
+    @Override
+    public List<Terreno> findByOwnerAfter(String donoUUID, long aposId, int limite) {
+        String sql = "SELECT * FROM terrenos WHERE dono_uuid = ? AND id > ? ORDER BY id LIMIT ?";
+        List<Terreno> terrenos = new ArrayList<>();
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setString(1, donoUUID);
+            stmt.setLong(2, aposId);
+            stmt.setInt(3, limite);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    terrenos.add(mapResultSetToTerreno(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao buscar página de terrenos do dono: " + donoUUID, e);
+        }
+
+        return terrenos;
+    }
+
+    @Override
+    public int countByOwner(String donoUUID) {
+        String sql = "SELECT COUNT(1) FROM terrenos WHERE dono_uuid = ?";
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setString(1, donoUUID);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao contar terrenos do dono: " + donoUUID, e);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Busca todos os terrenos
+     */
+    @Override
+    public List<Terreno> findAll() {
+        String sql = "SELECT * FROM terrenos";
+        List<Terreno> terrenos = new ArrayList<>();
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork();
+             ResultSet rs = uow.prepare(sql).executeQuery()) {
+
+            while (rs.next()) {
+                Terreno terreno = mapResultSetToTerreno(rs);
+                terreno.setMembers(findMembersByTerrenoId(terreno.getId()));
+                terrenos.add(terreno);
+            }
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao buscar todos os terrenos", e);
+        }
+
+        return terrenos;
+    }
+
+    /**
+     * Busca os terrenos de um mundo, sem carregar os membros
+     */
+    @Override
+    public List<Terreno> findByWorld(String worldName) {
+        String sql = "SELECT * FROM terrenos WHERE location LIKE ?";
+        List<Terreno> terrenos = new ArrayList<>();
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setString(1, worldName + ":%");
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Terreno terreno = mapResultSetToTerreno(rs);
+                    // "_" é curinga no LIKE: confirma o nome exato do mundo
+                    if (terreno.getLocation().startsWith(worldName + ":")) {
+                        terrenos.add(terreno);
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao buscar terrenos do mundo: " + worldName, e);
+        }
+
+        return terrenos;
+    }
+
+    /**
+     * Percorre todos os terrenos (sem membros) sem montar uma lista em memória
+     */
+    @Override
+    public boolean forEachTerreno(Consumer<Terreno> consumer) {
+        String sql = "SELECT * FROM terrenos";
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork();
+             ResultSet rs = uow.prepare(sql).executeQuery()) {
+
+            while (rs.next()) {
+                consumer.accept(mapResultSetToTerreno(rs));
+            }
+            return true;
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao percorrer os terrenos", e);
+        }
+
+        return false;
+    }
+
+    /**
+     * Próxima página de terrenos cujo dono foi visto pela última vez antes de {@code vistoAntesDe}.
+     * Paginação por chave (id &gt; {@code aposId}), para percorrer a tabela em lotes sem OFFSET.
+     * Donos sem registro em jogadores_vistos não entram (o enable registra os que faltam).
+     */
+    @Override
+    public List<TerrenoExpirado> findExpirados(long vistoAntesDe, long aposId, int limite) {
+        String sql = """
+                    SELECT t.*, v.last_seen FROM terrenos t
+                    JOIN jogadores_vistos v ON v.player_uuid = t.dono_uuid
+                    WHERE v.last_seen < ? AND t.id > ?
+                    ORDER BY t.id
+                    LIMIT ?
+                """;
+        List<TerrenoExpirado> expirados = new ArrayList<>();
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setLong(1, vistoAntesDe);
+            stmt.setLong(2, aposId);
+            stmt.setInt(3, limite);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    expirados.add(new TerrenoExpirado(mapResultSetToTerreno(rs), rs.getLong("last_seen")));
+                }
+            }
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao buscar terrenos expirados", e);
+        }
+
+        return expirados;
+    }
+
+    /**
+     * Apaga um lote de terrenos numa única transação. Cada terreno só é apagado se o dono continuar
+     * sem acesso desde {@code vistoAntesDe} (ele pode ter entrado ou o terreno ter sido transferido
+     * depois da busca).
+     *
+     * @return IDs realmente apagados; vazio se a transação falhar
+     */
+    @Override
+    public List<Long> deleteExpirados(Collection<Long> ids, long vistoAntesDe) {
+        String sql = """
+                    DELETE FROM terrenos WHERE id = ?
+                    AND dono_uuid IN (SELECT player_uuid FROM jogadores_vistos WHERE last_seen < ?)
+                """;
+
+        try {
+            return databaseManager.inTransaction(uow -> {
+                PreparedStatement stmt = uow.prepare(sql);
+                List<Long> apagados = new ArrayList<>(ids.size());
+                for (Long id : ids) {
+                    stmt.setLong(1, id);
+                    stmt.setLong(2, vistoAntesDe);
+                    if (stmt.executeUpdate() > 0) {
+                        apagados.add(id);
+                    }
+                }
+                return apagados;
+            });
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao apagar lote de terrenos expirados", e);
+        }
+
+        return List.of();
+    }
+
+    /**
+     * Atualiza um terreno existente
+     */
+    @Override
+    public boolean update(Terreno terreno) {
+        String sql = """
+                    UPDATE terrenos
+                    SET dono_uuid = ?, name = ?, db_name_key = ?, location = ?, size = ?, flags = ?, updated_at = CURRENT_TIMESTAMP
+                    WHERE id = ?
+                """;
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setString(1, terreno.getDonoUUID());
+            stmt.setString(2, terreno.getName());
+            stmt.setString(3, terreno.getDonoUUID() + "+" + terreno.getName().toLowerCase());
+            stmt.setString(4, terreno.getLocation());
+            stmt.setInt(5, terreno.getSize());
+            stmt.setLong(6, terreno.getFlags());
+            stmt.setLong(7, terreno.getId());
+
+            int affectedRows = stmt.executeUpdate();
+
+            if (affectedRows > 0) {
+                logger.info("Terreno atualizado: " + terreno.getId());
+                return true;
+            }
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao atualizar terreno: " + terreno.getId(), e);
+        }
+
+        return false;
+    }
+
+    /**
+     * Liga ou desliga um bit da coluna flags sem tocar nos outros (alterações simultâneas de flags diferentes não se perdem)
+     */
+    @Override
+    public boolean updateFlag(Long id, TerrenoFlag flag, boolean ativa) {
+        String sql = ativa
+                ? "UPDATE terrenos SET flags = flags | ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?"
+                : "UPDATE terrenos SET flags = flags & ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setLong(1, ativa ? flag.mascara() : ~flag.mascara());
+            stmt.setLong(2, id);
+            if (stmt.executeUpdate() > 0) {
+                logger.info("Flag " + flag.chave() + " do terreno " + id + ": " + ativa);
+                return true;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao atualizar flag " + flag.chave() + " do terreno: " + id, e);
+        }
+
+        return false;
+    }
+
+    /**
+     * Altera o tamanho apenas se o valor atual no banco ainda for {@code tamanhoAtual}
+     */
+    @Override
+    public boolean updateSize(Long id, int tamanhoAtual, int novoTamanho) {
+        String sql = "UPDATE terrenos SET size = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ? AND size = ?";
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setInt(1, novoTamanho);
+            stmt.setLong(2, id);
+            stmt.setInt(3, tamanhoAtual);
+
+            if (stmt.executeUpdate() > 0) {
+                logger.info("Terreno redimensionado: " + id + " (" + tamanhoAtual + " -> " + novoTamanho + ")");
+                return true;
+            }
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao redimensionar terreno: " + id, e);
+        }
+
+        return false;
+    }
+
+    /**
+     * Renomeia o terreno se ele ainda pertencer ao dono. O índice único de db_name_key detecta nomes repetidos.
+     */
+    @Override
+    public UpdateResult rename(Long id, String donoUUID, String novoNome) {
+        String sql = "UPDATE terrenos SET name = ?, db_name_key = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ? AND dono_uuid = ?";
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setString(1, novoNome);
+            stmt.setString(2, donoUUID + "+" + novoNome.toLowerCase());
+            stmt.setLong(3, id);
+            stmt.setString(4, donoUUID);
+
+            if (stmt.executeUpdate() > 0) {
+                logger.info("Terreno renomeado: " + id + " -> " + novoNome);
+                return UpdateResult.UPDATED;
+            }
+            return UpdateResult.NOT_FOUND;
+
+        } catch (SQLException e) {
+            if (DatabaseManager.isUniqueViolation(e)) {
+                return UpdateResult.CONFLICT;
+            }
+            logger.log(Level.SEVERE, "Erro ao renomear terreno: " + id, e);
+        }
+
+        return UpdateResult.ERROR;
+    }
+
+    /**
+     * Transfere o terreno para outro dono numa transação: troca dono e db_name_key (condicionado ao dono atual)
+     * e substitui o membro OWNER. O antigo dono deixa de ser membro.
+     */
+    @Override
+    public UpdateResult transferOwner(Long id, String donoAtual, String novoDono, String nome) {
+        String sql = "UPDATE terrenos SET dono_uuid = ?, db_name_key = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ? AND dono_uuid = ?";
+        String deleteMembers = "DELETE FROM terreno_members WHERE terreno_id = ? AND member_uuid IN (?, ?)";
+
+        try {
+            UpdateResult result = databaseManager.inTransaction(uow -> {
+                PreparedStatement stmt = uow.prepare(sql);
+                stmt.setString(1, novoDono);
+                stmt.setString(2, novoDono + "+" + nome.toLowerCase());
+                stmt.setLong(3, id);
+                stmt.setString(4, donoAtual);
+                if (stmt.executeUpdate() == 0) {
+                    return UpdateResult.NOT_FOUND;
+                }
+
+                PreparedStatement delete = uow.prepare(deleteMembers);
+                delete.setLong(1, id);
+                delete.setString(2, donoAtual);
+                delete.setString(3, novoDono);
+                delete.executeUpdate();
+                insertMember(uow, id, novoDono, TerrenoRole.OWNER);
+                return UpdateResult.UPDATED;
+            });
+            if (result == UpdateResult.UPDATED) {
+                logger.info("Terreno " + id + " transferido: " + donoAtual + " -> " + novoDono);
+            }
+            return result;
+        } catch (SQLException e) {
+            if (DatabaseManager.isUniqueViolation(e)) {
+                return UpdateResult.CONFLICT;
+            }
+            logger.log(Level.SEVERE, "Erro ao transferir terreno: " + id, e);
+        }
+
+        return UpdateResult.ERROR;
+    }
+
+    /**
+     * Deleta um terreno pelo "ID"
+     */
+    @Override
+    public boolean delete(Long id) {
+        String sql = "DELETE FROM terrenos WHERE id = ?";
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setLong(1, id);
+
+            int affectedRows = stmt.executeUpdate();
+
+            if (affectedRows > 0) {
+                logger.info("Terreno deletado: " + id);
+                return true;
+            }
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao deletar terreno: " + id, e);
+        }
+
+        return false;
+    }
+
+    /**
+     * Adiciona um membro ao terreno
+     */
+    @Override
+    public boolean addMember(Long terrenoId, String memberUUID, TerrenoRole role) {
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            if (insertMember(uow, terrenoId, memberUUID, role)) {
+                logger.info("Membro adicionado ao terreno " + terrenoId + ": " + memberUUID);
+                return true;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao adicionar membro ao terreno: " + terrenoId, e);
+        }
+
+        return false;
+    }
+
+    private boolean insertMember(UnitOfWork uow, Long terrenoId, String memberUUID, TerrenoRole role) throws SQLException {
+        String sql = """
+                    INSERT INTO terreno_members (terreno_id, member_uuid, member_role)
+                    VALUES (?, ?, ?)
+                """;
+
+        PreparedStatement stmt = uow.prepare(sql);
+        stmt.setLong(1, terrenoId);
+        stmt.setString(2, memberUUID);
+        stmt.setString(3, role.name());
+        return stmt.executeUpdate() > 0;
+    }
+
+    /**
+     * Remove um membro do terreno
+     */
+    @Override
+    public boolean removeMember(Long terrenoId, String memberUUID) {
+        String sql = "DELETE FROM terreno_members WHERE terreno_id = ? AND member_uuid = ?";
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setLong(1, terrenoId);
+            stmt.setString(2, memberUUID);
+
+            int affectedRows = stmt.executeUpdate();
+
+            if (affectedRows > 0) {
+                logger.info("Membro removido do terreno " + terrenoId + ": " + memberUUID);
+                return true;
+            }
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao remover membro do terreno: " + terrenoId, e);
+        }
+
+        return false;
+    }
+
+    /**
+     * Adiciona vários membros ao terreno num único lote e numa única transação.
+     * Quem já é membro é ignorado.
+     *
+     * @return quantidade de membros adicionados, ou -1 em caso de erro
+     */
+    @Override
+    public int addMembers(Long terrenoId, Collection<String> memberUUIDs, TerrenoRole role) {
+        String sql = switch (databaseManager.getDatabaseType()) {
+            case MYSQL -> "INSERT IGNORE INTO terreno_members (terreno_id, member_uuid, member_role) VALUES (?, ?, ?)";
+            case POSTGRESQL -> """
+                        INSERT INTO terreno_members (terreno_id, member_uuid, member_role) VALUES (?, ?, ?)
+                        ON CONFLICT DO NOTHING
+                    """;
+            default -> "INSERT OR IGNORE INTO terreno_members (terreno_id, member_uuid, member_role) VALUES (?, ?, ?)";
+        };
+
+        try {
+            int added = databaseManager.inTransaction(uow -> {
+                PreparedStatement stmt = uow.prepare(sql);
+                for (String memberUUID : memberUUIDs) {
+                    stmt.setLong(1, terrenoId);
+                    stmt.setString(2, memberUUID);
+                    stmt.setString(3, role.name());
+                    stmt.addBatch();
+                }
+                return contarAfetados(stmt.executeBatch());
+            });
+            logger.info(added + " membro(s) adicionado(s) ao terreno " + terrenoId);
+            return added;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao adicionar membros ao terreno: " + terrenoId, e);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Remove vários membros do terreno num único lote e numa única transação. O dono (OWNER) nunca é removido.
+     *
+     * @return quantidade de membros removidos, ou -1 em caso de erro
+     */
+    @Override
+    public int removeMembers(Long terrenoId, Collection<String> memberUUIDs) {
+        String sql = "DELETE FROM terreno_members WHERE terreno_id = ? AND member_uuid = ? AND member_role <> 'OWNER'";
+
+        try {
+            int removed = databaseManager.inTransaction(uow -> {
+                PreparedStatement stmt = uow.prepare(sql);
+                for (String memberUUID : memberUUIDs) {
+                    stmt.setLong(1, terrenoId);
+                    stmt.setString(2, memberUUID);
+                    stmt.addBatch();
+                }
+                return contarAfetados(stmt.executeBatch());
+            });
+            logger.info(removed + " membro(s) removido(s) do terreno " + terrenoId);
+            return removed;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao remover membros do terreno: " + terrenoId, e);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Soma as linhas afetadas de um lote. Drivers que reescrevem o lote podem não informar a contagem
+     * por linha (SUCCESS_NO_INFO); nesse caso a linha conta como afetada.
+     */
+    private static int contarAfetados(int[] resultados) {
+        int total = 0;
+        for (int r : resultados) {
+            if (r > 0) total += r;
+            else if (r == Statement.SUCCESS_NO_INFO) total++;
+        }
+        return total;
+    }
+
+    /**
+     * Atualiza o papel de um membro no terreno
+     */
+    @Override
+    public boolean updateMemberRole(Long terrenoId, String memberUUID, TerrenoRole newRole) {
+        String sql = "UPDATE terreno_members SET member_role = ? WHERE terreno_id = ? AND member_uuid = ?";
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setString(1, newRole.name());
+            stmt.setLong(2, terrenoId);
+            stmt.setString(3, memberUUID);
+
+            int affectedRows = stmt.executeUpdate();
+
+            if (affectedRows > 0) {
+                logger.info("Papel do membro atualizado no terreno " + terrenoId + ": " + memberUUID + " -> " + newRole);
+                return true;
+            }
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao atualizar papel do membro: " + terrenoId, e);
+        }
+
+        return false;
+    }
+
+    /**
+     * Busca todos os membros de um terreno
+     */
+    @Override
+    public List<TerrenoMember> findMembersByTerrenoId(Long terrenoId) {
+        String sql = "SELECT * FROM terreno_members WHERE terreno_id = ?";
+        List<TerrenoMember> members = new ArrayList<>();
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setLong(1, terrenoId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    TerrenoMember member = new TerrenoMember();
+                    member.setTerrenoId(rs.getLong("terreno_id"));
+                    member.setMemberUUID(rs.getString("member_uuid"));
+                    member.setMemberRole(TerrenoRole.valueOf(rs.getString("member_role")));
+                    members.add(member);
+                }
+            }
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao buscar membros do terreno: " + terrenoId, e);
+        }
+
+        return members;
+    }
+
+    /**
+     * IDs dos terrenos em que o jogador é dono ou membro
+     */
+    @Override
+    public List<Long> findTerrenoIdsByMember(String memberUUID) {
+        String sql = """
+                    SELECT terreno_id FROM terreno_members WHERE member_uuid = ?
+                    UNION
+                    SELECT id FROM terrenos WHERE dono_uuid = ?
+                """;
+        List<Long> ids = new ArrayList<>();
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setString(1, memberUUID);
+            stmt.setString(2, memberUUID);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao buscar terrenos do membro: " + memberUUID, e);
+        }
+
+        return ids;
+    }
+
+    /**
+     * Busca um terreno pelo nomeKey (chave de nome única)
+     */
+    @Override
+    public Optional<Terreno> findByNameKey(String dbNameKey) {
+        String sql = "SELECT * FROM terrenos WHERE db_name_key = ?";
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setString(1, dbNameKey);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    Terreno terreno = mapResultSetToTerreno(rs);
+                    terreno.setMembers(findMembersByTerrenoId(terreno.getId()));
+                    return Optional.of(terreno);
+                }
+            }
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao buscar terreno por nomeKey: " + dbNameKey, e);
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Verifica se um terreno com o mesmo dono e nome (ignorando maiúsculas/minúsculas) já existe
+     */
+    @Override
+    public boolean existsByOwnerAndNameIgnoreCase(String donoUUID, String nome) {
+        String sql = "SELECT COUNT(1) FROM terrenos WHERE dono_uuid = ? AND LOWER(name) = LOWER(?)";
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setString(1, donoUUID);
+            stmt.setString(2, nome);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1) > 0;
+                }
+            }
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao verificar existência de nome: " + nome + " para dono: " + donoUUID, e);
+        }
+
+        return false;
+    }
+
+    /**
+     * Próxima página de donos distintos (ordem de UUID), para percorrer os terrenos sem carregar todos
+     */
+    @Override
+    public List<String> findOwnersAfter(String aposDono, int limite) {
+        String sql = "SELECT DISTINCT dono_uuid FROM terrenos WHERE dono_uuid > ? ORDER BY dono_uuid LIMIT ?";
+        List<String> donos = new ArrayList<>();
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setString(1, aposDono);
+            stmt.setInt(2, limite);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    donos.add(rs.getString(1));
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao buscar página de donos após: " + aposDono, e);
+        }
+
+        return donos;
+    }
+
+    /**
+     * Terrenos (sem membros) dos donos entre {@code primeiro} e {@code ultimo} (inclusive), ordenados por dono e ID
+     */
+    @Override
+    public List<Terreno> findByOwnerRange(String primeiro, String ultimo) {
+        String sql = "SELECT * FROM terrenos WHERE dono_uuid >= ? AND dono_uuid <= ? ORDER BY dono_uuid, id";
+        List<Terreno> terrenos = new ArrayList<>();
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            stmt.setString(1, primeiro);
+            stmt.setString(2, ultimo);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    terrenos.add(mapResultSetToTerreno(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao buscar terrenos dos donos entre " + primeiro + " e " + ultimo, e);
+        }
+
+        return terrenos;
+    }
+
+    /**
+     * Quais dos IDs ainda existem, consultados em blocos de {@value #IDS_POR_CONSULTA}
+     */
+    @Override
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        Set<Long> existentes = new HashSet<>();
+        List<Long> lista = new ArrayList<>(ids);
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            for (int de = 0; de < lista.size(); de += IDS_POR_CONSULTA) {
+                List<Long> bloco = lista.subList(de, Math.min(lista.size(), de + IDS_POR_CONSULTA));
+                PreparedStatement stmt = uow.prepare("SELECT id FROM terrenos WHERE id IN ("
+                        + String.join(", ", Collections.nCopies(bloco.size(), "?")) + ")");
+                for (int i = 0; i < bloco.size(); i++) {
+                    stmt.setLong(i + 1, bloco.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        existentes.add(rs.getLong(1));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao verificar a existência de " + ids.size() + " terreno(s)", e);
+            // Na dúvida, tudo existe: quem chama usa isto para limpar dados de terrenos apagados
+            return new HashSet<>(ids);
+        }
+
+        return existentes;
+    }
+
+    /**
+     * Mapeia um ResultSet para um objeto Terreno
+     */
+    private Terreno mapResultSetToTerreno(ResultSet rs) throws SQLException {
+        Terreno terreno = new Terreno();
+        terreno.setId(rs.getLong("id"));
+        terreno.setDonoUUID(rs.getString("dono_uuid"));
+        terreno.setName(rs.getString("name"));
+        terreno.setLocation(rs.getString("location"));
+        terreno.setSize(rs.getInt("size"));
+        terreno.setFlags(rs.getLong("flags"));
+        return terreno;
+    }
+}
+
@@ -0,0 +1,166 @@
+package io.github.joaovmundel.jocoTerrenos.repositories;
+
+import io.github.joaovmundel.jocoTerrenos.database.DatabaseManager;
+import io.github.joaovmundel.jocoTerrenos.database.UnitOfWork;
+import io.github.joaovmundel.jocoTerrenos.models.Terreno;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Situação do imposto de cada terreno (tabela terreno_impostos): último pagamento e início do atraso, em epoch ms
+ */
+public class TaxRepository {
+
+    private static final int IDS_POR_CONSULTA = 500;
+
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+
+    public TaxRepository(DatabaseManager databaseManager, Logger logger) {
+        this.databaseManager = databaseManager;
+        this.logger = logger;
+    }
+
+    /**
+     * Terreno com a situação do imposto; {@code pagoEm} é null se o terreno ainda não tem registro
+     */
+    public record TerrenoImposto(long terrenoId, String donoUUID, int size, Long pagoEm, Long devendoDesde) {
+    }
+
+    /**
+     * Situação do imposto dos terrenos, na mesma ordem da lista, consultada em blocos de {@value #IDS_POR_CONSULTA}
+     */
+    public List<TerrenoImposto> findImpostos(List<Terreno> terrenos) {
+        Map<Long, Long[]> registros = new HashMap<>();
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            for (int de = 0; de < terrenos.size(); de += IDS_POR_CONSULTA) {
+                List<Terreno> bloco = terrenos.subList(de, Math.min(terrenos.size(), de + IDS_POR_CONSULTA));
+                PreparedStatement stmt = uow.prepare("SELECT terreno_id, paid_at, due_since FROM terreno_impostos WHERE terreno_id IN ("
+                        + String.join(", ", Collections.nCopies(bloco.size(), "?")) + ")");
+                for (int i = 0; i < bloco.size(); i++) {
+                    stmt.setLong(i + 1, bloco.get(i).getId());
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        long devendo = rs.getLong("due_since");
+                        Long devendoDesde = rs.wasNull() ? null : devendo;
+                        registros.put(rs.getLong("terreno_id"), new Long[]{rs.getLong("paid_at"), devendoDesde});
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao buscar o imposto de " + terrenos.size() + " terreno(s)", e);
+            return List.of();
+        }
+
+        List<TerrenoImposto> impostos = new ArrayList<>(terrenos.size());
+        for (Terreno t : terrenos) {
+            Long[] r = registros.get(t.getId());
+            impostos.add(new TerrenoImposto(t.getId(), t.getDonoUUID(), t.getSize(), r != null ? r[0] : null, r != null ? r[1] : null));
+        }
+        return impostos;
+    }
+
+    /**
+     * Marca os terrenos como pagos em {@code quando} e encerra o atraso, num único lote
+     */
+    public boolean marcarPagos(Collection<Long> ids, long quando) {
+        String sql = switch (databaseManager.getDatabaseType()) {
+            case MYSQL -> """
+                        INSERT INTO terreno_impostos (terreno_id, paid_at, due_since) VALUES (?, ?, NULL)
+                        ON DUPLICATE KEY UPDATE paid_at = VALUES(paid_at), due_since = NULL
+                    """;
+            default -> """
+                        INSERT INTO terreno_impostos (terreno_id, paid_at, due_since) VALUES (?, ?, NULL)
+                        ON CONFLICT (terreno_id) DO UPDATE SET paid_at = excluded.paid_at, due_since = NULL
+                    """;
+        };
+        return executarLote(sql, ids, quando, "Erro ao marcar " + ids.size() + " terreno(s) como pagos");
+    }
+
+    /**
+     * Coloca os terrenos em atraso a partir de {@code quando}, mantendo o início de um atraso já existente
+     */
+    public boolean marcarAtraso(Collection<Long> ids, long quando) {
+        String sql = switch (databaseManager.getDatabaseType()) {
+            case MYSQL -> """
+                        INSERT INTO terreno_impostos (terreno_id, paid_at, due_since) VALUES (?, 0, ?)
+                        ON DUPLICATE KEY UPDATE due_since = COALESCE(due_since, VALUES(due_since))
+                    """;
+            default -> """
+                        INSERT INTO terreno_impostos (terreno_id, paid_at, due_since) VALUES (?, 0, ?)
+                        ON CONFLICT (terreno_id) DO UPDATE SET due_since = COALESCE(terreno_impostos.due_since, excluded.due_since)
+                    """;
+        };
+        return executarLote(sql, ids, quando, "Erro ao marcar " + ids.size() + " terreno(s) em atraso");
+    }
+
+    /**
+     * Quantos dos terrenos estão em atraso
+     */
+    public int countEmAtraso(Collection<Long> ids) {
+        if (ids.isEmpty()) return 0;
+        String sql = "SELECT COUNT(*) FROM terreno_impostos WHERE due_since IS NOT NULL AND terreno_id IN ("
+                + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare(sql);
+            int i = 1;
+            for (Long id : ids) {
+                stmt.setLong(i++, id);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao contar terrenos em atraso", e);
+        }
+
+        return 0;
+    }
+
+    public boolean delete(long terrenoId) {
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            PreparedStatement stmt = uow.prepare("DELETE FROM terreno_impostos WHERE terreno_id = ?");
+            stmt.setLong(1, terrenoId);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao apagar o registro de imposto do terreno: " + terrenoId, e);
+        }
+
+        return false;
+    }
+
+    private boolean executarLote(String sql, Collection<Long> ids, long quando, String erro) {
+        if (ids.isEmpty()) return true;
+        try {
+            return databaseManager.inTransaction(uow -> {
+                PreparedStatement stmt = uow.prepare(sql);
+                for (Long id : ids) {
+                    stmt.setLong(1, id);
+                    stmt.setLong(2, quando);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                return true;
+            });
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, erro, e);
+        }
+
+        return false;
+    }
+}
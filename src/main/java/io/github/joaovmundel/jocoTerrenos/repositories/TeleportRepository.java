@@ -0,0 +1,96 @@
+package io.github.joaovmundel.jocoTerrenos.repositories;
+
+import io.github.joaovmundel.jocoTerrenos.database.DatabaseManager;
+import io.github.joaovmundel.jocoTerrenos.database.UnitOfWork;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistência dos pontos de teleporte seguros de cada terreno
+ */
+public class TeleportRepository {
+
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+
+    public TeleportRepository(DatabaseManager databaseManager, Logger logger) {
+        this.databaseManager = databaseManager;
+        this.logger = logger;
+    }
+
+    /**
+     * Ponto de teleporte (coordenadas de bloco dos pés do jogador)
+     */
+    public record TeleportPoint(long terrenoId, String world, int x, int y, int z) {
+    }
+
+    /**
+     * Busca todos os pontos salvos, indexados pelo ID do terreno
+     */
+    public Map<Long, TeleportPoint> findAll() {
+        String sql = "SELECT terreno_id, world, x, y, z FROM terreno_teleportes";
+        Map<Long, TeleportPoint> pontos = new HashMap<>();
+
+        try (UnitOfWork uow = databaseManager.openUnitOfWork();
+             ResultSet rs = uow.prepare(sql).executeQuery()) {
+
+            while (rs.next()) {
+                TeleportPoint ponto = new TeleportPoint(rs.getLong("terreno_id"), rs.getString("world"),
+                        rs.getInt("x"), rs.getInt("y"), rs.getInt("z"));
+                pontos.put(ponto.terrenoId(), ponto);
+            }
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao buscar pontos de teleporte", e);
+        }
+
+        return pontos;
+    }
+
+    /**
+     * Salva (substitui) o ponto de um terreno
+     */
+    public boolean save(TeleportPoint ponto) {
+        try {
+            return databaseManager.inTransaction(uow -> {
+                deleteById(uow, ponto.terrenoId());
+                PreparedStatement stmt = uow.prepare("INSERT INTO terreno_teleportes (terreno_id, world, x, y, z) VALUES (?, ?, ?, ?, ?)");
+                stmt.setLong(1, ponto.terrenoId());
+                stmt.setString(2, ponto.world());
+                stmt.setInt(3, ponto.x());
+                stmt.setInt(4, ponto.y());
+                stmt.setInt(5, ponto.z());
+                return stmt.executeUpdate() > 0;
+            });
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao salvar ponto de teleporte do terreno: " + ponto.terrenoId(), e);
+        }
+
+        return false;
+    }
+
+    /**
+     * Remove o ponto de um terreno
+     */
+    public boolean delete(long terrenoId) {
+        try (UnitOfWork uow = databaseManager.openUnitOfWork()) {
+            return deleteById(uow, terrenoId);
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao remover ponto de teleporte do terreno: " + terrenoId, e);
+        }
+
+        return false;
+    }
+
+    private boolean deleteById(UnitOfWork uow, long terrenoId) throws SQLException {
+        PreparedStatement stmt = uow.prepare("DELETE FROM terreno_teleportes WHERE terreno_id = ?");
+        stmt.setLong(1, terrenoId);
+        return stmt.executeUpdate() > 0;
+    }
+}
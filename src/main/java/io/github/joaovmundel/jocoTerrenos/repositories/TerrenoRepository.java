@@ -1,389 +1,152 @@
 package io.github.joaovmundel.jocoTerrenos.repositories;
 
-import io.github.joaovmundel.jocoTerrenos.database.DatabaseManager;
 import io.github.joaovmundel.jocoTerrenos.models.Terreno;
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoFlag;
 import io.github.joaovmundel.jocoTerrenos.models.TerrenoMember;
 import io.github.joaovmundel.jocoTerrenos.models.TerrenoRole;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.Set;
+import java.util.function.Consumer;
 
-public class TerrenoRepository {
-
-    private final DatabaseManager databaseManager;
-    private final Logger logger;
-
-    public TerrenoRepository(DatabaseManager databaseManager, Logger logger) {
-        this.databaseManager = databaseManager;
-        this.logger = logger;
-    }
+/**
+ * Persistência dos terrenos e membros. {@link SqlTerrenoRepository} usa o banco configurado;
+ * {@link FileTerrenoRepository} (database.type FILE) usa um log local com a imagem inteira em memória.
+ * Os erros são registrados no log e viram Optional vazio, false, -1 ou {@link UpdateResult#ERROR}.
+ */
+public interface TerrenoRepository {
 
     /**
-     * Cria um terreno no banco de dados
+     * Terreno cujo dono não entra no servidor desde {@code ultimoAcesso} (epoch ms)
      */
-    public Optional<Terreno> create(Terreno terreno) {
-        String sql = """
-                    INSERT INTO terrenos (dono_uuid, name, db_name_key, location, size, pvp, mobs, public_access)
-                    VALUES (?, ?, ?, ?, ?, ?, ?, ?)
-                """;
-
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-            stmt.setString(1, terreno.getDonoUUID());
-            stmt.setString(2, terreno.getName());
-            // db_name_key = ownerUUID + "+" + lower(name)
-            stmt.setString(3, terreno.getDonoUUID() + "+" + terreno.getName().toLowerCase());
-            stmt.setString(4, terreno.getLocation());
-            stmt.setInt(5, terreno.getSize());
-            stmt.setBoolean(6, terreno.getPvp());
-            stmt.setBoolean(7, terreno.getMobs());
-            stmt.setBoolean(8, terreno.getPublicAccess());
-
-            int affectedRows = stmt.executeUpdate();
-
-            if (affectedRows > 0) {
-                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        terreno.setId(generatedKeys.getLong(1));
-                        logger.info("Terreno criado com ID: " + terreno.getId());
-                        return Optional.of(terreno);
-                    }
-                }
-            }
-
-        } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Erro ao criar terreno", e);
-        }
-
-        return Optional.empty();
+    record TerrenoExpirado(Terreno terreno, long ultimoAcesso) {
     }
 
+    Optional<Terreno> create(Terreno terreno);
+
     /**
-     * Busca um terreno pelo "ID"
+     * Cria o terreno e registra o dono como membro OWNER de forma atômica
      */
-    public Optional<Terreno> findById(Long id) {
-        String sql = "SELECT * FROM terrenos WHERE id = ?";
+    Optional<Terreno> createWithOwner(Terreno terreno);
 
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    Optional<Terreno> findById(Long id);
 
-            stmt.setLong(1, id);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Terreno terreno = mapResultSetToTerreno(rs);
-                    // Carrega os membros do terreno
-                    terreno.setMembers(findMembersByTerrenoId(id));
-                    return Optional.of(terreno);
-                }
-            }
-
-        } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Erro ao buscar terreno por ID: " + id, e);
-        }
-
-        return Optional.empty();
-    }
+    List<Terreno> findByDonoUUID(String donoUUID);
 
     /**
-     * Busca todos os terrenos de um dono (UUID)
+     * Próxima página (id &gt; {@code aposId}, em ordem de ID) dos terrenos do dono, sem membros
      */
-    public List<Terreno> findByDonoUUID(String donoUUID) {
-        String sql = "SELECT * FROM terrenos WHERE dono_uuid = ?";
-        List<Terreno> terrenos = new ArrayList<>();
-
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, donoUUID);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Terreno terreno = mapResultSetToTerreno(rs);
-                    terreno.setMembers(findMembersByTerrenoId(terreno.getId()));
-                    terrenos.add(terreno);
-                }
-            }
-
-        } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Erro ao buscar terrenos do dono: " + donoUUID, e);
-        }
-
-        return terrenos;
-    }
+    List<Terreno> findByOwnerAfter(String donoUUID, long aposId, int limite);
 
     /**
-     * Busca todos os terrenos
+     * Quantidade de terrenos do dono, ou -1 em caso de erro
      */
-    public List<Terreno> findAll() {
-        String sql = "SELECT * FROM terrenos";
-        List<Terreno> terrenos = new ArrayList<>();
-
-        try (Connection conn = databaseManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                Terreno terreno = mapResultSetToTerreno(rs);
-                terreno.setMembers(findMembersByTerrenoId(terreno.getId()));
-                terrenos.add(terreno);
-            }
+    int countByOwner(String donoUUID);
 
-        } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Erro ao buscar todos os terrenos", e);
-        }
-
-        return terrenos;
-    }
+    List<Terreno> findAll();
 
     /**
-     * Atualiza um terreno existente
+     * Terrenos do mundo, sem membros
      */
-    public boolean update(Terreno terreno) {
-        String sql = """
-                    UPDATE terrenos
-                    SET dono_uuid = ?, name = ?, db_name_key = ?, location = ?, size = ?, pvp = ?, mobs = ?, public_access = ?, updated_at = CURRENT_TIMESTAMP
-                    WHERE id = ?
-                """;
-
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, terreno.getDonoUUID());
-            stmt.setString(2, terreno.getName());
-            stmt.setString(3, terreno.getDonoUUID() + "+" + terreno.getName().toLowerCase());
-            stmt.setString(4, terreno.getLocation());
-            stmt.setInt(5, terreno.getSize());
-            stmt.setBoolean(6, terreno.getPvp());
-            stmt.setBoolean(7, terreno.getMobs());
-            stmt.setBoolean(8, terreno.getPublicAccess());
-            stmt.setLong(9, terreno.getId());
-
-            int affectedRows = stmt.executeUpdate();
-
-            if (affectedRows > 0) {
-                logger.info("Terreno atualizado: " + terreno.getId());
-                return true;
-            }
-
-        } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Erro ao atualizar terreno: " + terreno.getId(), e);
-        }
-
-        return false;
-    }
+    List<Terreno> findByWorld(String worldName);
 
     /**
-     * Deleta um terreno pelo "ID"
+     * Percorre todos os terrenos (sem membros) sem montar uma lista em memória
      */
-    public boolean delete(Long id) {
-        String sql = "DELETE FROM terrenos WHERE id = ?";
-
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setLong(1, id);
-
-            int affectedRows = stmt.executeUpdate();
-
-            if (affectedRows > 0) {
-                logger.info("Terreno deletado: " + id);
-                return true;
-            }
-
-        } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Erro ao deletar terreno: " + id, e);
-        }
-
-        return false;
-    }
+    boolean forEachTerreno(Consumer<Terreno> consumer);
 
     /**
-     * Adiciona um membro ao terreno
+     * Próxima página (id &gt; {@code aposId}, em ordem de ID) de terrenos cujo dono foi visto pela última vez
+     * antes de {@code vistoAntesDe}. Donos sem registro em jogadores_vistos não entram; o enable registra os que faltam
+     * ({@link PlayerSeenRepository#registrarAusentes}).
      */
-    public boolean addMember(Long terrenoId, String memberUUID, TerrenoRole role) {
-        String sql = """
-                    INSERT INTO terreno_members (terreno_id, member_uuid, member_role)
-                    VALUES (?, ?, ?)
-                """;
-
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setLong(1, terrenoId);
-            stmt.setString(2, memberUUID);
-            stmt.setString(3, role.name());
-
-            int affectedRows = stmt.executeUpdate();
-
-            if (affectedRows > 0) {
-                logger.info("Membro adicionado ao terreno " + terrenoId + ": " + memberUUID);
-                return true;
-            }
-
-        } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Erro ao adicionar membro ao terreno: " + terrenoId, e);
-        }
-
-        return false;
-    }
+    List<TerrenoExpirado> findExpirados(long vistoAntesDe, long aposId, int limite);
 
     /**
-     * Remove um membro do terreno
+     * Apaga os terrenos cujo dono continua sem acesso desde {@code vistoAntesDe}.
+     *
+     * @return IDs realmente apagados
      */
-    public boolean removeMember(Long terrenoId, String memberUUID) {
-        String sql = "DELETE FROM terreno_members WHERE terreno_id = ? AND member_uuid = ?";
-
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setLong(1, terrenoId);
-            stmt.setString(2, memberUUID);
+    List<Long> deleteExpirados(Collection<Long> ids, long vistoAntesDe);
 
-            int affectedRows = stmt.executeUpdate();
-
-            if (affectedRows > 0) {
-                logger.info("Membro removido do terreno " + terrenoId + ": " + memberUUID);
-                return true;
-            }
-
-        } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Erro ao remover membro do terreno: " + terrenoId, e);
-        }
-
-        return false;
-    }
+    boolean update(Terreno terreno);
 
     /**
-     * Atualiza o papel de um membro no terreno
+     * Liga ou desliga uma flag, sem reescrever o restante do terreno
      */
-    public boolean updateMemberRole(Long terrenoId, String memberUUID, TerrenoRole newRole) {
-        String sql = "UPDATE terreno_members SET member_role = ? WHERE terreno_id = ? AND member_uuid = ?";
+    boolean updateFlag(Long id, TerrenoFlag flag, boolean ativa);
 
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    /**
+     * Altera o tamanho apenas se o valor gravado ainda for {@code tamanhoAtual}
+     */
+    boolean updateSize(Long id, int tamanhoAtual, int novoTamanho);
 
-            stmt.setString(1, newRole.name());
-            stmt.setLong(2, terrenoId);
-            stmt.setString(3, memberUUID);
+    /**
+     * Renomeia se o terreno ainda pertencer ao dono; nome repetido do mesmo dono dá {@link UpdateResult#CONFLICT}
+     */
+    UpdateResult rename(Long id, String donoUUID, String novoNome);
 
-            int affectedRows = stmt.executeUpdate();
+    /**
+     * Troca o dono (condicionado ao dono atual) e o membro OWNER de forma atômica; o antigo dono deixa de ser membro
+     */
+    UpdateResult transferOwner(Long id, String donoAtual, String novoDono, String nome);
 
-            if (affectedRows > 0) {
-                logger.info("Papel do membro atualizado no terreno " + terrenoId + ": " + memberUUID + " -> " + newRole);
-                return true;
-            }
+    boolean delete(Long id);
 
-        } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Erro ao atualizar papel do membro: " + terrenoId, e);
-        }
+    boolean addMember(Long terrenoId, String memberUUID, TerrenoRole role);
 
-        return false;
-    }
+    boolean removeMember(Long terrenoId, String memberUUID);
 
     /**
-     * Busca todos os membros de um terreno
+     * Adiciona vários membros de forma atômica; quem já é membro é ignorado.
+     *
+     * @return quantidade adicionada, ou -1 em caso de erro
      */
-    public List<TerrenoMember> findMembersByTerrenoId(Long terrenoId) {
-        String sql = "SELECT * FROM terreno_members WHERE terreno_id = ?";
-        List<TerrenoMember> members = new ArrayList<>();
-
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setLong(1, terrenoId);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    TerrenoMember member = new TerrenoMember();
-                    member.setTerrenoId(rs.getLong("terreno_id"));
-                    member.setMemberUUID(rs.getString("member_uuid"));
-                    member.setMemberRole(TerrenoRole.valueOf(rs.getString("member_role")));
-                    members.add(member);
-                }
-            }
-
-        } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Erro ao buscar membros do terreno: " + terrenoId, e);
-        }
-
-        return members;
-    }
+    int addMembers(Long terrenoId, Collection<String> memberUUIDs, TerrenoRole role);
 
     /**
-     * Busca um terreno pelo nomeKey (chave de nome única)
+     * Remove vários membros de forma atômica; o dono (OWNER) nunca é removido.
+     *
+     * @return quantidade removida, ou -1 em caso de erro
      */
-    public Optional<Terreno> findByNameKey(String dbNameKey) {
-        String sql = "SELECT * FROM terrenos WHERE db_name_key = ?";
-
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, dbNameKey);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Terreno terreno = mapResultSetToTerreno(rs);
-                    terreno.setMembers(findMembersByTerrenoId(terreno.getId()));
-                    return Optional.of(terreno);
-                }
-            }
+    int removeMembers(Long terrenoId, Collection<String> memberUUIDs);
 
-        } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Erro ao buscar terreno por nomeKey: " + dbNameKey, e);
-        }
+    boolean updateMemberRole(Long terrenoId, String memberUUID, TerrenoRole newRole);
 
-        return Optional.empty();
-    }
+    List<TerrenoMember> findMembersByTerrenoId(Long terrenoId);
 
     /**
-     * Verifica se um terreno com o mesmo dono e nome (ignorando maiúsculas/minúsculas) já existe
+     * IDs dos terrenos em que o jogador é dono ou membro
      */
-    public boolean existsByOwnerAndNameIgnoreCase(String donoUUID, String nome) {
-        String sql = "SELECT COUNT(1) FROM terrenos WHERE dono_uuid = ? AND LOWER(name) = LOWER(?)";
+    List<Long> findTerrenoIdsByMember(String memberUUID);
 
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    /**
+     * Busca pela chave de nome única ({@code donoUUID + "+" + nome em minúsculas})
+     */
+    Optional<Terreno> findByNameKey(String dbNameKey);
 
-            stmt.setString(1, donoUUID);
-            stmt.setString(2, nome);
+    boolean existsByOwnerAndNameIgnoreCase(String donoUUID, String nome);
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
-                }
-            }
+    /**
+     * Próxima página de donos distintos, em ordem de UUID
+     */
+    List<String> findOwnersAfter(String aposDono, int limite);
 
-        } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Erro ao verificar existência de nome: " + nome + " para dono: " + donoUUID, e);
-        }
+    /**
+     * Terrenos (sem membros) dos donos entre {@code primeiro} e {@code ultimo} (inclusive), ordenados por dono e ID
+     */
+    List<Terreno> findByOwnerRange(String primeiro, String ultimo);
 
-        return false;
-    }
+    /**
+     * Quais dos IDs ainda existem. Em caso de erro, devolve todos (ninguém limpa dados por engano).
+     */
+    Set<Long> findExistingIds(Collection<Long> ids);
 
     /**
-     * Mapeia um ResultSet para um objeto Terreno
+     * Libera os recursos do repositório no desligamento do plugin
      */
-    private Terreno mapResultSetToTerreno(ResultSet rs) throws SQLException {
-        Terreno terreno = new Terreno();
-        terreno.setId(rs.getLong("id"));
-        terreno.setDonoUUID(rs.getString("dono_uuid"));
-        terreno.setName(rs.getString("name"));
-        terreno.setLocation(rs.getString("location"));
-        terreno.setSize(rs.getInt("size"));
-        terreno.setPvp(rs.getBoolean("pvp"));
-        terreno.setMobs(rs.getBoolean("mobs"));
-        terreno.setPublicAccess(rs.getBoolean("public_access"));
-        return terreno;
+    default void close() {
     }
 }
-
@@ -0,0 +1,15 @@
+package io.github.joaovmundel.jocoTerrenos.repositories;
+
+/**
+ * Resultado de uma escrita condicional.
+ */
+public enum UpdateResult {
+    /** A linha foi alterada */
+    UPDATED,
+    /** Nenhuma linha atendeu à condição (não existe ou mudou antes) */
+    NOT_FOUND,
+    /** Violação de índice único (ex.: nome já usado pelo dono) */
+    CONFLICT,
+    /** Erro inesperado, já registrado no log */
+    ERROR
+}
@@ -0,0 +1,206 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.infrastructure.JocoLogging;
+import io.github.joaovmundel.jocoTerrenos.repositories.AnalyticsRepository;
+import io.github.joaovmundel.jocoTerrenos.repositories.AnalyticsRepository.WorldSummary;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex.Area;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de uso mantidos de forma incremental: área ocupada por mundo, quantidade de terrenos por dono
+ * (a partir das alterações do {@link TerrenoIndex}) e segundos de visita por terreno (amostrados a cada segundo
+ * pelo {@link PlayerLandCache}). Os resumos são gravados periodicamente e podem ser exportados em CSV.
+ */
+public class AnalyticsService implements TerrenoIndex.Observador {
+
+    private static final JocoLogging logger = new JocoLogging(AnalyticsService.class.getName());
+    private static final DateTimeFormatter FORMATO_ARQUIVO = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final AnalyticsRepository repository;
+    private final PlayerLandCache playerLandCache;
+
+    private final Map<Long, Area> areas = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> areaPorMundo = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> terrenosPorMundo = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> terrenosPorDono = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> segundosTotais = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> segundosPendentes = new ConcurrentHashMap<>();
+    private final Set<Long> removidos = ConcurrentHashMap.newKeySet();
+    private volatile Map<Long, Integer> ocupacao = Map.of();
+
+    public AnalyticsService(AnalyticsRepository repository, PlayerLandCache playerLandCache) {
+        this.repository = repository;
+        this.playerLandCache = playerLandCache;
+    }
+
+    /**
+     * Carrega os segundos de visita já gravados, somando ao que foi amostrado desde o enable.
+     */
+    public CompletableFuture<Void> carregarAsync() {
+        return CompletableFuture.runAsync(() -> repository.findVisitorSeconds()
+                .forEach((id, segundos) -> segundosTotais.computeIfAbsent(id, k -> new LongAdder()).add(segundos)));
+    }
+
+    @Override
+    public void aoAlterar(Area anterior, Area nova) {
+        if (anterior != null) {
+            areas.remove(anterior.id());
+            contador(areaPorMundo, anterior.world()).add(-(long) anterior.size() * anterior.size());
+            contador(terrenosPorMundo, anterior.world()).decrement();
+            if (anterior.donoUUID() != null) contador(terrenosPorDono, anterior.donoUUID()).decrement();
+        }
+        if (nova != null) {
+            areas.put(nova.id(), nova);
+            contador(areaPorMundo, nova.world()).add((long) nova.size() * nova.size());
+            contador(terrenosPorMundo, nova.world()).increment();
+            if (nova.donoUUID() != null) contador(terrenosPorDono, nova.donoUUID()).increment();
+        } else if (anterior != null) {
+            segundosTotais.remove(anterior.id());
+            segundosPendentes.remove(anterior.id());
+            removidos.add(anterior.id());
+        }
+    }
+
+    /**
+     * Conta quem está em cada terreno e soma um segundo de visita por jogador. Chamar a cada 20 ticks na main thread.
+     */
+    public void amostrar() {
+        Map<Long, Integer> atual = new HashMap<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            Area area = playerLandCache.terrenoAtual(player);
+            if (area == null) continue;
+            atual.merge(area.id(), 1, Integer::sum);
+            segundosTotais.computeIfAbsent(area.id(), k -> new LongAdder()).increment();
+            segundosPendentes.computeIfAbsent(area.id(), k -> new LongAdder()).increment();
+        }
+        ocupacao = atual;
+    }
+
+    public int jogadoresNoTerreno(long id) {
+        return ocupacao.getOrDefault(id, 0);
+    }
+
+    public long areaOcupada(String world) {
+        LongAdder area = areaPorMundo.get(world);
+        return area != null ? area.sum() : 0;
+    }
+
+    public long terrenosDoDono(String donoUUID) {
+        LongAdder total = terrenosPorDono.get(donoUUID);
+        return total != null ? total.sum() : 0;
+    }
+
+    /**
+     * Grava os incrementos pendentes e o resumo por mundo. Em caso de falha, os incrementos voltam para a fila.
+     */
+    public boolean flush() {
+        Map<Long, Long> incrementos = new HashMap<>();
+        segundosPendentes.forEach((id, adder) -> {
+            long v = adder.sumThenReset();
+            if (v > 0) incrementos.put(id, v);
+        });
+        List<Long> apagados = new ArrayList<>(removidos);
+        removidos.removeAll(apagados);
+
+        if (repository.flush(incrementos, apagados, resumoPorMundo())) {
+            return true;
+        }
+        incrementos.forEach((id, v) -> segundosPendentes.computeIfAbsent(id, k -> new LongAdder()).add(v));
+        removidos.addAll(apagados);
+        return false;
+    }
+
+    /**
+     * Exporta terrenos, mundos e donos em três arquivos CSV dentro de {@code pasta}. Roda fora da main thread.
+     *
+     * @return a pasta criada para esta exportação
+     */
+    public CompletableFuture<File> exportarCsvAsync(File pasta) {
+        List<Area> snapshot = new ArrayList<>(areas.values());
+        Map<Long, Integer> ocupacaoAtual = ocupacao;
+        List<WorldSummary> mundos = resumoPorMundo();
+        Map<String, Long> donos = new HashMap<>();
+        terrenosPorDono.forEach((dono, total) -> {
+            long v = total.sum();
+            if (v > 0) donos.put(dono, v);
+        });
+
+        return CompletableFuture.supplyAsync(() -> {
+            File destino = new File(pasta, "analytics-" + LocalDateTime.now().format(FORMATO_ARQUIVO));
+            if (!destino.mkdirs() && !destino.isDirectory()) {
+                throw new UncheckedIOException(new IOException("Não foi possível criar " + destino));
+            }
+            try {
+                try (Writer w = Files.newBufferedWriter(new File(destino, "lands.csv").toPath(), StandardCharsets.UTF_8)) {
+                    w.write("id,world,owner_uuid,name,size,area,players_inside,visitor_seconds\n");
+                    for (Area a : snapshot) {
+                        LongAdder segundos = segundosTotais.get(a.id());
+                        w.write(a.id() + "," + csv(a.world()) + "," + csv(a.donoUUID()) + "," + csv(a.name()) + ","
+                                + a.size() + "," + ((long) a.size() * a.size()) + "," + ocupacaoAtual.getOrDefault(a.id(), 0) + ","
+                                + (segundos != null ? segundos.sum() : 0) + "\n");
+                    }
+                }
+                try (Writer w = Files.newBufferedWriter(new File(destino, "worlds.csv").toPath(), StandardCharsets.UTF_8)) {
+                    w.write("world,lands,claimed_area,players_inside\n");
+                    for (WorldSummary m : mundos) {
+                        w.write(csv(m.world()) + "," + m.lands() + "," + m.claimedArea() + "," + m.playersInside() + "\n");
+                    }
+                }
+                try (Writer w = Files.newBufferedWriter(new File(destino, "owners.csv").toPath(), StandardCharsets.UTF_8)) {
+                    w.write("owner_uuid,lands\n");
+                    for (Map.Entry<String, Long> e : donos.entrySet()) {
+                        w.write(csv(e.getKey()) + "," + e.getValue() + "\n");
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            logger.info("Estatísticas exportadas para " + destino.getPath());
+            return destino;
+        });
+    }
+
+    private List<WorldSummary> resumoPorMundo() {
+        Map<String, Integer> jogadores = new HashMap<>();
+        ocupacao.forEach((id, n) -> {
+            Area a = areas.get(id);
+            if (a != null) jogadores.merge(a.world(), n, Integer::sum);
+        });
+        List<WorldSummary> mundos = new ArrayList<>();
+        terrenosPorMundo.forEach((world, total) -> {
+            int lands = (int) total.sum();
+            if (lands > 0) {
+                mundos.add(new WorldSummary(world, lands, areaOcupada(world), jogadores.getOrDefault(world, 0)));
+            }
+        });
+        return mundos;
+    }
+
+    private static LongAdder contador(Map<String, LongAdder> mapa, String chave) {
+        return mapa.computeIfAbsent(chave, k -> new LongAdder());
+    }
+
+    private static String csv(String valor) {
+        if (valor == null) return "";
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0) return valor;
+        return "\"" + valor.replace("\"", "\"\"") + "\"";
+    }
+}
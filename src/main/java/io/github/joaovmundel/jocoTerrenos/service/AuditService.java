@@ -0,0 +1,247 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.infrastructure.JocoLogging;
+import io.github.joaovmundel.jocoTerrenos.models.AcaoAuditoria;
+import io.github.joaovmundel.jocoTerrenos.repositories.AuditRepository;
+import io.github.joaovmundel.jocoTerrenos.repositories.AuditRepository.Registro;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Auditoria das alterações de terrenos. {@link #registrar} só copia os campos para um anel de tamanho fixo
+ * (sem locks, sem alocar e sem esperar, pode ser chamado de qualquer thread); uma thread gravadora esvazia o anel
+ * em lotes JDBC. Com o anel cheio o registro é descartado e contado: a auditoria nunca segura o jogo.
+ */
+public class AuditService implements AutoCloseable {
+
+    private static final JocoLogging logger = new JocoLogging(AuditService.class.getName());
+
+    private final AuditRepository repository;
+    private final Anel anel;
+    private final int tamanhoLote;
+    private final long intervaloNanos;
+    private final Thread gravador;
+    private final LongAdder descartados = new LongAdder();
+    private final AtomicLong gravados = new AtomicLong();
+    private volatile boolean fechado;
+
+    /**
+     * Página da consulta, do registro mais novo para o mais antigo
+     */
+    public record Pagina(List<Registro> registros, int pagina, int totalPaginas, int total) {
+    }
+
+    /**
+     * @param capacidade registros que cabem no anel (arredondado para potência de 2)
+     * @param tamanhoLote registros por INSERT em lote
+     * @param intervaloMs espera da thread gravadora quando o anel está vazio
+     */
+    public AuditService(AuditRepository repository, int capacidade, int tamanhoLote, long intervaloMs) {
+        this.repository = repository;
+        this.anel = new Anel(capacidade);
+        this.tamanhoLote = Math.max(1, tamanhoLote);
+        this.intervaloNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(10, intervaloMs));
+        this.gravador = new Thread(this::gravarEmLoop, "JocoTerrenos-Audit");
+        this.gravador.setDaemon(true);
+        this.gravador.start();
+    }
+
+    /**
+     * Enfileira uma alteração. Nunca bloqueia; se o anel estiver cheio, o registro é descartado e contado.
+     *
+     * @param ator UUID de quem fez a alteração, ou null para o sistema
+     */
+    public void registrar(AcaoAuditoria acao, long terrenoId, String ator, String alvo, String detalhe, long valor) {
+        if (fechado || !anel.oferecer(System.currentTimeMillis(), terrenoId, acao, ator, alvo, detalhe, valor)) {
+            descartados.increment();
+            return;
+        }
+        // Acorda o gravador só quando já há um lote inteiro esperando
+        if (anel.tamanho() >= tamanhoLote) {
+            LockSupport.unpark(gravador);
+        }
+    }
+
+    public void registrar(AcaoAuditoria acao, long terrenoId, String ator, String alvo) {
+        registrar(acao, terrenoId, ator, alvo, null, 0);
+    }
+
+    /**
+     * Registros perdidos com o anel cheio (ou depois do fechamento) desde o enable
+     */
+    public long getDescartados() {
+        return descartados.sum();
+    }
+
+    public long getGravados() {
+        return gravados.get();
+    }
+
+    public int getPendentes() {
+        return anel.tamanho();
+    }
+
+    /**
+     * Consulta uma página da auditoria (de um terreno, ou de todos com {@code terrenoId} null) fora da main thread.
+     * Registros ainda no anel não aparecem.
+     */
+    public CompletableFuture<Pagina> listarPaginaAsync(Long terrenoId, int pagina, int porPagina) {
+        return CompletableFuture.supplyAsync(() -> {
+            int total = repository.count(terrenoId);
+            if (total < 0) throw new IllegalStateException("Erro ao contar a auditoria");
+            int totalPaginas = Math.max(1, (total + porPagina - 1) / porPagina);
+            int atual = Math.min(Math.max(1, pagina), totalPaginas);
+            List<Registro> registros = total == 0 ? List.of()
+                    : repository.findPagina(terrenoId, (atual - 1) * porPagina, porPagina);
+            return new Pagina(registros, atual, totalPaginas, total);
+        });
+    }
+
+    /**
+     * Para a thread gravadora depois de gravar o que estiver no anel.
+     */
+    @Override
+    public void close() {
+        if (fechado) return;
+        fechado = true;
+        LockSupport.unpark(gravador);
+        try {
+            gravador.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (descartados.sum() > 0) {
+            logger.warning(descartados.sum() + " registros de auditoria descartados desde o início (fila cheia)");
+        }
+    }
+
+    private void gravarEmLoop() {
+        List<Registro> lote = new ArrayList<>(tamanhoLote);
+        long avisados = 0;
+        while (true) {
+            boolean encerrar = fechado;
+            if (lote.isEmpty()) {
+                anel.drenar(lote, tamanhoLote);
+            }
+            if (!lote.isEmpty()) {
+                if (repository.inserir(lote)) {
+                    gravados.addAndGet(lote.size());
+                    lote.clear();
+                    // Ainda há registros: continua sem esperar
+                    if (anel.tamanho() > 0) continue;
+                } else if (encerrar) {
+                    logger.warning(lote.size() + anel.tamanho() + " registros de auditoria perdidos ao desligar (erro no banco)");
+                    return;
+                }
+                // Em caso de erro o lote fica para a próxima volta; enquanto isso o anel enche e passa a descartar
+            }
+            long perdidos = descartados.sum();
+            if (perdidos > avisados) {
+                logger.warning((perdidos - avisados) + " registros de auditoria descartados (fila cheia)");
+                avisados = perdidos;
+            }
+            if (encerrar && lote.isEmpty() && anel.tamanho() == 0) return;
+            LockSupport.parkNanos(this, intervaloNanos);
+        }
+    }
+
+    /**
+     * Fila circular limitada com vários produtores e um consumidor, sem locks (algoritmo de Vyukov): cada posição
+     * tem uma sequência que diz se ela está livre para a volta atual do produtor ou pronta para o consumidor.
+     * Os campos ficam em arrays paralelos, então enfileirar não cria objetos.
+     */
+    private static final class Anel {
+        private final int mascara;
+        private final AtomicLongArray sequencias;
+        private final long[] momentos;
+        private final long[] terrenos;
+        private final AcaoAuditoria[] acoes;
+        private final String[] atores;
+        private final String[] alvos;
+        private final String[] detalhes;
+        private final long[] valores;
+        private final AtomicLong cauda = new AtomicLong();
+        /**
+         * Só a thread gravadora altera; volatile para {@link #tamanho()} nas outras threads
+         */
+        private volatile long cabeca;
+
+        Anel(int capacidade) {
+            int tamanho = Integer.highestOneBit(Math.max(2, Math.min(capacidade, 1 << 20)) - 1) << 1;
+            mascara = tamanho - 1;
+            sequencias = new AtomicLongArray(tamanho);
+            for (int i = 0; i < tamanho; i++) sequencias.set(i, i);
+            momentos = new long[tamanho];
+            terrenos = new long[tamanho];
+            acoes = new AcaoAuditoria[tamanho];
+            atores = new String[tamanho];
+            alvos = new String[tamanho];
+            detalhes = new String[tamanho];
+            valores = new long[tamanho];
+        }
+
+        boolean oferecer(long momento, long terrenoId, AcaoAuditoria acao, String ator, String alvo, String detalhe, long valor) {
+            long pos = cauda.get();
+            while (true) {
+                int i = (int) (pos & mascara);
+                long diferenca = sequencias.get(i) - pos;
+                if (diferenca == 0) {
+                    if (cauda.compareAndSet(pos, pos + 1)) {
+                        momentos[i] = momento;
+                        terrenos[i] = terrenoId;
+                        acoes[i] = acao;
+                        atores[i] = ator;
+                        alvos[i] = alvo;
+                        detalhes[i] = detalhe;
+                        valores[i] = valor;
+                        // Publica a posição para o consumidor (escrita volatile depois dos campos)
+                        sequencias.set(i, pos + 1);
+                        return true;
+                    }
+                    pos = cauda.get();
+                } else if (diferenca < 0) {
+                    // A posição ainda não foi consumida desde a volta anterior: anel cheio
+                    return false;
+                } else {
+                    pos = cauda.get();
+                }
+            }
+        }
+
+        /**
+         * Move até {@code maximo} registros prontos para {@code destino}. Só a thread gravadora chama.
+         */
+        void drenar(List<Registro> destino, int maximo) {
+            long pos = cabeca;
+            int n = 0;
+            while (n < maximo) {
+                int i = (int) (pos & mascara);
+                if (sequencias.get(i) != pos + 1) break;
+                destino.add(new Registro(0, momentos[i], terrenos[i], acoes[i], atores[i], alvos[i], detalhes[i], valores[i]));
+                acoes[i] = null;
+                atores[i] = null;
+                alvos[i] = null;
+                detalhes[i] = null;
+                // Libera a posição para a próxima volta dos produtores
+                sequencias.set(i, pos + mascara + 1);
+                pos++;
+                n++;
+            }
+            cabeca = pos;
+        }
+
+        /**
+         * Registros reservados e ainda não consumidos (aproximado enquanto há produtores escrevendo)
+         */
+        int tamanho() {
+            return (int) Math.max(0, cauda.get() - cabeca);
+        }
+    }
+}
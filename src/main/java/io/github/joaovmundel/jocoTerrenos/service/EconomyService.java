@@ -0,0 +1,161 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.JocoTerrenos;
+import io.github.joaovmundel.jocoTerrenos.infrastructure.JocoLogging;
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Executa as chamadas ao Vault fora do tick quando o provider é thread-safe
+ * (config {@code economy.thread-safe}); caso contrário, agenda na main thread.
+ * As chamadas são serializadas num único worker para não sobrecarregar o provider.
+ */
+public class EconomyService {
+
+    private static final JocoLogging logger = new JocoLogging(EconomyService.class.getName());
+
+    private final JocoTerrenos plugin;
+    private final boolean threadSafe;
+    private final ExecutorService worker;
+
+    public EconomyService(JocoTerrenos plugin) {
+        this.plugin = plugin;
+        this.threadSafe = plugin.getConfig().getBoolean("economy.thread-safe", false);
+        this.worker = threadSafe ? Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "JocoTerrenos-Economy");
+            t.setDaemon(true);
+            return t;
+        }) : null;
+    }
+
+    /**
+     * Verifica o saldo e debita o valor. Completa com a reserva se o débito foi feito,
+     * ou vazio se não houver economia, saldo ou se o provider recusar a transação.
+     */
+    public CompletableFuture<Optional<Reserva>> reservar(OfflinePlayer player, double valor) {
+        return executar(() -> {
+            Economy economy = plugin.getEconomy();
+            if (economy == null) {
+                return Optional.empty();
+            }
+            if (!economy.has(player, valor)) {
+                return Optional.empty();
+            }
+            if (!economy.withdrawPlayer(player, valor).transactionSuccess()) {
+                return Optional.empty();
+            }
+            return Optional.of(new Reserva(player, valor));
+        });
+    }
+
+    /**
+     * Deposita um valor (ex.: reembolso de diferença de preço).
+     */
+    public CompletableFuture<Boolean> depositar(OfflinePlayer player, double valor) {
+        return executar(() -> {
+            Economy economy = plugin.getEconomy();
+            return economy != null && economy.depositPlayer(player, valor).transactionSuccess();
+        });
+    }
+
+    /**
+     * Debita vários jogadores numa única tarefa (no worker, ou numa só execução na main thread).
+     * Quem chama controla o tamanho do lote para não pesar num tick. Os jogadores são resolvidos na mesma thread
+     * que faz as chamadas ao provider.
+     *
+     * @return para cada posição, se o débito foi feito
+     */
+    public CompletableFuture<boolean[]> debitarLote(List<UUID> players, double[] valores) {
+        return executar(() -> {
+            boolean[] pagos = new boolean[players.size()];
+            Economy economy = plugin.getEconomy();
+            if (economy == null) {
+                return pagos;
+            }
+            for (int i = 0; i < pagos.length; i++) {
+                OfflinePlayer player = Bukkit.getOfflinePlayer(players.get(i));
+                pagos[i] = economy.has(player, valores[i]) && economy.withdrawPlayer(player, valores[i]).transactionSuccess();
+            }
+            return pagos;
+        });
+    }
+
+    public boolean isThreadSafe() {
+        return threadSafe;
+    }
+
+    private <T> CompletableFuture<T> executar(Supplier<T> operacao) {
+        if (threadSafe) {
+            return CompletableFuture.supplyAsync(operacao, worker);
+        }
+        if (Bukkit.isPrimaryThread()) {
+            try {
+                return CompletableFuture.completedFuture(operacao.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            try {
+                future.complete(operacao.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    public void shutdown() {
+        if (worker == null) return;
+        worker.shutdown();
+        try {
+            if (!worker.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warning("Operações de economia pendentes não terminaram a tempo.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Valor já debitado do jogador. O estorno é idempotente: só deposita na primeira chamada.
+     */
+    public final class Reserva {
+        private final OfflinePlayer player;
+        private final double valor;
+        private final AtomicBoolean estornada = new AtomicBoolean(false);
+
+        private Reserva(OfflinePlayer player, double valor) {
+            this.player = player;
+            this.valor = valor;
+        }
+
+        public double getValor() {
+            return valor;
+        }
+
+        public CompletableFuture<Boolean> estornar() {
+            if (!estornada.compareAndSet(false, true)) {
+                return CompletableFuture.completedFuture(false);
+            }
+            return depositar(player, valor).whenComplete((ok, ex) -> {
+                if (ex != null || !Boolean.TRUE.equals(ok)) {
+                    logger.warning("Falha ao estornar " + valor + " para " + player.getUniqueId()
+                            + (ex != null ? ": " + ex.getMessage() : ""));
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.infrastructure.JocoLogging;
+import io.github.joaovmundel.jocoTerrenos.models.Terreno;
+import io.github.joaovmundel.jocoTerrenos.repositories.FenceLedgerRepository;
+import io.github.joaovmundel.jocoTerrenos.repositories.FenceLedgerRepository.FenceLedger;
+import io.github.joaovmundel.jocoTerrenos.utils.FenceUtils;
+import io.github.joaovmundel.jocoTerrenos.utils.LocationUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Registro das posições exatas das cercas de cada terreno. Remoção e redimensionamento mexem só nesses
+ * blocos (e só se ainda forem cerca), em vez de varrer colunas inteiras. Terrenos antigos, sem registro,
+ * continuam usando a varredura por coluna.
+ */
+public class FenceLedgerService {
+
+    private static final JocoLogging logger = new JocoLogging(FenceLedgerService.class.getName());
+
+    private final Plugin plugin;
+    private final FenceLedgerRepository repository;
+
+    /**
+     * Resultado de uma checagem/reparo: cercas registradas, faltando antes do reparo e recolocadas.
+     */
+    public record Reparo(int registradas, int faltando, int reparadas) {
+    }
+
+    public FenceLedgerService(Plugin plugin, FenceLedgerRepository repository) {
+        this.plugin = plugin;
+        this.repository = repository;
+    }
+
+    public CompletableFuture<Optional<FenceLedger>> carregarAsync(long terrenoId) {
+        return CompletableFuture.supplyAsync(() -> repository.find(terrenoId));
+    }
+
+    public CompletableFuture<Boolean> registrarAsync(long terrenoId, String world, Material material, long[] posicoes) {
+        FenceLedger ledger = new FenceLedger(terrenoId, world, material.name(), posicoes);
+        return CompletableFuture.supplyAsync(() -> repository.save(ledger)).whenComplete((ok, ex) -> {
+            if (ex != null || !Boolean.TRUE.equals(ok)) {
+                logger.warning("Não foi possível registrar as cercas do terreno " + terrenoId);
+            }
+        });
+    }
+
+    /**
+     * Coloca as cercas de um terreno recém-criado e registra as posições. Chamar na main thread.
+     */
+    public void colocarCercas(Terreno terreno) {
+        Location centro = LocationUtils.converterLocalizacao(terreno.getLocation());
+        if (centro == null || centro.getWorld() == null) return;
+        Material material = FenceUtils.getConfiguredFenceMaterial();
+        long[] posicoes = FenceUtils.colocarCercasRegistradas(centro, terreno.getSize(), material);
+        registrarAsync(terreno.getId(), centro.getWorld().getName(), material, posicoes);
+    }
+
+    /**
+     * Remove as cercas de um terreno apagado: pelas posições registradas quando existirem, senão pela
+     * varredura das colunas do perímetro. O registro só é apagado se as cercas registradas saíram; se o mundo
+     * ou o material do registro não existirem mais, ele é mantido para uma nova tentativa. Chamar na main thread.
+     */
+    public void removerCercas(Terreno terreno) {
+        long id = terreno.getId();
+        carregarAsync(id).whenComplete((ledger, ex) -> Bukkit.getScheduler().runTask(plugin, () -> {
+            if (ex != null) {
+                logger.warning("Erro ao carregar o registro de cercas do terreno " + id + "; usando a varredura das colunas: " + ex.getMessage());
+                removerPorColunas(terreno);
+                return;
+            }
+            if (ledger.isEmpty()) {
+                removerPorColunas(terreno);
+                return;
+            }
+            World world = Bukkit.getWorld(ledger.get().world());
+            Material material = Material.matchMaterial(ledger.get().material());
+            if (world == null || material == null) {
+                logger.warning("Cercas registradas do terreno " + id + " não removidas (mundo " + ledger.get().world()
+                        + ", material " + ledger.get().material() + " indisponível); registro mantido");
+                return;
+            }
+            FenceUtils.removerCercasRegistradas(world, ledger.get().posicoes(), material);
+            esquecerAsync(id);
+        }));
+    }
+
+    private static void removerPorColunas(Terreno terreno) {
+        Location loc = LocationUtils.converterLocalizacao(terreno.getLocation());
+        if (loc != null) {
+            FenceUtils.removerCercas(loc, terreno.getSize());
+        }
+    }
+
+    /**
+     * Apaga o registro de cercas do terreno (as cercas já foram removidas).
+     */
+    public CompletableFuture<Boolean> esquecerAsync(long terrenoId) {
+        return CompletableFuture.supplyAsync(() -> repository.delete(terrenoId));
+    }
+
+    /**
+     * Confere as cercas registradas do terreno e recoloca as que sumiram onde o lugar estiver livre.
+     * Vazio se o terreno não tiver registro.
+     */
+    public CompletableFuture<Optional<Reparo>> repararAsync(long terrenoId) {
+        CompletableFuture<Optional<Reparo>> resultado = new CompletableFuture<>();
+        carregarAsync(terrenoId).whenComplete((ledger, ex) -> Bukkit.getScheduler().runTask(plugin, () -> {
+            if (ex != null) {
+                resultado.completeExceptionally(ex);
+                return;
+            }
+            if (ledger.isEmpty()) {
+                resultado.complete(Optional.empty());
+                return;
+            }
+            World world = Bukkit.getWorld(ledger.get().world());
+            Material material = Material.matchMaterial(ledger.get().material());
+            if (world == null || material == null) {
+                resultado.complete(Optional.empty());
+                return;
+            }
+            long[] posicoes = ledger.get().posicoes();
+            int faltando = FenceUtils.contarCercasFaltando(world, posicoes, material);
+            int reparadas = faltando > 0 ? FenceUtils.repararCercasRegistradas(world, posicoes, material) : 0;
+            resultado.complete(Optional.of(new Reparo(posicoes.length, faltando, reparadas)));
+        }));
+        return resultado;
+    }
+}
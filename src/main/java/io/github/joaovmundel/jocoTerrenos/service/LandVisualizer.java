@@ -0,0 +1,210 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.infrastructure.Settings;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex.Area;
+import io.github.joaovmundel.jocoTerrenos.utils.FenceUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Mostra as bordas dos terrenos próximos com blocos falsos, enviados só para o cliente ({@code /terreno ver}).
+ * As colunas da borda vêm do {@link TerrenoIndex} e ficam em cache por terreno; o envio é refeito quando
+ * o jogador muda de chunk ou um terreno muda, no máximo uma vez por intervalo, e só nos chunks carregados.
+ * Uso apenas na main thread (exceto {@link #aoAlterar}).
+ */
+public class LandVisualizer implements TerrenoIndex.Observador {
+
+    private static final long[] VAZIO = new long[0];
+
+    private final TerrenoIndex index;
+    private final Supplier<Settings> settings;
+    private final MessageService messageService;
+    private final Map<Long, long[]> bordas = new ConcurrentHashMap<>();
+    private final Map<UUID, Sessao> sessoes = new HashMap<>();
+    private final AtomicLong versao = new AtomicLong();
+
+    /**
+     * Estado de um jogador com a visualização ativa; {@code enviados} são posições empacotadas e ordenadas.
+     */
+    private static final class Sessao {
+        private final long expiraEm;
+        private String world;
+        private long chunk;
+        private long versao = -1;
+        private long ultimoEnvio;
+        private long[] enviados = VAZIO;
+
+        private Sessao(long expiraEm) {
+            this.expiraEm = expiraEm;
+        }
+    }
+
+    public LandVisualizer(TerrenoIndex index, Supplier<Settings> settings, MessageService messageService) {
+        this.index = index;
+        this.settings = settings;
+        this.messageService = messageService;
+    }
+
+    public int getDuracaoSegundos() {
+        return settings.get().visualizacao().duracaoSegundos();
+    }
+
+    /**
+     * Liga ou desliga a visualização do jogador.
+     *
+     * @return true se foi ligada
+     */
+    public boolean alternar(Player player) {
+        Sessao atual = sessoes.remove(player.getUniqueId());
+        if (atual != null) {
+            restaurar(player, atual);
+            return false;
+        }
+        Sessao sessao = new Sessao(System.currentTimeMillis() + getDuracaoSegundos() * 1000L);
+        sessoes.put(player.getUniqueId(), sessao);
+        enviar(player, sessao);
+        return true;
+    }
+
+    /**
+     * Atualiza as sessões ativas; agendado na main thread.
+     */
+    public void tick() {
+        if (sessoes.isEmpty()) return;
+        long agora = System.currentTimeMillis();
+        long intervalo = settings.get().visualizacao().intervaloMinimoMs();
+        Iterator<Map.Entry<UUID, Sessao>> it = sessoes.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<UUID, Sessao> e = it.next();
+            Player player = Bukkit.getPlayer(e.getKey());
+            Sessao sessao = e.getValue();
+            if (player == null) {
+                it.remove();
+                continue;
+            }
+            if (agora >= sessao.expiraEm) {
+                it.remove();
+                restaurar(player, sessao);
+                messageService.send(player, "terreno.ver.expirou");
+                continue;
+            }
+            if (agora - sessao.ultimoEnvio < intervalo) continue;
+            Location loc = player.getLocation();
+            if (loc.getWorld() == null) continue;
+            if (sessao.versao == versao.get() && loc.getWorld().getName().equals(sessao.world)
+                    && sessao.chunk == FenceUtils.coluna(loc.getBlockX() >> 4, loc.getBlockZ() >> 4)) {
+                continue;
+            }
+            enviar(player, sessao);
+        }
+    }
+
+    /**
+     * Descarta a sessão sem restaurar os blocos (o cliente já saiu ou trocou de mundo).
+     */
+    public void remover(UUID player) {
+        sessoes.remove(player);
+    }
+
+    @Override
+    public void aoAlterar(Area anterior, Area nova) {
+        if (anterior != null) bordas.remove(anterior.id());
+        if (nova != null) bordas.remove(nova.id());
+        versao.incrementAndGet();
+    }
+
+    private void enviar(Player player, Sessao sessao) {
+        Location loc = player.getLocation();
+        World world = loc.getWorld();
+        if (world == null) return;
+        if (!world.getName().equals(sessao.world)) {
+            // Em outro mundo os blocos falsos anteriores já não existem no cliente
+            sessao.enviados = VAZIO;
+            sessao.world = world.getName();
+        }
+        sessao.chunk = FenceUtils.coluna(loc.getBlockX() >> 4, loc.getBlockZ() >> 4);
+        sessao.versao = versao.get();
+        sessao.ultimoEnvio = System.currentTimeMillis();
+
+        Settings.Visualizacao cfg = settings.get().visualizacao();
+        int raio = cfg.raio();
+        int max = cfg.maxBlocos();
+        int px = loc.getBlockX();
+        int pz = loc.getBlockZ();
+
+        long[] novos = new long[64];
+        int n = 0;
+        externo:
+        for (Area area : index.buscarNaRegiao(world.getName(), px - raio, px + raio, pz - raio, pz + raio)) {
+            for (long coluna : borda(area)) {
+                int x = FenceUtils.colunaX(coluna);
+                int z = FenceUtils.colunaZ(coluna);
+                if (Math.abs(x - px) > raio || Math.abs(z - pz) > raio) continue;
+                if (!world.isChunkLoaded(x >> 4, z >> 4)) continue;
+                if (n == novos.length) novos = Arrays.copyOf(novos, n * 2);
+                novos[n++] = FenceUtils.posicao(x, world.getHighestBlockYAt(x, z), z);
+                if (n >= max) break externo;
+            }
+        }
+        novos = Arrays.copyOf(novos, n);
+        Arrays.sort(novos);
+
+        for (long p : diferenca(sessao.enviados, novos)) {
+            Location l = new Location(world, FenceUtils.posicaoX(p), FenceUtils.posicaoY(p), FenceUtils.posicaoZ(p));
+            player.sendBlockChange(l, world.getBlockAt(l).getBlockData());
+        }
+        BlockData falso = cfg.material().createBlockData();
+        for (long p : diferenca(novos, sessao.enviados)) {
+            player.sendBlockChange(new Location(world, FenceUtils.posicaoX(p), FenceUtils.posicaoY(p), FenceUtils.posicaoZ(p)), falso);
+        }
+        sessao.enviados = novos;
+    }
+
+    private void restaurar(Player player, Sessao sessao) {
+        World world = player.getWorld();
+        if (world == null || !world.getName().equals(sessao.world)) return;
+        for (long p : sessao.enviados) {
+            Location l = new Location(world, FenceUtils.posicaoX(p), FenceUtils.posicaoY(p), FenceUtils.posicaoZ(p));
+            player.sendBlockChange(l, world.getBlockAt(l).getBlockData());
+        }
+        sessao.enviados = VAZIO;
+    }
+
+    /**
+     * Colunas da borda do terreno, calculadas uma vez por terreno. Reservas de compra (id negativo) não entram no cache.
+     */
+    private long[] borda(Area area) {
+        if (area.id() <= 0) return colunas(area);
+        return bordas.computeIfAbsent(area.id(), id -> colunas(area));
+    }
+
+    private static long[] colunas(Area area) {
+        return FenceUtils.colunasPerimetro((int) Math.floor(area.centerX()), (int) Math.floor(area.centerZ()), area.size());
+    }
+
+    /**
+     * Elementos de {@code a} que não estão em {@code b}; ambos ordenados.
+     */
+    private static long[] diferenca(long[] a, long[] b) {
+        long[] out = new long[a.length];
+        int n = 0;
+        int j = 0;
+        for (long v : a) {
+            while (j < b.length && b[j] < v) j++;
+            if (j >= b.length || b[j] != v) out[n++] = v;
+        }
+        return Arrays.copyOf(out, n);
+    }
+}
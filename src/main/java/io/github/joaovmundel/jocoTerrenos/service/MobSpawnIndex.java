@@ -0,0 +1,120 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoFlag;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex.Area;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mapa por chunk dos terrenos com mobs desativados, mantido a partir das alterações do {@link TerrenoIndex}.
+ * Um chunk ausente está fora de qualquer terreno sem mobs; um chunk coberto por inteiro é decidido
+ * com uma única consulta ao mapa; só os chunks da borda precisam da checagem por coordenada.
+ */
+public class MobSpawnIndex implements TerrenoIndex.Observador {
+
+    private static final long[] VAZIO = new long[0];
+
+    private final Map<String, Map<Long, Chunk>> chunksPorMundo = new ConcurrentHashMap<>();
+    private final Map<Long, Area> areas = new ConcurrentHashMap<>();
+
+    /**
+     * Estado de um chunk: terrenos sem mobs que o cobrem por inteiro e os que o cobrem em parte.
+     */
+    private record Chunk(long[] cheios, long[] parciais) {
+        boolean vazio() {
+            return cheios.length == 0 && parciais.length == 0;
+        }
+    }
+
+    /**
+     * Indica se um mob pode nascer na coordenada (mundo, x, z).
+     */
+    public boolean podeNascer(String world, double x, double z) {
+        Map<Long, Chunk> chunks = chunksPorMundo.get(world);
+        if (chunks == null) return true;
+        Chunk chunk = chunks.get(chave((int) Math.floor(x) >> 4, (int) Math.floor(z) >> 4));
+        if (chunk == null) return true;
+        if (chunk.cheios().length > 0) return false;
+        for (long id : chunk.parciais()) {
+            Area area = areas.get(id);
+            if (area != null && area.contem(x, z)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void aoAlterar(Area anterior, Area nova) {
+        String world = nova != null ? nova.world() : anterior.world();
+        synchronized (mundo(world)) {
+            if (anterior != null && !anterior.temFlag(TerrenoFlag.MOBS)) {
+                areas.remove(anterior.id());
+                desmarcar(anterior);
+            }
+            if (nova != null && !nova.temFlag(TerrenoFlag.MOBS)) {
+                areas.put(nova.id(), nova);
+                marcar(nova);
+            }
+        }
+    }
+
+    private Map<Long, Chunk> mundo(String world) {
+        return chunksPorMundo.computeIfAbsent(world, w -> new ConcurrentHashMap<>());
+    }
+
+    private void marcar(Area area) {
+        Map<Long, Chunk> chunks = mundo(area.world());
+        int minCX = (int) Math.floor(area.minX()) >> 4;
+        int maxCX = (int) Math.floor(area.maxX()) >> 4;
+        int minCZ = (int) Math.floor(area.minZ()) >> 4;
+        int maxCZ = (int) Math.floor(area.maxZ()) >> 4;
+        for (int cx = minCX; cx <= maxCX; cx++) {
+            for (int cz = minCZ; cz <= maxCZ; cz++) {
+                // Cheio quando todo o intervalo [16*c, 16*c + 16) cabe dentro da área
+                boolean cheio = area.minX() <= (cx << 4) && (cx << 4) + 16 <= area.maxX()
+                        && area.minZ() <= (cz << 4) && (cz << 4) + 16 <= area.maxZ();
+                long key = chave(cx, cz);
+                Chunk atual = chunks.getOrDefault(key, new Chunk(VAZIO, VAZIO));
+                chunks.put(key, cheio
+                        ? new Chunk(adicionar(atual.cheios(), area.id()), atual.parciais())
+                        : new Chunk(atual.cheios(), adicionar(atual.parciais(), area.id())));
+            }
+        }
+    }
+
+    private void desmarcar(Area area) {
+        Map<Long, Chunk> chunks = mundo(area.world());
+        int minCX = (int) Math.floor(area.minX()) >> 4;
+        int maxCX = (int) Math.floor(area.maxX()) >> 4;
+        int minCZ = (int) Math.floor(area.minZ()) >> 4;
+        int maxCZ = (int) Math.floor(area.maxZ()) >> 4;
+        for (int cx = minCX; cx <= maxCX; cx++) {
+            for (int cz = minCZ; cz <= maxCZ; cz++) {
+                long key = chave(cx, cz);
+                Chunk atual = chunks.get(key);
+                if (atual == null) continue;
+                Chunk novo = new Chunk(remover(atual.cheios(), area.id()), remover(atual.parciais(), area.id()));
+                if (novo.vazio()) {
+                    chunks.remove(key);
+                } else {
+                    chunks.put(key, novo);
+                }
+            }
+        }
+    }
+
+    private static long[] adicionar(long[] ids, long id) {
+        long[] novo = Arrays.copyOf(ids, ids.length + 1);
+        novo[ids.length] = id;
+        return novo;
+    }
+
+    private static long[] remover(long[] ids, long id) {
+        return Arrays.stream(ids).filter(v -> v != id).toArray();
+    }
+
+    private static long chave(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+}
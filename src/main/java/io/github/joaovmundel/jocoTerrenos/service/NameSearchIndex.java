@@ -0,0 +1,220 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex.Area;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de trigramas dos nomes de todos os terrenos ({@code /terreno admin buscar}), mantido a partir das
+ * alterações do {@link TerrenoIndex}. Cada trigrama do nome normalizado (minúsculas, sem acentos) aponta para a
+ * lista ordenada dos IDs que o contêm; uma busca intersecta as listas dos trigramas do texto e confere o nome só
+ * dos candidatos. Textos com menos de 3 caracteres não têm trigramas: usam a vista dos nomes em ordem alfabética e
+ * encontram só os nomes que começam com eles, sem percorrer os outros.
+ */
+public class NameSearchIndex implements TerrenoIndex.Observador {
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final long[] VAZIO = new long[0];
+
+    private final Map<Long, Area> areas = new HashMap<>();
+    private final Map<Long, String> nomes = new HashMap<>();
+    private final Map<Long, Lista> trigramas = new HashMap<>();
+    private final TreeMap<String, Lista> porNome = new TreeMap<>();
+
+    /**
+     * Terreno encontrado. {@code relevancia}: 0 nome igual, 1 começa com o texto, 2 uma palavra começa com o
+     * texto, 3 contém o texto.
+     */
+    public record Resultado(Area area, int relevancia) {
+    }
+
+    /**
+     * IDs ordenados de um trigrama, com espaço sobrando para inserções.
+     */
+    private static final class Lista {
+        long[] ids = new long[4];
+        int tamanho;
+
+        void adicionar(long id) {
+            // Na carga os IDs chegam em ordem: o caso comum é acrescentar no fim
+            int pos = tamanho == 0 || ids[tamanho - 1] < id ? tamanho : Arrays.binarySearch(ids, 0, tamanho, id);
+            if (pos >= 0 && pos < tamanho) return;
+            if (pos < 0) pos = -pos - 1;
+            if (tamanho == ids.length) ids = Arrays.copyOf(ids, tamanho * 2);
+            System.arraycopy(ids, pos, ids, pos + 1, tamanho - pos);
+            ids[pos] = id;
+            tamanho++;
+        }
+
+        void remover(long id) {
+            int pos = Arrays.binarySearch(ids, 0, tamanho, id);
+            if (pos < 0) return;
+            System.arraycopy(ids, pos + 1, ids, pos, tamanho - pos - 1);
+            tamanho--;
+        }
+
+        boolean contem(long id) {
+            return Arrays.binarySearch(ids, 0, tamanho, id) >= 0;
+        }
+    }
+
+    @Override
+    public synchronized void aoAlterar(Area anterior, Area nova) {
+        if (anterior != null && (nova == null || !anterior.name().equals(nova.name()))) {
+            String nome = nomes.remove(anterior.id());
+            if (nome != null) {
+                Lista mesmoNome = porNome.get(nome);
+                if (mesmoNome != null) {
+                    mesmoNome.remover(anterior.id());
+                    if (mesmoNome.tamanho == 0) porNome.remove(nome);
+                }
+                for (long t : trigramasDe(nome)) {
+                    Lista lista = trigramas.get(t);
+                    if (lista == null) continue;
+                    lista.remover(anterior.id());
+                    if (lista.tamanho == 0) trigramas.remove(t);
+                }
+            }
+        }
+        if (nova == null) {
+            areas.remove(anterior.id());
+            return;
+        }
+        // Área sempre atualizada (dono, tamanho e flags mudam sem trocar o nome)
+        areas.put(nova.id(), nova);
+        if (nomes.containsKey(nova.id())) return;
+        String nome = normalizar(nova.name());
+        nomes.put(nova.id(), nome);
+        porNome.computeIfAbsent(nome, k -> new Lista()).adicionar(nova.id());
+        for (long t : trigramasDe(nome)) {
+            trigramas.computeIfAbsent(t, k -> new Lista()).adicionar(nova.id());
+        }
+    }
+
+    /**
+     * Terrenos cujo nome contém o texto (sem diferenciar maiúsculas e acentos), do mais ao menos relevante;
+     * no mesmo nível, nomes mais curtos e IDs menores primeiro.
+     */
+    public synchronized List<Resultado> buscar(String texto, int limite) {
+        String consulta = normalizar(texto).trim();
+        if (consulta.isEmpty() || limite <= 0) return List.of();
+        if (consulta.length() < 3) return buscarPorPrefixo(consulta, limite);
+
+        Comparator<Resultado> ordem = Comparator.comparingInt(Resultado::relevancia)
+                .thenComparingInt(r -> r.area().name().length())
+                .thenComparingLong(r -> r.area().id());
+        // Heap com os piores no topo, limitado a {@code limite}
+        PriorityQueue<Resultado> melhores = new PriorityQueue<>(ordem.reversed());
+        for (long id : candidatos(consulta)) {
+            int relevancia = relevancia(nomes.get(id), consulta);
+            if (relevancia < 0) continue;
+            Resultado r = new Resultado(areas.get(id), relevancia);
+            if (melhores.size() < limite) {
+                melhores.add(r);
+            } else if (ordem.compare(r, melhores.peek()) < 0) {
+                melhores.poll();
+                melhores.add(r);
+            }
+        }
+
+        List<Resultado> lista = new ArrayList<>(melhores);
+        lista.sort(ordem);
+        return lista;
+    }
+
+    /**
+     * Nomes distintos dos melhores resultados, para o tab-complete.
+     */
+    public List<String> sugerir(String texto, int limite) {
+        Set<String> nomesSugeridos = new LinkedHashSet<>();
+        for (Resultado r : buscar(texto, limite)) {
+            nomesSugeridos.add(r.area().name());
+        }
+        return new ArrayList<>(nomesSugeridos);
+    }
+
+    public synchronized int tamanho() {
+        return nomes.size();
+    }
+
+    /**
+     * Nomes que começam com o texto, em ordem alfabética (o nome igual ao texto, se houver, vem primeiro).
+     * Para no limite, sem olhar o resto dos nomes.
+     */
+    private List<Resultado> buscarPorPrefixo(String consulta, int limite) {
+        List<Resultado> lista = new ArrayList<>();
+        for (Map.Entry<String, Lista> e : porNome.tailMap(consulta, true).entrySet()) {
+            if (!e.getKey().startsWith(consulta) || lista.size() >= limite) break;
+            int relevancia = e.getKey().equals(consulta) ? 0 : 1;
+            Lista ids = e.getValue();
+            for (int i = 0; i < ids.tamanho && lista.size() < limite; i++) {
+                lista.add(new Resultado(areas.get(ids.ids[i]), relevancia));
+            }
+        }
+        return lista;
+    }
+
+    /**
+     * IDs que contêm todos os trigramas da consulta (com pelo menos 3 caracteres).
+     */
+    private long[] candidatos(String consulta) {
+        long[] doTexto = trigramasDe(consulta);
+        Lista[] listas = new Lista[doTexto.length];
+        for (int i = 0; i < doTexto.length; i++) {
+            listas[i] = trigramas.get(doTexto[i]);
+            if (listas[i] == null) return VAZIO;
+        }
+        // Percorre a menor lista e confere as outras por busca binária
+        Arrays.sort(listas, Comparator.comparingInt(l -> l.tamanho));
+        long[] resultado = new long[listas[0].tamanho];
+        int n = 0;
+        proximo:
+        for (int i = 0; i < listas[0].tamanho; i++) {
+            long id = listas[0].ids[i];
+            for (int j = 1; j < listas.length; j++) {
+                if (!listas[j].contem(id)) continue proximo;
+            }
+            resultado[n++] = id;
+        }
+        return Arrays.copyOf(resultado, n);
+    }
+
+    private static int relevancia(String nome, String consulta) {
+        if (nome.equals(consulta)) return 0;
+        if (nome.startsWith(consulta)) return 1;
+        int pos = nome.indexOf(consulta);
+        if (pos < 0) return -1;
+        while (pos >= 0) {
+            if (!Character.isLetterOrDigit(nome.charAt(pos - 1))) return 2;
+            pos = nome.indexOf(consulta, pos + 1);
+        }
+        return 3;
+    }
+
+    /**
+     * Trigramas distintos, com os 3 caracteres empacotados num long (16 bits cada).
+     */
+    private static long[] trigramasDe(String nome) {
+        if (nome.length() < 3) return VAZIO;
+        long[] lista = new long[nome.length() - 2];
+        for (int i = 0; i < lista.length; i++) {
+            lista[i] = ((long) nome.charAt(i) << 32) | ((long) nome.charAt(i + 1) << 16) | nome.charAt(i + 2);
+        }
+        return Arrays.stream(lista).distinct().toArray();
+    }
+
+    static String normalizar(String texto) {
+        return ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("").toLowerCase();
+    }
+}
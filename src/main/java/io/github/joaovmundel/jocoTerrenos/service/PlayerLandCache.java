@@ -0,0 +1,75 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex.Area;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Terreno em que cada jogador online está, atualizado quando ele muda de bloco.
+ * Qualquer alteração no {@link TerrenoIndex} avança uma versão global; entradas de versões antigas
+ * são recalculadas na próxima leitura. Uso apenas na main thread (exceto {@link #aoAlterar}).
+ */
+public class PlayerLandCache implements TerrenoIndex.Observador {
+
+    private final TerrenoIndex index;
+    private final Map<UUID, Entrada> entradas = new HashMap<>();
+    private final AtomicLong versao = new AtomicLong();
+
+    /**
+     * Posição (em blocos) usada no cálculo e o terreno encontrado, ou null fora de terrenos.
+     */
+    private record Entrada(String world, int blockX, int blockZ, Area area, long versao) {
+    }
+
+    public PlayerLandCache(TerrenoIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Terreno atual do jogador, ou null se ele estiver fora de qualquer terreno.
+     */
+    public Area terrenoAtual(Player player) {
+        Entrada entrada = entradas.get(player.getUniqueId());
+        if (entrada != null && entrada.versao() == versao.get()) {
+            return entrada.area();
+        }
+        return atualizar(player, player.getLocation());
+    }
+
+    /**
+     * Recalcula o terreno do jogador se ele mudou de bloco (ou de mundo).
+     */
+    public void aoMover(Player player, Location destino) {
+        if (destino == null || destino.getWorld() == null) return;
+        Entrada entrada = entradas.get(player.getUniqueId());
+        if (entrada != null && entrada.versao() == versao.get()
+                && entrada.blockX() == destino.getBlockX() && entrada.blockZ() == destino.getBlockZ()
+                && entrada.world().equals(destino.getWorld().getName())) {
+            return;
+        }
+        atualizar(player, destino);
+    }
+
+    public void remover(Player player) {
+        entradas.remove(player.getUniqueId());
+    }
+
+    @Override
+    public void aoAlterar(Area anterior, Area nova) {
+        versao.incrementAndGet();
+    }
+
+    private Area atualizar(Player player, Location loc) {
+        if (loc.getWorld() == null) return null;
+        String world = loc.getWorld().getName();
+        long versaoAtual = versao.get();
+        Area area = index.findAt(world, loc.getX(), loc.getZ()).orElse(null);
+        entradas.put(player.getUniqueId(), new Entrada(world, loc.getBlockX(), loc.getBlockZ(), area, versaoAtual));
+        return area;
+    }
+}
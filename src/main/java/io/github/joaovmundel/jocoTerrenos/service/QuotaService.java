@@ -0,0 +1,112 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex.Area;
+import io.github.joaovmundel.jocoTerrenos.infrastructure.Settings;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cotas por dono (quantidade de terrenos e área total), checadas em memória antes de qualquer acesso ao banco.
+ * O uso vem das alterações do {@link TerrenoIndex}; compras em andamento ficam reservadas até terminarem,
+ * para que vários comandos seguidos não passem do limite.
+ */
+public class QuotaService implements TerrenoIndex.Observador {
+
+    public static final String PERMISSION_UNLIMITED = "jocoterrenos.unlimited";
+
+    public enum Resultado {
+        OK, LIMITE_TERRENOS, LIMITE_AREA
+    }
+
+    private final Supplier<Settings> settings;
+    private final Map<String, Map<Long, Area>> terrenos = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> area = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> terrenosPendentes = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> areaPendente = new ConcurrentHashMap<>();
+
+    public QuotaService(Supplier<Settings> settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Máximo de terrenos por dono (0 = sem limite)
+     */
+    public int getMaxTerrenos() {
+        return settings.get().maxTerrenosPorDono();
+    }
+
+    /**
+     * Máximo de área somada (blocos²) por dono (0 = sem limite)
+     */
+    public long getMaxArea() {
+        return settings.get().maxAreaPorDono();
+    }
+
+    /**
+     * Reserva cota para {@code terrenosExtra} terrenos e {@code areaExtra} blocos². Chamar na main thread;
+     * se o resultado for OK, liberar com {@link #liberar} quando a operação terminar (com ou sem sucesso).
+     * Com {@code semLimite} a reserva é sempre feita, mas ainda conta para as próximas checagens.
+     */
+    public Resultado reservar(String donoUUID, int terrenosExtra, long areaExtra, boolean semLimite) {
+        int maxTerrenos = semLimite ? 0 : getMaxTerrenos();
+        if (maxTerrenos > 0 && terrenosExtra > 0
+                && quantidade(donoUUID) + soma(terrenosPendentes, donoUUID) + terrenosExtra > maxTerrenos) {
+            return Resultado.LIMITE_TERRENOS;
+        }
+        long maxArea = semLimite ? 0 : getMaxArea();
+        if (maxArea > 0 && areaExtra > 0
+                && soma(area, donoUUID) + soma(areaPendente, donoUUID) + areaExtra > maxArea) {
+            return Resultado.LIMITE_AREA;
+        }
+        contador(terrenosPendentes, donoUUID).add(terrenosExtra);
+        contador(areaPendente, donoUUID).add(areaExtra);
+        return Resultado.OK;
+    }
+
+    public void liberar(String donoUUID, int terrenosExtra, long areaExtra) {
+        contador(terrenosPendentes, donoUUID).add(-terrenosExtra);
+        contador(areaPendente, donoUUID).add(-areaExtra);
+    }
+
+    public int quantidade(String donoUUID) {
+        Map<Long, Area> doDono = terrenos.get(donoUUID);
+        return doDono != null ? doDono.size() : 0;
+    }
+
+    /**
+     * Área (blocos²) do terreno do dono com esse nome, ou 0 se não estiver no índice.
+     */
+    public long areaDoTerreno(String donoUUID, String nome) {
+        Map<Long, Area> doDono = terrenos.get(donoUUID);
+        if (doDono == null) return 0;
+        for (Area a : doDono.values()) {
+            if (a.name() != null && a.name().equalsIgnoreCase(nome)) return (long) a.size() * a.size();
+        }
+        return 0;
+    }
+
+    @Override
+    public void aoAlterar(Area anterior, Area nova) {
+        if (anterior != null && anterior.donoUUID() != null) {
+            Map<Long, Area> doDono = terrenos.get(anterior.donoUUID());
+            if (doDono != null) doDono.remove(anterior.id());
+            contador(area, anterior.donoUUID()).add(-(long) anterior.size() * anterior.size());
+        }
+        if (nova != null && nova.donoUUID() != null) {
+            terrenos.computeIfAbsent(nova.donoUUID(), k -> new ConcurrentHashMap<>()).put(nova.id(), nova);
+            contador(area, nova.donoUUID()).add((long) nova.size() * nova.size());
+        }
+    }
+
+    private static long soma(Map<String, LongAdder> mapa, String chave) {
+        LongAdder adder = mapa.get(chave);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    private static LongAdder contador(Map<String, LongAdder> mapa, String chave) {
+        return mapa.computeIfAbsent(chave, k -> new LongAdder());
+    }
+}
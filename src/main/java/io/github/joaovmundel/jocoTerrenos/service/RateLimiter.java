@@ -0,0 +1,87 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.infrastructure.Settings;
+import io.github.joaovmundel.jocoTerrenos.infrastructure.Settings.LimiteTaxa;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Limite de frequência por jogador e por subcomando (token bucket), configurado em {@code lands.rate-limit}.
+ * Subcomandos sem entrada própria usam {@code default}. Os baldes continuam valendo depois que o jogador sai
+ * (sair e entrar não recarrega as fichas); {@link #limparOciosos()} descarta só os que já voltaram a ficar cheios.
+ * Uso apenas na main thread.
+ */
+public class RateLimiter {
+
+    private final Supplier<Settings> settings;
+    private final Map<UUID, Map<String, Balde>> baldes = new HashMap<>();
+
+    private static final class Balde {
+        private final LimiteTaxa limite;
+        private final double recargaPorNano;
+        private double fichas;
+        private long ultimaRecarga;
+
+        private Balde(LimiteTaxa limite, long agora) {
+            this.limite = limite;
+            this.recargaPorNano = limite.recargaPorSegundo() / 1_000_000_000d;
+            this.fichas = limite.capacidade();
+            this.ultimaRecarga = agora;
+        }
+
+        private void recarregar(long agora) {
+            fichas = Math.min(limite.capacidade(), fichas + (agora - ultimaRecarga) * recargaPorNano);
+            ultimaRecarga = agora;
+        }
+
+        private boolean cheio(long agora) {
+            return fichas + (agora - ultimaRecarga) * recargaPorNano >= limite.capacidade();
+        }
+    }
+
+    public RateLimiter(Supplier<Settings> settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Consome uma ficha do balde do subcomando.
+     *
+     * @return 0 se liberado; senão, os segundos (arredondados para cima) até a próxima ficha
+     */
+    public long consumir(UUID player, String subComando) {
+        Settings s = settings.get();
+        String chave = s.limitesTaxa().containsKey(subComando) ? subComando : "default";
+        LimiteTaxa limite = s.limiteTaxa(subComando);
+        if (limite == null || !limite.ativo()) return 0;
+
+        long agora = System.nanoTime();
+        Map<String, Balde> doJogador = baldes.computeIfAbsent(player, k -> new HashMap<>());
+        Balde balde = doJogador.get(chave);
+        if (balde == null || !balde.limite.equals(limite)) {
+            // Primeiro uso ou limite alterado por reload: começa com o balde cheio
+            balde = new Balde(limite, agora);
+            doJogador.put(chave, balde);
+        }
+        balde.recarregar(agora);
+        if (balde.fichas >= 1) {
+            balde.fichas -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - balde.fichas) / limite.recargaPorSegundo());
+    }
+
+    /**
+     * Descarta os baldes que já recarregaram por completo: recriá-los cheios no próximo uso dá o mesmo resultado.
+     * Chamado periodicamente para a memória não crescer com jogadores que não voltam.
+     */
+    public void limparOciosos() {
+        long agora = System.nanoTime();
+        baldes.values().removeIf(doJogador -> {
+            doJogador.values().removeIf(balde -> balde.cheio(agora));
+            return doJogador.isEmpty();
+        });
+    }
+}
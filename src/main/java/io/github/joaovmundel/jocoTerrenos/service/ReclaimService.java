@@ -0,0 +1,259 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.JocoTerrenos;
+import io.github.joaovmundel.jocoTerrenos.infrastructure.JocoLogging;
+import io.github.joaovmundel.jocoTerrenos.infrastructure.Settings;
+import io.github.joaovmundel.jocoTerrenos.models.AcaoAuditoria;
+import io.github.joaovmundel.jocoTerrenos.models.Terreno;
+import io.github.joaovmundel.jocoTerrenos.repositories.FenceLedgerRepository;
+import io.github.joaovmundel.jocoTerrenos.repositories.PlayerSeenRepository;
+import io.github.joaovmundel.jocoTerrenos.repositories.TerrenoRepository;
+import io.github.joaovmundel.jocoTerrenos.repositories.TerrenoRepository.TerrenoExpirado;
+import io.github.joaovmundel.jocoTerrenos.tasks.FenceRemovalJob;
+import io.github.joaovmundel.jocoTerrenos.utils.LocationUtils;
+import io.github.joaovmundel.jocoTerrenos.utils.LocationUtils.LocationRaw;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Expiração de terrenos cujo dono não entra há {@code lands.reclaim.inactive-days} dias.
+ * O último acesso é gravado no join/quit. A varredura roda fora da main thread, em páginas por chave
+ * de {@code batch-size} terrenos (nunca a tabela inteira em memória); cada página vira uma transação
+ * de exclusão e as cercas entram num {@link FenceRemovalJob}. Na simulação só o relatório CSV é gerado.
+ */
+public class ReclaimService {
+
+    private static final JocoLogging logger = new JocoLogging(ReclaimService.class.getName());
+    private static final DateTimeFormatter FORMATO_ARQUIVO = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final long MS_POR_DIA = 86_400_000L;
+
+    private final JocoTerrenos plugin;
+    private final TerrenoRepository terrenoRepository;
+    private final PlayerSeenRepository playerSeenRepository;
+    private final FenceLedgerRepository fenceLedgerRepository;
+    private final Supplier<Settings> settings;
+    private final AtomicBoolean emAndamento = new AtomicBoolean();
+    private FenceRemovalJob remocao;
+
+    /**
+     * Resumo de uma execução: terrenos encontrados, donos distintos, área somada e quantos foram apagados.
+     */
+    public record Relatorio(boolean simulacao, int terrenos, int donos, long area, int removidos, File arquivo, long duracaoMs) {
+    }
+
+    public ReclaimService(JocoTerrenos plugin, TerrenoRepository terrenoRepository, PlayerSeenRepository playerSeenRepository,
+                          FenceLedgerRepository fenceLedgerRepository, Supplier<Settings> settings) {
+        this.plugin = plugin;
+        this.terrenoRepository = terrenoRepository;
+        this.playerSeenRepository = playerSeenRepository;
+        this.fenceLedgerRepository = fenceLedgerRepository;
+        this.settings = settings;
+    }
+
+    public CompletableFuture<Boolean> registrarAcessoAsync(UUID player) {
+        long agora = System.currentTimeMillis();
+        return CompletableFuture.supplyAsync(() -> playerSeenRepository.touch(List.of(player.toString()), agora));
+    }
+
+    /**
+     * Dá aos donos sem registro de acesso (terrenos anteriores à expiração, ou transferidos para quem nunca
+     * entrou) um acesso agora, para que passem a contar {@code inactive-days} a partir daqui em vez de nunca expirar.
+     */
+    public CompletableFuture<Boolean> registrarDonosSemAcessoAsync(Collection<String> donos) {
+        long agora = System.currentTimeMillis();
+        return CompletableFuture.supplyAsync(() -> donos.isEmpty() || playerSeenRepository.registrarAusentes(donos, agora));
+    }
+
+    /**
+     * Grava o acesso de todos os jogadores online de uma vez, de forma síncrona (desligamento do servidor).
+     */
+    public void registrarOnline() {
+        List<String> online = new ArrayList<>();
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            online.add(p.getUniqueId().toString());
+        }
+        if (!online.isEmpty()) {
+            playerSeenRepository.touch(online, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Execução periódica; não faz nada se {@code lands.reclaim.enabled} estiver desligado.
+     */
+    public void executarAgendado() {
+        Settings.Expiracao cfg = settings.get().expiracao();
+        if (!cfg.ativo()) return;
+        executarAsync(cfg.simulacao()).whenComplete((relatorio, ex) -> {
+            if (ex != null) {
+                logger.warning("Erro na expiração de terrenos: " + ex.getMessage());
+            } else if (relatorio.isEmpty()) {
+                logger.warning("Expiração de terrenos já em andamento; execução agendada ignorada.");
+            }
+        });
+    }
+
+    /**
+     * Procura (e, fora da simulação, apaga) os terrenos de donos inativos.
+     *
+     * @return vazio se outra execução já estiver em andamento
+     */
+    public CompletableFuture<Optional<Relatorio>> executarAsync(boolean simulacao) {
+        if (!emAndamento.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        Settings.Expiracao cfg = settings.get().expiracao();
+        return CompletableFuture.supplyAsync(() -> Optional.of(executar(cfg, simulacao)))
+                .whenComplete((r, ex) -> emAndamento.set(false));
+    }
+
+    /**
+     * Recoloca na fila as cercas de terrenos que foram apagados mas cuja remoção não terminou
+     * (registros de cerca sem terreno). Chamar após o enable.
+     */
+    public CompletableFuture<Void> retomarPendentesAsync() {
+        int lote = settings.get().expiracao().tamanhoLote();
+        return CompletableFuture.runAsync(() -> {
+            long cursor = 0;
+            int total = 0;
+            List<Long> ids;
+            do {
+                ids = fenceLedgerRepository.findIdsAfter(cursor, lote);
+                if (ids.isEmpty()) break;
+                cursor = ids.get(ids.size() - 1);
+                Set<Long> existentes = terrenoRepository.findExistingIds(ids);
+                List<FenceRemovalJob.Alvo> alvos = ids.stream().filter(id -> !existentes.contains(id))
+                        .map(id -> new FenceRemovalJob.Alvo(id, null, 0, 0, 0)).toList();
+                if (alvos.isEmpty()) continue;
+                total += alvos.size();
+                Bukkit.getScheduler().runTask(plugin, () -> alvos.forEach(this::enfileirar));
+            } while (ids.size() == lote);
+            if (total > 0) {
+                logger.info("Remoção de cercas retomada para " + total + " terreno(s) apagado(s).");
+            }
+        });
+    }
+
+    private Relatorio executar(Settings.Expiracao cfg, boolean simulacao) {
+        long inicio = System.currentTimeMillis();
+        long vistoAntesDe = inicio - cfg.diasInativo() * MS_POR_DIA;
+        File pasta = new File(plugin.getDataFolder(), "reports");
+        if (!pasta.mkdirs() && !pasta.isDirectory()) {
+            throw new UncheckedIOException(new IOException("Não foi possível criar " + pasta));
+        }
+        File arquivo = new File(pasta, "reclaim-" + LocalDateTime.now().format(FORMATO_ARQUIVO) + (simulacao ? "-dry-run" : "") + ".csv");
+
+        int encontrados = 0;
+        int removidos = 0;
+        long area = 0;
+        Set<String> donos = new HashSet<>();
+        try (Writer w = Files.newBufferedWriter(arquivo.toPath(), StandardCharsets.UTF_8)) {
+            w.write("id,location,owner_uuid,name,size,last_seen,removed\n");
+            long cursor = 0;
+            List<TerrenoExpirado> lote;
+            do {
+                lote = terrenoRepository.findExpirados(vistoAntesDe, cursor, cfg.tamanhoLote());
+                if (lote.isEmpty()) break;
+                cursor = lote.get(lote.size() - 1).terreno().getId();
+
+                Set<Long> apagados = new HashSet<>();
+                if (!simulacao) {
+                    apagados.addAll(terrenoRepository.deleteExpirados(lote.stream().map(e -> e.terreno().getId()).toList(), vistoAntesDe));
+                }
+                List<Terreno> paraLimpar = new ArrayList<>(apagados.size());
+                for (TerrenoExpirado e : lote) {
+                    Terreno t = e.terreno();
+                    boolean apagado = apagados.contains(t.getId());
+                    w.write(t.getId() + "," + csv(t.getLocation()) + "," + csv(t.getDonoUUID()) + "," + csv(t.getName()) + ","
+                            + t.getSize() + "," + Instant.ofEpochMilli(e.ultimoAcesso()) + "," + apagado + "\n");
+                    encontrados++;
+                    area += (long) t.getSize() * t.getSize();
+                    donos.add(t.getDonoUUID());
+                    if (apagado) {
+                        removidos++;
+                        paraLimpar.add(t);
+                        plugin.getAuditService().registrar(AcaoAuditoria.EXPIRAR, t.getId(), null, t.getName(), null, t.getSize());
+                    }
+                }
+                if (!paraLimpar.isEmpty()) {
+                    Bukkit.getScheduler().runTask(plugin, () -> aoApagar(paraLimpar));
+                }
+            } while (lote.size() == cfg.tamanhoLote());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Relatorio relatorio = new Relatorio(simulacao, encontrados, donos.size(), area, removidos, arquivo,
+                System.currentTimeMillis() - inicio);
+        logger.info("Expiração de terrenos" + (simulacao ? " (simulação)" : "") + ": " + encontrados + " encontrados, "
+                + removidos + " apagados, " + donos.size() + " donos. Relatório: " + arquivo.getPath());
+        return relatorio;
+    }
+
+    /**
+     * Apaga terrenos com imposto vencido além da carência pelo mesmo caminho da expiração (auditoria, memória e
+     * cercas). Chamar fora da main thread.
+     *
+     * @return quantos foram apagados
+     */
+    public int apagarPorImposto(List<Terreno> terrenos) {
+        List<Terreno> apagados = new ArrayList<>(terrenos.size());
+        for (Terreno t : terrenos) {
+            if (!terrenoRepository.delete(t.getId())) continue;
+            apagados.add(t);
+            plugin.getAuditService().registrar(AcaoAuditoria.IMPOSTO_VENCIDO, t.getId(), null, t.getName(), null, t.getSize());
+        }
+        if (!apagados.isEmpty()) {
+            Bukkit.getScheduler().runTask(plugin, () -> aoApagar(apagados));
+        }
+        return apagados.size();
+    }
+
+    /**
+     * Main thread: tira os terrenos apagados da memória e enfileira a remoção das cercas.
+     */
+    private void aoApagar(List<Terreno> terrenos) {
+        for (Terreno t : terrenos) {
+            plugin.getTerrenoService().descartarTerreno(t.getId());
+            LocationRaw raw = LocationUtils.converterLocalizacaoRaw(t.getLocation());
+            enfileirar(raw != null
+                    ? new FenceRemovalJob.Alvo(t.getId(), raw.worldName(), (int) Math.floor(raw.x()), (int) Math.floor(raw.z()), t.getSize())
+                    : new FenceRemovalJob.Alvo(t.getId(), null, 0, 0, 0));
+        }
+    }
+
+    private void enfileirar(FenceRemovalJob.Alvo alvo) {
+        if (remocao == null || !remocao.adicionar(alvo)) {
+            remocao = new FenceRemovalJob(plugin);
+            remocao.adicionar(alvo);
+            plugin.getTickBudgetScheduler().submit(remocao);
+        }
+    }
+
+    private static String csv(String valor) {
+        if (valor == null) return "";
+        if (valor.contains(",") || valor.contains("\"") || valor.contains("\n")) {
+            return "\"" + valor.replace("\"", "\"\"") + "\"";
+        }
+        return valor;
+    }
+}
@@ -0,0 +1,214 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.JocoTerrenos;
+import io.github.joaovmundel.jocoTerrenos.infrastructure.JocoLogging;
+import io.github.joaovmundel.jocoTerrenos.infrastructure.Settings;
+import io.github.joaovmundel.jocoTerrenos.models.RegionSnapshot;
+import io.github.joaovmundel.jocoTerrenos.models.Terreno;
+import io.github.joaovmundel.jocoTerrenos.repositories.SnapshotRepository;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex.Area;
+import io.github.joaovmundel.jocoTerrenos.tasks.SnapshotCaptureJob;
+import io.github.joaovmundel.jocoTerrenos.tasks.SnapshotRestoreJob;
+import io.github.joaovmundel.jocoTerrenos.utils.FenceUtils;
+import io.github.joaovmundel.jocoTerrenos.utils.LocationUtils;
+import io.github.joaovmundel.jocoTerrenos.utils.LocationUtils.LocationRaw;
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Snapshots dos blocos de um terreno ({@code /terreno snapshot} e {@code /terreno restaurar}).
+ * A captura só tira os {@link ChunkSnapshot} na main thread; a leitura dos blocos, a paleta e a compressão
+ * ficam no worker. A restauração aplica só os blocos que diferem, dentro do orçamento por tick.
+ * Guarda um snapshot por terreno, apagado junto com o terreno.
+ */
+public class SnapshotService implements TerrenoIndex.Observador {
+
+    private static final JocoLogging logger = new JocoLogging(SnapshotService.class.getName());
+
+    private final JocoTerrenos plugin;
+    private final SnapshotRepository repository;
+    private final Supplier<Settings> settings;
+    private final Set<Long> emAndamento = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Status da captura e da restauração.
+     */
+    public enum Status {
+        SUCESSO, EM_ANDAMENTO, MUNDO_INVALIDO, MUITO_GRANDE, SEM_SNAPSHOT, ERRO
+    }
+
+    /**
+     * Resultado: {@code blocos} capturados ou alterados, {@code paleta} estados distintos e {@code bytes} no disco (captura).
+     */
+    public record Resultado(Status status, int blocos, int paleta, long bytes, long duracaoMs) {
+
+        static Resultado falha(Status status) {
+            return new Resultado(status, 0, 0, 0, 0);
+        }
+    }
+
+    public SnapshotService(JocoTerrenos plugin, SnapshotRepository repository, Supplier<Settings> settings) {
+        this.plugin = plugin;
+        this.repository = repository;
+        this.settings = settings;
+    }
+
+    /**
+     * Captura o terreno inteiro, da altura mínima à máxima do mundo, substituindo o snapshot anterior.
+     * Deve ser chamado na main thread.
+     */
+    public CompletableFuture<Resultado> capturarAsync(Terreno terreno) {
+        if (terreno.getSize() > settings.get().tamanhoMaximoSnapshot()) {
+            return CompletableFuture.completedFuture(Resultado.falha(Status.MUITO_GRANDE));
+        }
+        LocationRaw raw = LocationUtils.converterLocalizacaoRaw(terreno.getLocation());
+        World world = raw != null ? Bukkit.getWorld(raw.worldName()) : null;
+        if (world == null) {
+            return CompletableFuture.completedFuture(Resultado.falha(Status.MUNDO_INVALIDO));
+        }
+        if (!emAndamento.add(terreno.getId())) {
+            return CompletableFuture.completedFuture(Resultado.falha(Status.EM_ANDAMENTO));
+        }
+
+        long inicio = System.currentTimeMillis();
+        int raio = terreno.getSize() / 2;
+        int minX = (int) Math.floor(raw.x()) - raio;
+        int minZ = (int) Math.floor(raw.z()) - raio;
+        int lado = raio * 2 + 1;
+        int minY = world.getMinHeight();
+        int altura = world.getMaxHeight() - minY;
+
+        SnapshotCaptureJob job = new SnapshotCaptureJob(world, chunks(minX, minZ, lado, lado));
+        plugin.getTickBudgetScheduler().submit(job);
+        return job.getResultado()
+                .thenApplyAsync(capturados -> {
+                    RegionSnapshot snapshot = codificar(world.getName(), minX, minY, minZ, lado, altura, lado, capturados);
+                    if (snapshot == null) return Resultado.falha(Status.ERRO);
+                    long bytes = repository.save(terreno.getId(), snapshot);
+                    if (bytes < 0) return Resultado.falha(Status.ERRO);
+                    return new Resultado(Status.SUCESSO, snapshot.volume(), snapshot.paleta().length, bytes,
+                            System.currentTimeMillis() - inicio);
+                })
+                .whenComplete((r, ex) -> emAndamento.remove(terreno.getId()));
+    }
+
+    /**
+     * Volta o terreno ao último snapshot. Pode ser chamado de qualquer thread; o job é criado na main thread.
+     */
+    public CompletableFuture<Resultado> restaurarAsync(Terreno terreno) {
+        if (!emAndamento.add(terreno.getId())) {
+            return CompletableFuture.completedFuture(Resultado.falha(Status.EM_ANDAMENTO));
+        }
+
+        long inicio = System.currentTimeMillis();
+        return CompletableFuture.supplyAsync(() -> repository.find(terreno.getId()))
+                .thenCompose(encontrado -> {
+                    if (encontrado.isEmpty()) {
+                        return CompletableFuture.completedFuture(Resultado.falha(Status.SEM_SNAPSHOT));
+                    }
+                    CompletableFuture<Resultado> restauracao = new CompletableFuture<>();
+                    Bukkit.getScheduler().runTask(plugin, () -> iniciarRestauracao(encontrado.get(), inicio, restauracao));
+                    return restauracao;
+                })
+                .whenComplete((r, ex) -> emAndamento.remove(terreno.getId()));
+    }
+
+    private void iniciarRestauracao(RegionSnapshot snapshot, long inicio, CompletableFuture<Resultado> restauracao) {
+        World world = Bukkit.getWorld(snapshot.world());
+        if (world == null) {
+            restauracao.complete(Resultado.falha(Status.MUNDO_INVALIDO));
+            return;
+        }
+        BlockData[] paleta = new BlockData[snapshot.paleta().length];
+        for (int i = 0; i < paleta.length; i++) {
+            try {
+                paleta[i] = Bukkit.createBlockData(snapshot.paleta()[i]);
+            } catch (IllegalArgumentException e) {
+                // Estado de outra versão do servidor: os blocos dele ficam como estão
+                logger.warning("Estado de bloco desconhecido no snapshot: " + snapshot.paleta()[i]);
+            }
+        }
+
+        SnapshotRestoreJob job = new SnapshotRestoreJob(plugin, world, snapshot, paleta,
+                chunks(snapshot.minX(), snapshot.minZ(), snapshot.sizeX(), snapshot.sizeZ()));
+        plugin.getTickBudgetScheduler().submit(job);
+        job.getResultado().whenComplete((alterados, ex) -> {
+            if (ex != null) {
+                restauracao.completeExceptionally(ex);
+            } else {
+                restauracao.complete(new Resultado(Status.SUCESSO, alterados, paleta.length, 0, System.currentTimeMillis() - inicio));
+            }
+        });
+    }
+
+    @Override
+    public void aoAlterar(Area anterior, Area nova) {
+        // Reservas têm id negativo e nunca têm snapshot
+        if (nova != null || anterior == null || anterior.id() <= 0) return;
+        long id = anterior.id();
+        CompletableFuture.runAsync(() -> repository.delete(id));
+    }
+
+    /**
+     * Lê os blocos dos snapshots de chunk e monta a paleta. Roda fora da main thread.
+     *
+     * @return null se a região tiver mais estados distintos do que cabem num índice de 16 bits
+     */
+    private static RegionSnapshot codificar(String world, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ,
+                                            Map<Long, ChunkSnapshot> capturados) {
+        Map<BlockData, Integer> indices = new HashMap<>();
+        List<String> paleta = new ArrayList<>();
+        char[] blocos = new char[sizeX * sizeY * sizeZ];
+        int i = 0;
+        for (int y = minY; y < minY + sizeY; y++) {
+            for (int z = minZ; z < minZ + sizeZ; z++) {
+                for (int x = minX; x < minX + sizeX; x++) {
+                    BlockData estado = capturados.get(FenceUtils.coluna(x >> 4, z >> 4)).getBlockData(x & 15, y, z & 15);
+                    Integer indice = indices.get(estado);
+                    if (indice == null) {
+                        if (paleta.size() > Character.MAX_VALUE) {
+                            logger.warning("Snapshot com estados de bloco demais na região " + world + " " + minX + "," + minZ);
+                            return null;
+                        }
+                        indice = paleta.size();
+                        indices.put(estado, indice);
+                        paleta.add(estado.getAsString());
+                    }
+                    blocos[i++] = (char) indice.intValue();
+                }
+            }
+        }
+        int bits = RegionSnapshot.bitsPara(paleta.size());
+        return new RegionSnapshot(world, minX, minY, minZ, sizeX, sizeY, sizeZ, System.currentTimeMillis(),
+                paleta.toArray(new String[0]), bits, RegionSnapshot.empacotar(blocos, bits));
+    }
+
+    /**
+     * Chunks que cobrem o retângulo, empacotados com {@link FenceUtils#coluna}.
+     */
+    private static long[] chunks(int minX, int minZ, int sizeX, int sizeZ) {
+        int cx0 = minX >> 4;
+        int cx1 = (minX + sizeX - 1) >> 4;
+        int cz0 = minZ >> 4;
+        int cz1 = (minZ + sizeZ - 1) >> 4;
+        long[] chunks = new long[(cx1 - cx0 + 1) * (cz1 - cz0 + 1)];
+        int n = 0;
+        for (int cz = cz0; cz <= cz1; cz++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                chunks[n++] = FenceUtils.coluna(cx, cz);
+            }
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,258 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.JocoTerrenos;
+import io.github.joaovmundel.jocoTerrenos.infrastructure.JocoLogging;
+import io.github.joaovmundel.jocoTerrenos.infrastructure.Settings;
+import io.github.joaovmundel.jocoTerrenos.models.Terreno;
+import io.github.joaovmundel.jocoTerrenos.repositories.TaxRepository;
+import io.github.joaovmundel.jocoTerrenos.repositories.TaxRepository.TerrenoImposto;
+import io.github.joaovmundel.jocoTerrenos.repositories.TerrenoRepository;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex.Area;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Imposto periódico dos terrenos, calculado sobre o preço de compra ({@link TerrenoService#calcularCustoTerreno}).
+ * A coleta percorre os donos em páginas, fora da main thread, e faz uma única cobrança por dono com a soma dos
+ * terrenos vencidos. As cobranças vão em lotes para o {@link EconomyService}: o lote inteiro no worker quando o
+ * provider é thread-safe, senão {@code owners-per-tick} donos por tick. Quem não consegue pagar fica em carência;
+ * terrenos em atraso há mais de {@code grace-days} dias são apagados pelo {@link ReclaimService} (ou só contados,
+ * com {@code reclaim-overdue} desligado). O registro de imposto de um terreno é apagado junto com ele.
+ */
+public class TaxService implements TerrenoIndex.Observador {
+
+    private static final JocoLogging logger = new JocoLogging(TaxService.class.getName());
+    private static final int DONOS_POR_PAGINA = 500;
+    private static final long MS_POR_HORA = 3_600_000L;
+    private static final long MS_POR_DIA = 86_400_000L;
+
+    private final JocoTerrenos plugin;
+    private final TaxRepository repository;
+    private final TerrenoRepository terrenoRepository;
+    private final TerrenoService terrenoService;
+    private final EconomyService economy;
+    private final Supplier<Settings> settings;
+    private final AtomicBoolean emAndamento = new AtomicBoolean();
+
+    /**
+     * Resumo de um ciclo: donos cobrados e que pagaram, terrenos pagos, em carência, vencidos (carência esgotada)
+     * e apagados por isso.
+     */
+    public record Relatorio(int donosCobrados, int donosPagantes, int terrenosPagos, int terrenosEmCarencia,
+                            int terrenosVencidos, int terrenosApagados, double arrecadado, long duracaoMs) {
+    }
+
+    /**
+     * Cobrança de um dono: soma dos terrenos cujo período acabou e, entre eles, os em atraso além da carência.
+     */
+    private record Cobranca(String donoUUID, List<Long> terrenos, double valor, List<Long> vencidos) {
+    }
+
+    public TaxService(JocoTerrenos plugin, TaxRepository repository, TerrenoRepository terrenoRepository, TerrenoService terrenoService,
+                      EconomyService economy, Supplier<Settings> settings) {
+        this.plugin = plugin;
+        this.repository = repository;
+        this.terrenoRepository = terrenoRepository;
+        this.terrenoService = terrenoService;
+        this.economy = economy;
+        this.settings = settings;
+    }
+
+    /**
+     * Execução periódica; não faz nada se {@code lands.tax.enabled} estiver desligado.
+     */
+    public void executarAgendado() {
+        if (!settings.get().imposto().ativo()) return;
+        executarAsync().whenComplete((relatorio, ex) -> {
+            if (ex != null) {
+                logger.warning("Erro na cobrança de impostos: " + ex.getMessage());
+            } else if (relatorio.isEmpty()) {
+                logger.warning("Cobrança de impostos já em andamento; execução agendada ignorada.");
+            }
+        });
+    }
+
+    /**
+     * Cobra os terrenos cujo período acabou.
+     *
+     * @return vazio se outra cobrança já estiver em andamento
+     */
+    public CompletableFuture<Optional<Relatorio>> executarAsync() {
+        if (!emAndamento.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        Settings.Imposto cfg = settings.get().imposto();
+        return CompletableFuture.supplyAsync(() -> Optional.of(executar(cfg)))
+                .whenComplete((r, ex) -> emAndamento.set(false));
+    }
+
+    /**
+     * Avisa o dono, ao entrar, se há terrenos com imposto em atraso.
+     */
+    public void avisarAtrasoAsync(Player player) {
+        UUID uuid = player.getUniqueId();
+        String dono = uuid.toString();
+        CompletableFuture.supplyAsync(() -> {
+            List<Long> ids = terrenoRepository.findByOwnerRange(dono, dono).stream().map(Terreno::getId).toList();
+            return repository.countEmAtraso(ids);
+        }).thenAccept(total -> {
+            if (total <= 0) return;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                Player online = Bukkit.getPlayer(uuid);
+                if (online != null) {
+                    plugin.getMessageService().send(online, "terreno.imposto.pendente", MessageService.placeholders("lands", total));
+                }
+            });
+        });
+    }
+
+    private Relatorio executar(Settings.Imposto cfg) {
+        long inicio = System.currentTimeMillis();
+        long intervalo = cfg.intervaloHoras() * MS_POR_HORA;
+        long limiteCarencia = inicio - cfg.diasCarencia() * MS_POR_DIA;
+        int donosCobrados = 0;
+        int donosPagantes = 0;
+        int terrenosPagos = 0;
+        int terrenosEmCarencia = 0;
+        int terrenosVencidos = 0;
+        int terrenosApagados = 0;
+        double arrecadado = 0;
+
+        String cursor = "";
+        List<String> donos;
+        do {
+            donos = terrenoRepository.findOwnersAfter(cursor, DONOS_POR_PAGINA);
+            if (donos.isEmpty()) break;
+            cursor = donos.get(donos.size() - 1);
+
+            List<Terreno> daPagina = terrenoRepository.findByOwnerRange(donos.get(0), cursor);
+            List<Long> novos = new ArrayList<>();
+            List<Cobranca> cobrancas = agrupar(repository.findImpostos(daPagina), inicio, intervalo, limiteCarencia, cfg.taxa(), novos);
+            // Terrenos vistos pela primeira vez começam o primeiro período agora
+            repository.marcarPagos(novos, inicio);
+
+            int tamanhoLote = economy.isThreadSafe() ? cobrancas.size() : cfg.donosPorTick();
+            for (int de = 0; de < cobrancas.size(); de += tamanhoLote) {
+                List<Cobranca> lote = cobrancas.subList(de, Math.min(cobrancas.size(), de + tamanhoLote));
+                List<UUID> players = new ArrayList<>(lote.size());
+                double[] valores = new double[lote.size()];
+                for (int i = 0; i < lote.size(); i++) {
+                    players.add(UUID.fromString(lote.get(i).donoUUID()));
+                    valores[i] = lote.get(i).valor();
+                }
+                // Espera o lote terminar antes de mandar o próximo: no modo main thread, no máximo um lote por tick
+                boolean[] pagos = economy.debitarLote(players, valores).join();
+
+                List<Long> idsPagos = new ArrayList<>();
+                List<Long> idsAtraso = new ArrayList<>();
+                Set<Long> idsVencidos = new HashSet<>();
+                List<Cobranca> pagantes = new ArrayList<>();
+                List<Cobranca> devedores = new ArrayList<>();
+                for (int i = 0; i < lote.size(); i++) {
+                    Cobranca c = lote.get(i);
+                    donosCobrados++;
+                    if (pagos[i]) {
+                        donosPagantes++;
+                        terrenosPagos += c.terrenos().size();
+                        arrecadado += c.valor();
+                        idsPagos.addAll(c.terrenos());
+                        pagantes.add(c);
+                    } else {
+                        terrenosEmCarencia += c.terrenos().size();
+                        terrenosVencidos += c.vencidos().size();
+                        idsVencidos.addAll(c.vencidos());
+                        idsAtraso.addAll(c.terrenos());
+                        devedores.add(c);
+                    }
+                }
+                repository.marcarPagos(idsPagos, inicio);
+                repository.marcarAtraso(idsAtraso, inicio);
+                if (cfg.apagarVencidos() && !idsVencidos.isEmpty()) {
+                    terrenosApagados += plugin.getReclaimService().apagarPorImposto(
+                            daPagina.stream().filter(t -> idsVencidos.contains(t.getId())).toList());
+                }
+                Bukkit.getScheduler().runTask(plugin, () -> avisar(pagantes, devedores, cfg.diasCarencia()));
+            }
+        } while (donos.size() == DONOS_POR_PAGINA);
+
+        Relatorio relatorio = new Relatorio(donosCobrados, donosPagantes, terrenosPagos, terrenosEmCarencia, terrenosVencidos,
+                terrenosApagados, arrecadado, System.currentTimeMillis() - inicio);
+        logger.info("Impostos: " + donosPagantes + "/" + donosCobrados + " donos pagaram " + String.format("%.2f", arrecadado)
+                + " (" + terrenosPagos + " terrenos); " + terrenosEmCarencia + " em carência, " + terrenosVencidos + " vencidos, " + terrenosApagados + " apagados.");
+        return relatorio;
+    }
+
+    @Override
+    public void aoAlterar(Area anterior, Area nova) {
+        // Reservas têm id negativo e nunca têm registro de imposto
+        if (nova != null || anterior == null || anterior.id() <= 0) return;
+        long id = anterior.id();
+        CompletableFuture.runAsync(() -> repository.delete(id));
+    }
+
+    /**
+     * Agrupa os terrenos (ordenados por dono) numa cobrança por dono com os que venceram; os em atraso desde
+     * {@code limiteCarencia} ou antes também vão para os vencidos da cobrança.
+     * Terrenos sem registro vão para {@code novos} e não são cobrados neste ciclo.
+     */
+    private List<Cobranca> agrupar(List<TerrenoImposto> terrenos, long agora, long intervalo, long limiteCarencia, double taxa,
+                                   List<Long> novos) {
+        List<Cobranca> cobrancas = new ArrayList<>();
+        String dono = null;
+        List<Long> ids = new ArrayList<>();
+        double valor = 0;
+        List<Long> vencidos = new ArrayList<>();
+        for (TerrenoImposto t : terrenos) {
+            if (!t.donoUUID().equals(dono)) {
+                if (!ids.isEmpty()) cobrancas.add(new Cobranca(dono, ids, valor, vencidos));
+                dono = t.donoUUID();
+                ids = new ArrayList<>();
+                valor = 0;
+                vencidos = new ArrayList<>();
+            }
+            if (t.pagoEm() == null) {
+                novos.add(t.terrenoId());
+                continue;
+            }
+            if (t.pagoEm() + intervalo > agora) continue;
+            ids.add(t.terrenoId());
+            valor += terrenoService.calcularCustoTerreno(t.size()) * taxa;
+            if (t.devendoDesde() != null && t.devendoDesde() <= limiteCarencia) {
+                vencidos.add(t.terrenoId());
+            }
+        }
+        if (!ids.isEmpty()) cobrancas.add(new Cobranca(dono, ids, valor, vencidos));
+        return cobrancas;
+    }
+
+    private void avisar(List<Cobranca> pagantes, List<Cobranca> devedores, int diasCarencia) {
+        MessageService messages = plugin.getMessageService();
+        for (Cobranca c : pagantes) {
+            Player p = Bukkit.getPlayer(UUID.fromString(c.donoUUID()));
+            if (p != null) {
+                messages.send(p, "terreno.imposto.cobrado", placeholders(c, diasCarencia));
+            }
+        }
+        for (Cobranca c : devedores) {
+            Player p = Bukkit.getPlayer(UUID.fromString(c.donoUUID()));
+            if (p != null) {
+                messages.send(p, "terreno.imposto.atraso", placeholders(c, diasCarencia));
+            }
+        }
+    }
+
+    private static Map<String, Object> placeholders(Cobranca c, int diasCarencia) {
+        return MessageService.placeholders("price", String.format("%.2f", c.valor()), "lands", c.terrenos().size(), "days", diasCarencia);
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.repositories.TeleportRepository;
+import io.github.joaovmundel.jocoTerrenos.repositories.TeleportRepository.TeleportPoint;
+import io.github.joaovmundel.jocoTerrenos.utils.SafeLocationUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
+/**
+ * Cache do ponto de teleporte seguro de cada terreno.
+ * No uso, o ponto é validado com a checagem barata de três blocos (chão, pés e cabeça); a busca
+ * completa do {@link SafeLocationUtils} só roda de novo quando essa checagem falha ou quando algum
+ * bloco perto do ponto é alterado. Opcionalmente os pontos são persistidos no banco.
+ */
+public class TeleportCache {
+
+    private final TeleportRepository repository;
+    private final boolean persistir;
+    private final int raioInvalidacao;
+    private final Map<Long, TeleportPoint> pontos = new ConcurrentHashMap<>();
+    // mundo -> chunk -> terrenos com ponto cuja área de invalidação toca o chunk
+    private final Map<String, Map<Long, Set<Long>>> porChunk = new ConcurrentHashMap<>();
+
+    public TeleportCache(TeleportRepository repository, boolean persistir, int raioInvalidacao) {
+        this.repository = repository;
+        this.persistir = persistir;
+        this.raioInvalidacao = Math.max(0, raioInvalidacao);
+    }
+
+    /**
+     * Carrega os pontos persistidos fora da main thread.
+     */
+    public CompletableFuture<Void> carregarAsync() {
+        if (!persistir) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> repository.findAll().values().forEach(this::indexar));
+    }
+
+    /**
+     * Retorna o ponto em cache se ele ainda for seguro. Um ponto inseguro é descartado.
+     */
+    public Optional<Location> obterValido(long terrenoId) {
+        TeleportPoint ponto = pontos.get(terrenoId);
+        if (ponto == null) {
+            return Optional.empty();
+        }
+        World world = Bukkit.getWorld(ponto.world());
+        Location loc = world != null ? new Location(world, ponto.x() + 0.5, ponto.y(), ponto.z() + 0.5) : null;
+        if (loc != null && SafeLocationUtils.isSafe(loc)) {
+            return Optional.of(loc);
+        }
+        invalidar(terrenoId);
+        return Optional.empty();
+    }
+
+    /**
+     * Guarda o ponto encontrado pela busca completa.
+     */
+    public void registrar(long terrenoId, Location loc) {
+        if (loc.getWorld() == null) return;
+        TeleportPoint ponto = new TeleportPoint(terrenoId, loc.getWorld().getName(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+        desindexar(pontos.get(terrenoId));
+        indexar(ponto);
+        if (persistir) {
+            CompletableFuture.runAsync(() -> repository.save(ponto));
+        }
+    }
+
+    /**
+     * Descarta o ponto do terreno (ex.: terreno deletado ou área alterada).
+     */
+    public void invalidar(long terrenoId) {
+        TeleportPoint removido = pontos.get(terrenoId);
+        if (removido == null) return;
+        desindexar(removido);
+        if (persistir) {
+            CompletableFuture.runAsync(() -> repository.delete(terrenoId));
+        }
+    }
+
+    /**
+     * Invalida os pontos cuja área central contém o bloco alterado.
+     * Custo: uma consulta de mapa por evento quando não há ponto no chunk.
+     */
+    public void aoAlterarBloco(Block block) {
+        Map<Long, Set<Long>> chunks = porChunk.get(block.getWorld().getName());
+        if (chunks == null) return;
+        Set<Long> candidatos = chunks.get(chunkKey(block.getX() >> 4, block.getZ() >> 4));
+        if (candidatos == null || candidatos.isEmpty()) return;
+        for (Long id : candidatos.toArray(new Long[0])) {
+            TeleportPoint ponto = pontos.get(id);
+            if (ponto == null) continue;
+            if (Math.abs(block.getX() - ponto.x()) <= raioInvalidacao
+                    && Math.abs(block.getZ() - ponto.z()) <= raioInvalidacao
+                    && block.getY() >= ponto.y() - 2 && block.getY() <= ponto.y() + 2) {
+                invalidar(id);
+            }
+        }
+    }
+
+    private void indexar(TeleportPoint ponto) {
+        pontos.put(ponto.terrenoId(), ponto);
+        Map<Long, Set<Long>> chunks = porChunk.computeIfAbsent(ponto.world(), w -> new ConcurrentHashMap<>());
+        forEachChunk(ponto, key -> chunks.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(ponto.terrenoId()));
+    }
+
+    private void desindexar(TeleportPoint ponto) {
+        if (ponto == null) return;
+        pontos.remove(ponto.terrenoId(), ponto);
+        Map<Long, Set<Long>> chunks = porChunk.get(ponto.world());
+        if (chunks == null) return;
+        forEachChunk(ponto, key -> {
+            Set<Long> ids = chunks.get(key);
+            if (ids != null) {
+                ids.remove(ponto.terrenoId());
+                if (ids.isEmpty()) chunks.remove(key, ids);
+            }
+        });
+    }
+
+    private void forEachChunk(TeleportPoint ponto, LongConsumer acao) {
+        int minCX = (ponto.x() - raioInvalidacao) >> 4;
+        int maxCX = (ponto.x() + raioInvalidacao) >> 4;
+        int minCZ = (ponto.z() - raioInvalidacao) >> 4;
+        int maxCZ = (ponto.z() + raioInvalidacao) >> 4;
+        for (int cx = minCX; cx <= maxCX; cx++) {
+            for (int cz = minCZ; cz <= maxCZ; cz++) {
+                acao.accept(chunkKey(cx, cz));
+            }
+        }
+    }
+
+    private static long chunkKey(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+}
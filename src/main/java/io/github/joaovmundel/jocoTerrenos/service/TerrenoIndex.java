@@ -0,0 +1,521 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.models.Terreno;
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoFlag;
+import io.github.joaovmundel.jocoTerrenos.utils.LocationUtils;
+import io.github.joaovmundel.jocoTerrenos.utils.LocationUtils.LocationRaw;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Índice espacial em memória dos terrenos, por mundo, numa grade de células de 64x64 blocos.
+ * Consultas de ponto e de sobreposição olham apenas as células tocadas, sem ir ao banco.
+ * Leituras não bloqueiam (mapas concorrentes e arrays copy-on-write); escritas são serializadas
+ * por mundo, o que permite checar e reservar uma área de forma atômica.
+ */
+public class TerrenoIndex {
+
+    private static final int CELL_SHIFT = 6;
+    private static final long[] VAZIO = new long[0];
+
+    private final Map<Long, Area> porId = new ConcurrentHashMap<>();
+    private final Map<String, Map<Long, long[]>> celulasPorMundo = new ConcurrentHashMap<>();
+    private final AtomicLong proximaReserva = new AtomicLong(-1);
+    private final CompletableFuture<Void> carregado = new CompletableFuture<>();
+    private final List<Observador> observadores = new CopyOnWriteArrayList<>();
+
+    /**
+     * Recebe as alterações de terrenos confirmados (reservas provisórias não são notificadas).
+     * Chamado com o lock do mundo, logo deve ser rápido.
+     */
+    public interface Observador {
+        /**
+         * @param anterior área antes da alteração, ou null se o terreno é novo
+         * @param nova     área depois da alteração, ou null se o terreno foi removido
+         */
+        void aoAlterar(Area anterior, Area nova);
+    }
+
+    /**
+     * Dados do terreno necessários para consultas espaciais.
+     * Os limites seguem a mesma convenção do cadastro: centro ± tamanho/2.
+     */
+    public record Area(long id, String world, String donoUUID, String name, double centerX, double centerZ, int size, long flags) {
+
+        public double minX() {
+            return centerX - size / 2.0;
+        }
+
+        public double maxX() {
+            return centerX + size / 2.0;
+        }
+
+        public double minZ() {
+            return centerZ - size / 2.0;
+        }
+
+        public double maxZ() {
+            return centerZ + size / 2.0;
+        }
+
+        public boolean contem(double x, double z) {
+            return x >= minX() && x <= maxX() && z >= minZ() && z <= maxZ();
+        }
+
+        /**
+         * Colisão com "buffer" estrito (permite exatamente ‘buffer’ de distância)
+         */
+        public boolean sobrepoe(double minX, double maxX, double minZ, double maxZ, int buffer) {
+            boolean overlapX = (maxX + buffer > minX()) && (minX - buffer < maxX());
+            boolean overlapZ = (maxZ + buffer > minZ()) && (minZ - buffer < maxZ());
+            return overlapX && overlapZ;
+        }
+
+        public boolean temFlag(TerrenoFlag flag) {
+            return (flags & flag.mascara()) != 0;
+        }
+
+        public Area comTamanho(int novoTamanho) {
+            return new Area(id, world, donoUUID, name, centerX, centerZ, novoTamanho, flags);
+        }
+
+        public Area comId(long novoId) {
+            return new Area(novoId, world, donoUUID, name, centerX, centerZ, size, flags);
+        }
+
+        public Area comNome(String novoNome) {
+            return new Area(id, world, donoUUID, novoNome, centerX, centerZ, size, flags);
+        }
+
+        public Area comDono(String novoDono) {
+            return new Area(id, world, novoDono, name, centerX, centerZ, size, flags);
+        }
+
+        public Area comFlag(TerrenoFlag flag, boolean ativa) {
+            return new Area(id, world, donoUUID, name, centerX, centerZ, size, flag.aplicar(flags, ativa));
+        }
+    }
+
+    /**
+     * Monta a área de um terreno. Retorna null se a localização for inválida.
+     */
+    public static Area areaDe(Terreno t) {
+        LocationRaw raw = LocationUtils.converterLocalizacaoRaw(t.getLocation());
+        if (raw == null || raw.worldName() == null || t.getId() == null || t.getSize() == null) return null;
+        return new Area(t.getId(), raw.worldName(), t.getDonoUUID(), t.getName(), raw.x(), raw.z(), t.getSize(), t.getFlags());
+    }
+
+    public void adicionarObservador(Observador observador) {
+        observadores.add(observador);
+    }
+
+    /**
+     * Marca o índice como carregado (após a carga inicial).
+     */
+    public void marcarCarregado() {
+        carregado.complete(null);
+    }
+
+    /**
+     * Completa quando a carga inicial termina. Quem estiver fora da main thread pode aguardar.
+     */
+    public CompletableFuture<Void> aguardarCarregamento() {
+        return carregado;
+    }
+
+    public boolean isCarregado() {
+        return carregado.isDone();
+    }
+
+    public int tamanho() {
+        return (int) porId.keySet().stream().filter(id -> id > 0).count();
+    }
+
+    /**
+     * Donos distintos dos terrenos confirmados.
+     */
+    public Set<String> donos() {
+        Set<String> donos = new HashSet<>();
+        for (Area area : porId.values()) {
+            if (area.id() > 0) donos.add(area.donoUUID());
+        }
+        return donos;
+    }
+
+    public Optional<Area> get(long id) {
+        return Optional.ofNullable(porId.get(id));
+    }
+
+    public void put(Terreno terreno) {
+        Area area = areaDe(terreno);
+        if (area != null) put(area);
+    }
+
+    public void put(Area area) {
+        synchronized (mundo(area.world())) {
+            Area anterior = porId.put(area.id(), area);
+            if (anterior != null) desindexar(anterior);
+            indexar(area);
+            notificar(anterior, area);
+        }
+    }
+
+    public void remove(long id) {
+        Area anterior = porId.get(id);
+        if (anterior == null) return;
+        synchronized (mundo(anterior.world())) {
+            if (porId.remove(id, anterior)) {
+                desindexar(anterior);
+                notificar(anterior, null);
+            }
+        }
+    }
+
+    /**
+     * Terreno que contém o ponto, se houver.
+     */
+    public Optional<Area> findAt(String world, double x, double z) {
+        if (world == null) return Optional.empty();
+        Map<Long, long[]> celulas = celulasPorMundo.get(world);
+        if (celulas == null) return Optional.empty();
+        long[] ids = celulas.getOrDefault(celula((int) Math.floor(x) >> CELL_SHIFT, (int) Math.floor(z) >> CELL_SHIFT), VAZIO);
+        for (long id : ids) {
+            Area area = porId.get(id);
+            if (area != null && id > 0 && area.contem(x, z)) {
+                return Optional.of(area);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Verifica se alguma área (exceto {@code excluirId}) colide com o retângulo considerando o buffer.
+     * Reservas pendentes também contam.
+     */
+    public boolean existeSobreposicao(String world, double minX, double maxX, double minZ, double maxZ, int buffer, long excluirId) {
+        Map<Long, long[]> celulas = celulasPorMundo.get(world);
+        if (celulas == null) return false;
+        int minCX = (int) Math.floor(minX - buffer) >> CELL_SHIFT;
+        int maxCX = (int) Math.floor(maxX + buffer) >> CELL_SHIFT;
+        int minCZ = (int) Math.floor(minZ - buffer) >> CELL_SHIFT;
+        int maxCZ = (int) Math.floor(maxZ + buffer) >> CELL_SHIFT;
+        for (int cx = minCX; cx <= maxCX; cx++) {
+            for (int cz = minCZ; cz <= maxCZ; cz++) {
+                for (long id : celulas.getOrDefault(celula(cx, cz), VAZIO)) {
+                    if (id == excluirId) continue;
+                    Area area = porId.get(id);
+                    if (area != null && area.sobrepoe(minX, maxX, minZ, maxZ, buffer)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Áreas que tocam o retângulo informado (sem reservas pendentes).
+     */
+    public List<Area> buscarNaRegiao(String world, double minX, double maxX, double minZ, double maxZ) {
+        List<Area> resultado = new ArrayList<>();
+        Map<Long, long[]> celulas = celulasPorMundo.get(world);
+        if (celulas == null) return resultado;
+        int minCX = (int) Math.floor(minX) >> CELL_SHIFT;
+        int maxCX = (int) Math.floor(maxX) >> CELL_SHIFT;
+        int minCZ = (int) Math.floor(minZ) >> CELL_SHIFT;
+        int maxCZ = (int) Math.floor(maxZ) >> CELL_SHIFT;
+        for (int cx = minCX; cx <= maxCX; cx++) {
+            for (int cz = minCZ; cz <= maxCZ; cz++) {
+                for (long id : celulas.getOrDefault(celula(cx, cz), VAZIO)) {
+                    Area area = porId.get(id);
+                    if (area == null || id <= 0 || resultado.contains(area)) continue;
+                    if (area.maxX() >= minX && area.minX() <= maxX && area.maxZ() >= minZ && area.minZ() <= maxZ) {
+                        resultado.add(area);
+                    }
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Centro sugerido para uma área nova.
+     */
+    public record Centro(double x, double z) {
+    }
+
+    /**
+     * Centro livre mais próximo de (x, z) para uma área de {@code size} com {@code buffer} de espaçamento,
+     * a no máximo {@code raioMaximo} blocos. Cada área existente (reservas incluídas) proíbe um retângulo
+     * aberto de centros, e o centro mais próximo está no ponto de partida ou na borda de um deles.
+     * Basta então testar as linhas Z candidatas (a de partida e as bordas), da mais próxima para a mais
+     * distante, achando em cada uma a lacuna em X mais próxima entre os intervalos bloqueados ordenados.
+     * Os centros ficam no meio de um bloco, com o bloco inteiro livre.
+     */
+    public Optional<Centro> buscarCentroLivre(String world, double x, double z, int size, int buffer, int raioMaximo) {
+        double half = size / 2.0;
+        double margem = half + buffer;
+        double origemX = Math.floor(x) + 0.5;
+        double origemZ = Math.floor(z) + 0.5;
+        double[] bloqueios = bloqueiosNaJanela(world, origemX, origemZ, raioMaximo + margem, margem);
+        int n = bloqueios.length / 4;
+
+        double[] linhas = new double[2 * n + 1];
+        int nl = 0;
+        linhas[nl++] = origemZ;
+        for (int i = 0; i < n; i++) {
+            linhas[nl++] = Math.floor(bloqueios[4 * i + 2]) - 0.5;
+            linhas[nl++] = Math.ceil(bloqueios[4 * i + 3]) + 0.5;
+        }
+        Arrays.sort(linhas, 0, nl);
+
+        long raio2 = (long) raioMaximo * raioMaximo;
+        double melhorDist = Double.MAX_VALUE;
+        Centro melhor = null;
+        double[] intervalos = new double[2 * n];
+        // Duas frentes a partir da linha de partida, sempre avançando a mais próxima
+        int abaixo = Arrays.binarySearch(linhas, 0, nl, origemZ);
+        int acima = abaixo + 1;
+        double ultima = Double.NaN;
+        while (abaixo >= 0 || acima < nl) {
+            double cz;
+            if (acima >= nl || (abaixo >= 0 && origemZ - linhas[abaixo] <= linhas[acima] - origemZ)) {
+                cz = linhas[abaixo--];
+            } else {
+                cz = linhas[acima++];
+            }
+            if (cz == ultima) continue;
+            ultima = cz;
+            double dz = cz - origemZ;
+            if (dz * dz > raio2 || dz * dz >= melhorDist) break;
+
+            int m = 0;
+            for (int i = 0; i < n; i++) {
+                if (bloqueios[4 * i + 2] < cz && cz < bloqueios[4 * i + 3]) {
+                    intervalos[2 * m] = bloqueios[4 * i];
+                    intervalos[2 * m + 1] = bloqueios[4 * i + 1];
+                    m++;
+                }
+            }
+            double fx = xLivreMaisProximo(intervalos, m, origemX);
+            double dx = fx - origemX;
+            double dist = dx * dx + dz * dz;
+            if (dist <= raio2 && dist < melhorDist
+                    && !existeSobreposicao(world, fx - half, fx + half, cz - half, cz + half, buffer, 0)) {
+                melhorDist = dist;
+                melhor = new Centro(fx, cz);
+            }
+        }
+        return Optional.ofNullable(melhor);
+    }
+
+    /**
+     * Retângulos abertos de centros proibidos ({minX, maxX, minZ, maxZ} em sequência) das áreas perto da janela.
+     */
+    private double[] bloqueiosNaJanela(String world, double x, double z, double alcance, double margem) {
+        Map<Long, long[]> celulas = celulasPorMundo.get(world);
+        if (celulas == null) return new double[0];
+        int minCX = (int) Math.floor(x - alcance) >> CELL_SHIFT;
+        int maxCX = (int) Math.floor(x + alcance) >> CELL_SHIFT;
+        int minCZ = (int) Math.floor(z - alcance) >> CELL_SHIFT;
+        int maxCZ = (int) Math.floor(z + alcance) >> CELL_SHIFT;
+        java.util.Set<Long> vistos = new java.util.HashSet<>();
+        double[] out = new double[64];
+        int n = 0;
+        for (int cx = minCX; cx <= maxCX; cx++) {
+            for (int cz = minCZ; cz <= maxCZ; cz++) {
+                for (long id : celulas.getOrDefault(celula(cx, cz), VAZIO)) {
+                    Area area = porId.get(id);
+                    if (area == null || !vistos.add(id)) continue;
+                    if (n + 4 > out.length) out = Arrays.copyOf(out, out.length * 2);
+                    out[n++] = area.minX() - margem;
+                    out[n++] = area.maxX() + margem;
+                    out[n++] = area.minZ() - margem;
+                    out[n++] = area.maxZ() + margem;
+                }
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Centro de bloco mais próximo de {@code x} fora de todos os intervalos abertos ({início, fim} em sequência).
+     */
+    private static double xLivreMaisProximo(double[] intervalos, int m, double x) {
+        if (m == 0) return x;
+        // Ordena pelo início e une os que se sobrepõem (intervalos que só se tocam deixam o ponto livre)
+        double[][] pares = new double[m][];
+        for (int i = 0; i < m; i++) pares[i] = new double[]{intervalos[2 * i], intervalos[2 * i + 1]};
+        Arrays.sort(pares, (a, b) -> Double.compare(a[0], b[0]));
+        double[] unidos = new double[2 * m];
+        int u = 0;
+        for (double[] par : pares) {
+            if (u > 0 && par[0] < unidos[u - 1]) {
+                unidos[u - 1] = Math.max(unidos[u - 1], par[1]);
+            } else {
+                unidos[u++] = par[0];
+                unidos[u++] = par[1];
+            }
+        }
+
+        double melhor = Double.NaN;
+        for (int i = -1; i < u / 2; i++) {
+            // i = -1 testa o próprio ponto; depois, o bloco logo antes e logo depois de cada intervalo
+            double[] candidatos = i < 0 ? new double[]{x}
+                    : new double[]{Math.floor(unidos[2 * i]) - 0.5, Math.ceil(unidos[2 * i + 1]) + 0.5};
+            for (double c : candidatos) {
+                if (livre(unidos, u, c) && (Double.isNaN(melhor) || Math.abs(c - x) < Math.abs(melhor - x))) {
+                    melhor = c;
+                }
+            }
+        }
+        return Double.isNaN(melhor) ? Double.MAX_VALUE : melhor;
+    }
+
+    private static boolean livre(double[] unidos, int u, double x) {
+        for (int i = 0; i < u; i += 2) {
+            if (unidos[i] < x && x < unidos[i + 1]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reserva uma área nova se estiver livre (checagem e inserção atômicas por mundo).
+     * A reserva recebe um ID provisório negativo; use {@link #confirmarReserva} ou {@link #remove}.
+     *
+     * @return o ID provisório, ou vazio se a área colide com outra
+     */
+    public Optional<Long> reservarSeLivre(String world, double centerX, double centerZ, int size, String donoUUID, String name, int buffer) {
+        long idReserva = proximaReserva.getAndDecrement();
+        Area area = new Area(idReserva, world, donoUUID, name, centerX, centerZ, size, 0L);
+        synchronized (mundo(world)) {
+            if (existeSobreposicao(world, area.minX(), area.maxX(), area.minZ(), area.maxZ(), buffer, idReserva)) {
+                return Optional.empty();
+            }
+            porId.put(idReserva, area);
+            indexar(area);
+        }
+        return Optional.of(idReserva);
+    }
+
+    /**
+     * Troca a reserva provisória pelo terreno gravado no banco (ID definitivo e flags).
+     */
+    public void confirmarReserva(long idReserva, Terreno terreno) {
+        Area reserva = porId.get(idReserva);
+        if (reserva == null) return;
+        synchronized (mundo(reserva.world())) {
+            porId.remove(idReserva);
+            desindexar(reserva);
+            Area definitiva = new Area(terreno.getId(), reserva.world(), reserva.donoUUID(), reserva.name(),
+                    reserva.centerX(), reserva.centerZ(), reserva.size(), terreno.getFlags());
+            porId.put(definitiva.id(), definitiva);
+            indexar(definitiva);
+            notificar(null, definitiva);
+        }
+    }
+
+    /**
+     * Altera a área atual de um terreno (nome, dono, flags) sob o lock do mundo, sem perder uma troca de área
+     * feita em paralelo (ex.: redimensionamento). {@code alteracao} não deve mudar o ID nem o mundo.
+     *
+     * @return false se o terreno não está no índice
+     */
+    public boolean atualizar(long id, UnaryOperator<Area> alteracao) {
+        Area atual = porId.get(id);
+        if (atual == null) return false;
+        synchronized (mundo(atual.world())) {
+            Area anterior = porId.get(id);
+            if (anterior == null) return false;
+            Area nova = alteracao.apply(anterior);
+            porId.put(id, nova);
+            desindexar(anterior);
+            indexar(nova);
+            notificar(anterior, nova);
+            return true;
+        }
+    }
+
+    /**
+     * Substitui a área de um terreno se a nova não colidir com outras (o próprio terreno é ignorado).
+     * Para desfazer, use {@link #atualizar} voltando só o tamanho.
+     *
+     * @return false se houve colisão; nesse caso nada muda
+     */
+    public boolean substituirSeLivre(Area nova, int buffer) {
+        synchronized (mundo(nova.world())) {
+            if (existeSobreposicao(nova.world(), nova.minX(), nova.maxX(), nova.minZ(), nova.maxZ(), buffer, nova.id())) {
+                return false;
+            }
+            Area anterior = porId.put(nova.id(), nova);
+            if (anterior != null) desindexar(anterior);
+            indexar(nova);
+            notificar(anterior, nova);
+            return true;
+        }
+    }
+
+    private void notificar(Area anterior, Area nova) {
+        if ((anterior != null && anterior.id() <= 0) || (nova != null && nova.id() <= 0)) return;
+        for (Observador observador : observadores) {
+            observador.aoAlterar(anterior, nova);
+        }
+    }
+
+    private Map<Long, long[]> mundo(String world) {
+        return celulasPorMundo.computeIfAbsent(world, w -> new ConcurrentHashMap<>());
+    }
+
+    // Chamado com o lock do mundo
+    private void indexar(Area area) {
+        Map<Long, long[]> celulas = mundo(area.world());
+        forEachCelula(area, key -> {
+            long[] atual = celulas.getOrDefault(key, VAZIO);
+            long[] novo = Arrays.copyOf(atual, atual.length + 1);
+            novo[atual.length] = area.id();
+            celulas.put(key, novo);
+        });
+    }
+
+    // Chamado com o lock do mundo
+    private void desindexar(Area area) {
+        Map<Long, long[]> celulas = mundo(area.world());
+        forEachCelula(area, key -> {
+            long[] atual = celulas.get(key);
+            if (atual == null) return;
+            long[] novo = Arrays.stream(atual).filter(id -> id != area.id()).toArray();
+            if (novo.length == 0) {
+                celulas.remove(key);
+            } else {
+                celulas.put(key, novo);
+            }
+        });
+    }
+
+    private static void forEachCelula(Area area, java.util.function.LongConsumer acao) {
+        int minCX = (int) Math.floor(area.minX()) >> CELL_SHIFT;
+        int maxCX = (int) Math.floor(area.maxX()) >> CELL_SHIFT;
+        int minCZ = (int) Math.floor(area.minZ()) >> CELL_SHIFT;
+        int maxCZ = (int) Math.floor(area.maxZ()) >> CELL_SHIFT;
+        for (int cx = minCX; cx <= maxCX; cx++) {
+            for (int cz = minCZ; cz <= maxCZ; cz++) {
+                acao.accept(celula(cx, cz));
+            }
+        }
+    }
+
+    private static long celula(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+}
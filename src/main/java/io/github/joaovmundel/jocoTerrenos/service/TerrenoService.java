@@ -1,105 +1,286 @@
 package io.github.joaovmundel.jocoTerrenos.service;
 
 import io.github.joaovmundel.jocoTerrenos.exceptions.TerrenoNotFoundException;
+import io.github.joaovmundel.jocoTerrenos.infrastructure.JocoLogging;
+import io.github.joaovmundel.jocoTerrenos.infrastructure.Settings;
+import io.github.joaovmundel.jocoTerrenos.models.AcaoAuditoria;
 import io.github.joaovmundel.jocoTerrenos.models.Terreno;
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoFlag;
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoRole;
 import io.github.joaovmundel.jocoTerrenos.repositories.TerrenoRepository;
+import io.github.joaovmundel.jocoTerrenos.repositories.UpdateResult;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex.Area;
 import io.github.joaovmundel.jocoTerrenos.utils.LocationUtils;
-import io.github.joaovmundel.jocoTerrenos.utils.LocationUtils.LocationRaw;
 import io.github.joaovmundel.jocoTerrenos.utils.SafeLocationUtils;
-import net.milkbowl.vault.economy.Economy;
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
-import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
-public class TerrenoService {
+public class TerrenoService implements TerrenoIndex.Observador {
+
+    private static final JocoLogging logger = new JocoLogging(TerrenoService.class.getName());
+    private static final int TERRENOS_POR_PAGINA = 8;
 
     private final TerrenoRepository repository;
-    private final FileConfiguration config;
+    private final Supplier<Settings> settings;
     private final MessageService messages;
-
-    public TerrenoService(TerrenoRepository repository, FileConfiguration config, MessageService messages) {
+    private final EconomyService economy;
+    private final TeleportCache teleportCache;
+    private final TerrenoIndex index;
+    private final TrustService trustService;
+    private final AuditService auditoria;
+    private final Map<String, Cursores> cursores = new ConcurrentHashMap<>();
+
+    public TerrenoService(TerrenoRepository repository, Supplier<Settings> settings, MessageService messages, EconomyService economy,
+                          TeleportCache teleportCache, TerrenoIndex index, TrustService trustService, AuditService auditoria) {
         this.repository = repository;
-        this.config = config;
+        this.settings = settings;
         this.messages = messages;
+        this.economy = economy;
+        this.teleportCache = teleportCache;
+        this.index = index;
+        this.trustService = trustService;
+        this.auditoria = auditoria;
+    }
+
+    /**
+     * Página de {@code /terreno listar} (terrenos sem membros).
+     */
+    public record Pagina(List<Terreno> terrenos, int pagina, int totalPaginas, int total) {
     }
 
     /**
-     * Cria um terreno para o jogador com nome
+     * Último ID de cada página já percorrida do dono ({@code fimDaPagina[0]} = 0). Descartados quando o dono ganha
+     * ou perde um terreno ({@link #aoAlterar}) e quando sai do servidor; o total confere o que escapar disso.
      */
-    public Optional<Terreno> criarTerreno(Player player, int tamanho, String nome) {
+    private record Cursores(int total, long[] fimDaPagina) {
+    }
+
+    /**
+     * Status do redimensionamento de um terreno.
+     */
+    public enum StatusRedimensionamento {
+        SUCESSO, TAMANHO_INVALIDO, MESMO_TAMANHO, NAO_ENCONTRADO, NAO_DONO, AREA_INDISPONIVEL, SALDO_INSUFICIENTE, ERRO
+    }
+
+    /**
+     * Resultado do redimensionamento. {@code diferenca} é positiva quando houve cobrança e negativa quando houve reembolso.
+     */
+    public record Redimensionamento(StatusRedimensionamento status, Terreno terreno, int tamanhoAntigo, double diferenca) {
+
+        static Redimensionamento falha(StatusRedimensionamento status) {
+            return new Redimensionamento(status, null, 0, 0);
+        }
+    }
+
+    /**
+     * Status das operações de membros.
+     */
+    public enum StatusMembros {
+        SUCESSO, NAO_ENCONTRADO, NAO_MEMBRO, ERRO
+    }
+
+    /**
+     * Resultado das operações de membros, com a quantidade de membros afetados.
+     */
+    public record ResultadoMembros(StatusMembros status, int afetados) {
+    }
+
+    /**
+     * Carrega o índice espacial com todos os terrenos do banco, fora da main thread.
+     */
+    public CompletableFuture<Void> carregarIndiceAsync() {
+        return CompletableFuture.runAsync(() -> {
+            if (!repository.forEachTerreno(index::put)) {
+                logger.warning("Índice de terrenos carregado parcialmente; consultas podem ficar incompletas.");
+            }
+            logger.info("Índice de terrenos carregado: " + index.tamanho() + " terrenos.");
+        }).whenComplete((v, ex) -> index.marcarCarregado());
+    }
+
+    /**
+     * Cria um terreno para o jogador com nome.
+     * Validações e snapshot da posição ocorrem na thread de quem chama (main thread); consultas ao banco
+     * rodam em background e o débito passa pelo {@link EconomyService}. Qualquer falha depois do débito
+     * é compensada com estorno.
+     */
+    public CompletableFuture<Optional<Terreno>> criarTerrenoAsync(Player player, int tamanho, String nome) {
         // Valida tamanho
-        int tamanhoMinimo = getTamanhoMinimo();
-        int tamanhoMaximo = getTamanhoMaximo();
-        if (tamanho < tamanhoMinimo || tamanho > tamanhoMaximo) {
-            return Optional.empty();
+        if (!tamanhoValido(tamanho)) {
+            return CompletableFuture.completedFuture(Optional.empty());
         }
 
         // Valida nome
-        if (nome == null) {
-            return Optional.empty();
+        if (nome == null || nome.trim().isEmpty()) {
+            return CompletableFuture.completedFuture(Optional.empty());
         }
         String nomeTrim = nome.trim();
-        if (nomeTrim.isEmpty()) {
-            return Optional.empty();
-        }
         String donoUUID = player.getUniqueId().toString();
-        // Unicidade case-insensitive por dono
-        if (repository.existsByOwnerAndNameIgnoreCase(donoUUID, nomeTrim)) {
-            return Optional.empty();
-        }
         // Centro proposto do terreno
         Location loc = player.getLocation();
-        // Verifica disponibilidade da área com espaçamento mínimo
-        int buffer = getEspacoEntreTerrenos();
-        if (!isAreaDisponivel(loc, tamanho, buffer)) {
-            return Optional.empty();
+        if (loc.getWorld() == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
         }
-        // Calcula custo e verifica saldo
+        String location = LocationUtils.formatarLocalizacao(loc);
+        int buffer = getEspacoEntreTerrenos();
         double custo = calcularCustoTerreno(tamanho);
-        Economy economy = ((io.github.joaovmundel.jocoTerrenos.JocoTerrenos) Objects.requireNonNull(Bukkit.getPluginManager().getPlugin("JocoTerrenos"))).getEconomy();
-        if (economy == null) {
-            return Optional.empty();
-        }
-        if (!economy.has(player, custo)) {
-            return Optional.empty();
-        }
-        // Debita
-        if (!economy.withdrawPlayer(player, custo).transactionSuccess()) {
-            return Optional.empty();
+
+        String world = loc.getWorld().getName();
+        double centerX = loc.getX();
+        double centerZ = loc.getZ();
+
+        // Unicidade case-insensitive por dono; a área é reservada no índice para que duas compras simultâneas não colidam
+        CompletableFuture<Boolean> nomeLivre = CompletableFuture.supplyAsync(() -> !repository.existsByOwnerAndNameIgnoreCase(donoUUID, nomeTrim));
+        return nomeLivre.thenCombine(index.aguardarCarregamento(), (nomeOk, v) -> nomeOk
+                        ? index.reservarSeLivre(world, centerX, centerZ, tamanho, donoUUID, nomeTrim, buffer)
+                        : Optional.<Long>empty())
+                .thenCompose(idReserva -> {
+                    if (idReserva.isEmpty()) {
+                        return CompletableFuture.completedFuture(Optional.<Terreno>empty());
+                    }
+                    return economy.reservar(player, custo).thenCompose(reserva -> {
+                        if (reserva.isEmpty()) {
+                            index.remove(idReserva.get());
+                            return CompletableFuture.completedFuture(Optional.<Terreno>empty());
+                        }
+                        Terreno terreno = new Terreno();
+                        terreno.setDonoUUID(donoUUID);
+                        terreno.setName(nomeTrim);
+                        terreno.setLocation(location);
+                        terreno.setSize(tamanho);
+                        terreno.setFlags(settings.get().flagsDoMundo(world));
+                        // Cria terreno e o membro OWNER numa única transação
+                        return CompletableFuture.supplyAsync(() -> repository.createWithOwner(terreno))
+                                .handle((created, ex) -> {
+                                    if (ex != null || created.isEmpty()) {
+                                        // Reembolso e liberação da área em caso de falha
+                                        index.remove(idReserva.get());
+                                        reserva.get().estornar();
+                                        return Optional.<Terreno>empty();
+                                    }
+                                    index.confirmarReserva(idReserva.get(), created.get());
+                                    auditoria.registrar(AcaoAuditoria.CRIAR, created.get().getId(), donoUUID, nomeTrim, null, tamanho);
+                                    return created;
+                                });
+                    });
+                });
+    }
+
+    /**
+     * Redimensiona um terreno do jogador mantendo o centro.
+     * A nova área é trocada no índice de forma atômica (ignorando o próprio terreno), a diferença de preço é
+     * cobrada ou reembolsada e o tamanho é gravado com UPDATE condicional. Se algo falhar, o índice e o saldo
+     * voltam ao estado anterior. As cercas ficam a cargo de quem chama.
+     */
+    public CompletableFuture<Redimensionamento> redimensionarTerrenoAsync(Player player, String nome, int novoTamanho) {
+        if (!tamanhoValido(novoTamanho)) {
+            return CompletableFuture.completedFuture(Redimensionamento.falha(StatusRedimensionamento.TAMANHO_INVALIDO));
         }
-        // Cria terreno
-        String location = LocationUtils.formatarLocalizacao(loc);
-        Terreno terreno = new Terreno();
-        terreno.setDonoUUID(donoUUID);
-        terreno.setName(nomeTrim);
-        terreno.setLocation(location);
-        terreno.setSize(tamanho);
-        terreno.setPvp(false);
-        terreno.setMobs(true);
-        terreno.setPublicAccess(false);
-        Optional<Terreno> created = repository.create(terreno);
-        if (created.isEmpty()) {
-            // Reembolso em caso de falha
-            economy.depositPlayer(player, custo);
+        if (nome == null || nome.trim().isEmpty()) {
+            return CompletableFuture.completedFuture(Redimensionamento.falha(StatusRedimensionamento.NAO_ENCONTRADO));
         }
-        return created;
+        String donoUUID = player.getUniqueId().toString();
+        String key = donoUUID + "+" + nome.trim().toLowerCase();
+        int buffer = getEspacoEntreTerrenos();
+
+        return CompletableFuture.supplyAsync(() -> repository.findByNameKey(key))
+                .thenCombine(index.aguardarCarregamento(), (opt, v) -> opt)
+                .thenCompose(opt -> {
+                    if (opt.isEmpty()) {
+                        return CompletableFuture.completedFuture(Redimensionamento.falha(StatusRedimensionamento.NAO_ENCONTRADO));
+                    }
+                    Terreno terreno = opt.get();
+                    if (!isDono(terreno, donoUUID)) {
+                        return CompletableFuture.completedFuture(Redimensionamento.falha(StatusRedimensionamento.NAO_DONO));
+                    }
+                    int tamanhoAntigo = terreno.getSize();
+                    if (tamanhoAntigo == novoTamanho) {
+                        return CompletableFuture.completedFuture(Redimensionamento.falha(StatusRedimensionamento.MESMO_TAMANHO));
+                    }
+                    Area atual = index.get(terreno.getId()).orElseGet(() -> TerrenoIndex.areaDe(terreno));
+                    if (atual == null) {
+                        return CompletableFuture.completedFuture(Redimensionamento.falha(StatusRedimensionamento.ERRO));
+                    }
+                    if (!index.substituirSeLivre(atual.comTamanho(novoTamanho), buffer)) {
+                        return CompletableFuture.completedFuture(Redimensionamento.falha(StatusRedimensionamento.AREA_INDISPONIVEL));
+                    }
+
+                    double diferenca = calcularCustoTerreno(novoTamanho) - calcularCustoTerreno(tamanhoAntigo);
+                    CompletableFuture<Redimensionamento> resultado;
+                    if (diferenca > 0) {
+                        resultado = economy.reservar(player, diferenca).thenCompose(reserva -> {
+                            if (reserva.isEmpty()) {
+                                return CompletableFuture.completedFuture(
+                                        new Redimensionamento(StatusRedimensionamento.SALDO_INSUFICIENTE, terreno, tamanhoAntigo, diferenca));
+                            }
+                            return gravarTamanho(terreno, tamanhoAntigo, novoTamanho)
+                                    .thenApply(ok -> {
+                                        if (!ok) {
+                                            reserva.get().estornar();
+                                            return Redimensionamento.falha(StatusRedimensionamento.ERRO);
+                                        }
+                                        return new Redimensionamento(StatusRedimensionamento.SUCESSO, terreno, tamanhoAntigo, diferenca);
+                                    });
+                        });
+                    } else {
+                        resultado = gravarTamanho(terreno, tamanhoAntigo, novoTamanho).thenCompose(ok -> {
+                            if (!ok) {
+                                return CompletableFuture.completedFuture(Redimensionamento.falha(StatusRedimensionamento.ERRO));
+                            }
+                            Redimensionamento sucesso = new Redimensionamento(StatusRedimensionamento.SUCESSO, terreno, tamanhoAntigo, diferenca);
+                            if (diferenca == 0) {
+                                return CompletableFuture.completedFuture(sucesso);
+                            }
+                            // Reembolso da diferença ao reduzir
+                            return economy.depositar(player, -diferenca).handle((depositado, ex) -> {
+                                if (ex != null || !Boolean.TRUE.equals(depositado)) {
+                                    logger.warning("Falha ao reembolsar " + (-diferenca) + " para " + donoUUID + " no terreno " + terreno.getId());
+                                }
+                                return sucesso;
+                            });
+                        });
+                    }
+                    // Qualquer saída sem gravar no banco (inclusive exceção da economia) libera a área no índice;
+                    // o terreno só recebe o novo tamanho depois da gravação. Volta só o tamanho, preservando
+                    // nome/dono/flags alterados nesse meio tempo
+                    return resultado.whenComplete((r, ex) -> {
+                        if (terreno.getSize() != novoTamanho) {
+                            index.atualizar(atual.id(), area -> area.comTamanho(tamanhoAntigo));
+                        }
+                    });
+                });
+    }
+
+    private CompletableFuture<Boolean> gravarTamanho(Terreno terreno, int tamanhoAntigo, int novoTamanho) {
+        return CompletableFuture.supplyAsync(() -> repository.updateSize(terreno.getId(), tamanhoAntigo, novoTamanho))
+                .exceptionally(ex -> false)
+                .thenApply(ok -> {
+                    if (!ok) return false;
+                    terreno.setSize(novoTamanho);
+                    auditoria.registrar(AcaoAuditoria.REDIMENSIONAR, terreno.getId(), terreno.getDonoUUID(), null, null, novoTamanho);
+                    // O ponto salvo pode ter ficado fora do terreno reduzido
+                    teleportCache.invalidar(terreno.getId());
+                    return true;
+                });
     }
 
     public boolean tamanhoValido(int tamanho) {
-        int tamanhoMinimo = getTamanhoMinimo();
-        int tamanhoMaximo = getTamanhoMaximo();
-        return tamanho >= tamanhoMinimo && tamanho <= tamanhoMaximo;
+        Settings s = settings.get();
+        return tamanho >= s.tamanhoMinimo() && tamanho <= s.tamanhoMaximo();
     }
 
     public double calcularCustoTerreno(int tamanho) {
-        double blockPrice = config.getDouble("lands.block-price", config.getDouble("terrenos.block-price", 1000.0));
-        return (double) tamanho * (double) tamanho * blockPrice;
+        return (double) tamanho * (double) tamanho * settings.get().precoPorBloco();
     }
 
     /**
@@ -110,6 +291,65 @@ public class TerrenoService {
     }
 
 
+    /**
+     * Uma página dos terrenos do dono, fora da main thread, por keyset (id &gt; último ID da página anterior).
+     * Páginas fora do intervalo viram a primeira ou a última.
+     */
+    public CompletableFuture<Pagina> listarPaginaAsync(String donoUUID, int pagina) {
+        return CompletableFuture.supplyAsync(() -> {
+            int total = repository.countByOwner(donoUUID);
+            if (total < 0) throw new IllegalStateException("Erro ao contar os terrenos de " + donoUUID);
+            int totalPaginas = Math.max(1, (total + TERRENOS_POR_PAGINA - 1) / TERRENOS_POR_PAGINA);
+            int atual = Math.min(Math.max(1, pagina), totalPaginas);
+            if (total == 0) return new Pagina(List.of(), 1, 1, 0);
+
+            Cursores conhecidos = cursores.get(donoUUID);
+            long[] fim = conhecidos != null && conhecidos.total() == total ? conhecidos.fimDaPagina() : new long[]{0L};
+            // Pulando páginas: avança pelas que ainda não têm cursor
+            while (fim.length < atual) {
+                List<Terreno> anterior = repository.findByOwnerAfter(donoUUID, fim[fim.length - 1], TERRENOS_POR_PAGINA);
+                if (anterior.isEmpty()) break;
+                fim = Arrays.copyOf(fim, fim.length + 1);
+                fim[fim.length - 1] = anterior.get(anterior.size() - 1).getId();
+            }
+            atual = Math.min(atual, fim.length);
+
+            List<Terreno> terrenos = repository.findByOwnerAfter(donoUUID, fim[atual - 1], TERRENOS_POR_PAGINA);
+            if (fim.length == atual && !terrenos.isEmpty()) {
+                fim = Arrays.copyOf(fim, fim.length + 1);
+                fim[atual] = terrenos.get(terrenos.size() - 1).getId();
+            }
+            cursores.put(donoUUID, new Cursores(total, fim));
+            return new Pagina(terrenos, atual, totalPaginas, total);
+        });
+    }
+
+    /**
+     * Invalida os cursores de listagem dos donos afetados por criação, exclusão, expiração ou transferência.
+     */
+    @Override
+    public void aoAlterar(Area anterior, Area nova) {
+        String donoAnterior = anterior != null ? anterior.donoUUID() : null;
+        String donoNovo = nova != null ? nova.donoUUID() : null;
+        if (Objects.equals(donoAnterior, donoNovo)) return;
+        if (donoAnterior != null) cursores.remove(donoAnterior);
+        if (donoNovo != null) cursores.remove(donoNovo);
+    }
+
+    /**
+     * Descarta os cursores de listagem do jogador (ao sair do servidor).
+     */
+    public void esquecerCursores(UUID playerUUID) {
+        cursores.remove(playerUUID.toString());
+    }
+
+    /**
+     * Lista os terrenos de um mundo (sem membros) fora da main thread.
+     */
+    public CompletableFuture<List<Terreno>> listarTerrenosDoMundoAsync(String worldName) {
+        return CompletableFuture.supplyAsync(() -> repository.findByWorld(worldName));
+    }
+
     /**
      * Busca um terreno por nome
      */
@@ -132,20 +372,166 @@ public class TerrenoService {
             return false;
         }
 
-        return repository.delete(terreno.getId());
+        if (!repository.delete(terreno.getId())) {
+            return false;
+        }
+        auditoria.registrar(AcaoAuditoria.APAGAR, terreno.getId(), playerUUID, terreno.getName(), null, terreno.getSize());
+        descartarTerreno(terreno.getId());
+        return true;
     }
 
-    public boolean togglePvp(String name, String playerUUID) throws TerrenoNotFoundException {
-        Terreno terreno = buscarTerrenoPorNome(playerUUID, name);
-        return toggleConfiguracao(terreno.getName(), playerUUID, "pvp");
+    /**
+     * Tira dos caches em memória um terreno já apagado do banco.
+     */
+    public void descartarTerreno(long id) {
+        index.remove(id);
+        teleportCache.invalidar(id);
     }
 
-    public boolean toggleMobs(String nome, String playerUUID) throws TerrenoNotFoundException {
-        return toggleConfiguracao(nome, playerUUID, "mobs");
+    /**
+     * Adiciona vários membros ao terreno do dono numa única ida ao banco e atualiza as permissões em memória.
+     */
+    public CompletableFuture<ResultadoMembros> adicionarMembrosAsync(String donoUUID, String nome, Collection<UUID> membros, TerrenoRole cargo) {
+        return alterarMembrosAsync(donoUUID, nome, membros, (terreno, uuids) -> {
+            int afetados = repository.addMembers(terreno.getId(), uuids, cargo);
+            if (afetados >= 0) trustService.adicionar(comoUUIDs(uuids), terreno.getId());
+            // O repositório só informa a quantidade: quem já era membro também aparece na auditoria
+            if (afetados > 0) registrarMembros(AcaoAuditoria.MEMBRO_ADICIONAR, terreno.getId(), donoUUID, uuids, cargo.name());
+            return afetados;
+        });
     }
 
-    public boolean togglePublico(String name, String playerUUID) throws TerrenoNotFoundException {
-        return toggleConfiguracao(name, playerUUID, "publico");
+    /**
+     * Remove vários membros do terreno do dono numa única ida ao banco e atualiza as permissões em memória.
+     */
+    public CompletableFuture<ResultadoMembros> removerMembrosAsync(String donoUUID, String nome, Collection<UUID> membros) {
+        return alterarMembrosAsync(donoUUID, nome, membros, (terreno, uuids) -> {
+            int afetados = repository.removeMembers(terreno.getId(), uuids);
+            if (afetados >= 0) trustService.remover(comoUUIDs(uuids), terreno.getId());
+            if (afetados > 0) registrarMembros(AcaoAuditoria.MEMBRO_REMOVER, terreno.getId(), donoUUID, uuids, null);
+            return afetados;
+        });
+    }
+
+    /**
+     * Altera o cargo de um membro do terreno do dono.
+     */
+    public CompletableFuture<ResultadoMembros> alterarCargoAsync(String donoUUID, String nome, UUID membro, TerrenoRole cargo) {
+        return alterarMembrosAsync(donoUUID, nome, List.of(membro),
+                (terreno, uuids) -> {
+                    if (!repository.updateMemberRole(terreno.getId(), uuids.get(0), cargo)) return 0;
+                    auditoria.registrar(AcaoAuditoria.MEMBRO_CARGO, terreno.getId(), donoUUID, uuids.get(0), cargo.name(), 0);
+                    return 1;
+                })
+                .thenApply(r -> r.status() == StatusMembros.SUCESSO && r.afetados() == 0
+                        ? new ResultadoMembros(StatusMembros.NAO_MEMBRO, 0) : r);
+    }
+
+    private void registrarMembros(AcaoAuditoria acao, long terrenoId, String donoUUID, List<String> uuids, String cargo) {
+        for (String uuid : uuids) {
+            auditoria.registrar(acao, terrenoId, donoUUID, uuid, cargo, 0);
+        }
+    }
+
+    /**
+     * Volta a lista já filtrada (sem o dono e sem repetidos) para UUIDs, para o {@link TrustService}
+     */
+    private static List<UUID> comoUUIDs(List<String> uuids) {
+        return uuids.stream().map(UUID::fromString).toList();
+    }
+
+    private CompletableFuture<ResultadoMembros> alterarMembrosAsync(String donoUUID, String nome, Collection<UUID> membros,
+                                                                    java.util.function.ToIntBiFunction<Terreno, List<String>> operacao) {
+        if (nome == null || nome.trim().isEmpty()) {
+            return CompletableFuture.completedFuture(new ResultadoMembros(StatusMembros.NAO_ENCONTRADO, 0));
+        }
+        String key = donoUUID + "+" + nome.trim().toLowerCase();
+        // O dono não entra na lista: o cargo OWNER não é alterado por aqui
+        List<String> uuids = membros.stream().map(UUID::toString).filter(u -> !u.equals(donoUUID)).distinct().toList();
+        return CompletableFuture.supplyAsync(() -> {
+            Optional<Terreno> terreno = repository.findByNameKey(key);
+            if (terreno.isEmpty()) {
+                return new ResultadoMembros(StatusMembros.NAO_ENCONTRADO, 0);
+            }
+            if (uuids.isEmpty()) {
+                return new ResultadoMembros(StatusMembros.SUCESSO, 0);
+            }
+            int afetados = operacao.applyAsInt(terreno.get(), uuids);
+            return afetados < 0 ? new ResultadoMembros(StatusMembros.ERRO, 0) : new ResultadoMembros(StatusMembros.SUCESSO, afetados);
+        });
+    }
+
+    /**
+     * Renomeia um terreno do jogador. Nomes repetidos voltam como {@link UpdateResult#CONFLICT}.
+     */
+    public CompletableFuture<UpdateResult> renomearTerrenoAsync(String donoUUID, String nome, String novoNome) {
+        if (nome == null || nome.trim().isEmpty() || novoNome == null || novoNome.trim().isEmpty()) {
+            return CompletableFuture.completedFuture(UpdateResult.NOT_FOUND);
+        }
+        String key = donoUUID + "+" + nome.trim().toLowerCase();
+        String novoTrim = novoNome.trim();
+        return CompletableFuture.supplyAsync(() -> {
+            Optional<Terreno> opt = repository.findByNameKey(key);
+            if (opt.isEmpty()) return UpdateResult.NOT_FOUND;
+            Terreno terreno = opt.get();
+            UpdateResult result = repository.rename(terreno.getId(), donoUUID, novoTrim);
+            if (result == UpdateResult.UPDATED) {
+                terreno.setName(novoTrim);
+                // Só o nome muda: parte da área atual do índice para não desfazer um redimensionamento concorrente
+                index.atualizar(terreno.getId(), area -> area.comNome(novoTrim));
+                auditoria.registrar(AcaoAuditoria.RENOMEAR, terreno.getId(), donoUUID, novoTrim);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Transfere um terreno do jogador para outro. Se o novo dono já tiver um terreno com o mesmo nome,
+     * volta {@link UpdateResult#CONFLICT}. Índice e permissões em memória são atualizados após o commit.
+     */
+    public CompletableFuture<UpdateResult> transferirTerrenoAsync(String donoUUID, String nome, UUID novoDono) {
+        if (nome == null || nome.trim().isEmpty()) {
+            return CompletableFuture.completedFuture(UpdateResult.NOT_FOUND);
+        }
+        String key = donoUUID + "+" + nome.trim().toLowerCase();
+        String novoDonoStr = novoDono.toString();
+        return CompletableFuture.supplyAsync(() -> {
+            Optional<Terreno> opt = repository.findByNameKey(key);
+            if (opt.isEmpty()) return UpdateResult.NOT_FOUND;
+            Terreno terreno = opt.get();
+            UpdateResult result = repository.transferOwner(terreno.getId(), donoUUID, novoDonoStr, terreno.getName());
+            if (result == UpdateResult.UPDATED) {
+                terreno.setDonoUUID(novoDonoStr);
+                index.atualizar(terreno.getId(), area -> area.comDono(novoDonoStr));
+                auditoria.registrar(AcaoAuditoria.TRANSFERIR, terreno.getId(), donoUUID, novoDonoStr);
+                trustService.remover(List.of(UUID.fromString(donoUUID)), terreno.getId());
+                trustService.adicionar(List.of(novoDono), terreno.getId());
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Inverte uma flag do terreno do jogador, gravando só a coluna de flags.
+     *
+     * @return o novo valor da flag, ou vazio se o jogador não é o dono ou a gravação falhou
+     */
+    public Optional<Boolean> alternarFlag(String nome, String playerUUID, TerrenoFlag flag) throws TerrenoNotFoundException {
+        Terreno t = buscarTerrenoPorNome(playerUUID, nome);
+
+        if (!isDono(t, playerUUID)) {
+            return Optional.empty();
+        }
+
+        boolean ativa = !t.temFlag(flag);
+        if (!repository.updateFlag(t.getId(), flag, ativa)) {
+            return Optional.empty();
+        }
+        t.setFlag(flag, ativa);
+        auditoria.registrar(AcaoAuditoria.FLAG, t.getId(), playerUUID, null, flag.chave(), ativa ? 1 : 0);
+        // Mantém as flags do índice em dia para os listeners
+        index.atualizar(t.getId(), area -> area.comFlag(flag, ativa));
+        return Optional.of(ativa);
     }
 
     public boolean isDono(String terrenoName, String playerUUID) throws TerrenoNotFoundException {
@@ -165,21 +551,21 @@ public class TerrenoService {
      * Obtém o tamanho mínimo configurado
      */
     public int getTamanhoMinimo() {
-        return config.getInt("lands.min-size", config.getInt("terrenos.tamanho-minimo", 5));
+        return settings.get().tamanhoMinimo();
     }
 
     /**
      * Obtém o tamanho máximo configurado
      */
     public int getTamanhoMaximo() {
-        return config.getInt("lands.max-size", config.getInt("terrenos.tamanho-maximo", 100));
+        return settings.get().tamanhoMaximo();
     }
 
     /**
      * Distância (em blocos) mínima entre terrenos diferentes.
      */
     public int getEspacoEntreTerrenos() {
-        return config.getInt("lands.spacing-between-lands", config.getInt("terrenos.espaco-entre-terrenos", 3));
+        return settings.get().espacoEntreTerrenos();
     }
 
     /**
@@ -187,37 +573,14 @@ public class TerrenoService {
      */
     public boolean isAreaDisponivel(Location center, int tamanho, int buffer) {
         if (center == null || center.getWorld() == null) return false;
-        String world = center.getWorld().getName();
         double half = tamanho / 2.0;
-        double minX = center.getX() - half;
-        double maxX = center.getX() + half;
-        double minZ = center.getZ() - half;
-        double maxZ = center.getZ() + half;
-
-        List<Terreno> existentes = repository.findAll();
-        for (Terreno t : existentes) {
-            LocationRaw raw = LocationUtils.converterLocalizacaoRaw(t.getLocation());
-            if (raw == null || raw.worldName() == null) continue;
-            if (!world.equals(raw.worldName())) continue;
-            int size2 = t.getSize();
-            double half2 = size2 / 2.0;
-            double minX2 = raw.x() - half2;
-            double maxX2 = raw.x() + half2;
-            double minZ2 = raw.z() - half2;
-            double maxZ2 = raw.z() + half2;
-            // Checagem de colisão com "buffer" estrito (permite exatamente ‘buffer’ de distância)
-            boolean overlapX = (maxX + buffer > minX2) && (minX - buffer < maxX2);
-            boolean overlapZ = (maxZ + buffer > minZ2) && (minZ - buffer < maxZ2);
-            if (overlapX && overlapZ) {
-                return false;
-            }
-        }
-        return true;
+        return !index.existeSobreposicao(center.getWorld().getName(), center.getX() - half, center.getX() + half,
+                center.getZ() - half, center.getZ() + half, buffer, 0);
     }
 
     /**
      * Versão assíncrona para verificar disponibilidade de área sem bloquear a main thread.
-     * Faz snapshot mínimo do estado necessário (mundo, x, z) e processa o restante fora da thread do servidor.
+     * Faz snapshot mínimo do estado necessário (mundo, x, z) e consulta o índice quando ele estiver carregado.
      */
     public CompletableFuture<Boolean> isAreaDisponivelAsync(Location center, int tamanho, int buffer) {
         if (center == null || center.getWorld() == null) {
@@ -226,61 +589,38 @@ public class TerrenoService {
         final String world = center.getWorld().getName();
         final double cx = center.getX();
         final double cz = center.getZ();
-        return CompletableFuture.supplyAsync(() -> {
+        return index.aguardarCarregamento().thenApply(v -> {
             double half = tamanho / 2.0;
-            double minX = cx - half;
-            double maxX = cx + half;
-            double minZ = cz - half;
-            double maxZ = cz + half;
-
-            List<Terreno> existentes = repository.findAll();
-            for (Terreno t : existentes) {
-                LocationRaw raw = LocationUtils.converterLocalizacaoRaw(t.getLocation());
-                if (raw == null || raw.worldName() == null) continue;
-                if (!world.equals(raw.worldName())) continue;
-                int size2 = t.getSize();
-                double half2 = size2 / 2.0;
-                double minX2 = raw.x() - half2;
-                double maxX2 = raw.x() + half2;
-                double minZ2 = raw.z() - half2;
-                double maxZ2 = raw.z() + half2;
-                boolean overlapX = (maxX + buffer > minX2) && (minX - buffer < maxX2);
-                boolean overlapZ = (maxZ + buffer > minZ2) && (minZ - buffer < maxZ2);
-                if (overlapX && overlapZ) {
-                    return false;
-                }
-            }
-            return true;
+            return !index.existeSobreposicao(world, cx - half, cx + half, cz - half, cz + half, buffer, 0);
         });
     }
 
-    private boolean toggleConfiguracao(String nome, String playerUUID, String tipo) throws TerrenoNotFoundException {
-        Terreno t = buscarTerrenoPorNome(playerUUID, nome);
-
-        if (!isDono(t, playerUUID)) {
-            return false;
-        }
+    /**
+     * Raio máximo (em blocos) da busca de {@code /terreno sugerir}.
+     */
+    public int getRaioSugestao() {
+        return settings.get().raioSugestao();
+    }
 
-        switch (tipo) {
-            case "pvp":
-                t.setPvp(!t.getPvp());
-                break;
-            case "mobs":
-                t.setMobs(!t.getMobs());
-                break;
-            case "publico":
-                t.setPublicAccess(!t.getPublicAccess());
-                break;
-            default:
-                return false;
+    /**
+     * Procura no índice o centro livre mais próximo de {@code origem} para um terreno do tamanho informado,
+     * respeitando o espaçamento entre terrenos. Vazio se não houver espaço dentro de {@link #getRaioSugestao()}.
+     */
+    public CompletableFuture<Optional<TerrenoIndex.Centro>> sugerirCentroAsync(Location origem, int tamanho) {
+        if (origem == null || origem.getWorld() == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
         }
-
-        return repository.update(t);
+        final String world = origem.getWorld().getName();
+        final double x = origem.getX();
+        final double z = origem.getZ();
+        final int buffer = getEspacoEntreTerrenos();
+        final int raio = getRaioSugestao();
+        return index.aguardarCarregamento().thenApplyAsync(v -> index.buscarCentroLivre(world, x, z, tamanho, buffer, raio));
     }
 
     /**
      * Versão assíncrona que evita bloquear o thread principal.
-     * Busca terrenos no repositório e calcula os limites fora da main thread.
+     * Localiza o terreno pelo índice espacial e carrega o registro completo fora da main thread.
      * Nota: não chama APIs Bukkit fora da main thread.
      */
     public CompletableFuture<Terreno> getCurrentTerrenoAsync(Player p) {
@@ -290,21 +630,11 @@ public class TerrenoService {
         double playerX = playerLoc.getX();
         double playerZ = playerLoc.getZ();
 
-        return CompletableFuture.supplyAsync(() -> {
-            List<Terreno> terrenos = repository.findAll();
-            for (Terreno t : terrenos) {
-                LocationRaw raw = LocationUtils.converterLocalizacaoRaw(t.getLocation());
-                if (raw == null || raw.worldName() == null) continue;
-                if (!raw.worldName().equals(playerWorld)) continue;
-                int size = t.getSize();
-                double halfSize = size / 2.0;
-                double minX = raw.x() - halfSize;
-                double maxX = raw.x() + halfSize;
-                double minZ = raw.z() - halfSize;
-                double maxZ = raw.z() + halfSize;
-                if (playerX >= minX && playerX <= maxX && playerZ >= minZ && playerZ <= maxZ) {
-                    return t;
-                }
+        return index.aguardarCarregamento().thenApplyAsync(v -> {
+            Optional<Terreno> terreno = index.findAt(playerWorld, playerX, playerZ)
+                    .flatMap(area -> repository.findById(area.id()));
+            if (terreno.isPresent()) {
+                return terreno.get();
             }
             throw new RuntimeException(new TerrenoNotFoundException(messages.get("errors.terreno.nao-encontrado")));
         });
@@ -317,12 +647,21 @@ public class TerrenoService {
             return Optional.empty();
         }
 
+        // Ponto em cache validado pela checagem de três blocos
+        Optional<Location> cached = teleportCache.obterValido(terreno.getId());
+        if (cached.isPresent()) return cached;
+
         Location center = LocationUtils.converterLocalizacao(terreno.getLocation());
         if (center == null) return Optional.empty();
-        Location spot = SafeLocationUtils.findSafeSpot(center, terreno.getSize(), config);
-        if (spot != null) return Optional.of(spot);
-        Location retryCenter = center.clone().add(2, 0, 2);
-        spot = SafeLocationUtils.findSafeSpot(retryCenter, terreno.getSize(), config);
+        Settings s = settings.get();
+        Location spot = SafeLocationUtils.findSafeSpot(center, terreno.getSize(), s.teleporteMinY(), s.teleporteMaxY());
+        if (spot == null) {
+            Location retryCenter = center.clone().add(2, 0, 2);
+            spot = SafeLocationUtils.findSafeSpot(retryCenter, terreno.getSize(), s.teleporteMinY(), s.teleporteMaxY());
+        }
+        if (spot != null) {
+            teleportCache.registrar(terreno.getId(), spot);
+        }
         return Optional.ofNullable(spot);
     }
 
@@ -0,0 +1,176 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.infrastructure.JocoLogging;
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoFlag;
+import io.github.joaovmundel.jocoTerrenos.repositories.TerrenoRepository;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex.Area;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decide quem pode construir e interagir dentro dos terrenos.
+ * Para cada jogador online guarda um array ordenado com os IDs dos terrenos em que ele é dono ou membro,
+ * carregado ao entrar e atualizado quando os membros mudam. A checagem no evento é uma busca no índice
+ * espacial mais uma busca binária, sem acesso ao banco.
+ * <p>
+ * A entrada do jogador existe desde o início da carga; mudanças de membros que chegam enquanto o banco é
+ * lido ficam registradas e são reaplicadas sobre o resultado da leitura, e uma entrada removida (jogador
+ * saiu) não volta quando a leitura termina.
+ */
+public class TrustService implements TerrenoIndex.Observador {
+
+    public static final String PERMISSION_BYPASS = "jocoterrenos.bypass";
+
+    private static final JocoLogging logger = new JocoLogging(TrustService.class.getName());
+    private static final long[] VAZIO = new long[0];
+
+    private final TerrenoRepository repository;
+    private final TerrenoIndex index;
+    private final Map<UUID, Entrada> confiaveis = new ConcurrentHashMap<>();
+    private final AtomicLong cargas = new AtomicLong();
+
+    /**
+     * IDs confiáveis de um jogador. Durante uma carga ({@code carga > 0}) guarda também as alterações
+     * recebidas, na ordem, para reaplicar sobre o que o banco devolver.
+     */
+    private record Entrada(long[] ids, long carga, List<Alteracao> pendentes) {
+
+        Entrada alterar(Alteracao alteracao) {
+            long[] novos = alteracao.aplicar(ids);
+            if (carga == 0) return novos == ids ? this : new Entrada(novos, 0, List.of());
+            List<Alteracao> mais = new ArrayList<>(pendentes);
+            mais.add(alteracao);
+            return new Entrada(novos, carga, List.copyOf(mais));
+        }
+    }
+
+    private record Alteracao(long terrenoId, boolean adicionar) {
+
+        long[] aplicar(long[] ids) {
+            boolean presente = Arrays.binarySearch(ids, terrenoId) >= 0;
+            if (adicionar == presente) return ids;
+            return adicionar ? inserir(ids, terrenoId) : Arrays.stream(ids).filter(id -> id != terrenoId).toArray();
+        }
+    }
+
+    public TrustService(TerrenoRepository repository, TerrenoIndex index) {
+        this.repository = repository;
+        this.index = index;
+    }
+
+    /**
+     * Pode quebrar/colocar blocos: fora de terrenos, ou dono/membro do terreno.
+     */
+    public boolean podeConstruir(Player player, Block block) {
+        Area area = terrenoDoBloco(block);
+        return area == null || confia(player, area.id()) || player.hasPermission(PERMISSION_BYPASS);
+    }
+
+    /**
+     * Pode usar portas, baús, botões etc.: além de quem constrói, qualquer um em terrenos públicos.
+     */
+    public boolean podeInteragir(Player player, Block block) {
+        Area area = terrenoDoBloco(block);
+        return area == null || area.temFlag(TerrenoFlag.PUBLICO) || confia(player, area.id())
+                || player.hasPermission(PERMISSION_BYPASS);
+    }
+
+    /**
+     * Pode entrar no terreno: fora de terrenos, terrenos com a flag entrar, ou dono/membro.
+     */
+    public boolean podeEntrar(Player player, Area area) {
+        return area == null || area.temFlag(TerrenoFlag.ENTRAR) || confia(player, area.id())
+                || player.hasPermission(PERMISSION_BYPASS);
+    }
+
+    public boolean confia(Player player, long terrenoId) {
+        Entrada entrada = confiaveis.get(player.getUniqueId());
+        return entrada != null && Arrays.binarySearch(entrada.ids(), terrenoId) >= 0;
+    }
+
+    /**
+     * Recarrega do banco os terrenos em que o jogador é confiável (ex.: ao entrar).
+     */
+    public CompletableFuture<Void> carregarAsync(UUID player) {
+        // A entrada já existe antes da leitura: adicionar/remover durante a carga são registrados nela
+        long carga = cargas.incrementAndGet();
+        confiaveis.compute(player, (k, atual) -> new Entrada(atual != null ? atual.ids() : VAZIO, carga, List.of()));
+        return CompletableFuture.supplyAsync(() -> repository.findTerrenoIdsByMember(player.toString()))
+                .thenAccept(ids -> confiaveis.computeIfPresent(player, (k, atual) -> {
+                    // Outra carga começou depois desta: o resultado dela prevalece
+                    if (atual.carga() != carga) return atual;
+                    long[] carregados = ordenar(ids);
+                    for (Alteracao alteracao : atual.pendentes()) {
+                        carregados = alteracao.aplicar(carregados);
+                    }
+                    return new Entrada(carregados, 0, List.of());
+                }))
+                .exceptionally(ex -> {
+                    // Fica com o que já tinha (e as alterações recebidas), sem seguir acumulando pendências
+                    confiaveis.computeIfPresent(player, (k, atual) ->
+                            atual.carga() == carga ? new Entrada(atual.ids(), 0, List.of()) : atual);
+                    logger.warning("Erro ao carregar permissões de " + player + ": " + ex.getMessage());
+                    return null;
+                });
+    }
+
+    public void descarregar(UUID player) {
+        confiaveis.remove(player);
+    }
+
+    /**
+     * Marca os jogadores como confiáveis no terreno. Só afeta quem está carregado (online).
+     */
+    public void adicionar(Collection<UUID> players, long terrenoId) {
+        alterar(players, new Alteracao(terrenoId, true));
+    }
+
+    public void remover(Collection<UUID> players, long terrenoId) {
+        alterar(players, new Alteracao(terrenoId, false));
+    }
+
+    private void alterar(Collection<UUID> players, Alteracao alteracao) {
+        for (UUID player : players) {
+            confiaveis.computeIfPresent(player, (k, entrada) -> entrada.alterar(alteracao));
+        }
+    }
+
+    /**
+     * Terreno novo: o dono passa a ser confiável nele.
+     */
+    @Override
+    public void aoAlterar(Area anterior, Area nova) {
+        if (anterior == null && nova != null && nova.donoUUID() != null) {
+            adicionar(List.of(UUID.fromString(nova.donoUUID())), nova.id());
+        }
+    }
+
+    private Area terrenoDoBloco(Block block) {
+        // Centro do bloco, para coincidir com as colunas de cerca
+        return index.findAt(block.getWorld().getName(), block.getX() + 0.5, block.getZ() + 0.5).orElse(null);
+    }
+
+    private static long[] ordenar(Collection<Long> ids) {
+        if (ids.isEmpty()) return VAZIO;
+        long[] out = ids.stream().mapToLong(Long::longValue).distinct().toArray();
+        Arrays.sort(out);
+        return out;
+    }
+
+    private static long[] inserir(long[] ids, long id) {
+        long[] out = Arrays.copyOf(ids, ids.length + 1);
+        out[ids.length] = id;
+        Arrays.sort(out);
+        return out;
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.joaovmundel.jocoTerrenos.tasks;
+
+/**
+ * Trabalho executado em pequenos passos na main thread pelo {@link TickBudgetScheduler}.
+ * Cada passo deve ser curto (ex.: uma coluna de cerca), para que o agendador consiga
+ * respeitar o orçamento de tempo por tick.
+ */
+public interface BudgetedJob {
+
+    enum Passo {
+        /** Ainda há trabalho pronto para executar */
+        CONTINUAR,
+        /** Esperando algo externo (ex.: carregamento de chunk) */
+        AGUARDANDO,
+        /** Trabalho terminado; o job sai da fila */
+        CONCLUIDO
+    }
+
+    Passo executarPasso();
+
+    /**
+     * Chamado quando o job sai da fila sem concluir: o agendador foi encerrado (ex.: desligamento do servidor)
+     * ou um passo lançou exceção. Deve soltar tickets e travas e completar os futuros pendentes.
+     */
+    default void interromper() {
+    }
+}
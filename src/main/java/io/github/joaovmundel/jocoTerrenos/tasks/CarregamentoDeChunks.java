@@ -0,0 +1,94 @@
+package io.github.joaovmundel.jocoTerrenos.tasks;
+
+import io.github.joaovmundel.jocoTerrenos.utils.FenceUtils;
+import org.bukkit.World;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Carrega uma lista de chunks ao longo dos passos de um {@link BudgetedJob}. Quando o servidor oferece
+ * {@code World#getChunkAtAsync} (Paper), os chunks descarregados são pedidos de uma vez e o job aguarda;
+ * senão (ou se o carregamento assíncrono falhar), cada passo carrega no máximo um chunk de forma síncrona,
+ * para o {@link TickBudgetScheduler} poder parar entre um carregamento e outro.
+ */
+final class CarregamentoDeChunks {
+
+    private static final Method GET_CHUNK_AT_ASYNC = localizarChunkAsync();
+
+    private final World world;
+    private final long[] chunks;
+    private int indice;
+    private boolean pediuAssincrono;
+    private CompletableFuture<Void> assincrono;
+
+    /**
+     * @param chunks chunks empacotados com {@link FenceUtils#coluna}
+     */
+    CarregamentoDeChunks(World world, long[] chunks) {
+        this.world = world;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Avança o carregamento. Chamar na main thread.
+     *
+     * @return {@code CONCLUIDO} com todos os chunks carregados, {@code CONTINUAR} depois de carregar um chunk
+     * de forma síncrona, ou {@code AGUARDANDO} enquanto os carregamentos assíncronos não terminam
+     */
+    BudgetedJob.Passo avancar() {
+        if (assincrono != null) {
+            if (!assincrono.isDone()) return BudgetedJob.Passo.AGUARDANDO;
+            assincrono = null;
+        }
+
+        while (indice < chunks.length) {
+            int cx = FenceUtils.colunaX(chunks[indice]);
+            int cz = FenceUtils.colunaZ(chunks[indice]);
+            if (world.isChunkLoaded(cx, cz)) {
+                indice++;
+                continue;
+            }
+            if (!pediuAssincrono && GET_CHUNK_AT_ASYNC != null) {
+                pediuAssincrono = true;
+                assincrono = pedirAssincrono();
+                if (assincrono != null) return BudgetedJob.Passo.AGUARDANDO;
+            }
+            // Os que o carregamento assíncrono não trouxe: um por passo
+            world.loadChunk(cx, cz);
+            indice++;
+            return BudgetedJob.Passo.CONTINUAR;
+        }
+        return BudgetedJob.Passo.CONCLUIDO;
+    }
+
+    /**
+     * Pede de uma vez os chunks ainda descarregados. Retorna null se o servidor recusou a chamada.
+     */
+    private CompletableFuture<Void> pedirAssincrono() {
+        List<CompletableFuture<?>> pendentes = new ArrayList<>();
+        for (int i = indice; i < chunks.length; i++) {
+            int cx = FenceUtils.colunaX(chunks[i]);
+            int cz = FenceUtils.colunaZ(chunks[i]);
+            if (world.isChunkLoaded(cx, cz)) continue;
+            try {
+                pendentes.add((CompletableFuture<?>) GET_CHUNK_AT_ASYNC.invoke(world, cx, cz));
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                if (pendentes.isEmpty()) return null;
+                break;
+            }
+        }
+        return CompletableFuture.allOf(pendentes.toArray(new CompletableFuture[0]))
+                .exceptionally(ex -> null);
+    }
+
+    private static Method localizarChunkAsync() {
+        try {
+            return World.class.getMethod("getChunkAtAsync", int.class, int.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.joaovmundel.jocoTerrenos.tasks;
+
+import io.github.joaovmundel.jocoTerrenos.utils.FenceUtils;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Aplica apenas a diferença entre dois perímetros de cerca: remove as colunas que saíram
+ * do perímetro e coloca as que entraram. Cada coluna é um passo do {@link TickBudgetScheduler}.
+ * Com o registro de cercas do terreno, a remoção mexe só nas posições registradas; ao terminar,
+ * o registro atualizado (posições mantidas + colocadas) é entregue a {@code aoConcluir}.
+ */
+public class FenceDiffJob implements BudgetedJob {
+
+    private final World world;
+    private final Material material;
+    private final long[] remover;
+    private final long[] removerPosicoes;
+    private final long[] colocar;
+    private final Consumer<long[]> aoConcluir;
+    private long[] registro;
+    private int tamanhoRegistro;
+    private int indice;
+
+    /**
+     * @param registradas posições registradas das cercas atuais (do mesmo material), ou null para varrer as colunas
+     * @param aoConcluir  recebe o novo registro de posições (pode ser null)
+     */
+    public FenceDiffJob(World world, int centerX, int centerZ, int tamanhoAntigo, int tamanhoNovo, Material material,
+                        long[] registradas, Consumer<long[]> aoConcluir) {
+        this.world = world;
+        this.material = material;
+        this.aoConcluir = aoConcluir;
+        long[] antigo = FenceUtils.colunasPerimetro(centerX, centerZ, tamanhoAntigo);
+        long[] novo = FenceUtils.colunasPerimetro(centerX, centerZ, tamanhoNovo);
+        Arrays.sort(antigo);
+        Arrays.sort(novo);
+        long[] colunasRemovidas = diferenca(antigo, novo);
+        this.colocar = diferenca(novo, antigo);
+
+        if (registradas == null) {
+            this.remover = colunasRemovidas;
+            this.removerPosicoes = null;
+            this.registro = new long[colocar.length];
+        } else {
+            // Separa as posições registradas entre as que saem (coluna removida) e as que ficam
+            long[] sair = new long[registradas.length];
+            long[] ficar = new long[registradas.length + colocar.length];
+            int ns = 0;
+            int nf = 0;
+            for (long p : registradas) {
+                long coluna = FenceUtils.coluna(FenceUtils.posicaoX(p), FenceUtils.posicaoZ(p));
+                if (Arrays.binarySearch(colunasRemovidas, coluna) >= 0) {
+                    sair[ns++] = p;
+                } else {
+                    ficar[nf++] = p;
+                }
+            }
+            this.remover = new long[0];
+            this.removerPosicoes = Arrays.copyOf(sair, ns);
+            this.registro = ficar;
+            this.tamanhoRegistro = nf;
+        }
+    }
+
+    public int getTotalColunas() {
+        return (removerPosicoes != null ? removerPosicoes.length : remover.length) + colocar.length;
+    }
+
+    @Override
+    public Passo executarPasso() {
+        int totalRemover = removerPosicoes != null ? removerPosicoes.length : remover.length;
+        if (indice < totalRemover) {
+            if (removerPosicoes != null) {
+                FenceUtils.removerCercaRegistrada(world, removerPosicoes[indice++], material);
+            } else {
+                long coluna = remover[indice++];
+                FenceUtils.removerCercaNaColuna(world, FenceUtils.colunaX(coluna), FenceUtils.colunaZ(coluna), material);
+            }
+            return Passo.CONTINUAR;
+        }
+        int i = indice - totalRemover;
+        if (i < colocar.length) {
+            long coluna = colocar[i];
+            indice++;
+            long p = FenceUtils.colocarCercaRegistrada(world, FenceUtils.colunaX(coluna), FenceUtils.colunaZ(coluna), material);
+            if (p != FenceUtils.SEM_POSICAO) registro[tamanhoRegistro++] = p;
+            return Passo.CONTINUAR;
+        }
+        if (aoConcluir != null) {
+            aoConcluir.accept(Arrays.copyOf(registro, tamanhoRegistro));
+        }
+        return Passo.CONCLUIDO;
+    }
+
+    /**
+     * Elementos de {@code a} que não estão em {@code b}; ambos ordenados.
+     */
+    private static long[] diferenca(long[] a, long[] b) {
+        long[] out = new long[a.length];
+        int n = 0;
+        int j = 0;
+        for (long v : a) {
+            while (j < b.length && b[j] < v) j++;
+            if (j >= b.length || b[j] != v) out[n++] = v;
+        }
+        return Arrays.copyOf(out, n);
+    }
+}
@@ -0,0 +1,163 @@
+package io.github.joaovmundel.jocoTerrenos.tasks;
+
+import io.github.joaovmundel.jocoTerrenos.JocoTerrenos;
+import io.github.joaovmundel.jocoTerrenos.repositories.FenceLedgerRepository.FenceLedger;
+import io.github.joaovmundel.jocoTerrenos.utils.FenceUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Remove as cercas de terrenos já apagados do banco, uma posição por passo do {@link TickBudgetScheduler}.
+ * Usa o registro de cercas quando existe (e o apaga ao terminar); senão varre as colunas do perímetro
+ * com o material configurado. Se o servidor parar no meio, os registros que sobraram sem terreno são
+ * retomados no próximo enable.
+ */
+public class FenceRemovalJob implements BudgetedJob {
+
+    private final JocoTerrenos plugin;
+    private final Deque<Alvo> fila = new ArrayDeque<>();
+    private boolean concluido;
+
+    private Alvo atual;
+    private CompletableFuture<Optional<FenceLedger>> carregandoRegistro;
+    private CarregamentoDeChunks carregandoChunks;
+    private World world;
+    private Material material;
+    private long[] posicoes;
+    private boolean registrado;
+    private int indice;
+    private long[] chunksComTicket;
+
+    /**
+     * Terreno a limpar. Sem mundo (null), só o registro de cercas é usado.
+     */
+    public record Alvo(long terrenoId, String world, int centerX, int centerZ, int size) {
+    }
+
+    public FenceRemovalJob(JocoTerrenos plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Enfileira um terreno. Chamar na main thread.
+     *
+     * @return false se o job já terminou (crie e agende outro)
+     */
+    public boolean adicionar(Alvo alvo) {
+        if (concluido) return false;
+        fila.addLast(alvo);
+        return true;
+    }
+
+    @Override
+    public Passo executarPasso() {
+        if (atual == null) {
+            atual = fila.pollFirst();
+            if (atual == null) {
+                concluido = true;
+                return Passo.CONCLUIDO;
+            }
+            carregandoRegistro = plugin.getFenceLedgerService().carregarAsync(atual.terrenoId());
+        }
+
+        if (carregandoRegistro != null) {
+            if (!carregandoRegistro.isDone()) return Passo.AGUARDANDO;
+            Optional<FenceLedger> ledger = carregandoRegistro.isCompletedExceptionally()
+                    ? Optional.empty() : carregandoRegistro.join();
+            carregandoRegistro = null;
+            if (!preparar(ledger)) {
+                proximo();
+                return Passo.CONTINUAR;
+            }
+            carregandoChunks = new CarregamentoDeChunks(world, chunksComTicket);
+        }
+
+        if (carregandoChunks != null) {
+            Passo passo = carregandoChunks.avancar();
+            if (passo != Passo.CONCLUIDO) return passo;
+            carregandoChunks = null;
+            for (long chunk : chunksComTicket) {
+                world.addPluginChunkTicket(FenceUtils.colunaX(chunk), FenceUtils.colunaZ(chunk), plugin);
+            }
+        }
+
+        if (indice < posicoes.length) {
+            long p = posicoes[indice++];
+            if (registrado) {
+                FenceUtils.removerCercaRegistrada(world, p, material);
+            } else {
+                FenceUtils.removerCercaNaColuna(world, FenceUtils.colunaX(p), FenceUtils.colunaZ(p), material);
+            }
+            return Passo.CONTINUAR;
+        }
+
+        if (registrado) {
+            plugin.getFenceLedgerService().esquecerAsync(atual.terrenoId());
+        }
+        proximo();
+        return Passo.CONTINUAR;
+    }
+
+    @Override
+    public void interromper() {
+        removerTickets();
+        concluido = true;
+    }
+
+    /**
+     * Define mundo, material e posições do terreno atual. Retorna false se não há o que remover.
+     */
+    private boolean preparar(Optional<FenceLedger> ledger) {
+        if (ledger.isPresent()) {
+            world = Bukkit.getWorld(ledger.get().world());
+            material = Material.matchMaterial(ledger.get().material());
+            posicoes = ledger.get().posicoes();
+            registrado = true;
+            if (world == null || material == null) return false;
+            chunksComTicket = chunksDasPosicoes(posicoes);
+            return true;
+        }
+        world = atual.world() != null ? Bukkit.getWorld(atual.world()) : null;
+        if (world == null || atual.size() <= 0) return false;
+        material = FenceUtils.getConfiguredFenceMaterial();
+        posicoes = FenceUtils.colunasPerimetro(atual.centerX(), atual.centerZ(), atual.size());
+        registrado = false;
+        chunksComTicket = RefenceJob.chunksDoPerimetro(atual.centerX(), atual.centerZ(), atual.size());
+        return true;
+    }
+
+    private void proximo() {
+        removerTickets();
+        atual = null;
+        world = null;
+        material = null;
+        posicoes = null;
+        indice = 0;
+    }
+
+    private void removerTickets() {
+        if (chunksComTicket == null || world == null) return;
+        if (carregandoChunks == null) {
+            for (long chunk : chunksComTicket) {
+                world.removePluginChunkTicket(FenceUtils.colunaX(chunk), FenceUtils.colunaZ(chunk), plugin);
+            }
+        }
+        chunksComTicket = null;
+        carregandoChunks = null;
+    }
+
+    private static long[] chunksDasPosicoes(long[] posicoes) {
+        long[] chunks = new long[posicoes.length];
+        for (int i = 0; i < posicoes.length; i++) {
+            chunks[i] = FenceUtils.coluna(FenceUtils.posicaoX(posicoes[i]) >> 4, FenceUtils.posicaoZ(posicoes[i]) >> 4);
+        }
+        return Arrays.stream(chunks).distinct().toArray();
+    }
+}
@@ -0,0 +1,365 @@
+package io.github.joaovmundel.jocoTerrenos.tasks;
+
+import io.github.joaovmundel.jocoTerrenos.JocoTerrenos;
+import io.github.joaovmundel.jocoTerrenos.infrastructure.JocoLogging;
+import io.github.joaovmundel.jocoTerrenos.models.Terreno;
+import io.github.joaovmundel.jocoTerrenos.repositories.FenceLedgerRepository.FenceLedger;
+import io.github.joaovmundel.jocoTerrenos.service.MessageService;
+import io.github.joaovmundel.jocoTerrenos.utils.FenceUtils;
+import io.github.joaovmundel.jocoTerrenos.utils.LocationUtils;
+import io.github.joaovmundel.jocoTerrenos.utils.LocationUtils.LocationRaw;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Regenera as cercas de todos os terrenos de um mundo.
+ * As cercas antigas saem pelas posições registradas (ou pela varredura das colunas, em terrenos sem registro).
+ * Os terrenos são percorridos em ordem de localidade de chunk (curva Z), os chunks são carregados
+ * pelo {@link CarregamentoDeChunks} (assíncrono no Paper, um por passo no Spigot) e cada coluna
+ * de cerca é um passo do {@link TickBudgetScheduler}. O progresso é salvo em disco para que o
+ * trabalho seja retomado se o servidor parar.
+ */
+public class RefenceJob implements BudgetedJob {
+
+    private static final JocoLogging logger = new JocoLogging(RefenceJob.class.getName());
+    private static final Set<String> EM_ANDAMENTO = ConcurrentHashMap.newKeySet();
+    private static final long INTERVALO_RELATORIO_MS = 5_000L;
+    private static final long INTERVALO_SALVAMENTO_MS = 2_000L;
+
+    private final JocoTerrenos plugin;
+    private final World world;
+    private final Material materialAntigo;
+    private final Material materialNovo;
+    private final UUID solicitante;
+    private final List<Alvo> alvos;
+    private final int total;
+    private final File arquivoProgresso;
+    private final long inicio = System.currentTimeMillis();
+
+    private int indice;
+    private int processados;
+    private long[] colunas;
+    private int colunaAtual;
+    private long[] colocadas;
+    private int totalColocadas;
+    private long[] chunksComTicket;
+    private CarregamentoDeChunks carregamento;
+    private CompletableFuture<Optional<FenceLedger>> carregandoRegistro;
+    private long[] registradas;
+    private int registradaAtual;
+    private Material materialRegistrado;
+    private Alvo cursor;
+    private long ultimoRelatorio = System.currentTimeMillis();
+    private long ultimoSalvamento;
+
+    private record Alvo(long id, int centerX, int centerZ, int size, long ordem) {
+    }
+
+    private RefenceJob(JocoTerrenos plugin, World world, Material materialAntigo, Material materialNovo, UUID solicitante,
+                       List<Alvo> alvos, int jaProcessados) {
+        this.plugin = plugin;
+        this.world = world;
+        this.materialAntigo = materialAntigo;
+        this.materialNovo = materialNovo;
+        this.solicitante = solicitante;
+        this.alvos = alvos;
+        this.processados = jaProcessados;
+        this.total = jaProcessados + alvos.size();
+        this.arquivoProgresso = arquivoProgresso(plugin, world.getName());
+    }
+
+    /**
+     * Reserva o mundo para um novo job. Retorna false se já existe um em andamento.
+     */
+    public static boolean reservar(String worldName) {
+        return EM_ANDAMENTO.add(worldName);
+    }
+
+    public static void liberar(String worldName) {
+        EM_ANDAMENTO.remove(worldName);
+    }
+
+    /**
+     * Monta o job a partir dos terrenos do mundo. Pode ser chamado fora da main thread.
+     */
+    public static RefenceJob criar(JocoTerrenos plugin, World world, List<Terreno> terrenos, Material materialAntigo,
+                                   Material materialNovo, UUID solicitante) {
+        return new RefenceJob(plugin, world, materialAntigo, materialNovo, solicitante, ordenar(world.getName(), terrenos, null), 0);
+    }
+
+    /**
+     * Retoma os jobs cujo progresso ficou salvo em disco. Chamar na main thread após o enable.
+     */
+    public static void retomarPendentes(JocoTerrenos plugin) {
+        File[] arquivos = plugin.getDataFolder().listFiles((dir, name) -> name.startsWith("refence-") && name.endsWith(".yml"));
+        if (arquivos == null) return;
+        for (File arquivo : arquivos) {
+            YamlConfiguration progresso = YamlConfiguration.loadConfiguration(arquivo);
+            String worldName = progresso.getString("world");
+            World world = worldName != null ? Bukkit.getWorld(worldName) : null;
+            Material antigo = Material.matchMaterial(progresso.getString("material-antigo", ""));
+            Material novo = Material.matchMaterial(progresso.getString("material-novo", ""));
+            if (world == null || antigo == null || novo == null || !reservar(worldName)) {
+                logger.warning("Progresso de refence ignorado: " + arquivo.getName());
+                continue;
+            }
+            String solicitanteStr = progresso.getString("solicitante");
+            UUID solicitante = solicitanteStr != null ? UUID.fromString(solicitanteStr) : null;
+            Alvo cursor = new Alvo(progresso.getLong("cursor-id"), 0, 0, 0, progresso.getLong("cursor-ordem"));
+            int jaProcessados = progresso.getInt("processados");
+
+            plugin.getTerrenoService().listarTerrenosDoMundoAsync(worldName).whenComplete((terrenos, ex) -> Bukkit.getScheduler().runTask(plugin, () -> {
+                if (ex != null) {
+                    liberar(worldName);
+                    logger.warning("Erro ao retomar refence de " + worldName + ": " + ex.getMessage());
+                    return;
+                }
+                RefenceJob job = new RefenceJob(plugin, world, antigo, novo, solicitante, ordenar(worldName, terrenos, cursor), jaProcessados);
+                plugin.getTickBudgetScheduler().submit(job);
+                logger.info("Refence de " + worldName + " retomado: " + jaProcessados + "/" + job.total);
+            }));
+        }
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    @Override
+    public Passo executarPasso() {
+        if (indice >= alvos.size()) {
+            concluir();
+            return Passo.CONCLUIDO;
+        }
+
+        if (colunas == null) {
+            Alvo alvo = alvos.get(indice);
+            if (carregamento == null) {
+                carregamento = new CarregamentoDeChunks(world, chunksDoPerimetro(alvo.centerX(), alvo.centerZ(), alvo.size()));
+                carregandoRegistro = plugin.getFenceLedgerService().carregarAsync(alvo.id());
+            }
+            Passo passo = carregamento.avancar();
+            if (passo != Passo.CONCLUIDO) return passo;
+            if (!carregandoRegistro.isDone()) return Passo.AGUARDANDO;
+            carregamento = null;
+            prepararRegistro(alvo, carregandoRegistro.isCompletedExceptionally() ? Optional.empty() : carregandoRegistro.join());
+            carregandoRegistro = null;
+            adicionarTickets(alvo);
+            colunas = FenceUtils.colunasPerimetro(alvo.centerX(), alvo.centerZ(), alvo.size());
+            colunaAtual = 0;
+            colocadas = new long[colunas.length];
+            totalColocadas = 0;
+        }
+
+        // Primeiro tira as cercas registradas, uma posição por passo
+        if (registradas != null && registradaAtual < registradas.length) {
+            FenceUtils.removerCercaRegistrada(world, registradas[registradaAtual++], materialRegistrado);
+            return Passo.CONTINUAR;
+        }
+
+        long coluna = colunas[colunaAtual++];
+        int x = FenceUtils.colunaX(coluna);
+        int z = FenceUtils.colunaZ(coluna);
+        if (registradas == null) {
+            // Terreno sem registro: varre a coluna atrás do material antigo
+            FenceUtils.removerCercaNaColuna(world, x, z, materialAntigo);
+        }
+        long posicao = FenceUtils.colocarCercaRegistrada(world, x, z, materialNovo);
+        if (posicao != FenceUtils.SEM_POSICAO) colocadas[totalColocadas++] = posicao;
+
+        if (colunaAtual >= colunas.length) {
+            removerTickets();
+            colunas = null;
+            registradas = null;
+            // O registro de cercas do terreno passa a ser o que acabou de ser colocado
+            plugin.getFenceLedgerService().registrarAsync(alvos.get(indice).id(), world.getName(), materialNovo,
+                    Arrays.copyOf(colocadas, totalColocadas));
+            cursor = alvos.get(indice);
+            indice++;
+            processados++;
+            long agora = System.currentTimeMillis();
+            if (agora - ultimoSalvamento >= INTERVALO_SALVAMENTO_MS) {
+                ultimoSalvamento = agora;
+                salvarProgresso(true);
+            }
+            if (agora - ultimoRelatorio >= INTERVALO_RELATORIO_MS) {
+                ultimoRelatorio = agora;
+                relatar("terreno.admin.refence.progresso", MessageService.placeholders(
+                        "world", world.getName(), "done", processados, "total", total,
+                        "percent", total == 0 ? 100 : (processados * 100 / total)));
+            }
+        }
+        return Passo.CONTINUAR;
+    }
+
+    @Override
+    public void interromper() {
+        removerTickets();
+        // Salva de forma síncrona: o servidor está desligando
+        salvarProgresso(false);
+        liberar(world.getName());
+    }
+
+    /**
+     * Usa as posições registradas do terreno quando o registro é deste mundo e o material é conhecido;
+     * senão a remoção cai na varredura das colunas.
+     */
+    private void prepararRegistro(Alvo alvo, Optional<FenceLedger> ledger) {
+        registradas = null;
+        registradaAtual = 0;
+        materialRegistrado = null;
+        if (ledger.isEmpty()) return;
+        Material material = Material.matchMaterial(ledger.get().material());
+        if (material == null || !world.getName().equals(ledger.get().world())) {
+            logger.warning("Registro de cercas do terreno " + alvo.id() + " inválido (" + ledger.get().world() + ", "
+                    + ledger.get().material() + "); usando a varredura das colunas");
+            return;
+        }
+        registradas = ledger.get().posicoes();
+        materialRegistrado = material;
+    }
+
+    private void concluir() {
+        liberar(world.getName());
+        if (arquivoProgresso.exists() && !arquivoProgresso.delete()) {
+            logger.warning("Não foi possível apagar " + arquivoProgresso.getName());
+        }
+        long segundos = (System.currentTimeMillis() - inicio) / 1000L;
+        relatar("terreno.admin.refence.concluido", MessageService.placeholders(
+                "world", world.getName(), "total", total, "seconds", segundos));
+    }
+
+    private void adicionarTickets(Alvo alvo) {
+        chunksComTicket = chunksDoPerimetro(alvo.centerX(), alvo.centerZ(), alvo.size());
+        for (long chunk : chunksComTicket) {
+            world.addPluginChunkTicket(FenceUtils.colunaX(chunk), FenceUtils.colunaZ(chunk), plugin);
+        }
+    }
+
+    private void removerTickets() {
+        if (chunksComTicket == null) return;
+        for (long chunk : chunksComTicket) {
+            world.removePluginChunkTicket(FenceUtils.colunaX(chunk), FenceUtils.colunaZ(chunk), plugin);
+        }
+        chunksComTicket = null;
+    }
+
+    /**
+     * Chunks (empacotados como colunas) que tocam a borda do quadrado.
+     */
+    static long[] chunksDoPerimetro(int centerX, int centerZ, int size) {
+        int raio = size / 2;
+        int minCX = (centerX - raio) >> 4;
+        int maxCX = (centerX + raio) >> 4;
+        int minCZ = (centerZ - raio) >> 4;
+        int maxCZ = (centerZ + raio) >> 4;
+        List<Long> chunks = new ArrayList<>();
+        for (int cx = minCX; cx <= maxCX; cx++) {
+            for (int cz = minCZ; cz <= maxCZ; cz++) {
+                // Apenas chunks que tocam a borda do quadrado
+                if (cx == minCX || cx == maxCX || cz == minCZ || cz == maxCZ) {
+                    chunks.add(FenceUtils.coluna(cx, cz));
+                }
+            }
+        }
+        long[] out = new long[chunks.size()];
+        for (int i = 0; i < out.length; i++) out[i] = chunks.get(i);
+        return out;
+    }
+
+    private void salvarProgresso(boolean assincrono) {
+        YamlConfiguration progresso = new YamlConfiguration();
+        progresso.set("world", world.getName());
+        progresso.set("material-antigo", materialAntigo.name());
+        progresso.set("material-novo", materialNovo.name());
+        progresso.set("solicitante", solicitante != null ? solicitante.toString() : null);
+        progresso.set("processados", processados);
+        if (cursor != null) {
+            progresso.set("cursor-ordem", cursor.ordem());
+            progresso.set("cursor-id", cursor.id());
+        }
+        String conteudo = progresso.saveToString();
+        Runnable escrita = () -> {
+            try {
+                Files.writeString(arquivoProgresso.toPath(), conteudo, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                logger.warning("Erro ao salvar progresso do refence: " + e.getMessage());
+            }
+        };
+        if (assincrono) {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, escrita);
+        } else {
+            escrita.run();
+        }
+    }
+
+    private void relatar(String key, Map<String, ?> placeholders) {
+        MessageService messages = plugin.getMessageService();
+        CommandSender destino = solicitante != null ? Bukkit.getPlayer(solicitante) : Bukkit.getConsoleSender();
+        if (destino != null) {
+            messages.send(destino, key, placeholders);
+        }
+        if (destino != Bukkit.getConsoleSender()) {
+            logger.info(messages.format(key, placeholders));
+        }
+    }
+
+    private static File arquivoProgresso(JocoTerrenos plugin, String worldName) {
+        return new File(plugin.getDataFolder(), "refence-" + worldName + ".yml");
+    }
+
+    /**
+     * Ordena os terrenos do mundo pela curva Z dos chunks e descarta os que vêm antes do cursor.
+     */
+    private static List<Alvo> ordenar(String worldName, List<Terreno> terrenos, Alvo cursor) {
+        Comparator<Alvo> ordem = Comparator.comparingLong(Alvo::ordem).thenComparingLong(Alvo::id);
+        List<Alvo> alvos = new ArrayList<>(terrenos.size());
+        for (Terreno t : terrenos) {
+            LocationRaw raw = LocationUtils.converterLocalizacaoRaw(t.getLocation());
+            if (raw == null || !worldName.equals(raw.worldName())) continue;
+            int cx = (int) Math.floor(raw.x());
+            int cz = (int) Math.floor(raw.z());
+            Alvo alvo = new Alvo(t.getId(), cx, cz, t.getSize(), morton(cx >> 4, cz >> 4));
+            if (cursor != null && ordem.compare(alvo, cursor) <= 0) continue;
+            alvos.add(alvo);
+        }
+        alvos.sort(ordem);
+        return alvos;
+    }
+
+    /**
+     * Intercala os bits de X e Z (curva Z), mantendo chunks vizinhos próximos na ordem.
+     */
+    private static long morton(int chunkX, int chunkZ) {
+        return espalharBits(chunkX ^ 0x80000000) | (espalharBits(chunkZ ^ 0x80000000) << 1);
+    }
+
+    private static long espalharBits(int v) {
+        long x = v & 0xFFFFFFFFL;
+        x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+        x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+        x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | (x << 2)) & 0x3333333333333333L;
+        x = (x | (x << 1)) & 0x5555555555555555L;
+        return x;
+    }
+
+}
@@ -0,0 +1,67 @@
+package io.github.joaovmundel.jocoTerrenos.tasks;
+
+import io.github.joaovmundel.jocoTerrenos.utils.FenceUtils;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tira um {@link ChunkSnapshot} de cada chunk da lista, um chunk por passo do {@link TickBudgetScheduler}.
+ * Chunks descarregados são carregados antes pelo {@link CarregamentoDeChunks}. A leitura dos
+ * blocos fica para quem recebe os snapshots, fora da main thread.
+ */
+public class SnapshotCaptureJob implements BudgetedJob {
+
+    private final World world;
+    private final long[] chunks;
+    private final Map<Long, ChunkSnapshot> capturados = new HashMap<>();
+    private final CompletableFuture<Map<Long, ChunkSnapshot>> resultado = new CompletableFuture<>();
+    private CarregamentoDeChunks carregamento;
+    private int indice;
+
+    /**
+     * @param chunks chunks empacotados com {@link FenceUtils#coluna}
+     */
+    public SnapshotCaptureJob(World world, long[] chunks) {
+        this.world = world;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Snapshots por chunk (chave = {@link FenceUtils#coluna}), quando todos forem capturados.
+     */
+    public CompletableFuture<Map<Long, ChunkSnapshot>> getResultado() {
+        return resultado;
+    }
+
+    @Override
+    public Passo executarPasso() {
+        if (indice >= chunks.length) {
+            resultado.complete(capturados);
+            return Passo.CONCLUIDO;
+        }
+        long chunk = chunks[indice];
+        int cx = FenceUtils.colunaX(chunk);
+        int cz = FenceUtils.colunaZ(chunk);
+        if (carregamento == null && !world.isChunkLoaded(cx, cz)) {
+            carregamento = new CarregamentoDeChunks(world, new long[]{chunk});
+        }
+        if (carregamento != null) {
+            // Depois de um carregamento síncrono (CONTINUAR) a leitura do chunk fica para o próximo passo
+            Passo passo = carregamento.avancar();
+            if (passo != Passo.CONCLUIDO) return passo;
+            carregamento = null;
+        }
+        capturados.put(chunk, world.getChunkAt(cx, cz).getChunkSnapshot(false, false, false));
+        indice++;
+        return Passo.CONTINUAR;
+    }
+
+    @Override
+    public void interromper() {
+        resultado.completeExceptionally(new IllegalStateException("Captura interrompida"));
+    }
+}
@@ -0,0 +1,150 @@
+package io.github.joaovmundel.jocoTerrenos.tasks;
+
+import io.github.joaovmundel.jocoTerrenos.models.RegionSnapshot;
+import io.github.joaovmundel.jocoTerrenos.utils.FenceUtils;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Restaura um {@link RegionSnapshot} chunk a chunk. Para cada chunk, tira um snapshot do estado atual na main
+ * thread, calcula fora dela quais blocos diferem e aplica só esses, um bloco por passo do
+ * {@link TickBudgetScheduler} (sem física). O chunk fica com ticket enquanto recebe os blocos.
+ */
+public class SnapshotRestoreJob implements BudgetedJob {
+
+    private final Plugin plugin;
+    private final World world;
+    private final RegionSnapshot snapshot;
+    private final BlockData[] paleta;
+    private final long[] chunks;
+    private final CompletableFuture<Integer> resultado = new CompletableFuture<>();
+
+    private int indiceChunk;
+    private CarregamentoDeChunks carregamento;
+    private CompletableFuture<Diferenca> calculo;
+    private Diferenca diferenca;
+    private int indiceBloco;
+    private boolean comTicket;
+    private int alterados;
+
+    /**
+     * Blocos do chunk que diferem do snapshot: posições empacotadas ({@link FenceUtils#posicao}) e o índice na paleta.
+     */
+    private record Diferenca(long[] posicoes, int[] estados) {
+    }
+
+    /**
+     * @param paleta estados da paleta já convertidos (null onde o estado não existe nesta versão; esses blocos são ignorados)
+     * @param chunks chunks da região, empacotados com {@link FenceUtils#coluna}
+     */
+    public SnapshotRestoreJob(Plugin plugin, World world, RegionSnapshot snapshot, BlockData[] paleta, long[] chunks) {
+        this.plugin = plugin;
+        this.world = world;
+        this.snapshot = snapshot;
+        this.paleta = paleta;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Quantidade de blocos alterados, ao terminar.
+     */
+    public CompletableFuture<Integer> getResultado() {
+        return resultado;
+    }
+
+    @Override
+    public Passo executarPasso() {
+        if (diferenca != null) {
+            if (indiceBloco < diferenca.posicoes().length) {
+                long p = diferenca.posicoes()[indiceBloco];
+                BlockData estado = paleta[diferenca.estados()[indiceBloco++]];
+                world.getBlockAt(FenceUtils.posicaoX(p), FenceUtils.posicaoY(p), FenceUtils.posicaoZ(p)).setBlockData(estado, false);
+                alterados++;
+                return Passo.CONTINUAR;
+            }
+            removerTicket();
+            diferenca = null;
+            indiceChunk++;
+        }
+
+        if (indiceChunk >= chunks.length) {
+            resultado.complete(alterados);
+            return Passo.CONCLUIDO;
+        }
+
+        if (calculo != null) {
+            if (!calculo.isDone()) return Passo.AGUARDANDO;
+            diferenca = calculo.join();
+            calculo = null;
+            indiceBloco = 0;
+            return Passo.CONTINUAR;
+        }
+
+        long chunk = chunks[indiceChunk];
+        int cx = FenceUtils.colunaX(chunk);
+        int cz = FenceUtils.colunaZ(chunk);
+        if (carregamento == null && !world.isChunkLoaded(cx, cz)) {
+            carregamento = new CarregamentoDeChunks(world, new long[]{chunk});
+        }
+        if (carregamento != null) {
+            // Depois de um carregamento síncrono (CONTINUAR) a leitura do chunk fica para o próximo passo
+            Passo passo = carregamento.avancar();
+            if (passo != Passo.CONCLUIDO) return passo;
+            carregamento = null;
+        }
+        world.addPluginChunkTicket(cx, cz, plugin);
+        comTicket = true;
+        ChunkSnapshot atual = world.getChunkAt(cx, cz).getChunkSnapshot(false, false, false);
+        calculo = CompletableFuture.supplyAsync(() -> diferencas(atual, cx, cz));
+        return Passo.AGUARDANDO;
+    }
+
+    @Override
+    public void interromper() {
+        removerTicket();
+        resultado.completeExceptionally(new IllegalStateException("Restauração interrompida"));
+    }
+
+    private void removerTicket() {
+        if (!comTicket) return;
+        long chunk = chunks[indiceChunk];
+        world.removePluginChunkTicket(FenceUtils.colunaX(chunk), FenceUtils.colunaZ(chunk), plugin);
+        comTicket = false;
+    }
+
+    /**
+     * Compara o chunk atual com o snapshot, na parte do chunk que fica dentro da região. Roda fora da main thread.
+     */
+    private Diferenca diferencas(ChunkSnapshot atual, int cx, int cz) {
+        int x0 = Math.max(snapshot.minX(), cx << 4);
+        int x1 = Math.min(snapshot.minX() + snapshot.sizeX() - 1, (cx << 4) + 15);
+        int z0 = Math.max(snapshot.minZ(), cz << 4);
+        int z1 = Math.min(snapshot.minZ() + snapshot.sizeZ() - 1, (cz << 4) + 15);
+        int y1 = snapshot.minY() + snapshot.sizeY() - 1;
+
+        long[] posicoes = new long[256];
+        int[] estados = new int[256];
+        int n = 0;
+        for (int y = snapshot.minY(); y <= y1; y++) {
+            for (int z = z0; z <= z1; z++) {
+                for (int x = x0; x <= x1; x++) {
+                    int estado = snapshot.get(snapshot.indice(x, y, z));
+                    BlockData alvo = paleta[estado];
+                    if (alvo == null || alvo.equals(atual.getBlockData(x & 15, y, z & 15))) continue;
+                    if (n == posicoes.length) {
+                        posicoes = Arrays.copyOf(posicoes, n * 2);
+                        estados = Arrays.copyOf(estados, n * 2);
+                    }
+                    posicoes[n] = FenceUtils.posicao(x, y, z);
+                    estados[n++] = estado;
+                }
+            }
+        }
+        return new Diferenca(Arrays.copyOf(posicoes, n), Arrays.copyOf(estados, n));
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.joaovmundel.jocoTerrenos.tasks;
+
+import io.github.joaovmundel.jocoTerrenos.infrastructure.JocoLogging;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Executa {@link BudgetedJob}s na main thread, alternando entre eles (round-robin)
+ * até esgotar o orçamento de tempo do tick. Edições grandes no mundo passam por aqui
+ * para não derrubar o TPS.
+ */
+public class TickBudgetScheduler extends BukkitRunnable {
+
+    private static final JocoLogging logger = new JocoLogging(TickBudgetScheduler.class.getName());
+
+    private final Deque<BudgetedJob> jobs = new ArrayDeque<>();
+    private final long budgetNanos;
+
+    public TickBudgetScheduler(double budgetMsPorTick) {
+        this.budgetNanos = (long) (Math.max(0.5, budgetMsPorTick) * 1_000_000L);
+    }
+
+    /**
+     * Enfileira um job. Deve ser chamado na main thread.
+     */
+    public void submit(BudgetedJob job) {
+        jobs.addLast(job);
+    }
+
+    public boolean isVazio() {
+        return jobs.isEmpty();
+    }
+
+    @Override
+    public void run() {
+        long deadline = System.nanoTime() + budgetNanos;
+        int aguardandoSeguidos = 0;
+
+        // Para quando o tempo acaba ou quando todos os jobs da fila estão aguardando
+        while (!jobs.isEmpty() && aguardandoSeguidos < jobs.size() && System.nanoTime() < deadline) {
+            BudgetedJob job = jobs.pollFirst();
+            BudgetedJob.Passo passo;
+            try {
+                passo = job.executarPasso();
+            } catch (RuntimeException e) {
+                logger.warning("Job " + job.getClass().getSimpleName() + " abortado: " + e.getMessage());
+                // O job sai da fila: solta o que estiver segurando (tickets, travas, futuros)
+                interromper(job);
+                continue;
+            }
+            switch (passo) {
+                case CONTINUAR -> {
+                    jobs.addLast(job);
+                    aguardandoSeguidos = 0;
+                }
+                case AGUARDANDO -> {
+                    jobs.addLast(job);
+                    aguardandoSeguidos++;
+                }
+                case CONCLUIDO -> aguardandoSeguidos = 0;
+            }
+        }
+    }
+
+    /**
+     * Cancela o agendador e avisa os jobs pendentes.
+     */
+    public void shutdown() {
+        cancel();
+        for (BudgetedJob job : jobs) {
+            interromper(job);
+        }
+        jobs.clear();
+    }
+
+    private static void interromper(BudgetedJob job) {
+        try {
+            job.interromper();
+        } catch (RuntimeException e) {
+            logger.warning("Erro ao interromper job " + job.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,22 +1,36 @@
 package io.github.joaovmundel.jocoTerrenos.utils;
 
 import io.github.joaovmundel.jocoTerrenos.infrastructure.JocoLogging;
-import org.bukkit.Bukkit;
+import io.github.joaovmundel.jocoTerrenos.service.MessageService;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.plugin.Plugin;
-
-import java.util.Map;
 
 public class FenceUtils {
     private static final JocoLogging logger = new JocoLogging("io.github.joaovmundel.jocoTerrenos.utils.FenceUtils.java");
 
+    /**
+     * Publicados pelo plugin no enable e a cada reload, para não buscar o plugin a cada cerca colocada
+     */
+    private static volatile Material materialCerca = Material.OAK_FENCE;
+    private static volatile MessageService mensagens;
+
     private FenceUtils() {
     }
 
+    /**
+     * Material de cerca das configurações atuais; chamado ao carregar e ao recarregar o config.yml.
+     */
+    public static void configurarMaterial(Material material) {
+        materialCerca = material != null ? material : Material.OAK_FENCE;
+    }
+
+    public static void configurarMensagens(MessageService messages) {
+        mensagens = messages;
+    }
+
     /**
      * Coloca cercas em torno do jogador, definindo uma área quadrada com o tamanho especificado.
      * O jogador fica no centro da área e as cercas são posicionadas na superfície.
@@ -30,17 +44,30 @@ public class FenceUtils {
             return;
         }
 
-        // O valor passado é o lado do quadrado
-        int lado = (int) Math.ceil(areaM2);
+        if (player.getLocation().getWorld() == null) {
+            logger.warning("Mundo nulo ao tentar colocar cercas para o jogador: " + player.getName());
+            return;
+        }
 
-        Location centerLoc = player.getLocation();
-        World world = centerLoc.getWorld();
+        colocarCercas(player.getLocation(), areaM2);
+    }
 
-        if (world == null) {
-            logger.warning("Mundo nulo ao tentar colocar cercas para o jogador: " + player.getName());
+    /**
+     * Coloca cercas numa área quadrada com centro na localização informada.
+     *
+     * @param centerLoc A localização central da área
+     * @param areaM2    O tamanho do lado da área em blocos
+     */
+    public static void colocarCercas(Location centerLoc, double areaM2) {
+        World world = centerLoc.getWorld();
+        if (areaM2 <= 0 || world == null) {
+            logger.warning("Tentativa de colocar cercas com área ou mundo inválido: " + areaM2);
             return;
         }
 
+        // O valor passado é o lado do quadrado
+        int lado = (int) Math.ceil(areaM2);
+
         int centerX = centerLoc.getBlockX();
         int centerZ = centerLoc.getBlockZ();
 
@@ -137,26 +164,11 @@ public class FenceUtils {
      * @return Quantidade de cercas colocadas
      */
     private static int colocarCercasPerimetro(World world, int centerX, int centerZ, int tamanho) {
-        int raio = tamanho / 2;
+        Material fenceMat = getConfiguredFenceMaterial();
         int fencesPlaced = 0;
 
-        // Coloca cercas nos 4 lados do perímetro
-        for (int i = -raio; i <= raio; i++) {
-            // Lado Norte (Z negativo)
-            fencesPlaced += colocarCercaNoBloco(world, centerX + i, centerZ - raio);
-
-            // Lado Sul (Z positivo)
-            fencesPlaced += colocarCercaNoBloco(world, centerX + i, centerZ + raio);
-
-            // Lado Oeste (X negativo) - evita duplicar os cantos
-            if (i != -raio && i != raio) {
-                fencesPlaced += colocarCercaNoBloco(world, centerX - raio, centerZ + i);
-            }
-
-            // Lado Leste (X positivo) - evita duplicar os cantos
-            if (i != -raio && i != raio) {
-                fencesPlaced += colocarCercaNoBloco(world, centerX + raio, centerZ + i);
-            }
+        for (long coluna : colunasPerimetro(centerX, centerZ, tamanho)) {
+            fencesPlaced += colocarCercaNaColuna(world, colunaX(coluna), colunaZ(coluna), fenceMat);
         }
 
         return fencesPlaced;
@@ -172,40 +184,96 @@ public class FenceUtils {
      * @return Quantidade de cercas removidas
      */
     private static int removerCercasPerimetro(World world, int centerX, int centerZ, int tamanho) {
-        int raio = tamanho / 2;
+        Material fenceMat = getConfiguredFenceMaterial();
         int fencesRemoved = 0;
 
-        // Remove cercas nos 4 lados do perímetro
+        for (long coluna : colunasPerimetro(centerX, centerZ, tamanho)) {
+            fencesRemoved += removerCercaNaColuna(world, colunaX(coluna), colunaZ(coluna), fenceMat);
+        }
+
+        return fencesRemoved;
+    }
+
+    /**
+     * Calcula as colunas (X, Z) do perímetro de uma área, sem duplicar os cantos.
+     * Cada coluna é empacotada num long: X nos 32 bits altos e Z nos 32 bits baixos.
+     *
+     * @param centerX Coordenada X central
+     * @param centerZ Coordenada Z central
+     * @param tamanho Tamanho do lado da área
+     * @return As colunas do perímetro
+     */
+    public static long[] colunasPerimetro(int centerX, int centerZ, int tamanho) {
+        int raio = tamanho / 2;
+        if (raio == 0) {
+            return new long[]{coluna(centerX, centerZ)};
+        }
+        long[] colunas = new long[8 * raio];
+        int n = 0;
+
         for (int i = -raio; i <= raio; i++) {
             // Lado Norte (Z negativo)
-            fencesRemoved += removerCercaNoBloco(world, centerX + i, centerZ - raio);
+            colunas[n++] = coluna(centerX + i, centerZ - raio);
 
             // Lado Sul (Z positivo)
-            fencesRemoved += removerCercaNoBloco(world, centerX + i, centerZ + raio);
+            colunas[n++] = coluna(centerX + i, centerZ + raio);
 
-            // Lado Oeste (X negativo) - evita duplicar os cantos
+            // Lados Oeste e Leste - evita duplicar os cantos
             if (i != -raio && i != raio) {
-                fencesRemoved += removerCercaNoBloco(world, centerX - raio, centerZ + i);
-            }
-
-            // Lado Leste (X positivo) - evita duplicar os cantos
-            if (i != -raio && i != raio) {
-                fencesRemoved += removerCercaNoBloco(world, centerX + raio, centerZ + i);
+                colunas[n++] = coluna(centerX - raio, centerZ + i);
+                colunas[n++] = coluna(centerX + raio, centerZ + i);
             }
         }
 
-        return fencesRemoved;
+        return colunas;
+    }
+
+    public static long coluna(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    public static int colunaX(long coluna) {
+        return (int) (coluna >> 32);
+    }
+
+    public static int colunaZ(long coluna) {
+        return (int) coluna;
     }
 
     /**
-     * Remove uma cerca numa posição X, Z específica se for uma cerca.
+     * Valor de "nenhuma posição"; fora do alcance de qualquer coordenada de mundo válida.
+     */
+    public static final long SEM_POSICAO = Long.MIN_VALUE;
+
+    /**
+     * Posição de bloco num long: X em 26 bits, Z em 26 bits e Y em 12 bits.
+     */
+    public static long posicao(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    public static int posicaoX(long p) {
+        return (int) (p >> 38);
+    }
+
+    public static int posicaoY(long p) {
+        return (int) (p << 52 >> 52);
+    }
+
+    public static int posicaoZ(long p) {
+        return (int) (p << 26 >> 38);
+    }
+
+    /**
+     * Remove as cercas do material informado numa coluna X, Z específica.
      *
-     * @param world O mundo onde a cerca será removida
-     * @param x     Coordenada X
-     * @param z     Coordenada Z
-     * @return 1 se a cerca foi removida, 0 caso contrário
+     * @param world    O mundo onde a cerca será removida
+     * @param x        Coordenada X
+     * @param z        Coordenada Z
+     * @param fenceMat Material da cerca a remover
+     * @return Quantidade de blocos removidos
      */
-    private static int removerCercaNoBloco(World world, int x, int z) {
+    public static int removerCercaNaColuna(World world, int x, int z, Material fenceMat) {
         int y = encontrarSuperficie(world, x, z);
         if (y == -1) {
             return 0;
@@ -213,7 +281,6 @@ public class FenceUtils {
         int removed = 0;
         int maxY = world.getMaxHeight() - 1;
         int minY = world.getMinHeight();
-        Material fenceMat = getConfiguredFenceMaterial();
         Block atSurface = world.getBlockAt(x, y, z);
         if (atSurface.getType() == fenceMat) {
             atSurface.setType(Material.AIR);
@@ -240,31 +307,119 @@ public class FenceUtils {
      * Coloca uma cerca numa posição X, Z específica.
      * Busca a superfície adequada para colocar a cerca.
      *
-     * @param world O mundo onde a cerca será colocada
-     * @param x     Coordenada X
-     * @param z     Coordenada Z
+     * @param world    O mundo onde a cerca será colocada
+     * @param x        Coordenada X
+     * @param z        Coordenada Z
+     * @param fenceMat Material da cerca
      * @return 1 se a cerca foi colocada, 0 caso contrário
      */
-    private static int colocarCercaNoBloco(World world, int x, int z) {
+    public static int colocarCercaNaColuna(World world, int x, int z, Material fenceMat) {
+        return colocarCercaRegistrada(world, x, z, fenceMat) != SEM_POSICAO ? 1 : 0;
+    }
+
+    /**
+     * Coloca uma cerca numa coluna X, Z e informa onde ela ficou.
+     *
+     * @return A posição empacotada ({@link #posicao}) da cerca colocada, ou {@link #SEM_POSICAO}
+     * se não havia superfície ou o bloco já era uma cerca
+     */
+    public static long colocarCercaRegistrada(World world, int x, int z, Material fenceMat) {
         int y = encontrarSuperficie(world, x, z);
 
         if (y == -1) {
-            return 0; // Não foi possível encontrar uma superfície adequada
+            return SEM_POSICAO; // Não foi possível encontrar uma superfície adequada
         }
 
         Block block = world.getBlockAt(x, y, z);
-        Material fenceMat = getConfiguredFenceMaterial();
 
         // Verifica se o bloco já é uma cerca
         if (block.getType() == fenceMat) {
-            return 0;
+            return SEM_POSICAO;
         }
 
         // Coloca a cerca
         block.setType(fenceMat);
+        return posicao(x, y, z);
+    }
+
+    /**
+     * Coloca as cercas do perímetro e retorna as posições exatas colocadas, para o registro do terreno.
+     *
+     * @param centerLoc A localização central da área
+     * @param tamanho   O tamanho do lado da área
+     * @param fenceMat  Material da cerca
+     * @return As posições empacotadas das cercas colocadas
+     */
+    public static long[] colocarCercasRegistradas(Location centerLoc, int tamanho, Material fenceMat) {
+        World world = centerLoc.getWorld();
+        if (world == null || tamanho <= 0) {
+            return new long[0];
+        }
+        long[] colunas = colunasPerimetro(centerLoc.getBlockX(), centerLoc.getBlockZ(), tamanho);
+        long[] posicoes = new long[colunas.length];
+        int n = 0;
+        for (long coluna : colunas) {
+            long p = colocarCercaRegistrada(world, colunaX(coluna), colunaZ(coluna), fenceMat);
+            if (p != SEM_POSICAO) posicoes[n++] = p;
+        }
+        return java.util.Arrays.copyOf(posicoes, n);
+    }
+
+    /**
+     * Remove só as cercas registradas. Posições que já não têm o material (o jogador mexeu) são ignoradas.
+     *
+     * @return Quantidade de cercas removidas
+     */
+    public static int removerCercasRegistradas(World world, long[] posicoes, Material fenceMat) {
+        int removidas = 0;
+        for (long p : posicoes) {
+            removidas += removerCercaRegistrada(world, p, fenceMat);
+        }
+        return removidas;
+    }
+
+    /**
+     * Remove a cerca numa posição registrada, se o bloco ainda for do material informado.
+     *
+     * @return 1 se removeu, 0 caso contrário
+     */
+    public static int removerCercaRegistrada(World world, long posicao, Material fenceMat) {
+        Block block = world.getBlockAt(posicaoX(posicao), posicaoY(posicao), posicaoZ(posicao));
+        if (block.getType() != fenceMat) {
+            return 0;
+        }
+        block.setType(Material.AIR);
         return 1;
     }
 
+    /**
+     * Recoloca as cercas registradas que sumiram, desde que o lugar esteja livre (não sólido).
+     *
+     * @return Quantidade de cercas recolocadas
+     */
+    public static int repararCercasRegistradas(World world, long[] posicoes, Material fenceMat) {
+        int reparadas = 0;
+        for (long p : posicoes) {
+            Block block = world.getBlockAt(posicaoX(p), posicaoY(p), posicaoZ(p));
+            if (block.getType() != fenceMat && !isBlocoSolido(block)) {
+                block.setType(fenceMat);
+                reparadas++;
+            }
+        }
+        return reparadas;
+    }
+
+    /**
+     * Conta as cercas registradas que não estão mais no lugar.
+     */
+    public static int contarCercasFaltando(World world, long[] posicoes, Material fenceMat) {
+        int faltando = 0;
+        for (long p : posicoes) {
+            if (world.getBlockAt(posicaoX(p), posicaoY(p), posicaoZ(p)).getType() != fenceMat) faltando++;
+        }
+        return faltando;
+    }
+
     /**
      * Encontra a superfície adequada para colocar a cerca.
      * Procura de cima para baixo, evitando cavernas e priorizando o solo.
@@ -351,51 +506,19 @@ public class FenceUtils {
                 material != Material.VOID_AIR;
     }
 
-    private static Material getConfiguredFenceMaterial() {
-        Plugin plugin = Bukkit.getPluginManager().getPlugin("JocoTerrenos");
-        if (plugin == null) return Material.OAK_FENCE;
-        String matName = plugin.getConfig().getString("lands.fence-material", plugin.getConfig().getString("terrenos.fence-material", "OAK_FENCE"));
-        try {
-            return Material.valueOf(matName.toUpperCase());
-        } catch (IllegalArgumentException ex) {
-            return Material.OAK_FENCE;
-        }
+    public static Material getConfiguredFenceMaterial() {
+        return materialCerca;
     }
 
     private static String getMessage(String key) {
-        Plugin plugin = Bukkit.getPluginManager().getPlugin("JocoTerrenos");
-        if (plugin != null) {
-            try {
-                java.lang.reflect.Method m = plugin.getClass().getMethod("getMessageService");
-                Object svc = m.invoke(plugin);
-                if (svc != null) {
-                    java.lang.reflect.Method get = svc.getClass().getMethod("get", String.class);
-                    return (String) get.invoke(svc, key);
-                }
-            } catch (Throwable ignored) {
-            }
-        }
+        MessageService svc = mensagens;
         // Fallback simples à própria chave
-        return key;
+        return svc != null ? svc.get(key) : key;
     }
 
     private static String format(String key, Object... kv) {
-        Plugin plugin = Bukkit.getPluginManager().getPlugin("JocoTerrenos");
-        if (plugin != null) {
-            try {
-                java.lang.reflect.Method m = plugin.getClass().getMethod("getMessageService");
-                Object svc = m.invoke(plugin);
-                if (svc != null) {
-                    // constrói placeholders map via helper estático
-                    java.lang.reflect.Method ph = svc.getClass().getMethod("placeholders", Object[].class);
-                    Object map = ph.invoke(null, (Object) kv);
-                    java.lang.reflect.Method fmt = svc.getClass().getMethod("format", String.class, java.util.Map.class);
-                    return (String) fmt.invoke(svc, key, (Map) map);
-                }
-            } catch (Throwable ignored) {
-            }
-        }
-        return key;
+        MessageService svc = mensagens;
+        return svc != null ? svc.format(key, MessageService.placeholders(kv)) : key;
     }
 
 }
@@ -4,22 +4,25 @@ import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
-import org.bukkit.configuration.file.FileConfiguration;
 
 public final class SafeLocationUtils {
     private SafeLocationUtils() {
     }
 
-    public static Location findSafeSpot(Location center, int size, FileConfiguration config) {
+    /**
+     * @param alturaMin altura mínima da busca, ou null para o mínimo do mundo
+     * @param alturaMax altura máxima da busca, ou null para o máximo do mundo
+     */
+    public static Location findSafeSpot(Location center, int size, Integer alturaMin, Integer alturaMax) {
         if (center == null || center.getWorld() == null || size <= 0) return null;
         World world = center.getWorld();
         int half = size / 2;
-        int minY = config.getInt("lands.teleport.min-y", config.getInt("terrenos.teleport.altura-min", world.getMinHeight()));
-        int maxY = config.getInt("lands.teleport.max-y", config.getInt("terrenos.teleport.altura-max", world.getMaxHeight()));
+        int minY = alturaMin != null ? alturaMin : world.getMinHeight();
+        int maxY = alturaMax != null ? alturaMax : world.getMaxHeight();
 
         // Try center first
         Location candidate = surfaceAt(world, center.getBlockX(), center.getBlockZ(), minY, maxY);
-        if (isSafe(candidate)) return candidate.add(0.5, 0, 0.5);
+        if (isSafe(candidate)) return candidate;
 
         // Single retry with small offset within area bounds
         int offset = Math.min(2, Math.max(1, half - 1));
@@ -32,7 +35,7 @@ public final class SafeLocationUtils {
             int x = clampToArea(cx + off[0], cx - half, cx + half);
             int z = clampToArea(cz + off[1], cz - half, cz + half);
             Location loc = surfaceAt(world, x, z, minY, maxY);
-            if (isSafe(loc)) return loc.add(0.5, 0, 0.5);
+            if (isSafe(loc)) return loc;
         }
 
         // Fallbacks
@@ -41,7 +44,7 @@ public final class SafeLocationUtils {
         }
         // Island case: try to find ground below center limited depth
         Location groundBelow = findGroundBelow(world, center.getBlockX(), center.getBlockZ(), minY);
-        if (isSafe(groundBelow)) return groundBelow.add(0.5, 0, 0.5);
+        if (isSafe(groundBelow)) return groundBelow;
 
         return null;
     }
@@ -75,7 +78,10 @@ public final class SafeLocationUtils {
         return null;
     }
 
-    private static boolean isSafe(Location loc) {
+    /**
+     * Checagem barata de três blocos: pés e cabeça livres e chão sólido.
+     */
+    public static boolean isSafe(Location loc) {
         if (loc == null || loc.getWorld() == null) return false;
         World world = loc.getWorld();
         Block feet = world.getBlockAt(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
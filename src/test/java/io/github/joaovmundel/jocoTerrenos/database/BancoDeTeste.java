@@ -0,0 +1,67 @@
+package io.github.joaovmundel.jocoTerrenos.database;
+
+import com.zaxxer.hikari.HikariConfig;
+import io.github.joaovmundel.jocoTerrenos.database.DatabaseManager.DatabaseType;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.util.UUID;
+
+/**
+ * Bancos usados nos testes do SQL de cada dialeto: SQLite em arquivo e H2 em memória imitando MySQL e PostgreSQL.
+ */
+public enum BancoDeTeste {
+    SQLITE(DatabaseType.SQLITE),
+    H2_MYSQL(DatabaseType.MYSQL),
+    H2_POSTGRESQL(DatabaseType.POSTGRESQL);
+
+    private final DatabaseType dialeto;
+
+    BancoDeTeste(DatabaseType dialeto) {
+        this.dialeto = dialeto;
+    }
+
+    public DatabaseType dialeto() {
+        return dialeto;
+    }
+
+    /**
+     * O H2 não tem os operadores de bits {@code |} e {@code &} em nenhum modo; o SQL que usa esses
+     * operadores só é verificado no SQLite (e na matriz com MySQL e PostgreSQL de verdade).
+     */
+    public boolean temOperadoresDeBits() {
+        return this == SQLITE;
+    }
+
+    /**
+     * Abre um banco vazio com as tabelas criadas pelo {@link DatabaseManager} no dialeto deste banco.
+     *
+     * @param pasta onde fica o arquivo do SQLite (os bancos H2 ficam em memória)
+     */
+    public DatabaseManager abrir(Plugin plugin, File pasta) {
+        HikariConfig config = new HikariConfig();
+        switch (this) {
+            case SQLITE -> {
+                config.setJdbcUrl("jdbc:sqlite:" + new File(pasta, "terrenos-teste.db").getAbsolutePath());
+                config.setDriverClassName("org.sqlite.JDBC");
+            }
+            case H2_MYSQL -> {
+                config.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+                config.setDriverClassName("org.h2.Driver");
+            }
+            case H2_POSTGRESQL -> {
+                config.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID()
+                        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+                config.setDriverClassName("org.h2.Driver");
+            }
+        }
+        config.setPoolName("JocoTerrenos-Teste-" + name());
+
+        DatabaseManager databaseManager = new DatabaseManager(plugin);
+        databaseManager.iniciar(dialeto, config);
+        if (!databaseManager.isConnected()) {
+            throw new IllegalStateException("Banco de teste " + this + " não abriu");
+        }
+        return databaseManager;
+    }
+}
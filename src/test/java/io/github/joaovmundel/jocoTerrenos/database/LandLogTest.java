@@ -0,0 +1,178 @@
+package io.github.joaovmundel.jocoTerrenos.database;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Recuperação do {@link LandLog} depois de uma queda: o arquivo cortado em qualquer ponto, ou com bytes trocados
+ * no último registro, volta com exatamente os registros inteiros antes do estrago.
+ */
+class LandLogTest {
+
+    private static final int CABECALHO = 8;
+    private static final int CABECALHO_REGISTRO = 8;
+    private static final int REGISTROS = 40;
+
+    private static final Logger logger = Logger.getLogger("LandLogTest");
+
+    static {
+        // Cada rodada avisa dos bytes descartados; o teste confere o arquivo
+        logger.setLevel(Level.SEVERE);
+    }
+
+    @TempDir
+    File pasta;
+
+    private File original;
+    private final List<byte[]> corpos = new ArrayList<>();
+    /**
+     * fins[i] = tamanho do arquivo com os i primeiros registros inteiros
+     */
+    private long[] fins;
+
+    @BeforeEach
+    void gravarOriginal() throws IOException {
+        SplittableRandom random = new SplittableRandom(40);
+        original = new File(pasta, "original.log");
+        fins = new long[REGISTROS + 1];
+        fins[0] = CABECALHO;
+        LandLog log = LandLog.abrir(original, Long.MAX_VALUE, corpo -> {
+        }, List::of, logger);
+        try {
+            for (int i = 0; i < REGISTROS; i++) {
+                byte[] corpo = new byte[1 + random.nextInt(200)];
+                for (int j = 0; j < corpo.length; j++) corpo[j] = (byte) random.nextInt(256);
+                corpos.add(corpo);
+                log.gravar(corpo).join();
+                fins[i + 1] = fins[i] + CABECALHO_REGISTRO + corpo.length;
+            }
+        } finally {
+            log.close();
+        }
+        assertEquals(fins[REGISTROS], original.length());
+    }
+
+    @Test
+    void corteEmPontoAleatorioMantemOsRegistrosInteiros() throws IOException {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int rodada = 0; rodada < 100; rodada++) {
+            long corte = CABECALHO + random.nextLong(fins[REGISTROS] - CABECALHO);
+            File copia = copiar("corte" + rodada);
+            try (RandomAccessFile arquivo = new RandomAccessFile(copia, "rw")) {
+                arquivo.setLength(corte);
+            }
+            int inteiros = registrosAte(corte);
+
+            conferir(copia, inteiros, corte > fins[inteiros]);
+        }
+    }
+
+    @Test
+    void corteNaDivisaDeRegistrosNaoDescartaNada() throws IOException {
+        for (int i = 0; i <= REGISTROS; i++) {
+            File copia = copiar("divisa" + i);
+            try (RandomAccessFile arquivo = new RandomAccessFile(copia, "rw")) {
+                arquivo.setLength(fins[i]);
+            }
+
+            conferir(copia, i, false);
+        }
+    }
+
+    @Test
+    void byteTrocadoNoUltimoRegistroDescartaSoEle() throws IOException {
+        SplittableRandom random = new SplittableRandom(11);
+        long inicioUltimo = fins[REGISTROS - 1];
+        for (int rodada = 0; rodada < 30; rodada++) {
+            long posicao = inicioUltimo + random.nextLong(fins[REGISTROS] - inicioUltimo);
+            File copia = copiar("troca" + rodada);
+            try (RandomAccessFile arquivo = new RandomAccessFile(copia, "rw")) {
+                arquivo.seek(posicao);
+                int antes = arquivo.read();
+                arquivo.seek(posicao);
+                arquivo.write(antes ^ (1 + random.nextInt(255)));
+            }
+
+            conferir(copia, REGISTROS - 1, true);
+        }
+    }
+
+    @Test
+    void registrosGravadosDepoisDaRecuperacaoContinuamOArquivo() throws IOException {
+        File copia = copiar("continua");
+        try (RandomAccessFile arquivo = new RandomAccessFile(copia, "rw")) {
+            arquivo.setLength(fins[REGISTROS] - 3);
+        }
+        byte[] novo = {1, 2, 3};
+        LandLog log = LandLog.abrir(copia, Long.MAX_VALUE, corpo -> {
+        }, List::of, logger);
+        try {
+            log.gravar(novo).join();
+        } finally {
+            log.close();
+        }
+
+        List<byte[]> reaplicados = reabrir(copia);
+        assertEquals(REGISTROS, reaplicados.size());
+        assertArrayEquals(novo, reaplicados.get(REGISTROS - 1));
+    }
+
+    /**
+     * Reabre a cópia e confere os corpos reaplicados, o tamanho final e o arquivo {@code .descartado}
+     */
+    private void conferir(File copia, int inteiros, boolean descartou) throws IOException {
+        long tamanhoAntes = copia.length();
+        List<byte[]> reaplicados = reabrir(copia);
+
+        assertEquals(inteiros, reaplicados.size(), copia.getName());
+        for (int i = 0; i < inteiros; i++) {
+            assertArrayEquals(corpos.get(i), reaplicados.get(i), copia.getName() + " registro " + i);
+        }
+        assertEquals(fins[inteiros], copia.length(), copia.getName());
+        File[] descartados = descartados(copia);
+        assertEquals(descartou ? 1 : 0, descartados.length, copia.getName());
+        if (descartou) {
+            assertEquals(tamanhoAntes - fins[inteiros], descartados[0].length(), copia.getName());
+        }
+        // A segunda abertura já encontra o arquivo limpo
+        assertEquals(inteiros, reabrir(copia).size(), copia.getName());
+    }
+
+    private List<byte[]> reabrir(File arquivo) throws IOException {
+        List<byte[]> reaplicados = new ArrayList<>();
+        LandLog.abrir(arquivo, Long.MAX_VALUE, reaplicados::add, List::of, logger).close();
+        return reaplicados;
+    }
+
+    private File copiar(String nome) throws IOException {
+        File copia = new File(pasta, nome + ".log");
+        Files.copy(original.toPath(), copia.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return copia;
+    }
+
+    private int registrosAte(long corte) {
+        int i = 0;
+        while (i < REGISTROS && fins[i + 1] <= corte) i++;
+        return i;
+    }
+
+    private File[] descartados(File arquivo) {
+        File[] encontrados = pasta.listFiles((dir, nome) -> nome.startsWith(arquivo.getName() + ".") && nome.endsWith(".descartado"));
+        return encontrados != null ? encontrados : new File[0];
+    }
+}
@@ -0,0 +1,164 @@
+package io.github.joaovmundel.jocoTerrenos.listeners;
+
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoFlag;
+import io.github.joaovmundel.jocoTerrenos.service.PlayerLandCache;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex.Area;
+import org.bukkit.Location;
+import org.bukkit.damage.DamageSource;
+import org.bukkit.damage.DamageType;
+import org.bukkit.entity.Arrow;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+import org.mockbukkit.mockbukkit.world.WorldMock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Custo do caminho de um golpe entre jogadores: terreno de cada lado pelo {@link PlayerLandCache} e a decisão do
+ * {@link PvpListener}, com ataques diretos e por flecha. Mede em ns por operação depois do aquecimento e falha só
+ * muito acima do esperado (o orçamento é ficar longe de 0,1 ms por golpe).
+ */
+@Tag("carga")
+class PvpListenerCargaTest {
+
+    private static final Logger logger = Logger.getLogger("PvpListenerCargaTest");
+
+    private static final int LADO = 100;
+    private static final int PASSO = 40;
+    private static final int TAMANHO = 20;
+    private static final int JOGADORES = 200;
+    private static final int GOLPES = 2_000;
+
+    private final TerrenoIndex index = new TerrenoIndex();
+    private final PlayerLandCache cache = new PlayerLandCache(index);
+    private final PvpListener listener = new PvpListener(cache);
+    private final List<PlayerMock> jogadores = new ArrayList<>();
+    private final List<EntityDamageByEntityEvent> golpes = new ArrayList<>();
+    private final List<Boolean> bloqueados = new ArrayList<>();
+
+    @BeforeEach
+    void montar() {
+        ServerMock server = MockBukkit.mock();
+        WorldMock world = server.addSimpleWorld("world");
+        index.adicionarObservador(cache);
+
+        // Grade de 10 mil terrenos; metade com PvP ligado
+        long id = 1;
+        for (int i = 0; i < LADO; i++) {
+            for (int j = 0; j < LADO; j++) {
+                long flags = TerrenoFlag.PVP.aplicar(0L, (i + j) % 2 == 0);
+                index.put(new Area(id, "world", "dono", "t" + id, i * PASSO, j * PASSO, TAMANHO, flags));
+                id++;
+            }
+        }
+
+        // Metade dos jogadores dentro de terrenos, metade nos corredores entre eles
+        SplittableRandom random = new SplittableRandom(32);
+        for (int i = 0; i < JOGADORES; i++) {
+            PlayerMock jogador = server.addPlayer();
+            double x = random.nextInt(LADO) * PASSO + (i % 2 == 0 ? random.nextInt(-8, 9) : PASSO / 2.0);
+            double z = random.nextInt(LADO) * PASSO + random.nextInt(-8, 9);
+            jogador.setLocation(new Location(world, x + 0.5, 64, z + 0.5));
+            jogadores.add(jogador);
+        }
+
+        DamageSource fonte = DamageSource.builder(DamageType.GENERIC).build();
+        for (int i = 0; i < GOLPES; i++) {
+            PlayerMock atacante = jogadores.get(random.nextInt(JOGADORES));
+            PlayerMock vitima = jogadores.get(random.nextInt(JOGADORES));
+            if (atacante == vitima) continue;
+            Entity causador = atacante;
+            if (i % 4 == 0) {
+                Arrow flecha = world.spawn(atacante.getLocation(), Arrow.class);
+                flecha.setShooter(atacante);
+                causador = flecha;
+            }
+            golpes.add(new EntityDamageByEntityEvent(causador, vitima, DamageCause.ENTITY_ATTACK, fonte, 1.0));
+            bloqueados.add(pvpDesligado(atacante) || pvpDesligado(vitima));
+        }
+    }
+
+    @AfterEach
+    void desmontar() {
+        MockBukkit.unmock();
+    }
+
+    private boolean pvpDesligado(PlayerMock jogador) {
+        Location loc = jogador.getLocation();
+        return index.findAt("world", loc.getX(), loc.getZ()).map(area -> !area.temFlag(TerrenoFlag.PVP)).orElse(false);
+    }
+
+    @Test
+    void consultaDoTerrenoDoJogador() {
+        int dentro = 0;
+        for (int i = 0; i < 200_000; i++) {
+            if (cache.terrenoAtual(jogadores.get(i % JOGADORES)) != null) dentro++;
+        }
+
+        int consultas = 2_000_000;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < consultas; i++) {
+            if (cache.terrenoAtual(jogadores.get(i % JOGADORES)) != null) dentro++;
+        }
+        double nsPorConsulta = (System.nanoTime() - inicio) / (double) consultas;
+
+        logger.info(String.format("PlayerLandCache.terrenoAtual: %.1f ns/op", nsPorConsulta));
+        assertTrue(dentro > 0);
+        assertTrue(nsPorConsulta < 10_000, "terrenoAtual levou em média " + nsPorConsulta + " ns");
+    }
+
+    @Test
+    void golpeEntreJogadores() {
+        // A decisão bate com a consulta direta ao índice
+        for (int i = 0; i < golpes.size(); i++) {
+            EntityDamageByEntityEvent golpe = golpes.get(i);
+            listener.onDamage(golpe);
+            assertEquals(bloqueados.get(i), golpe.isCancelled(), "golpe " + i);
+        }
+
+        for (int rodada = 0; rodada < 50; rodada++) {
+            golpear();
+        }
+        int rodadas = 500;
+        long inicio = System.nanoTime();
+        for (int rodada = 0; rodada < rodadas; rodada++) {
+            golpear();
+        }
+        double nsPorGolpe = (System.nanoTime() - inicio) / ((double) rodadas * golpes.size());
+
+        // Com o índice mudando a cada rodada, cada jogador é recalculado uma vez por rodada
+        inicio = System.nanoTime();
+        for (int rodada = 0; rodada < rodadas; rodada++) {
+            index.atualizar(1, area -> area.comNome("t1"));
+            golpear();
+        }
+        double nsPorGolpeRecalculando = (System.nanoTime() - inicio) / ((double) rodadas * golpes.size());
+
+        logger.info(String.format("PvpListener.onDamage: %.1f ns/op (%.1f ns/op com o índice mudando)",
+                nsPorGolpe, nsPorGolpeRecalculando));
+        assertTrue(nsPorGolpe < 20_000, "onDamage levou em média " + nsPorGolpe + " ns");
+        assertTrue(nsPorGolpeRecalculando < 100_000, "onDamage recalculando levou em média " + nsPorGolpeRecalculando + " ns");
+    }
+
+    private void golpear() {
+        for (EntityDamageByEntityEvent golpe : golpes) {
+            golpe.setCancelled(false);
+            listener.onDamage(golpe);
+        }
+    }
+}
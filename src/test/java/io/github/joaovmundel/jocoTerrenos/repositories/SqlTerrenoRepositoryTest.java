@@ -0,0 +1,245 @@
+package io.github.joaovmundel.jocoTerrenos.repositories;
+
+import io.github.joaovmundel.jocoTerrenos.database.BancoDeTeste;
+import io.github.joaovmundel.jocoTerrenos.database.DatabaseManager;
+import io.github.joaovmundel.jocoTerrenos.models.Terreno;
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoFlag;
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoMember;
+import io.github.joaovmundel.jocoTerrenos.models.TerrenoRole;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockbukkit.mockbukkit.MockBukkit;
+
+import java.io.File;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * O SQL de cada dialeto do {@link SqlTerrenoRepository}: o roteiro da matriz de dialetos do TESTES.md
+ * rodando no SQLite e no H2 nos modos MySQL e PostgreSQL.
+ */
+class SqlTerrenoRepositoryTest {
+
+    private static final String DONO = "00000000-0000-0000-0000-000000000001";
+    private static final String OUTRO = "00000000-0000-0000-0000-000000000002";
+    private static final String MEMBRO_A = "00000000-0000-0000-0000-00000000000a";
+    private static final String MEMBRO_B = "00000000-0000-0000-0000-00000000000b";
+
+    @TempDir
+    File pasta;
+
+    private DatabaseManager databaseManager;
+    private SqlTerrenoRepository repository;
+
+    @BeforeEach
+    void iniciarServidor() {
+        MockBukkit.mock();
+    }
+
+    @AfterEach
+    void fechar() {
+        if (databaseManager != null) databaseManager.close();
+        MockBukkit.unmock();
+    }
+
+    private void abrir(BancoDeTeste banco) {
+        databaseManager = banco.abrir(MockBukkit.createMockPlugin(), pasta);
+        repository = new SqlTerrenoRepository(databaseManager, Logger.getLogger("SqlTerrenoRepositoryTest"));
+    }
+
+    private Terreno criar(String dono, String nome, int x, int z, int tamanho) {
+        Terreno terreno = new Terreno();
+        terreno.setDonoUUID(dono);
+        terreno.setName(nome);
+        terreno.setLocation("world:" + x + ":64:" + z);
+        terreno.setSize(tamanho);
+        return repository.createWithOwner(terreno).orElseThrow();
+    }
+
+    @ParameterizedTest
+    @EnumSource(BancoDeTeste.class)
+    void criaComODonoComoMembroOwner(BancoDeTeste banco) {
+        abrir(banco);
+        Terreno terreno = criar(DONO, "casa", 0, 0, 10);
+
+        Terreno lido = repository.findById(terreno.getId()).orElseThrow();
+        assertEquals("casa", lido.getName());
+        assertEquals(10, lido.getSize());
+        assertEquals(1, lido.getMembers().size());
+        TerrenoMember dono = lido.getMembers().get(0);
+        assertEquals(DONO, dono.getMemberUUID());
+        assertEquals(TerrenoRole.OWNER, dono.getMemberRole());
+    }
+
+    @ParameterizedTest
+    @EnumSource(BancoDeTeste.class)
+    void nomeRepetidoDoMesmoDonoFalha(BancoDeTeste banco) {
+        abrir(banco);
+        criar(DONO, "casa", 0, 0, 10);
+
+        Terreno repetido = new Terreno();
+        repetido.setDonoUUID(DONO);
+        repetido.setName("Casa");
+        repetido.setLocation("world:100:64:100");
+        repetido.setSize(10);
+        assertTrue(repository.createWithOwner(repetido).isEmpty());
+        assertEquals(1, repository.countByOwner(DONO));
+    }
+
+    @ParameterizedTest
+    @EnumSource(BancoDeTeste.class)
+    void adicionarMembrosDuasVezesNaoDuplica(BancoDeTeste banco) {
+        abrir(banco);
+        Terreno terreno = criar(DONO, "casa", 0, 0, 10);
+
+        assertEquals(2, repository.addMembers(terreno.getId(), List.of(MEMBRO_A, MEMBRO_B), TerrenoRole.MEMBER));
+        assertEquals(0, repository.addMembers(terreno.getId(), List.of(MEMBRO_A, MEMBRO_B), TerrenoRole.MEMBER));
+        // O dono já é membro: também é ignorado
+        assertEquals(0, repository.addMembers(terreno.getId(), List.of(DONO), TerrenoRole.MEMBER));
+        assertEquals(3, repository.findMembersByTerrenoId(terreno.getId()).size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(BancoDeTeste.class)
+    void removerMembrosNuncaRemoveODono(BancoDeTeste banco) {
+        abrir(banco);
+        Terreno terreno = criar(DONO, "casa", 0, 0, 10);
+        repository.addMembers(terreno.getId(), List.of(MEMBRO_A), TerrenoRole.MEMBER);
+
+        assertEquals(1, repository.removeMembers(terreno.getId(), List.of(DONO, MEMBRO_A)));
+        List<TerrenoMember> membros = repository.findMembersByTerrenoId(terreno.getId());
+        assertEquals(1, membros.size());
+        assertEquals(TerrenoRole.OWNER, membros.get(0).getMemberRole());
+    }
+
+    @ParameterizedTest
+    @EnumSource(BancoDeTeste.class)
+    void renomearParaNomeExistenteDaConflito(BancoDeTeste banco) {
+        abrir(banco);
+        Terreno casa = criar(DONO, "casa", 0, 0, 10);
+        criar(DONO, "sitio", 100, 0, 10);
+
+        assertEquals(UpdateResult.CONFLICT, repository.rename(casa.getId(), DONO, "Sitio"));
+        assertEquals("casa", repository.findById(casa.getId()).orElseThrow().getName());
+        assertEquals(UpdateResult.NOT_FOUND, repository.rename(casa.getId(), OUTRO, "praia"));
+        assertEquals(UpdateResult.UPDATED, repository.rename(casa.getId(), DONO, "praia"));
+        assertTrue(repository.findByNameKey(DONO + "+praia").isPresent());
+    }
+
+    @ParameterizedTest
+    @EnumSource(BancoDeTeste.class)
+    void transferirParaQuemJaTemONomeDaConflito(BancoDeTeste banco) {
+        abrir(banco);
+        Terreno sitio = criar(DONO, "sitio", 0, 0, 10);
+        criar(OUTRO, "sitio", 100, 0, 10);
+
+        assertEquals(UpdateResult.CONFLICT, repository.transferOwner(sitio.getId(), DONO, OUTRO, "sitio"));
+        Terreno lido = repository.findById(sitio.getId()).orElseThrow();
+        assertEquals(DONO, lido.getDonoUUID());
+        assertEquals(1, lido.getMembers().size());
+        assertEquals(DONO, lido.getMembers().get(0).getMemberUUID());
+    }
+
+    @ParameterizedTest
+    @EnumSource(BancoDeTeste.class)
+    void transferirTrocaOMembroOwner(BancoDeTeste banco) {
+        abrir(banco);
+        Terreno casa = criar(DONO, "casa", 0, 0, 10);
+        repository.addMembers(casa.getId(), List.of(OUTRO), TerrenoRole.MEMBER);
+
+        assertEquals(UpdateResult.UPDATED, repository.transferOwner(casa.getId(), DONO, OUTRO, "casa"));
+        Terreno lido = repository.findById(casa.getId()).orElseThrow();
+        assertEquals(OUTRO, lido.getDonoUUID());
+        assertEquals(1, lido.getMembers().size());
+        assertEquals(OUTRO, lido.getMembers().get(0).getMemberUUID());
+        assertEquals(TerrenoRole.OWNER, lido.getMembers().get(0).getMemberRole());
+        assertEquals(UpdateResult.NOT_FOUND, repository.transferOwner(casa.getId(), DONO, OUTRO, "casa"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(BancoDeTeste.class)
+    void redimensionarSoComOTamanhoEsperado(BancoDeTeste banco) {
+        abrir(banco);
+        Terreno casa = criar(DONO, "casa", 0, 0, 10);
+
+        assertFalse(repository.updateSize(casa.getId(), 15, 20));
+        assertEquals(10, repository.findById(casa.getId()).orElseThrow().getSize());
+        assertTrue(repository.updateSize(casa.getId(), 10, 20));
+        assertFalse(repository.updateSize(casa.getId(), 10, 30));
+        assertEquals(20, repository.findById(casa.getId()).orElseThrow().getSize());
+    }
+
+    @ParameterizedTest
+    @EnumSource(BancoDeTeste.class)
+    void flagsAlteramSoOProprioBit(BancoDeTeste banco) {
+        assumeTrue(banco.temOperadoresDeBits(), "H2 não tem os operadores | e & do updateFlag");
+        abrir(banco);
+        Terreno casa = criar(DONO, "casa", 0, 0, 10);
+        TerrenoFlag[] flags = TerrenoFlag.values();
+
+        for (TerrenoFlag flag : flags) {
+            assertTrue(repository.updateFlag(casa.getId(), flag, true));
+        }
+        assertTrue(repository.updateFlag(casa.getId(), flags[0], false));
+
+        Terreno lido = repository.findById(casa.getId()).orElseThrow();
+        assertFalse(lido.temFlag(flags[0]));
+        for (int i = 1; i < flags.length; i++) {
+            assertTrue(lido.temFlag(flags[i]), flags[i].chave());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(BancoDeTeste.class)
+    void paginaPorKeysetEContagemDoDono(BancoDeTeste banco) {
+        abrir(banco);
+        for (int i = 0; i < 25; i++) {
+            criar(DONO, "t" + i, i * 40, 0, 10);
+            if (i % 5 == 0) criar(OUTRO, "t" + i, i * 40, 400, 10);
+        }
+
+        assertEquals(25, repository.countByOwner(DONO));
+        assertEquals(5, repository.countByOwner(OUTRO));
+        assertEquals(0, repository.countByOwner(MEMBRO_A));
+
+        long apos = 0;
+        int lidos = 0;
+        List<Terreno> pagina;
+        while (!(pagina = repository.findByOwnerAfter(DONO, apos, 10)).isEmpty()) {
+            for (Terreno t : pagina) {
+                assertEquals(DONO, t.getDonoUUID());
+                assertTrue(t.getId() > apos, "IDs fora de ordem");
+                apos = t.getId();
+            }
+            lidos += pagina.size();
+        }
+        assertEquals(25, lidos);
+    }
+
+    @ParameterizedTest
+    @EnumSource(BancoDeTeste.class)
+    void donoSemAcessoRegistradoEntraNaExpiracao(BancoDeTeste banco) {
+        abrir(banco);
+        PlayerSeenRepository vistos = new PlayerSeenRepository(databaseManager, Logger.getLogger("SqlTerrenoRepositoryTest"));
+        Terreno doDono = criar(DONO, "casa", 0, 0, 10);
+        Terreno doOutro = criar(OUTRO, "casa", 100, 0, 10);
+        // O upsert do touch não existe no H2; com a tabela vazia o resultado é o mesmo
+        assertTrue(vistos.registrarAusentes(List.of(OUTRO), 1_000));
+
+        assertEquals(List.of(doOutro.getId()), repository.findExpirados(5_000, 0, 10).stream().map(e -> e.terreno().getId()).toList());
+
+        // Só quem não tinha registro recebe o acesso inicial
+        assertTrue(vistos.registrarAusentes(List.of(DONO, OUTRO), 2_000));
+        List<TerrenoRepository.TerrenoExpirado> expirados = repository.findExpirados(5_000, 0, 10);
+        assertEquals(List.of(doDono.getId(), doOutro.getId()), expirados.stream().map(e -> e.terreno().getId()).toList());
+        assertEquals(List.of(2_000L, 1_000L), expirados.stream().map(TerrenoRepository.TerrenoExpirado::ultimoAcesso).toList());
+    }
+}
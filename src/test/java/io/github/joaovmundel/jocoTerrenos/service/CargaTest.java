@@ -0,0 +1,174 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.database.BancoDeTeste;
+import io.github.joaovmundel.jocoTerrenos.database.DatabaseManager;
+import io.github.joaovmundel.jocoTerrenos.infrastructure.Settings;
+import io.github.joaovmundel.jocoTerrenos.repositories.AuditRepository;
+import io.github.joaovmundel.jocoTerrenos.repositories.SqlTerrenoRepository;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex.Area;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockbukkit.mockbukkit.MockBukkit;
+
+import java.io.File;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Teste de carga do TESTES.md: 100 mil terrenos de 20 blocos numa grade de 40 em 40 (316 por linha, 1.000 donos)
+ * e os orçamentos de latência do índice e da listagem. Fica fora do {@code mvn test}; roda com {@code mvn test -Pcarga}.
+ */
+@Tag("carga")
+class CargaTest {
+
+    private static final int TERRENOS = 100_000;
+    private static final int POR_LINHA = 316;
+    private static final int PASSO = 40;
+    private static final int TAMANHO = 20;
+    private static final String DONO_LISTADO = dono(0);
+
+    @TempDir
+    File pasta;
+
+    private static String dono(int i) {
+        return "00000000-0000-0000-0000-" + String.format("%012d", i % 1000);
+    }
+
+    private static TerrenoIndex indiceCheio() {
+        TerrenoIndex index = new TerrenoIndex();
+        for (int i = 0; i < TERRENOS; i++) {
+            index.put(new Area(i + 1, "world", dono(i), "carga" + i, (i % POR_LINHA) * PASSO, (i / POR_LINHA) * PASSO, TAMANHO, 0L));
+        }
+        index.marcarCarregado();
+        return index;
+    }
+
+    @Test
+    void consultaDePontoAbaixoDeUmDecimoDeMilissegundo() {
+        TerrenoIndex index = indiceCheio();
+        double extensao = POR_LINHA * PASSO;
+        SplittableRandom random = new SplittableRandom(1);
+        int encontrados = 0;
+        // Aquecimento do JIT
+        for (int i = 0; i < 200_000; i++) {
+            if (index.findAt("world", random.nextDouble(extensao), random.nextDouble(extensao)).isPresent()) encontrados++;
+        }
+
+        int consultas = 1_000_000;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < consultas; i++) {
+            if (index.findAt("world", random.nextDouble(extensao), random.nextDouble(extensao)).isPresent()) encontrados++;
+        }
+        double mediaNs = (System.nanoTime() - inicio) / (double) consultas;
+
+        assertTrue(encontrados > 0);
+        assertTrue(mediaNs < 100_000, "findAt levou em média " + mediaNs + " ns");
+    }
+
+    @Test
+    void sobreposicaoAbaixoDeUmMilissegundo() {
+        TerrenoIndex index = indiceCheio();
+        double extensao = POR_LINHA * PASSO;
+        SplittableRandom random = new SplittableRandom(2);
+        double meio = TAMANHO / 2.0;
+        int colisoes = 0;
+        for (int i = 0; i < 100_000; i++) {
+            double x = random.nextDouble(extensao), z = random.nextDouble(extensao);
+            if (index.existeSobreposicao("world", x - meio, x + meio, z - meio, z + meio, 3, 0)) colisoes++;
+        }
+
+        int consultas = 500_000;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < consultas; i++) {
+            double x = random.nextDouble(extensao), z = random.nextDouble(extensao);
+            if (index.existeSobreposicao("world", x - meio, x + meio, z - meio, z + meio, 3, 0)) colisoes++;
+        }
+        double mediaNs = (System.nanoTime() - inicio) / (double) consultas;
+
+        assertTrue(colisoes > 0);
+        assertTrue(mediaNs < 1_000_000, "existeSobreposicao levou em média " + mediaNs + " ns");
+    }
+
+    @ParameterizedTest
+    @EnumSource(BancoDeTeste.class)
+    void cargaDoIndiceEListagemDoDonoDentroDoOrcamento(BancoDeTeste banco) throws Exception {
+        MockBukkit.mock();
+        DatabaseManager databaseManager = banco.abrir(MockBukkit.createMockPlugin(), pasta);
+        Logger logger = Logger.getLogger("CargaTest");
+        // Sem uma linha de log por terreno listado
+        logger.setLevel(Level.WARNING);
+        AuditService auditoria = new AuditService(new AuditRepository(databaseManager, logger), 64, 16, 50);
+        try {
+            popular(databaseManager);
+            SqlTerrenoRepository repository = new SqlTerrenoRepository(databaseManager, logger);
+            TerrenoIndex index = new TerrenoIndex();
+            Settings settings = Settings.carregar(new YamlConfiguration(), new ArrayList<>());
+            TerrenoService service = new TerrenoService(repository, () -> settings, null, null,
+                    new TeleportCache(null, false, 2), index, new TrustService(repository, index), auditoria);
+
+            long inicio = System.nanoTime();
+            service.carregarIndiceAsync().join();
+            long cargaMs = (System.nanoTime() - inicio) / 1_000_000;
+            assertEquals(TERRENOS, index.tamanho());
+            assertTrue(cargaMs < 5_000, "carga do índice levou " + cargaMs + " ms");
+
+            // Primeira volta aquece as consultas; a segunda usa os cursores já conhecidos
+            int paginas = service.listarPaginaAsync(DONO_LISTADO, 1).join().totalPaginas();
+            for (int pagina = 1; pagina <= paginas; pagina++) {
+                service.listarPaginaAsync(DONO_LISTADO, pagina).join();
+            }
+            // Cada página fica com o melhor de três leituras, para uma pausa do GC não contar como latência
+            long piorMs = 0;
+            int listados = 0;
+            for (int pagina = 1; pagina <= paginas; pagina++) {
+                long melhorNs = Long.MAX_VALUE;
+                TerrenoService.Pagina resultado = null;
+                for (int leitura = 0; leitura < 3; leitura++) {
+                    long t0 = System.nanoTime();
+                    resultado = service.listarPaginaAsync(DONO_LISTADO, pagina).join();
+                    melhorNs = Math.min(melhorNs, System.nanoTime() - t0);
+                }
+                piorMs = Math.max(piorMs, melhorNs / 1_000_000);
+                listados += resultado.terrenos().size();
+            }
+            assertEquals(100, listados);
+            assertTrue(piorMs < 50, "pior página da listagem levou " + piorMs + " ms");
+        } finally {
+            auditoria.close();
+            databaseManager.close();
+            MockBukkit.unmock();
+        }
+    }
+
+    /**
+     * Mesmos dados do SQL do TESTES.md, num único lote
+     */
+    private static void popular(DatabaseManager databaseManager) throws Exception {
+        String sql = "INSERT INTO terrenos (dono_uuid, name, db_name_key, location, size) VALUES (?, ?, ?, ?, ?)";
+        databaseManager.inTransaction(uow -> {
+            PreparedStatement stmt = uow.prepare(sql);
+            for (int i = 0; i < TERRENOS; i++) {
+                String dono = dono(i);
+                stmt.setString(1, dono);
+                stmt.setString(2, "carga" + i);
+                stmt.setString(3, dono + "+carga" + i);
+                stmt.setString(4, "world:" + (i % POR_LINHA) * PASSO + ":64:" + (i / POR_LINHA) * PASSO);
+                stmt.setInt(5, TAMANHO);
+                stmt.addBatch();
+                if (i % 10_000 == 9_999) stmt.executeBatch();
+            }
+            stmt.executeBatch();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex.Area;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Buscas curtas (sem trigramas) e longas no {@link NameSearchIndex}.
+ */
+class NameSearchIndexTest {
+
+    private final NameSearchIndex index = new NameSearchIndex();
+
+    private void nomear(long id, String nome) {
+        index.aoAlterar(null, new Area(id, "world", "00000000-0000-0000-0000-000000000001", nome, 0, 0, 10, 0L));
+    }
+
+    private List<Long> ids(List<NameSearchIndex.Resultado> resultados) {
+        return resultados.stream().map(r -> r.area().id()).toList();
+    }
+
+    @Test
+    void textoCurtoEncontraSoNomesQueComecamComEle() {
+        nomear(1, "Casa");
+        nomear(2, "Ca");
+        nomear(3, "Minha casa");
+        nomear(4, "Cabana");
+
+        // Igual primeiro, depois em ordem alfabética; "Minha casa" só contém o texto
+        assertEquals(List.of(2L, 4L, 1L), ids(index.buscar("ca", 10)));
+        assertEquals(List.of(2L, 4L), ids(index.buscar("CA", 2)));
+    }
+
+    @Test
+    void textoCurtoAcompanhaRenomeacoes() {
+        Area casa = new Area(1, "world", "00000000-0000-0000-0000-000000000001", "Casa", 0, 0, 10, 0L);
+        index.aoAlterar(null, casa);
+        index.aoAlterar(casa, casa.comNome("Fazenda"));
+
+        assertEquals(List.of(), index.buscar("ca", 10));
+        assertEquals(List.of(1L), ids(index.buscar("fa", 10)));
+    }
+
+    @Test
+    void textoLongoUsaTrigramas() {
+        nomear(1, "Casa");
+        nomear(2, "Minha casa");
+        nomear(3, "Fazenda");
+
+        assertEquals(List.of(1L, 2L), ids(index.buscar("cas", 10)));
+    }
+}
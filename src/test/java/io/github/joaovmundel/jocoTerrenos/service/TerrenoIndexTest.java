@@ -0,0 +1,170 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.models.Terreno;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex.Area;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex.Centro;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Consultas espaciais e trocas atômicas do {@link TerrenoIndex}.
+ */
+class TerrenoIndexTest {
+
+    private static final String MUNDO = "world";
+    private static final String DONO = "00000000-0000-0000-0000-000000000001";
+
+    private final TerrenoIndex index = new TerrenoIndex();
+
+    private static Area area(long id, double x, double z, int tamanho) {
+        return new Area(id, MUNDO, DONO, "t" + id, x, z, tamanho, 0L);
+    }
+
+    @Test
+    void findAtIncluiAsBordas() {
+        index.put(area(1, 100, 100, 10));
+
+        assertEquals(1L, index.findAt(MUNDO, 100, 100).orElseThrow().id());
+        assertTrue(index.findAt(MUNDO, 95, 95).isPresent());
+        assertTrue(index.findAt(MUNDO, 105, 105).isPresent());
+        assertTrue(index.findAt(MUNDO, 105.01, 100).isEmpty());
+        assertTrue(index.findAt(MUNDO, 100, 94.99).isEmpty());
+        assertTrue(index.findAt("world_nether", 100, 100).isEmpty());
+    }
+
+    @Test
+    void findAtEmCelulasNegativas() {
+        index.put(area(1, -70, -70, 20));
+
+        assertTrue(index.findAt(MUNDO, -61, -79).isPresent());
+        assertTrue(index.findAt(MUNDO, -59, -70).isEmpty());
+    }
+
+    @Test
+    void bufferPermiteExatamenteADistancia() {
+        // Limites em X: 95 a 105
+        index.put(area(1, 100, 100, 10));
+
+        assertFalse(index.existeSobreposicao(MUNDO, 108, 118, 95, 105, 3, 0));
+        assertTrue(index.existeSobreposicao(MUNDO, 107.5, 117.5, 95, 105, 3, 0));
+        assertFalse(index.existeSobreposicao(MUNDO, 107.5, 117.5, 95, 105, 3, 1));
+        assertFalse(index.existeSobreposicao(MUNDO, 105.5, 115.5, 95, 105, 0, 0));
+    }
+
+    @Test
+    void reservaBloqueiaAAreaAteSerConfirmada() {
+        long reserva = index.reservarSeLivre(MUNDO, 0, 0, 10, DONO, "casa", 3).orElseThrow();
+        assertTrue(reserva < 0);
+        assertTrue(index.reservarSeLivre(MUNDO, 8, 0, 10, DONO, "outra", 3).isEmpty());
+        // Reservas não aparecem em consultas de ponto
+        assertTrue(index.findAt(MUNDO, 0, 0).isEmpty());
+
+        Terreno terreno = new Terreno();
+        terreno.setId(42L);
+        index.confirmarReserva(reserva, terreno);
+
+        assertTrue(index.get(reserva).isEmpty());
+        assertEquals(42L, index.findAt(MUNDO, 0, 0).orElseThrow().id());
+        assertTrue(index.reservarSeLivre(MUNDO, 8, 0, 10, DONO, "outra", 3).isEmpty());
+        assertTrue(index.reservarSeLivre(MUNDO, 13, 0, 10, DONO, "outra", 3).isPresent());
+    }
+
+    @Test
+    void reservasConcorrentesNoMesmoLugarSoUmaVence() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int rodada = 0; rodada < 50; rodada++) {
+                double x = rodada * 1000;
+                CountDownLatch largada = new CountDownLatch(1);
+                List<Future<Optional<Long>>> resultados = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    double deslocamento = i;
+                    resultados.add(executor.submit(() -> {
+                        largada.await();
+                        return index.reservarSeLivre(MUNDO, x + deslocamento, 0, 20, DONO, "t", 3);
+                    }));
+                }
+                largada.countDown();
+                int vencedores = 0;
+                for (Future<Optional<Long>> resultado : resultados) {
+                    if (resultado.get().isPresent()) vencedores++;
+                }
+                assertEquals(1, vencedores, "rodada " + rodada);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void substituirSeLivreNaoInvadeOVizinho() {
+        index.put(area(1, 0, 0, 10));
+        index.put(area(2, 20, 0, 10));
+
+        assertFalse(index.substituirSeLivre(area(1, 0, 0, 26), 3));
+        assertEquals(10, index.get(1).orElseThrow().size());
+        assertTrue(index.findAt(MUNDO, -8, 0).isEmpty());
+
+        assertTrue(index.substituirSeLivre(area(1, 0, 0, 14), 3));
+        assertEquals(14, index.get(1).orElseThrow().size());
+        assertTrue(index.findAt(MUNDO, -7, 0).isPresent());
+    }
+
+    @Test
+    void atualizarPartindoDaAreaAtualPreservaRedimensionamento() {
+        Area original = area(1, 0, 0, 10);
+        index.put(original);
+        List<Area[]> alteracoes = new ArrayList<>();
+        index.adicionarObservador((anterior, nova) -> alteracoes.add(new Area[]{anterior, nova}));
+
+        // Redimensionamento concluído enquanto um renomear ainda segurava a área antiga
+        assertTrue(index.substituirSeLivre(original.comTamanho(30), 0));
+        assertTrue(index.atualizar(1, a -> a.comNome("sitio")));
+
+        Area atual = index.get(1).orElseThrow();
+        assertEquals(30, atual.size());
+        assertEquals("sitio", atual.name());
+        assertTrue(index.findAt(MUNDO, 14, 14).isPresent());
+        assertEquals(2, alteracoes.size());
+        assertEquals(30, alteracoes.get(1)[0].size());
+        assertFalse(index.atualizar(99, a -> a.comNome("x")));
+    }
+
+    @Test
+    void centroSugeridoEstaLivre() {
+        // Grade 5x5 de terrenos de 20 a cada 24 blocos: nenhum centro livre dentro dela com buffer 3
+        long id = 1;
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                index.put(area(id++, i * 24, j * 24, 20));
+            }
+        }
+        int tamanho = 15;
+        int buffer = 3;
+        Centro centro = index.buscarCentroLivre(MUNDO, 48, 48, tamanho, buffer, 512).orElseThrow();
+        double meio = tamanho / 2.0;
+        assertFalse(index.existeSobreposicao(MUNDO, centro.x() - meio, centro.x() + meio,
+                centro.z() - meio, centro.z() + meio, buffer, 0));
+        // Fora da grade (a grade vai de -10 a 106)
+        assertTrue(centro.x() < -10 || centro.x() > 106 || centro.z() < -10 || centro.z() > 106);
+
+        // Origem livre: o próprio bloco de partida
+        Centro livre = index.buscarCentroLivre(MUNDO, 500.2, 500.7, tamanho, buffer, 512).orElseThrow();
+        assertEquals(500.5, livre.x());
+        assertEquals(500.5, livre.z());
+
+        assertTrue(index.buscarCentroLivre(MUNDO, 48, 48, tamanho, buffer, 10).isEmpty());
+    }
+}
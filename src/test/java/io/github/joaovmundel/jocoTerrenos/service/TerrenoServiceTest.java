@@ -0,0 +1,117 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.database.BancoDeTeste;
+import io.github.joaovmundel.jocoTerrenos.database.DatabaseManager;
+import io.github.joaovmundel.jocoTerrenos.infrastructure.Settings;
+import io.github.joaovmundel.jocoTerrenos.models.Terreno;
+import io.github.joaovmundel.jocoTerrenos.repositories.AuditRepository;
+import io.github.joaovmundel.jocoTerrenos.repositories.SqlTerrenoRepository;
+import io.github.joaovmundel.jocoTerrenos.repositories.UpdateResult;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex.Area;
+import io.github.joaovmundel.jocoTerrenos.service.TerrenoIndex.Centro;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockbukkit.mockbukkit.MockBukkit;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Disponibilidade de área, sugestão de centro e atualização do índice pelo {@link TerrenoService},
+ * com o repositório no SQLite. Economia e mensagens não são usadas nestes caminhos.
+ */
+class TerrenoServiceTest {
+
+    private static final String DONO = "00000000-0000-0000-0000-000000000001";
+
+    @TempDir
+    File pasta;
+
+    private World world;
+    private DatabaseManager databaseManager;
+    private SqlTerrenoRepository repository;
+    private TerrenoIndex index;
+    private AuditService auditoria;
+    private TerrenoService service;
+
+    @BeforeEach
+    void iniciar() {
+        world = MockBukkit.mock().addSimpleWorld("world");
+        databaseManager = BancoDeTeste.SQLITE.abrir(MockBukkit.createMockPlugin(), pasta);
+        Logger logger = Logger.getLogger("TerrenoServiceTest");
+        repository = new SqlTerrenoRepository(databaseManager, logger);
+        index = new TerrenoIndex();
+        index.marcarCarregado();
+        auditoria = new AuditService(new AuditRepository(databaseManager, logger), 64, 16, 50);
+        Settings settings = Settings.carregar(new YamlConfiguration(), new ArrayList<>());
+        service = new TerrenoService(repository, () -> settings, null, null, new TeleportCache(null, false, 2),
+                index, new TrustService(repository, index), auditoria);
+    }
+
+    @AfterEach
+    void fechar() {
+        auditoria.close();
+        databaseManager.close();
+        MockBukkit.unmock();
+    }
+
+    private Terreno criar(String nome, int x, int z, int tamanho) {
+        Terreno terreno = new Terreno();
+        terreno.setDonoUUID(DONO);
+        terreno.setName(nome);
+        terreno.setLocation("world:" + x + ":64:" + z);
+        terreno.setSize(tamanho);
+        Terreno criado = repository.createWithOwner(terreno).orElseThrow();
+        index.put(criado);
+        return criado;
+    }
+
+    @Test
+    void areaDisponivelRespeitaOEspacamento() {
+        // Limites em X: 95 a 105
+        criar("casa", 100, 100, 10);
+        int buffer = service.getEspacoEntreTerrenos();
+
+        assertFalse(service.isAreaDisponivel(new Location(world, 100, 64, 100), 10, buffer));
+        assertTrue(service.isAreaDisponivel(new Location(world, 113, 64, 100), 10, buffer));
+        assertFalse(service.isAreaDisponivel(new Location(world, 112.5, 64, 100), 10, buffer));
+        assertTrue(service.isAreaDisponivelAsync(new Location(world, 113, 64, 100), 10, buffer).join());
+        assertFalse(service.isAreaDisponivel(new Location(null, 0, 64, 0), 10, buffer));
+    }
+
+    @Test
+    void centroSugeridoNaoColide() {
+        for (int i = 0; i < 4; i++) {
+            criar("t" + i, i * 25, 0, 20);
+        }
+        int tamanho = 20;
+        Centro centro = service.sugerirCentroAsync(new Location(world, 37, 64, 0), tamanho).join().orElseThrow();
+
+        Location sugerido = new Location(world, centro.x(), 64, centro.z());
+        assertTrue(service.isAreaDisponivel(sugerido, tamanho, service.getEspacoEntreTerrenos()));
+    }
+
+    @Test
+    void renomearDepoisDeRedimensionarMantemOTamanhoNoIndice() {
+        Terreno casa = criar("casa", 0, 0, 10);
+        Area atual = index.get(casa.getId()).orElseThrow();
+        assertTrue(index.substituirSeLivre(atual.comTamanho(30), service.getEspacoEntreTerrenos()));
+
+        assertEquals(UpdateResult.UPDATED, service.renomearTerrenoAsync(DONO, "casa", "sitio").join());
+
+        Area renomeada = index.get(casa.getId()).orElseThrow();
+        assertEquals("sitio", renomeada.name());
+        assertEquals(30, renomeada.size());
+        assertTrue(index.findAt("world", 14, 14).isPresent());
+    }
+}
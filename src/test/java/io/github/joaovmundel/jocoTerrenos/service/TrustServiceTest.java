@@ -0,0 +1,75 @@
+package io.github.joaovmundel.jocoTerrenos.service;
+
+import io.github.joaovmundel.jocoTerrenos.repositories.SqlTerrenoRepository;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockbukkit.mockbukkit.MockBukkit;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Carga das permissões do jogador no {@link TrustService} com mudanças de membros e saída no meio da leitura.
+ */
+class TrustServiceTest {
+
+    private final CompletableFuture<List<Long>> banco = new CompletableFuture<>();
+    private TrustService trustService;
+    private Player player;
+
+    @BeforeEach
+    void iniciar() {
+        player = MockBukkit.mock().addPlayer();
+        // Leitura do banco que só termina quando o teste libera
+        SqlTerrenoRepository repository = new SqlTerrenoRepository(null, Logger.getLogger("TrustServiceTest")) {
+            @Override
+            public List<Long> findTerrenoIdsByMember(String memberUUID) {
+                return banco.join();
+            }
+        };
+        trustService = new TrustService(repository, new TerrenoIndex());
+    }
+
+    @AfterEach
+    void fechar() {
+        banco.complete(List.of());
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void alteracoesDuranteACargaSaoReaplicadas() {
+        CompletableFuture<Void> carga = trustService.carregarAsync(player.getUniqueId());
+        trustService.adicionar(Set.of(player.getUniqueId()), 7);
+        trustService.remover(Set.of(player.getUniqueId()), 3);
+        // Já vale antes da leitura terminar
+        assertTrue(trustService.confia(player, 7));
+
+        // A leitura começou antes da remoção e ainda traz o terreno 3
+        banco.complete(List.of(3L, 5L));
+        carga.join();
+
+        assertTrue(trustService.confia(player, 5));
+        assertTrue(trustService.confia(player, 7));
+        assertFalse(trustService.confia(player, 3));
+    }
+
+    @Test
+    void saidaDuranteACargaNaoRessuscitaAEntrada() {
+        CompletableFuture<Void> carga = trustService.carregarAsync(player.getUniqueId());
+        trustService.descarregar(player.getUniqueId());
+
+        banco.complete(List.of(5L));
+        carga.join();
+
+        assertFalse(trustService.confia(player, 5));
+        trustService.adicionar(Set.of(player.getUniqueId()), 7);
+        assertFalse(trustService.confia(player, 7));
+    }
+}